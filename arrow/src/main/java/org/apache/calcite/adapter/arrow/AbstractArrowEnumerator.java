@@ -57,8 +57,11 @@ protected void loadNextArrowBatch() {
       }
       this.rowCount = vsr.getRowCount();
       VectorUnloader vectorUnloader = new VectorUnloader(vsr);
-      ArrowRecordBatch arrowRecordBatch = vectorUnloader.getRecordBatch();
-      evaluateOperator(arrowRecordBatch);
+      // The record batch shares the buffers of the vectors, which are reused
+      // for every batch; closing it releases only its own references.
+      try (ArrowRecordBatch arrowRecordBatch = vectorUnloader.getRecordBatch()) {
+        evaluateOperator(arrowRecordBatch);
+      }
     } catch (IOException e) {
       throw Util.toUnchecked(e);
     }
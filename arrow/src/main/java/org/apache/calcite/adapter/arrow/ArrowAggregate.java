@@ -0,0 +1,163 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.calcite.adapter.arrow;
+
+import org.apache.calcite.adapter.enumerable.EnumerableRel;
+import org.apache.calcite.adapter.enumerable.EnumerableRelImplementor;
+import org.apache.calcite.adapter.enumerable.PhysType;
+import org.apache.calcite.adapter.enumerable.PhysTypeImpl;
+import org.apache.calcite.linq4j.tree.Blocks;
+import org.apache.calcite.linq4j.tree.Expressions;
+import org.apache.calcite.plan.RelOptCluster;
+import org.apache.calcite.plan.RelOptCost;
+import org.apache.calcite.plan.RelOptPlanner;
+import org.apache.calcite.plan.RelOptTable;
+import org.apache.calcite.plan.RelTraitSet;
+import org.apache.calcite.rel.RelNode;
+import org.apache.calcite.rel.core.Aggregate;
+import org.apache.calcite.rel.core.AggregateCall;
+import org.apache.calcite.rel.metadata.RelMetadataQuery;
+import org.apache.calcite.rel.type.RelDataType;
+import org.apache.calcite.sql.SqlKind;
+import org.apache.calcite.sql.type.SqlTypeName;
+import org.apache.calcite.util.ImmutableBitSet;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Implementation of an {@link org.apache.calcite.rel.core.Aggregate} without
+ * GROUP BY over a tree of {@link ArrowRel} nodes.
+ *
+ * <p>The aggregate functions are computed directly on the Arrow
+ * value-vectors of each record batch, and only the single result row is
+ * converted to the Enumerable convention; so this relational expression, like
+ * {@link ArrowToEnumerableConverter}, is the boundary between the two
+ * conventions.
+ */
+class ArrowAggregate extends Aggregate implements EnumerableRel {
+  private static final ImmutableSet<SqlKind> KINDS =
+      ImmutableSet.of(SqlKind.COUNT, SqlKind.SUM, SqlKind.SUM0, SqlKind.MIN,
+          SqlKind.MAX);
+
+  private static final ImmutableSet<SqlTypeName> TYPES =
+      ImmutableSet.of(SqlTypeName.TINYINT, SqlTypeName.SMALLINT,
+          SqlTypeName.INTEGER, SqlTypeName.BIGINT, SqlTypeName.REAL,
+          SqlTypeName.DOUBLE);
+
+  /** Creates an ArrowAggregate. */
+  ArrowAggregate(RelOptCluster cluster, RelTraitSet traitSet, RelNode input,
+      ImmutableBitSet groupSet, @Nullable List<ImmutableBitSet> groupSets,
+      List<AggregateCall> aggCalls) {
+    super(cluster, traitSet, ImmutableList.of(), input, groupSet, groupSets,
+        aggCalls);
+    assert input.getConvention() == ArrowRel.CONVENTION;
+  }
+
+  /** Returns whether an aggregate can be computed on Arrow value-vectors:
+   * it has no GROUP BY, and each call is a {@code COUNT}, or a {@code SUM},
+   * {@code $SUM0}, {@code MIN} or {@code MAX} of a numeric field whose result
+   * has the type of the field. */
+  static boolean isSupported(Aggregate aggregate) {
+    if (!aggregate.getGroupSet().isEmpty()
+        || aggregate.getGroupType() != Group.SIMPLE) {
+      return false;
+    }
+    final RelDataType inputRowType = aggregate.getInput().getRowType();
+    for (AggregateCall call : aggregate.getAggCallList()) {
+      final SqlKind kind = call.getAggregation().getKind();
+      if (!KINDS.contains(kind)
+          || call.isDistinct()
+          || call.hasFilter()
+          || call.getArgList().size() > 1
+          || !call.getCollation().getFieldCollations().isEmpty()) {
+        return false;
+      }
+      if (kind == SqlKind.COUNT) {
+        continue;
+      }
+      if (call.getArgList().size() != 1) {
+        return false;
+      }
+      final SqlTypeName typeName =
+          inputRowType.getFieldList().get(call.getArgList().get(0)).getType()
+              .getSqlTypeName();
+      if (!TYPES.contains(typeName)
+          || call.getType().getSqlTypeName() != typeName) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  @Override public Aggregate copy(RelTraitSet traitSet, RelNode input,
+      ImmutableBitSet groupSet, @Nullable List<ImmutableBitSet> groupSets,
+      List<AggregateCall> aggCalls) {
+    return new ArrowAggregate(getCluster(), traitSet, input, groupSet,
+        groupSets, aggCalls);
+  }
+
+  @Override public @Nullable RelOptCost computeSelfCost(RelOptPlanner planner,
+      RelMetadataQuery mq) {
+    final RelOptCost cost = super.computeSelfCost(planner, mq);
+    return requireNonNull(cost, "cost").multiplyBy(0.1);
+  }
+
+  @Override public Result implement(EnumerableRelImplementor implementor,
+      Prefer pref) {
+    final ArrowRel.Implementor arrowImplementor = new ArrowRel.Implementor();
+    arrowImplementor.visitInput(0, getInput());
+    final PhysType physType =
+        PhysTypeImpl.of(implementor.getTypeFactory(), getRowType(),
+            pref.preferArray());
+
+    final RelOptTable table = requireNonNull(arrowImplementor.table, "table");
+    return implementor.result(physType,
+        Blocks.toBlock(
+            Expressions.call(table.getExpression(ArrowTable.class),
+                ArrowMethod.ARROW_AGGREGATE.method,
+                implementor.getRootExpression(),
+                ArrowToEnumerableConverter.fields(arrowImplementor, table),
+                Expressions.constant(arrowImplementor.whereClause),
+                Expressions.constant(aggregates()))));
+  }
+
+  /** Returns a description of each aggregate call, in the form expected by
+   * {@link ArrowTable#aggregate}. */
+  private List<String> aggregates() {
+    final RelDataType inputRowType = getInput().getRowType();
+    final List<String> aggregates = new ArrayList<>();
+    for (AggregateCall call : aggCalls) {
+      final int arg =
+          call.getArgList().isEmpty() ? -1 : call.getArgList().get(0);
+      final RelDataType type =
+          arg < 0
+              ? call.getType()
+              : inputRowType.getFieldList().get(arg).getType();
+      aggregates.add(call.getAggregation().getKind() + " " + arg + " "
+          + type.getSqlTypeName());
+    }
+    return aggregates;
+  }
+}
@@ -0,0 +1,336 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.calcite.adapter.arrow;
+
+import org.apache.calcite.linq4j.AbstractEnumerable;
+import org.apache.calcite.linq4j.Enumerator;
+import org.apache.calcite.linq4j.Linq4j;
+import org.apache.calcite.sql.SqlKind;
+import org.apache.calcite.sql.type.SqlTypeName;
+import org.apache.calcite.util.ImmutableIntList;
+import org.apache.calcite.util.Util;
+
+import org.apache.arrow.gandiva.evaluator.Filter;
+import org.apache.arrow.gandiva.evaluator.SelectionVector;
+import org.apache.arrow.gandiva.evaluator.SelectionVectorInt16;
+import org.apache.arrow.gandiva.exceptions.GandivaException;
+import org.apache.arrow.memory.ArrowBuf;
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.memory.RootAllocator;
+import org.apache.arrow.vector.BaseIntVector;
+import org.apache.arrow.vector.FloatingPointVector;
+import org.apache.arrow.vector.ValueVector;
+import org.apache.arrow.vector.VectorSchemaRoot;
+import org.apache.arrow.vector.VectorUnloader;
+import org.apache.arrow.vector.ipc.ArrowFileReader;
+import org.apache.arrow.vector.ipc.message.ArrowBlock;
+import org.apache.arrow.vector.ipc.message.ArrowRecordBatch;
+
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Enumerable that computes aggregate functions over Arrow value-vectors and
+ * returns a single row.
+ *
+ * <p>Values are read through the primitive accessors of each vector, so no
+ * object is allocated per row or per value. The vectors of the reader's
+ * {@link VectorSchemaRoot}, and the buffer that holds the rows selected by the
+ * filter, are reused for every record batch.
+ */
+class ArrowAggregateEnumerable extends AbstractEnumerable<Object> {
+  private final ArrowFileReader arrowFileReader;
+  private final ImmutableIntList fields;
+  private final @Nullable Filter filter;
+  private final List<String> aggregates;
+  private final @Nullable ArrowParallelScan parallelScan;
+
+  /** Creates an ArrowAggregateEnumerable.
+   *
+   * <p>If {@code parallelScan} is not null, each of its threads aggregates a
+   * range of record batches, and the partial results are then merged;
+   * {@code arrowFileReader} and {@code filter} are not used. */
+  ArrowAggregateEnumerable(ArrowFileReader arrowFileReader,
+      ImmutableIntList fields, @Nullable Filter filter,
+      List<String> aggregates, @Nullable ArrowParallelScan parallelScan) {
+    this.arrowFileReader = arrowFileReader;
+    this.fields = fields;
+    this.filter = filter;
+    this.aggregates = aggregates;
+    this.parallelScan = parallelScan;
+  }
+
+  @Override public Enumerator<Object> enumerator() {
+    final List<Accumulator> accumulators;
+    if (parallelScan != null) {
+      final List<List<Accumulator>> partials =
+          parallelScan.scanRanges(this::accumulators, (partial, reader) -> {
+            for (Accumulator accumulator : partial) {
+              accumulator.add(reader.root(), reader.rowCount(),
+                  reader.selectionVector());
+            }
+          });
+      if (partials == null) {
+        // The statement was cancelled; the partial results are incomplete
+        return Linq4j.emptyEnumerator();
+      }
+      accumulators = partials.get(0);
+      for (List<Accumulator> partial : partials.subList(1, partials.size())) {
+        for (int i = 0; i < accumulators.size(); i++) {
+          accumulators.get(i).merge(partial.get(i));
+        }
+      }
+    } else {
+      accumulators = accumulators();
+      try {
+        aggregate(accumulators);
+      } catch (IOException | GandivaException e) {
+        throw Util.toUnchecked(e);
+      } finally {
+        closeFilter();
+      }
+    }
+    if (accumulators.size() == 1) {
+      return Linq4j.singletonEnumerator(accumulators.get(0).result());
+    }
+    final @Nullable Object[] row = new Object[accumulators.size()];
+    for (int i = 0; i < row.length; i++) {
+      row[i] = accumulators.get(i).result();
+    }
+    return Linq4j.singletonEnumerator(row);
+  }
+
+  private List<Accumulator> accumulators() {
+    final List<Accumulator> accumulators = new ArrayList<>();
+    for (String aggregate : aggregates) {
+      accumulators.add(new Accumulator(aggregate));
+    }
+    return accumulators;
+  }
+
+  private void aggregate(List<Accumulator> accumulators)
+      throws IOException, GandivaException {
+    final VectorSchemaRoot root = arrowFileReader.getVectorSchemaRoot();
+    try (BufferAllocator allocator = new RootAllocator(Long.MAX_VALUE)) {
+      @Nullable ArrowBuf buf = null;
+      try {
+        for (ArrowBlock block : arrowFileReader.getRecordBlocks()) {
+          if (!arrowFileReader.loadRecordBatch(block)) {
+            break;
+          }
+          final int rowCount = root.getRowCount();
+          @Nullable SelectionVector selectionVector = null;
+          if (filter != null) {
+            final long size = (long) rowCount * 2;
+            if (buf == null || buf.capacity() < size) {
+              if (buf != null) {
+                buf.close();
+              }
+              buf = allocator.buffer(size);
+            }
+            selectionVector = new SelectionVectorInt16(buf);
+            try (ArrowRecordBatch recordBatch =
+                     new VectorUnloader(root).getRecordBatch()) {
+              filter.evaluate(recordBatch, selectionVector);
+            }
+          }
+          for (Accumulator accumulator : accumulators) {
+            accumulator.add(root, rowCount, selectionVector);
+          }
+        }
+      } finally {
+        if (buf != null) {
+          buf.close();
+        }
+      }
+    }
+  }
+
+  private void closeFilter() {
+    if (filter != null) {
+      try {
+        filter.close();
+      } catch (GandivaException e) {
+        throw Util.toUnchecked(e);
+      }
+    }
+  }
+
+  /** State of one aggregate function. */
+  private class Accumulator {
+    final SqlKind kind;
+    /** Ordinal of the argument in {@link #fields}, or -1 for
+     * {@code COUNT(*)}. */
+    final int ordinal;
+    final SqlTypeName typeName;
+    /** Number of non-null values added. */
+    long count;
+    long longValue;
+    double doubleValue;
+
+    Accumulator(String aggregate) {
+      final String[] parts = aggregate.split(" ");
+      this.kind = SqlKind.valueOf(parts[0]);
+      this.ordinal = Integer.parseInt(parts[1]);
+      this.typeName = SqlTypeName.valueOf(parts[2]);
+    }
+
+    void add(VectorSchemaRoot root, int rowCount,
+        @Nullable SelectionVector selectionVector) {
+      final int n =
+          selectionVector == null ? rowCount : selectionVector.getRecordCount();
+      if (ordinal < 0) {
+        count += n;
+        return;
+      }
+      final ValueVector vector = root.getVector(fields.get(ordinal));
+      if (kind == SqlKind.COUNT) {
+        for (int i = 0; i < n; i++) {
+          final int row =
+              selectionVector == null ? i : selectionVector.getIndex(i);
+          if (!vector.isNull(row)) {
+            ++count;
+          }
+        }
+      } else if (vector instanceof BaseIntVector) {
+        final BaseIntVector intVector = (BaseIntVector) vector;
+        for (int i = 0; i < n; i++) {
+          final int row =
+              selectionVector == null ? i : selectionVector.getIndex(i);
+          if (!intVector.isNull(row)) {
+            addLong(intVector.getValueAsLong(row));
+          }
+        }
+      } else {
+        final FloatingPointVector floatVector = (FloatingPointVector) vector;
+        for (int i = 0; i < n; i++) {
+          final int row =
+              selectionVector == null ? i : selectionVector.getIndex(i);
+          if (!floatVector.isNull(row)) {
+            addDouble(floatVector.getValueAsDouble(row));
+          }
+        }
+      }
+    }
+
+    private void addLong(long v) {
+      switch (kind) {
+      case MIN:
+        if (count == 0 || v < longValue) {
+          longValue = v;
+        }
+        break;
+      case MAX:
+        if (count == 0 || v > longValue) {
+          longValue = v;
+        }
+        break;
+      default:
+        longValue += v;
+      }
+      ++count;
+    }
+
+    private void addDouble(double v) {
+      switch (kind) {
+      case MIN:
+        if (count == 0 || v < doubleValue) {
+          doubleValue = v;
+        }
+        break;
+      case MAX:
+        if (count == 0 || v > doubleValue) {
+          doubleValue = v;
+        }
+        break;
+      default:
+        doubleValue += v;
+        if (typeName == SqlTypeName.REAL) {
+          // Round after each addition, as a sum of REAL values would
+          doubleValue = (float) doubleValue;
+        }
+      }
+      ++count;
+    }
+
+    /** Adds the values added to another accumulator for the same
+     * aggregate function. */
+    void merge(Accumulator other) {
+      if (other.count == 0) {
+        return;
+      }
+      // Only one of longValue and doubleValue is in use, depending on the
+      // type, as in "add"; comparing the other would compare zeros
+      final boolean approx = SqlTypeName.APPROX_TYPES.contains(typeName);
+      switch (kind) {
+      case MIN:
+        if (count == 0
+            || (approx
+                ? other.doubleValue < doubleValue
+                : other.longValue < longValue)) {
+          longValue = other.longValue;
+          doubleValue = other.doubleValue;
+        }
+        break;
+      case MAX:
+        if (count == 0
+            || (approx
+                ? other.doubleValue > doubleValue
+                : other.longValue > longValue)) {
+          longValue = other.longValue;
+          doubleValue = other.doubleValue;
+        }
+        break;
+      default:
+        longValue += other.longValue;
+        doubleValue += other.doubleValue;
+        if (typeName == SqlTypeName.REAL) {
+          doubleValue = (float) doubleValue;
+        }
+      }
+      count += other.count;
+    }
+
+    @Nullable Object result() {
+      if (kind == SqlKind.COUNT) {
+        return count;
+      }
+      if (count == 0 && kind != SqlKind.SUM0) {
+        return null;
+      }
+      switch (typeName) {
+      case TINYINT:
+        return (byte) longValue;
+      case SMALLINT:
+        return (short) longValue;
+      case INTEGER:
+        return (int) longValue;
+      case BIGINT:
+        return longValue;
+      case REAL:
+        return (float) doubleValue;
+      case DOUBLE:
+        return doubleValue;
+      default:
+        throw new AssertionError("unexpected type " + typeName);
+      }
+    }
+  }
+}
@@ -0,0 +1,160 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.calcite.adapter.arrow;
+
+import org.apache.calcite.util.Util;
+
+import org.apache.arrow.gandiva.evaluator.Filter;
+import org.apache.arrow.gandiva.evaluator.SelectionVector;
+import org.apache.arrow.gandiva.evaluator.SelectionVectorInt16;
+import org.apache.arrow.gandiva.exceptions.GandivaException;
+import org.apache.arrow.memory.ArrowBuf;
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.memory.RootAllocator;
+import org.apache.arrow.vector.VectorSchemaRoot;
+import org.apache.arrow.vector.VectorUnloader;
+import org.apache.arrow.vector.ipc.ArrowFileReader;
+import org.apache.arrow.vector.ipc.SeekableReadChannel;
+import org.apache.arrow.vector.ipc.message.ArrowBlock;
+import org.apache.arrow.vector.ipc.message.ArrowRecordBatch;
+
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Reads record batches of an Arrow file by block, for one thread of a
+ * parallel scan.
+ *
+ * <p>An {@link ArrowFileReader} loads every batch into the same vectors, so
+ * threads cannot share one. Each ArrowBatchReader has its own file channel,
+ * allocator, vectors and Gandiva filter, and reuses them for each batch it
+ * loads.
+ */
+class ArrowBatchReader implements AutoCloseable {
+  private final BufferAllocator allocator;
+  private final ArrowFileReader reader;
+  private final @Nullable Filter filter;
+  private @Nullable ArrowBuf buf;
+  private @Nullable SelectionVector selectionVector;
+  private int rowCount;
+
+  /** Creates an ArrowBatchReader.
+   *
+   * @param file          Arrow file
+   * @param filterFactory Creates the filter that selects rows, or null if all
+   *                      rows are selected
+   */
+  ArrowBatchReader(File file, @Nullable Supplier<Filter> filterFactory) {
+    this.allocator = new RootAllocator(Long.MAX_VALUE);
+    try {
+      this.reader =
+          new ArrowFileReader(
+              new SeekableReadChannel(new FileInputStream(file).getChannel()),
+              allocator);
+    } catch (IOException e) {
+      allocator.close();
+      throw Util.toUnchecked(e);
+    }
+    this.filter = filterFactory == null ? null : filterFactory.get();
+  }
+
+  /** Returns the blocks of an Arrow file, read from its footer; each block
+   * holds one record batch, and is the unit of a parallel scan. */
+  static List<ArrowBlock> blocks(ArrowFileReader reader) {
+    try {
+      return reader.getRecordBlocks();
+    } catch (IOException e) {
+      throw Util.toUnchecked(e);
+    }
+  }
+
+  /** Returns the blocks of the file. */
+  List<ArrowBlock> blocks() {
+    return blocks(reader);
+  }
+
+  /** Loads the record batch in a block, evaluates the filter over it, and
+   * returns the number of rows selected. */
+  int load(ArrowBlock block) {
+    try {
+      final VectorSchemaRoot root = reader.getVectorSchemaRoot();
+      reader.loadRecordBatch(block);
+      rowCount = root.getRowCount();
+      if (filter == null) {
+        return rowCount;
+      }
+      final long size = (long) rowCount * 2;
+      if (buf == null || buf.capacity() < size) {
+        if (buf != null) {
+          buf.close();
+        }
+        buf = allocator.buffer(size);
+      }
+      final SelectionVector selectionVector = new SelectionVectorInt16(buf);
+      try (ArrowRecordBatch recordBatch =
+               new VectorUnloader(root).getRecordBatch()) {
+        filter.evaluate(recordBatch, selectionVector);
+      }
+      this.selectionVector = selectionVector;
+      return selectionVector.getRecordCount();
+    } catch (IOException | GandivaException e) {
+      throw Util.toUnchecked(e);
+    }
+  }
+
+  /** Returns the vectors of the batch most recently loaded. */
+  VectorSchemaRoot root() {
+    try {
+      return reader.getVectorSchemaRoot();
+    } catch (IOException e) {
+      throw Util.toUnchecked(e);
+    }
+  }
+
+  /** Returns the number of rows in the batch most recently loaded, before
+   * filtering. */
+  int rowCount() {
+    return rowCount;
+  }
+
+  /** Returns the rows selected by the filter in the batch most recently
+   * loaded, or null if all rows are selected. */
+  @Nullable SelectionVector selectionVector() {
+    return filter == null ? null : selectionVector;
+  }
+
+  @Override public void close() {
+    try {
+      if (filter != null) {
+        filter.close();
+      }
+      if (buf != null) {
+        buf.close();
+      }
+      reader.close();
+    } catch (IOException | GandivaException e) {
+      throw Util.toUnchecked(e);
+    } finally {
+      allocator.close();
+    }
+  }
+}
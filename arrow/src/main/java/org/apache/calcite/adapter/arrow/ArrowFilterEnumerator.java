@@ -53,7 +53,14 @@ class ArrowFilterEnumerator extends AbstractArrowEnumerator {
 
   @Override void evaluateOperator(ArrowRecordBatch arrowRecordBatch) {
     try {
-      this.buf = this.allocator.buffer((long) rowCount * 2);
+      // Reuse the buffer of the previous batch if it is large enough
+      final long size = (long) rowCount * 2;
+      if (buf == null || buf.capacity() < size) {
+        if (buf != null) {
+          buf.close();
+        }
+        this.buf = this.allocator.buffer(size);
+      }
       this.selectionVector = new SelectionVectorInt16(buf);
       filter.evaluate(arrowRecordBatch, selectionVector);
     } catch (GandivaException e) {
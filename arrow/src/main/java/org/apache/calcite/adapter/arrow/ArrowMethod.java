@@ -33,7 +33,9 @@
 @SuppressWarnings("ImmutableEnumChecker")
 enum ArrowMethod {
   ARROW_QUERY(ArrowTable.class, "query", DataContext.class,
-      ImmutableIntList.class, List.class);
+      ImmutableIntList.class, List.class),
+  ARROW_AGGREGATE(ArrowTable.class, "aggregate", DataContext.class,
+      ImmutableIntList.class, List.class, List.class);
 
   final Method method;
 
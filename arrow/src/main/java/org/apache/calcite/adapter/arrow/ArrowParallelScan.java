@@ -0,0 +1,191 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.calcite.adapter.arrow;
+
+import org.apache.calcite.linq4j.AbstractEnumerable;
+import org.apache.calcite.linq4j.Enumerable;
+import org.apache.calcite.linq4j.Enumerator;
+import org.apache.calcite.runtime.ParallelEnumerator;
+import org.apache.calcite.util.ImmutableIntList;
+
+import org.apache.arrow.gandiva.evaluator.Filter;
+import org.apache.arrow.gandiva.evaluator.SelectionVector;
+import org.apache.arrow.vector.ValueVector;
+import org.apache.arrow.vector.VectorSchemaRoot;
+import org.apache.arrow.vector.ipc.message.ArrowBlock;
+
+import com.google.common.collect.ImmutableList;
+
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BiConsumer;
+import java.util.function.Supplier;
+
+/**
+ * Scan of an Arrow file that reads its record batches on several threads.
+ *
+ * <p>The blocks listed in the footer of the file are split into one
+ * contiguous range per thread. Each range is read by a
+ * {@link ParallelEnumerator.Producer} through its own
+ * {@link ArrowBatchReader}, applying the Gandiva filter, if any, to each
+ * batch.
+ *
+ * <p>Rows are returned in the order of the file, as a sequential scan returns
+ * them: ranges are read ahead concurrently, but are returned in block order.
+ */
+class ArrowParallelScan {
+  /** Number of record batches that each range may read ahead of the
+   * consumer. */
+  private static final int QUEUE_CAPACITY = 2;
+
+  private final File file;
+  private final List<List<ArrowBlock>> ranges;
+  private final @Nullable Supplier<Filter> filterFactory;
+  private final @Nullable AtomicBoolean cancelFlag;
+
+  /** Creates an ArrowParallelScan.
+   *
+   * @param file          Arrow file
+   * @param blocks        Blocks of the file
+   * @param parallelism   Maximum number of threads
+   * @param filterFactory Creates a filter for each thread, or null if all
+   *                      rows are selected
+   * @param cancelFlag    Flag that is set when the statement is cancelled,
+   *                      or null
+   */
+  ArrowParallelScan(File file, List<ArrowBlock> blocks, int parallelism,
+      @Nullable Supplier<Filter> filterFactory,
+      @Nullable AtomicBoolean cancelFlag) {
+    this.file = file;
+    final int n = Math.max(1, Math.min(parallelism, blocks.size()));
+    final ImmutableList.Builder<List<ArrowBlock>> ranges =
+        ImmutableList.builder();
+    for (int i = 0; i < n; i++) {
+      ranges.add(
+          ImmutableList.copyOf(
+              blocks.subList(blocks.size() * i / n,
+                  blocks.size() * (i + 1) / n)));
+    }
+    this.ranges = ranges.build();
+    this.filterFactory = filterFactory;
+    this.cancelFlag = cancelFlag;
+  }
+
+  /** Calls {@code consumer}, on the thread for each range, for each batch in
+   * the range with the state of that range. Returns the state of each range,
+   * in block order, once every range has been read, or null if the statement
+   * was cancelled first. */
+  <S> @Nullable List<S> scanRanges(Supplier<S> stateFactory,
+      BiConsumer<S, ArrowBatchReader> consumer) {
+    final List<ParallelEnumerator.Producer<S>> producers = new ArrayList<>();
+    for (List<ArrowBlock> range : ranges) {
+      producers.add(sink -> {
+        final S state = stateFactory.get();
+        try (ArrowBatchReader reader =
+                 new ArrowBatchReader(file, filterFactory)) {
+          for (ArrowBlock block : range) {
+            if (sink.isClosed()) {
+              return;
+            }
+            reader.load(block);
+            consumer.accept(state, reader);
+          }
+        }
+        sink.add(state);
+      });
+    }
+    final List<S> states = new ArrayList<>(ranges.size());
+    try (Enumerator<S> enumerator =
+             ParallelEnumerator.create(producers, producers.size(), true, 1,
+                 1, cancelFlag)) {
+      while (enumerator.moveNext()) {
+        states.add(enumerator.current());
+      }
+    }
+    return states.size() < ranges.size() ? null : states;
+  }
+
+  /** Returns the rows of the scan, projected to {@code fields}. Each row is
+   * an {@code Object[]}, or a single value if there is one field. */
+  Enumerable<Object> rows(ImmutableIntList fields) {
+    return new AbstractEnumerable<Object>() {
+      @Override public Enumerator<Object> enumerator() {
+        final List<RangeReader> readers = new ArrayList<>();
+        for (List<ArrowBlock> range : ranges) {
+          readers.add(new RangeReader(range, fields));
+        }
+        return ParallelEnumerator.create(readers, readers.size(), true, 1,
+            QUEUE_CAPACITY, cancelFlag);
+      }
+    };
+  }
+
+  /** Reads the rows of a range of blocks, and passes the rows of each
+   * record batch to the enumerator as a batch. */
+  private class RangeReader implements ParallelEnumerator.Producer<Object> {
+    private final List<ArrowBlock> range;
+    private final ImmutableIntList fields;
+
+    RangeReader(List<ArrowBlock> range, ImmutableIntList fields) {
+      this.range = range;
+      this.fields = fields;
+    }
+
+    @Override public void produce(ParallelEnumerator.Sink<Object> sink)
+        throws Exception {
+      try (ArrowBatchReader reader =
+               new ArrowBatchReader(file, filterFactory)) {
+        for (ArrowBlock block : range) {
+          if (sink.isClosed()) {
+            return;
+          }
+          final int rowCount = reader.load(block);
+          sink.addAll(rows(reader, rowCount));
+        }
+      }
+    }
+
+    private List<Object> rows(ArrowBatchReader reader, int rowCount) {
+      final @Nullable SelectionVector selectionVector =
+          reader.selectionVector();
+      final VectorSchemaRoot root = reader.root();
+      final List<ValueVector> vectors = new ArrayList<>(fields.size());
+      for (int field : fields) {
+        vectors.add(root.getVector(field));
+      }
+      final List<Object> list = new ArrayList<>(rowCount);
+      for (int i = 0; i < rowCount; i++) {
+        final int row =
+            selectionVector == null ? i : selectionVector.getIndex(i);
+        if (vectors.size() == 1) {
+          list.add(vectors.get(0).getObject(row));
+        } else {
+          final Object[] values = new Object[vectors.size()];
+          for (int j = 0; j < values.length; j++) {
+            values[j] = vectors.get(j).getObject(row);
+          }
+          list.add(values);
+        }
+      }
+      return list;
+    }
+  }
+}
@@ -24,8 +24,10 @@
 import org.apache.calcite.plan.RelTraitSet;
 import org.apache.calcite.rel.RelNode;
 import org.apache.calcite.rel.convert.ConverterRule;
+import org.apache.calcite.rel.core.Aggregate;
 import org.apache.calcite.rel.core.Filter;
 import org.apache.calcite.rel.core.Project;
+import org.apache.calcite.rel.logical.LogicalAggregate;
 import org.apache.calcite.rel.logical.LogicalFilter;
 import org.apache.calcite.rel.logical.LogicalProject;
 import org.apache.calcite.rel.type.RelDataType;
@@ -50,11 +52,18 @@ private ArrowRules() {}
   public static final ArrowFilterRule FILTER_SCAN =
       ArrowFilterRule.Config.DEFAULT.toRule();
 
+  /** Rule that converts an {@link org.apache.calcite.rel.core.Aggregate}
+   * without GROUP BY over Arrow relational expressions to an
+   * {@link ArrowAggregate}. */
+  public static final ConverterRule AGGREGATE =
+      ArrowAggregateRule.DEFAULT_CONFIG.toRule(ArrowAggregateRule.class);
+
   public static final ConverterRule TO_ENUMERABLE =
       ArrowToEnumerableConverterRule.DEFAULT_CONFIG
           .toRule(ArrowToEnumerableConverterRule.class);
 
-  public static final List<RelOptRule> RULES = ImmutableList.of(PROJECT_SCAN, FILTER_SCAN);
+  public static final List<RelOptRule> RULES =
+      ImmutableList.of(PROJECT_SCAN, FILTER_SCAN, AGGREGATE);
 
   static List<String> arrowFieldNames(final RelDataType rowType) {
     return SqlValidatorUtil.uniquify(rowType.getFieldNames(),
@@ -153,6 +162,40 @@ protected ArrowProjectRule(Config config) {
     }
   }
 
+  /**
+   * Rule to convert a {@link org.apache.calcite.rel.logical.LogicalAggregate}
+   * whose input can be in {@link ArrowRel#CONVENTION} to an
+   * {@link ArrowAggregate}.
+   *
+   * @see ArrowRules#AGGREGATE
+   */
+  static class ArrowAggregateRule extends ConverterRule {
+
+    /** Default configuration. */
+    public static final Config DEFAULT_CONFIG = Config.INSTANCE
+        .withConversion(LogicalAggregate.class, Convention.NONE,
+            EnumerableConvention.INSTANCE, "ArrowAggregateRule")
+        .withRuleFactory(ArrowAggregateRule::new);
+
+    /** Creates an ArrowAggregateRule. */
+    protected ArrowAggregateRule(Config config) {
+      super(config);
+    }
+
+    @Override public @Nullable RelNode convert(RelNode rel) {
+      final Aggregate aggregate = (Aggregate) rel;
+      if (!ArrowAggregate.isSupported(aggregate)) {
+        return null;
+      }
+      final RelTraitSet traitSet =
+          aggregate.getTraitSet().replace(EnumerableConvention.INSTANCE);
+      return new ArrowAggregate(aggregate.getCluster(), traitSet,
+          convert(aggregate.getInput(), ArrowRel.CONVENTION),
+          aggregate.getGroupSet(), aggregate.getGroupSets(),
+          aggregate.getAggCallList());
+    }
+  }
+
   /**
    * Rule to convert a relational expression from
    * {@link ArrowRel#CONVENTION} to {@link EnumerableConvention}.
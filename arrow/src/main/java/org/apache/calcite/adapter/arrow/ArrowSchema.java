@@ -56,9 +56,20 @@ class ArrowSchema extends AbstractSchema {
    * @param baseDirectory Base directory to look for relative files
    */
   ArrowSchema(File baseDirectory) {
+    this(baseDirectory, 1);
+  }
+
+  /**
+   * Creates an Arrow schema.
+   *
+   * @param baseDirectory Base directory to look for relative files
+   * @param parallelism Maximum number of threads that read the record batches
+   *                    of a table in a scan
+   */
+  ArrowSchema(File baseDirectory, int parallelism) {
     requireNonNull(baseDirectory, "baseDirectory");
     this.tableMapSupplier =
-        Suppliers.memoize(() -> deduceTableMap(baseDirectory));
+        Suppliers.memoize(() -> deduceTableMap(baseDirectory, parallelism));
   }
 
   /**
@@ -86,7 +97,8 @@ private static String trim(String s, String suffix) {
     return tableMapSupplier.get();
   }
 
-  private static Map<String, Table> deduceTableMap(File baseDirectory) {
+  private static Map<String, Table> deduceTableMap(File baseDirectory,
+      int parallelism) {
     File[] files = baseDirectory.listFiles((dir, name) -> name.endsWith(".arrow"));
     if (files == null) {
       LOGGER.info("directory " + baseDirectory + " not found");
@@ -110,7 +122,7 @@ private static Map<String, Table> deduceTableMap(File baseDirectory) {
       final String tableName =
           trim(file.getName(), ".arrow").toUpperCase(Locale.ROOT);
       final ArrowTable table =
-          new ArrowTable(null, arrowFileReader);
+          new ArrowTable(null, arrowFileReader, arrowFile, parallelism);
       tables.put(tableName, table);
     }
 
@@ -26,6 +26,10 @@
 
 /**
  * Factory that creates an {@link ArrowSchema}.
+ *
+ * <p>Operands are {@code directory}, the directory that contains the Arrow
+ * files, and {@code parallelism}, the maximum number of threads that read the
+ * record batches of a file during a scan (default 1, a sequential scan).
  */
 public class ArrowSchemaFactory implements SchemaFactory {
 
@@ -48,6 +52,21 @@ public class ArrowSchemaFactory implements SchemaFactory {
     if (directoryFile == null) {
       throw new RuntimeException("no directory");
     }
-    return new ArrowSchema(directoryFile);
+    return new ArrowSchema(directoryFile,
+        intOperand(operand, "parallelism", 1));
+  }
+
+  /** Returns the value of a numeric operand. The value may be a number, as in
+   * a JSON model, or a string, as in a connect string. */
+  private static int intOperand(Map<String, Object> operand, String name,
+      int defaultValue) {
+    final Object value = operand.get(name);
+    if (value == null) {
+      return defaultValue;
+    }
+    if (value instanceof Number) {
+      return ((Number) value).intValue();
+    }
+    return Integer.parseInt(value.toString());
   }
 }
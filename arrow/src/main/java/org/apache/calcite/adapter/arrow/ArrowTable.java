@@ -44,17 +44,21 @@
 import org.apache.arrow.gandiva.expression.TreeBuilder;
 import org.apache.arrow.gandiva.expression.TreeNode;
 import org.apache.arrow.vector.ipc.ArrowFileReader;
+import org.apache.arrow.vector.ipc.message.ArrowBlock;
 import org.apache.arrow.vector.types.pojo.ArrowType;
 import org.apache.arrow.vector.types.pojo.Field;
 import org.apache.arrow.vector.types.pojo.Schema;
 
 import org.checkerframework.checker.nullness.qual.Nullable;
 
+import java.io.File;
 import java.io.IOException;
 import java.lang.reflect.Type;
 import java.util.ArrayList;
 import java.util.List;
 
+import static com.google.common.base.Preconditions.checkArgument;
+
 import static java.lang.Double.parseDouble;
 import static java.lang.Float.parseFloat;
 import static java.lang.Integer.parseInt;
@@ -70,8 +74,31 @@ public class ArrowTable extends AbstractTable
   /** Arrow schema. (In Calcite terminology, more like a row type than a Schema.) */
   private final Schema schema;
   private final ArrowFileReader arrowFileReader;
+  /** File that {@link #arrowFileReader} reads, or null if not known; if
+   * known, parallel scans open it once per thread. */
+  private final @Nullable File file;
+  private final int parallelism;
 
   ArrowTable(@Nullable RelProtoDataType protoRowType, ArrowFileReader arrowFileReader) {
+    this(protoRowType, arrowFileReader, null, 1);
+  }
+
+  /** Creates an ArrowTable.
+   *
+   * @param protoRowType    Row type, or null to deduce it from the file
+   * @param arrowFileReader Reader
+   * @param file            File that the reader reads, or null if not known
+   * @param parallelism     Maximum number of threads that read record batches
+   *                        of a scan; if greater than 1, {@code file} must be
+   *                        known
+   */
+  ArrowTable(@Nullable RelProtoDataType protoRowType,
+      ArrowFileReader arrowFileReader, @Nullable File file, int parallelism) {
+    checkArgument(parallelism >= 1, "parallelism must be positive");
+    checkArgument(parallelism == 1 || file != null,
+        "file is required for parallel scans");
+    this.file = file;
+    this.parallelism = parallelism;
     try {
       this.schema = arrowFileReader.getVectorSchemaRoot().getSchema();
     } catch (IOException e) {
@@ -99,6 +126,10 @@ public class ArrowTable extends AbstractTable
   public Enumerable<Object> query(DataContext root, ImmutableIntList fields,
       List<String> conditions) {
     requireNonNull(fields, "fields");
+    final ArrowParallelScan parallelScan = parallelScan(root, conditions);
+    if (parallelScan != null) {
+      return parallelScan.rows(fields);
+    }
     final Projector projector;
     final Filter filter;
 
@@ -118,41 +149,86 @@ public Enumerable<Object> query(DataContext root, ImmutableIntList fields,
       }
     } else {
       projector = null;
+      filter = makeFilter(conditions);
+    }
 
-      final List<TreeNode> conditionNodes = new ArrayList<>(conditions.size());
-      for (String condition : conditions) {
-        String[] data = condition.split(" ");
-        List<TreeNode> treeNodes = new ArrayList<>(2);
-        treeNodes.add(
-            TreeBuilder.makeField(schema.getFields()
-                .get(schema.getFields().indexOf(schema.findField(data[0])))));
-
-        // if the split condition has more than two parts it's a binary operator
-        // with an additional literal node
-        if (data.length > 2) {
-          treeNodes.add(makeLiteralNode(data[2], data[3]));
-        }
-
-        String operator = data[1];
-        conditionNodes.add(
-            TreeBuilder.makeFunction(operator, treeNodes, new ArrowType.Bool()));
-      }
-      final Condition filterCondition;
-      if (conditionNodes.size() == 1) {
-        filterCondition = TreeBuilder.makeCondition(conditionNodes.get(0));
-      } else {
-        TreeNode treeNode = TreeBuilder.makeAnd(conditionNodes);
-        filterCondition = TreeBuilder.makeCondition(treeNode);
-      }
+    return new ArrowEnumerable(arrowFileReader, fields, projector, filter);
+  }
 
-      try {
-        filter = Filter.make(schema, filterCondition);
-      } catch (GandivaException e) {
-        throw Util.toUnchecked(e);
+  /** Called via code generation; see uses of
+   * {@link org.apache.calcite.adapter.arrow.ArrowMethod#ARROW_AGGREGATE}.
+   *
+   * @param fields     Ordinals of the fields of the input of the aggregate
+   * @param conditions Conditions that rows must satisfy
+   * @param aggregates Aggregate functions, each formatted as
+   *                   "kind argOrdinal typeName", where argOrdinal is -1 for
+   *                   {@code COUNT(*)} and typeName is the SQL type of the
+   *                   argument
+   */
+  @SuppressWarnings("unused")
+  public Enumerable<Object> aggregate(DataContext root, ImmutableIntList fields,
+      List<String> conditions, List<String> aggregates) {
+    requireNonNull(fields, "fields");
+    final ArrowParallelScan parallelScan = parallelScan(root, conditions);
+    if (parallelScan != null) {
+      return new ArrowAggregateEnumerable(arrowFileReader, fields, null,
+          aggregates, parallelScan);
+    }
+    final @Nullable Filter filter =
+        conditions.isEmpty() ? null : makeFilter(conditions);
+    return new ArrowAggregateEnumerable(arrowFileReader, fields, filter,
+        aggregates, null);
+  }
+
+  /** Returns a scan that reads the record batches of the file on several
+   * threads, or null if the scan should be sequential because parallelism is
+   * disabled or the file has only one batch. */
+  private @Nullable ArrowParallelScan parallelScan(DataContext root,
+      List<String> conditions) {
+    if (parallelism <= 1 || file == null) {
+      return null;
+    }
+    final List<ArrowBlock> blocks = ArrowBatchReader.blocks(arrowFileReader);
+    if (blocks.size() <= 1) {
+      return null;
+    }
+    return new ArrowParallelScan(file, blocks, parallelism,
+        conditions.isEmpty() ? null : () -> makeFilter(conditions),
+        DataContext.Variable.CANCEL_FLAG.get(root));
+  }
+
+  private Filter makeFilter(List<String> conditions) {
+    final List<TreeNode> conditionNodes = new ArrayList<>(conditions.size());
+    for (String condition : conditions) {
+      String[] data = condition.split(" ");
+      List<TreeNode> treeNodes = new ArrayList<>(2);
+      treeNodes.add(
+          TreeBuilder.makeField(schema.getFields()
+              .get(schema.getFields().indexOf(schema.findField(data[0])))));
+
+      // if the split condition has more than two parts it's a binary operator
+      // with an additional literal node
+      if (data.length > 2) {
+        treeNodes.add(makeLiteralNode(data[2], data[3]));
       }
+
+      String operator = data[1];
+      conditionNodes.add(
+          TreeBuilder.makeFunction(operator, treeNodes, new ArrowType.Bool()));
+    }
+    final Condition filterCondition;
+    if (conditionNodes.size() == 1) {
+      filterCondition = TreeBuilder.makeCondition(conditionNodes.get(0));
+    } else {
+      TreeNode treeNode = TreeBuilder.makeAnd(conditionNodes);
+      filterCondition = TreeBuilder.makeCondition(treeNode);
     }
 
-    return new ArrowEnumerable(arrowFileReader, fields, projector, filter);
+    try {
+      return Filter.make(schema, filterCondition);
+    } catch (GandivaException e) {
+      throw Util.toUnchecked(e);
+    }
   }
 
   @Override public <T> Queryable<T> asQueryable(QueryProvider queryProvider,
@@ -21,6 +21,7 @@
 import org.apache.calcite.adapter.enumerable.PhysType;
 import org.apache.calcite.adapter.enumerable.PhysTypeImpl;
 import org.apache.calcite.linq4j.tree.Blocks;
+import org.apache.calcite.linq4j.tree.Expression;
 import org.apache.calcite.linq4j.tree.Expressions;
 import org.apache.calcite.plan.ConventionTraitDef;
 import org.apache.calcite.plan.RelOptCluster;
@@ -71,19 +72,25 @@ protected ArrowToEnumerableConverter(RelOptCluster cluster,
             pref.preferArray());
 
     final RelOptTable table = requireNonNull(arrowImplementor.table, "table");
-    final int fieldCount = table.getRowType().getFieldCount();
     return implementor.result(physType,
         Blocks.toBlock(
             Expressions.call(table.getExpression(ArrowTable.class),
                 ArrowMethod.ARROW_QUERY.method, implementor.getRootExpression(),
-                arrowImplementor.selectFields != null
-                    ? Expressions.call(
-                        BuiltInMethod.IMMUTABLE_INT_LIST_COPY_OF.method,
-                        Expressions.constant(
-                            Ints.toArray(arrowImplementor.selectFields)))
-                    : Expressions.call(
-                        BuiltInMethod.IMMUTABLE_INT_LIST_IDENTITY.method,
-                        Expressions.constant(fieldCount)),
+                fields(arrowImplementor, table),
                 Expressions.constant(arrowImplementor.whereClause))));
   }
+
+  /** Returns an expression for the ordinals of the fields that a tree of
+   * {@link ArrowRel} nodes reads from its table. */
+  static Expression fields(ArrowRel.Implementor arrowImplementor,
+      RelOptTable table) {
+    if (arrowImplementor.selectFields != null) {
+      return Expressions.call(
+          BuiltInMethod.IMMUTABLE_INT_LIST_COPY_OF.method,
+          Expressions.constant(Ints.toArray(arrowImplementor.selectFields)));
+    }
+    return Expressions.call(
+        BuiltInMethod.IMMUTABLE_INT_LIST_IDENTITY.method,
+        Expressions.constant(table.getRowType().getFieldCount()));
+  }
 }
@@ -714,6 +714,61 @@ static void initializeArrowState(@TempDir Path sharedTempDir)
         .explainContains(plan);
   }
 
+  /** Tests aggregate functions without GROUP BY, which are computed on the
+   * Arrow value-vectors. */
+  @Test void testArrowAggregate() {
+    String sql = "select count(*) as c, sum(\"intField\") as s,\n"
+        + " min(\"longField\") as mi, max(\"floatField\") as ma\n"
+        + "from arrowdata";
+
+    CalciteAssert.that()
+        .with(arrow)
+        .query(sql)
+        .returns("C=50; S=1225; MI=0; MA=49.0\n")
+        .explainContains("PLAN=ArrowAggregate(group=[{}]");
+  }
+
+  @Test void testArrowAggregateWithFilter() {
+    String sql = "select count(*) as c, sum(\"intField\") as s,\n"
+        + " count(\"stringField\") as cs, max(\"floatField\") as ma\n"
+        + "from arrowdata\n"
+        + "where \"intField\" < 10";
+
+    CalciteAssert.that()
+        .with(arrow)
+        .query(sql)
+        .returns("C=10; S=45; CS=10; MA=9.0\n")
+        .explainContains("PLAN=ArrowAggregate(group=[{}]")
+        .explainContains("ArrowFilter(condition=[<($0, 10)])");
+  }
+
+  /** Tests a scan that reads record batches on several threads; rows must
+   * be returned in the order of the file, across batch boundaries. */
+  @Test void testArrowParallelScan() {
+    final String sql = "select \"intField\", \"stringField\"\n"
+        + "from arrow.arrowdata\n"
+        + "where \"intField\" >= 18 and \"intField\" < 42";
+    final StringBuilder expected = new StringBuilder();
+    for (int i = 18; i < 42; i++) {
+      expected.append("intField=").append(i)
+          .append("; stringField=").append(i).append('\n');
+    }
+    CalciteAssert.that()
+        .withSchema("ARROW", new ArrowSchema(arrowDataDirectory, 2))
+        .query(sql)
+        .returns(expected.toString());
+    CalciteAssert.that()
+        .withSchema("ARROW", new ArrowSchema(arrowDataDirectory, 2))
+        .query("select \"longField\" from arrow.arrowdata")
+        .returnsCount(50);
+    CalciteAssert.that()
+        .withSchema("ARROW", new ArrowSchema(arrowDataDirectory, 3))
+        .query("select count(*) as c, sum(\"intField\") as s,\n"
+            + " min(\"floatField\") as mi, max(\"longField\") as ma\n"
+            + "from arrow.arrowdata where \"intField\" > 5")
+        .returns("C=44; S=1210; MI=6.0; MA=49\n");
+  }
+
   @Test void testAggWithAggFunctions() {
     String sql = "select JOB, SUM(SAL) as TOTAL from EMP GROUP BY JOB";
     String plan = "PLAN=EnumerableAggregate(group=[{2}], TOTAL=[SUM($5)])\n"
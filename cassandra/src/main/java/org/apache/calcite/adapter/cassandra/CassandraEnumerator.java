@@ -23,6 +23,7 @@
 import org.apache.calcite.rel.type.RelDataTypeSystem;
 import org.apache.calcite.rel.type.RelProtoDataType;
 import org.apache.calcite.sql.type.SqlTypeFactoryImpl;
+import org.apache.calcite.util.Util;
 
 import com.datastax.oss.driver.api.core.cql.ResultSet;
 import com.datastax.oss.driver.api.core.cql.Row;
@@ -56,7 +57,17 @@ class CassandraEnumerator implements Enumerator<Object> {
    * @param protoRowType The type of resulting rows
    */
   CassandraEnumerator(ResultSet results, RelProtoDataType protoRowType) {
-    this.iterator = results.iterator();
+    this(results.iterator(), protoRowType);
+  }
+
+  /** Creates a CassandraEnumerator.
+   *
+   * @param iterator Rows; closed when the enumerator is closed, if it is
+   *                 {@link AutoCloseable}
+   * @param protoRowType The type of resulting rows
+   */
+  CassandraEnumerator(Iterator<Row> iterator, RelProtoDataType protoRowType) {
+    this.iterator = iterator;
     this.current = null;
 
     final RelDataTypeFactory typeFactory =
@@ -152,6 +163,12 @@ class CassandraEnumerator implements Enumerator<Object> {
   }
 
   @Override public void close() {
-    // Nothing to do here
+    if (iterator instanceof AutoCloseable) {
+      try {
+        ((AutoCloseable) iterator).close();
+      } catch (Exception e) {
+        throw Util.toUnchecked(e);
+      }
+    }
   }
 }
@@ -0,0 +1,202 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.calcite.adapter.cassandra;
+
+import org.apache.calcite.util.Util;
+
+import com.datastax.oss.driver.api.core.CqlSession;
+import com.datastax.oss.driver.api.core.cql.AsyncResultSet;
+import com.datastax.oss.driver.api.core.cql.Row;
+import com.datastax.oss.driver.api.core.metadata.TokenMap;
+import com.datastax.oss.driver.api.core.metadata.token.Token;
+import com.datastax.oss.driver.api.core.metadata.token.TokenRange;
+
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.LinkedBlockingQueue;
+
+/**
+ * Scans a Cassandra column family by splitting it into the token ranges of
+ * the ring, and executing one statement per range with the asynchronous
+ * driver API.
+ *
+ * <p>At most {@code parallelism} ranges are in flight at a time. The next page
+ * of a range is requested as soon as its current page arrives, and not
+ * before, so each range holds at most two pages. Pages are returned in the
+ * order in which they arrive, so rows are not in any particular order.
+ *
+ * <p>No thread is created; the driver completes the requests on its own
+ * threads, and the thread that reads the rows merges them.
+ */
+class CassandraParallelScan {
+  private final CqlSession session;
+  private final List<String> statements;
+  private final int parallelism;
+
+  private CassandraParallelScan(CqlSession session, List<String> statements,
+      int parallelism) {
+    this.session = session;
+    this.statements = statements;
+    this.parallelism = parallelism;
+  }
+
+  /** Creates a scan that executes a query once for each token range of
+   * the ring, or returns null if the ring cannot be split.
+   *
+   * @param session Cassandra session
+   * @param partitionKeys Names of the partition key columns of the table
+   * @param query Query up to and including the {@code WHERE} keyword, to
+   *              which the restriction on the token range is appended
+   * @param suffix Remainder of the query
+   * @param parallelism Maximum number of ranges to read at the same time
+   */
+  static @Nullable CassandraParallelScan create(CqlSession session,
+      List<String> partitionKeys, String query, String suffix,
+      int parallelism) {
+    final Optional<TokenMap> tokenMap = session.getMetadata().getTokenMap();
+    if (partitionKeys.isEmpty() || !tokenMap.isPresent()) {
+      return null;
+    }
+    final List<String> restrictions =
+        restrictions(tokenMap.get(), partitionKeys);
+    if (restrictions.size() < 2) {
+      return null;
+    }
+    final List<String> statements = new ArrayList<>();
+    for (String restriction : restrictions) {
+      statements.add(query + restriction + suffix);
+    }
+    // Spread consecutive ranges, which are often owned by the same
+    // replicas, over the whole scan
+    Collections.shuffle(statements);
+    return new CassandraParallelScan(session, statements, parallelism);
+  }
+
+  /** Returns a predicate for each token range of the ring. Returns an empty
+   * list if the ring has a single range that covers all tokens. */
+  private static List<String> restrictions(TokenMap tokenMap,
+      List<String> partitionKeys) {
+    final String token =
+        Util.toString(partitionKeys, "token(\"", "\", \"", "\")");
+    final List<String> restrictions = new ArrayList<>();
+    for (TokenRange range : tokenMap.getTokenRanges()) {
+      final Token start = range.getStart();
+      final Token end = range.getEnd();
+      final int c = start.compareTo(end);
+      if (c < 0) {
+        restrictions.add(token + " > " + tokenMap.format(start)
+            + " AND " + token + " <= " + tokenMap.format(end));
+      } else if (c == 0) {
+        return Collections.emptyList();
+      } else {
+        // The range wraps around the ring, or ends at the minimum token
+        restrictions.add(token + " > " + tokenMap.format(start));
+        if (range.isWrappedAround()) {
+          restrictions.add(token + " <= " + tokenMap.format(end));
+        }
+      }
+    }
+    return restrictions;
+  }
+
+  /** Returns an iterator over the rows of all ranges. If it is closed before
+   * it is exhausted, no more ranges are started. */
+  Iterator<Row> iterator() {
+    return new RowIterator();
+  }
+
+  /** Iterator that merges the pages of the ranges as they arrive. */
+  private class RowIterator implements Iterator<Row>, AutoCloseable {
+    private final Deque<String> pending = new ArrayDeque<>(statements);
+    /** Pages, or the errors of failed requests, in the order they arrived.
+     * Its size is bounded because each range has at most one request
+     * outstanding. */
+    private final BlockingQueue<Object> pages = new LinkedBlockingQueue<>();
+    /** Number of ranges started whose last page has not been read. */
+    private int running;
+    private Iterator<Row> current = Collections.emptyIterator();
+
+    RowIterator() {
+      submit();
+    }
+
+    private void submit() {
+      while (running < parallelism && !pending.isEmpty()) {
+        ++running;
+        watch(session.executeAsync(pending.remove()));
+      }
+    }
+
+    private void watch(CompletionStage<AsyncResultSet> stage) {
+      stage.whenComplete((resultSet, e) ->
+          pages.add(e != null ? e : resultSet));
+    }
+
+    @Override public boolean hasNext() {
+      while (!current.hasNext()) {
+        if (running == 0) {
+          return false;
+        }
+        final Object page;
+        try {
+          page = pages.take();
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+          throw Util.toUnchecked(e);
+        }
+        if (page instanceof Throwable) {
+          close();
+          throw Util.throwAsRuntime((Throwable) page);
+        }
+        final AsyncResultSet resultSet = (AsyncResultSet) page;
+        current = resultSet.currentPage().iterator();
+        if (resultSet.hasMorePages()) {
+          watch(resultSet.fetchNextPage());
+        } else {
+          --running;
+          submit();
+        }
+      }
+      return true;
+    }
+
+    @Override public Row next() {
+      if (!hasNext()) {
+        throw new NoSuchElementException();
+      }
+      return current.next();
+    }
+
+    @Override public void close() {
+      // Requests already sent complete in the background; their pages are
+      // discarded with the queue
+      pending.clear();
+      running = 0;
+      current = Collections.emptyIterator();
+    }
+  }
+}
@@ -78,6 +78,10 @@ public class CassandraSchema extends AbstractSchema {
   private final SchemaPlus parentSchema;
   final String name;
   final Hook.Closeable hook;
+  /** Maximum number of token ranges to read at the same time in a scan that
+   * does not restrict the partition key; 1 reads the table with a single
+   * query. */
+  final int parallelism;
 
   static final CqlToSqlTypeConversionRules CQL_TO_SQL_TYPE =
       CqlToSqlTypeConversionRules.instance();
@@ -114,12 +118,32 @@ public CassandraSchema(
       SchemaPlus parentSchema,
       String keyspace,
       String name) {
+    this(session, parentSchema, keyspace, name, 1);
+  }
+
+  /**
+   * Creates a Cassandra schema.
+   *
+   * @param session a Cassandra session
+   * @param parentSchema the parent schema
+   * @param keyspace the keyspace name
+   * @param name the schema name
+   * @param parallelism the maximum number of token ranges that a scan reads
+   *                    at the same time
+   */
+  public CassandraSchema(
+      CqlSession session,
+      SchemaPlus parentSchema,
+      String keyspace,
+      String name,
+      int parallelism) {
     super();
 
     this.session = session;
     this.keyspace = keyspace;
     this.parentSchema = parentSchema;
     this.name = name;
+    this.parallelism = parallelism;
     this.hook = prepareHook();
   }
 
@@ -38,6 +38,13 @@
 
 /**
  * Factory that creates a {@link CassandraSchema}.
+ *
+ * <p>Besides the operands that define the session ("host", "port",
+ * "keyspace", "username" and "password"), it accepts "parallelism", the
+ * maximum number of token ranges that a scan of a table reads at the same
+ * time. A scan whose predicates do not restrict the partition key, and that
+ * has no sort or limit, is split into one query per token range of the ring.
+ * The default, 1, reads each table with a single query.
  */
 @SuppressWarnings("UnusedDeclaration")
 public class CassandraSchemaFactory implements SchemaFactory {
@@ -95,7 +102,10 @@ public CassandraSchemaFactory() {
         .map(CqlIdentifier::asInternal)
         .orElse(name);
 
-    return new CassandraSchema(session, parentSchema, keyspace, name);
+    // Values are numbers in a JSON model, but strings in a connect string
+    final Object parallelism = operand.get("parallelism");
+    return new CassandraSchema(session, parentSchema, keyspace, name,
+        parallelism == null ? 1 : Integer.parseInt(String.valueOf(parallelism)));
   }
 
   private static Map<String, Object> projectMapOverKeys(
@@ -62,6 +62,7 @@ public class CassandraTable extends AbstractQueryableTable
   final List<RelFieldCollation> clusteringOrder;
   private final Optional<String> keyspace;
   private final String columnFamily;
+  private final int parallelism;
 
   @Deprecated // to be removed before 2.0
   public CassandraTable(CassandraSchema schema, String columnFamily, boolean isView) {
@@ -72,6 +73,7 @@ public CassandraTable(CassandraSchema schema, String columnFamily, boolean isVie
     this.partitionKeys = schema.getPartitionKeys(columnFamily, isView);
     this.clusteringKeys = schema.getClusteringKeys(columnFamily, isView);
     this.clusteringOrder = schema.getClusteringOrder(columnFamily, isView);
+    this.parallelism = schema.parallelism;
   }
 
   public CassandraTable(
@@ -86,6 +88,7 @@ public CassandraTable(
     this.partitionKeys = schema.getPartitionKeys(columnFamily, isView);
     this.clusteringKeys = schema.getClusteringKeys(columnFamily, isView);
     this.clusteringOrder = schema.getClusteringOrder(columnFamily, isView);
+    this.parallelism = schema.parallelism;
   }
 
   @Deprecated // to be removed before 2.0
@@ -183,13 +186,6 @@ public Enumerable<Object> query(final CqlSession session, List<Map.Entry<String,
       }, "", ", ", "");
     }
 
-    // Combine all predicates conjunctively
-    String whereClause = "";
-    if (!predicates.isEmpty()) {
-      whereClause = " WHERE ";
-      whereClause += Util.toString(predicates, "", " AND ", "");
-    }
-
     // Build and issue the query and return an Enumerator over the results
     StringBuilder queryBuilder = new StringBuilder("SELECT ");
     queryBuilder
@@ -201,8 +197,33 @@ public Enumerable<Object> query(final CqlSession session, List<Map.Entry<String,
 
     queryBuilder
         .append(columnFamily)
-        .append("\"")
-        .append(whereClause);
+        .append("\"");
+
+    // A scan of the whole ring, whose rows may come in any order, can read
+    // the token ranges in parallel
+    if (parallelism > 1 && order.isEmpty() && offset == 0 && fetch < 0
+        && !restrictsPartitionKey(predicates)) {
+      final String where = predicates.isEmpty()
+          ? " WHERE "
+          : Util.toString(predicates, " WHERE ", " AND ", " AND ");
+      final CassandraParallelScan parallelScan =
+          CassandraParallelScan.create(session, partitionKeys,
+              queryBuilder + where, " ALLOW FILTERING", parallelism);
+      if (parallelScan != null) {
+        return new AbstractEnumerable<Object>() {
+          @Override public Enumerator<Object> enumerator() {
+            return new CassandraEnumerator(parallelScan.iterator(),
+                resultRowType);
+          }
+        };
+      }
+    }
+
+    // Combine all predicates conjunctively
+    if (!predicates.isEmpty()) {
+      queryBuilder.append(" WHERE ")
+          .append(Util.toString(predicates, "", " AND ", ""));
+    }
 
     if (!order.isEmpty()) {
       queryBuilder.append(Util.toString(order, " ORDER BY ", ", ", ""));
@@ -232,6 +253,22 @@ public Enumerable<Object> query(final CqlSession session, List<Map.Entry<String,
     };
   }
 
+  /** Returns whether any of the predicates restricts a partition key
+   * column. Each predicate is a conjunction of terms of the form
+   * "column op value", as generated by {@link CassandraFilter}. */
+  private boolean restrictsPartitionKey(List<String> predicates) {
+    for (String predicate : predicates) {
+      for (String term : predicate.split(" AND ")) {
+        for (String partitionKey : partitionKeys) {
+          if (term.startsWith(partitionKey + " ")) {
+            return true;
+          }
+        }
+      }
+    }
+    return false;
+  }
+
   @Override public <T> Queryable<T> asQueryable(QueryProvider queryProvider,
       SchemaPlus schema, String tableName) {
     return new CassandraQueryable<>(queryProvider, schema, this, tableName);
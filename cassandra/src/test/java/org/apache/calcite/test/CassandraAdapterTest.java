@@ -16,6 +16,8 @@
  */
 package org.apache.calcite.test;
 
+import org.apache.calcite.util.TestUtil;
+
 import com.datastax.oss.driver.api.core.CqlSession;
 import com.google.common.collect.ImmutableMap;
 
@@ -27,6 +29,10 @@
 import org.junit.jupiter.api.parallel.Execution;
 import org.junit.jupiter.api.parallel.ExecutionMode;
 
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
 /**
  * Tests for the {@code org.apache.calcite.adapter.cassandra} package.
  *
@@ -46,6 +52,11 @@ class CassandraAdapterTest {
   private static final ImmutableMap<String, String> TWISSANDRA =
           CassandraExtension.getDataset("/model.json");
 
+  /** Connection factory based on the "twissandra" model, with scans split
+   * into token ranges that are read four at a time. */
+  private static final ImmutableMap<String, String> TWISSANDRA_PARALLEL =
+          CassandraExtension.getDataset("/model-parallel.json");
+
   @BeforeAll
   static void load(CqlSession session) {
     new CQLDataLoader(session)
@@ -154,4 +165,33 @@ static void load(CqlSession session) {
         .enableMaterializations(true)
         .explainContains("CassandraTableScan(table=[[twissandra, Tweets_By_User]])");
   }
+
+  /** Tests that a scan split into token ranges returns the same rows as a
+   * single query, and that a scan that restricts the partition key is still
+   * sorted and limited by Cassandra. */
+  @Test void testParallelScan() {
+    final String sql = "select \"username\", \"tweet_id\" from \"userline\"";
+    final List<String> expected = new ArrayList<>();
+    CalciteAssert.that()
+        .with(TWISSANDRA)
+        .query(sql)
+        .returns(resultSet -> {
+          try {
+            CalciteAssert.toStringList(resultSet, expected);
+          } catch (SQLException e) {
+            throw TestUtil.rethrow(e);
+          }
+        });
+    CalciteAssert.that()
+        .with(TWISSANDRA_PARALLEL)
+        .query(sql)
+        .returnsUnordered(expected.toArray(new String[0]));
+
+    CalciteAssert.that()
+        .with(TWISSANDRA_PARALLEL)
+        .query("select \"tweet_id\" from \"userline\" where "
+             + "\"username\"='!PUBLIC!' limit 2 offset 1")
+        .returns("tweet_id=f3dbb03a-d05b-11e5-b58b-90e2ba530b12\n"
+               + "tweet_id=f3e4182e-d05b-11e5-b58b-90e2ba530b12\n");
+  }
 }
@@ -226,10 +226,13 @@ public static EnumerableBatchNestedLoopJoin create(
         EnumUtils.generatePredicate(implementor, getCluster().getRexBuilder(), left, right,
             leftResult.physType, rightResult.physType, condition);
 
+    // The right input only reads the required columns of each left row, so
+    // it is passed one row for each distinct value of those columns.
     builder.append(
-        Expressions.call(BuiltInMethod.CORRELATE_BATCH_JOIN.method,
+        Expressions.call(BuiltInMethod.CORRELATE_BATCH_JOIN_DISTINCT.method,
             Expressions.constant(EnumUtils.toLinq4jJoinType(joinType)),
             leftExpression,
+            leftResult.physType.generateAccessor(requiredColumns.asList()),
             Expressions.lambda(corrBlock.toBlock(), corrArgList),
             selector,
             predicate,
@@ -43,6 +43,7 @@
 import org.apache.calcite.runtime.Hook;
 import org.apache.calcite.runtime.Typed;
 import org.apache.calcite.util.Util;
+import org.apache.calcite.util.javac.CompiledClassCache;
 
 import com.google.common.cache.Cache;
 import com.google.common.cache.CacheBuilder;
@@ -164,18 +165,19 @@ static Bindable getBindable(ClassDeclaration expr, String classBody, int fieldCo
       StaticFieldDetector detector = new StaticFieldDetector();
       expr.accept(detector);
       if (!detector.containsStaticField) {
-        return BINDABLE_CACHE.get(classBody, () ->  compileToBindable(expr.name, s, compiler));
+        return BINDABLE_CACHE.get(classBody,
+            () -> compileToBindable(expr.name, s, compiler, classLoader));
       }
     }
-    return compileToBindable(expr.name, s, compiler);
+    return compileToBindable(expr.name, s, compiler, classLoader);
   }
 
-  private static Bindable<?> compileToBindable(String className, String s, ISimpleCompiler compiler)
+  private static Bindable<?> compileToBindable(String className, String s,
+      ISimpleCompiler compiler, ClassLoader parentClassLoader)
       throws CompileException, ClassNotFoundException, InvocationTargetException,
       InstantiationException, IllegalAccessException {
-    compiler.cook(s);
-    return (Bindable<?>) compiler.getClassLoader()
-        .loadClass(className)
+    return (Bindable<?>) CompiledClassCache
+        .compile(compiler, parentClassLoader, className, s)
         .getDeclaredConstructors()[0]
         .newInstance();
   }
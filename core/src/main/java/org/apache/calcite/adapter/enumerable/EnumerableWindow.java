@@ -75,6 +75,10 @@
 /** Implementation of {@link org.apache.calcite.rel.core.Window} in
  * {@link org.apache.calcite.adapter.enumerable.EnumerableConvention enumerable calling convention}. */
 public class EnumerableWindow extends Window implements EnumerableRel {
+  /** Maximum number of rows in a {@code ROWS} frame for which aggregates are
+   * recomputed, rather than slid, when the frame moves. */
+  private static final int MAX_RECOMPUTED_FRAME_ROWS = 4;
+
   /** Creates an EnumerableWindowRel. */
   EnumerableWindow(RelOptCluster cluster, RelTraitSet traits, RelNode child,
       List<RexLiteral> constants, RelDataType rowType, List<Group> groups) {
@@ -158,6 +162,15 @@ private static void sampleOfTheGeneratedWindowedAggregate() {
           actualStart = start;
           // implementReset
         } else { // must be start == prevStart && end > prevEnd
+          // builder8
+          // If all aggregates are removable, the frame may slide, and the
+          // condition above is instead
+          // "prevStart < 0 || start < prevStart || start > prevEnd + 1
+          //   || end < prevEnd"
+          for (int r = prevStart; r < start; r++) {
+            // builder9
+            // implementRemove
+          }
           actualStart = prevEnd + 1;
         }
         prevStart = start;
@@ -301,8 +314,11 @@ private static void sampleOfTheGeneratedWindowedAggregate() {
                 outputPhysType.getJavaFieldType(i)));
       }
 
-      declareAndResetState(typeFactory, builder, result, windowIdx, aggs,
-          outputPhysType, outputRow, group.exclude);
+      // If the start of the frame moves and every aggregate can remove rows,
+      // slide the frame rather than recomputing it.
+      final boolean removable =
+          declareAndResetState(typeFactory, builder, result, windowIdx, aggs,
+              outputPhysType, outputRow, group.exclude, isSlidable(group));
 
       // There are assumptions that minX==0. If ever change this, look for
       // frameRowCount, bounds checking, etc
@@ -414,8 +430,64 @@ private static void sampleOfTheGeneratedWindowedAggregate() {
           Expressions.orElse(Expressions.orElse(isExcluding, lowerBoundCanChange),
               Expressions.lessThan(endX, prevEnd));
 
+      final Function<AggImpState, List<RexNode>> rexArguments = agg -> {
+        List<Integer> argList = agg.call.getArgList();
+        List<RelDataType> inputTypes =
+            EnumUtils.fieldRowTypes(result.physType.getRowType(), constants,
+                argList);
+        List<RexNode> args = new ArrayList<>(inputTypes.size());
+        for (int i = 0; i < argList.size(); i++) {
+          Integer idx = argList.get(i);
+          args.add(new RexInputRef(idx, inputTypes.get(i)));
+        }
+        return args;
+      };
+
+      // Statements that continue from the previous frame: remove the rows
+      // that have left the frame, if aggregates are removable, then add the
+      // rows that have entered it.
+      final BlockBuilder builder8 = new BlockBuilder(true, builder5);
+      if (removable) {
+        // Slide only if the new frame starts within, or just after, the
+        // previous frame and does not end before it
+        needRecomputeWindow =
+            Expressions.orElse(
+                Expressions.orElse(
+                    Expressions.lessThan(prevStart, Expressions.constant(0)),
+                    Expressions.lessThan(startX, prevStart)),
+                Expressions.orElse(
+                    Expressions.greaterThan(startX,
+                        Expressions.add(prevEnd, Expressions.constant(1))),
+                    Expressions.lessThan(endX, prevEnd)));
+        final DeclarationStatement rDecl =
+            Expressions.declare(0, builder5.newName("r"), prevStart);
+        final BlockBuilder builder9 = new BlockBuilder(true, builder8);
+        implementRemove(aggs, builder9,
+            getBlockBuilderWinAggFrameResultContextFunction(typeFactory,
+                implementor.getConformance(), result, translatedConstants,
+                comparator_, rows_, i_, startX, endX, minX, maxX,
+                hasRows, frameRowCount, partitionRowCount,
+                rDecl, inputPhysType),
+            rexArguments, rDecl);
+        final BlockStatement removeBlock = builder9.toBlock();
+        if (!removeBlock.statements.isEmpty()) {
+          // For instance, COUNT(*) uses the frame size and removes nothing
+          builder8.add(
+              Expressions.for_(Arrays.asList(rDecl),
+                  Expressions.lessThan(rDecl.parameter, startX),
+                  Expressions.preIncrementAssign(rDecl.parameter),
+                  removeBlock));
+        }
+      }
+      builder8.add(
+          Expressions.statement(
+              Expressions.assign(actualStart,
+                  Expressions.add(prevEnd, Expressions.constant(1)))));
+
       BlockStatement resetWindowState = builder6.toBlock();
-      if (resetWindowState.statements.size() == 1) {
+      BlockStatement continueWindowState = builder8.toBlock();
+      if (resetWindowState.statements.size() == 1
+          && continueWindowState.statements.size() == 1) {
         builder5.add(
             Expressions.declare(0, actualStart,
                 Expressions.condition(needRecomputeWindow, startX,
@@ -426,9 +498,7 @@ private static void sampleOfTheGeneratedWindowedAggregate() {
         builder5.add(
             Expressions.ifThenElse(needRecomputeWindow,
                 resetWindowState,
-                Expressions.statement(
-                    Expressions.assign(actualStart,
-                        Expressions.add(prevEnd, Expressions.constant(1))))));
+                continueWindowState));
       }
 
       if (lowerBoundCanChange instanceof BinaryExpression) {
@@ -451,19 +521,6 @@ private static void sampleOfTheGeneratedWindowedAggregate() {
               hasRows, frameRowCount, partitionRowCount,
               jDecl, inputPhysTypeFinal);
 
-      final Function<AggImpState, List<RexNode>> rexArguments = agg -> {
-        List<Integer> argList = agg.call.getArgList();
-        List<RelDataType> inputTypes =
-            EnumUtils.fieldRowTypes(result.physType.getRowType(), constants,
-                argList);
-        List<RexNode> args = new ArrayList<>(inputTypes.size());
-        for (int i = 0; i < argList.size(); i++) {
-          Integer idx = argList.get(i);
-          args.add(new RexInputRef(idx, inputTypes.get(i)));
-        }
-        return args;
-      };
-
       implementAdd(aggs, builder7, resultContextBuilder, rexArguments, jDecl);
       BlockStatement forBlock = builder7.toBlock();
 
@@ -770,55 +827,75 @@ private static Pair<Expression, Expression> getPartitionIterator(
     }
   }
 
-  private void declareAndResetState(final JavaTypeFactory typeFactory,
+  /** Returns whether the frame of a group may slide, that is, whether its
+   * start moves forward as the current row advances, by removing rows that
+   * leave the frame.
+   *
+   * <p>Returns false for a {@code ROWS} frame of at most
+   * {@link #MAX_RECOMPUTED_FRAME_ROWS} rows; for such a narrow frame it is
+   * cheaper to recompute the aggregates over the frame than to maintain
+   * accumulators that support removal. */
+  private boolean isSlidable(Group group) {
+    if (group.lowerBound.isUnboundedPreceding()
+        || group.exclude != RexWindowExclusion.EXCLUDE_NO_OTHER) {
+      return false;
+    }
+    if (group.isRows) {
+      final @Nullable Integer lower = rowOffset(group.lowerBound);
+      final @Nullable Integer upper = rowOffset(group.upperBound);
+      if (lower != null && upper != null
+          && upper - lower + 1 <= MAX_RECOMPUTED_FRAME_ROWS) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /** Returns the offset of a {@code ROWS} bound from the current row, or null
+   * if it is unbounded or not a constant. */
+  private @Nullable Integer rowOffset(RexWindowBound bound) {
+    if (bound.isCurrentRow()) {
+      return 0;
+    }
+    if (bound.isUnbounded() || !(bound.getOffset() instanceof RexInputRef)) {
+      return null;
+    }
+    final int index = ((RexInputRef) bound.getOffset()).getIndex()
+        - getInput().getRowType().getFieldCount();
+    if (index < 0 || index >= constants.size()) {
+      return null;
+    }
+    final @Nullable Integer offset =
+        constants.get(index).getValueAs(Integer.class);
+    if (offset == null) {
+      return null;
+    }
+    return bound.isPreceding() ? -offset : offset;
+  }
+
+  /** Declares and resets the state of each aggregate, and returns whether
+   * the accumulators of all aggregates can remove rows. Aggregates are
+   * removable only if {@code slidable} and all of them are
+   * {@link RemovableAggImplementor}s that support removal. */
+  private boolean declareAndResetState(final JavaTypeFactory typeFactory,
       BlockBuilder builder, final Result result, int windowIdx,
       List<AggImpState> aggs, PhysType outputPhysType,
-      List<Expression> outputRow, RexWindowExclusion exclusion) {
+      List<Expression> outputRow, RexWindowExclusion exclusion,
+      boolean slidable) {
+    boolean removable = slidable && !aggs.isEmpty();
+    for (final AggImpState agg : aggs) {
+      if (!removable) {
+        break;
+      }
+      removable = !agg.call.isDistinct()
+          && agg.implementor instanceof RemovableAggImplementor
+          && ((RemovableAggImplementor) agg.implementor)
+              .supportsRemove(
+                  winAggContext(typeFactory, result, agg, exclusion, true));
+    }
     for (final AggImpState agg : aggs) {
       agg.context =
-          new WinAggContext() {
-            @Override public SqlAggFunction aggregation() {
-              return agg.call.getAggregation();
-            }
-
-            @Override public RelDataType returnRelType() {
-              return agg.call.type;
-            }
-
-            @Override public Type returnType() {
-              return EnumUtils.javaClass(typeFactory, returnRelType());
-            }
-
-            @Override public List<? extends Type> parameterTypes() {
-              return EnumUtils.fieldTypes(typeFactory,
-                  parameterRelTypes());
-            }
-
-            @Override public List<? extends RelDataType> parameterRelTypes() {
-              return EnumUtils.fieldRowTypes(result.physType.getRowType(),
-                  constants, agg.call.getArgList());
-            }
-
-            @Override public List<ImmutableBitSet> groupSets() {
-              throw new UnsupportedOperationException();
-            }
-
-            @Override public List<Integer> keyOrdinals() {
-              throw new UnsupportedOperationException();
-            }
-
-            @Override public List<? extends RelDataType> keyRelTypes() {
-              throw new UnsupportedOperationException();
-            }
-
-            @Override public List<? extends Type> keyTypes() {
-              throw new UnsupportedOperationException();
-            }
-
-            @Override public RexWindowExclusion getExclude() {
-              return exclusion;
-            }
-          };
+          winAggContext(typeFactory, result, agg, exclusion, removable);
       String aggName = "a" + agg.aggIdx;
       if (CalciteSystemProperty.DEBUG.value()) {
         aggName = Util.toJavaId(agg.call.getAggregation().getName(), 0)
@@ -860,6 +937,59 @@ private void declareAndResetState(final JavaTypeFactory typeFactory,
               castNonNull(null), castNonNull(null), castNonNull(null), castNonNull(null),
               castNonNull(null), castNonNull(null)));
     }
+    return removable;
+  }
+
+  private WinAggContext winAggContext(final JavaTypeFactory typeFactory,
+      final Result result, final AggImpState agg,
+      final RexWindowExclusion exclusion, final boolean removable) {
+    return new WinAggContext() {
+      @Override public SqlAggFunction aggregation() {
+        return agg.call.getAggregation();
+      }
+
+      @Override public RelDataType returnRelType() {
+        return agg.call.type;
+      }
+
+      @Override public Type returnType() {
+        return EnumUtils.javaClass(typeFactory, returnRelType());
+      }
+
+      @Override public List<? extends Type> parameterTypes() {
+        return EnumUtils.fieldTypes(typeFactory,
+            parameterRelTypes());
+      }
+
+      @Override public List<? extends RelDataType> parameterRelTypes() {
+        return EnumUtils.fieldRowTypes(result.physType.getRowType(),
+            constants, agg.call.getArgList());
+      }
+
+      @Override public List<ImmutableBitSet> groupSets() {
+        throw new UnsupportedOperationException();
+      }
+
+      @Override public List<Integer> keyOrdinals() {
+        throw new UnsupportedOperationException();
+      }
+
+      @Override public List<? extends RelDataType> keyRelTypes() {
+        throw new UnsupportedOperationException();
+      }
+
+      @Override public List<? extends Type> keyTypes() {
+        throw new UnsupportedOperationException();
+      }
+
+      @Override public RexWindowExclusion getExclude() {
+        return exclusion;
+      }
+
+      @Override public boolean isRemovable() {
+        return removable;
+      }
+    };
   }
 
   private static void implementAdd(List<AggImpState> aggs,
@@ -868,24 +998,46 @@ private static void implementAdd(List<AggImpState> aggs,
       final Function<AggImpState, List<RexNode>> rexArguments,
       final DeclarationStatement jDecl) {
     for (final AggImpState agg : aggs) {
-      final WinAggAddContext addContext =
-          new WinAggAddContextImpl(builder7, requireNonNull(agg.state, "agg.state"), frame) {
-            @Override public Expression currentPosition() {
-              return jDecl.parameter;
-            }
-
-            @Override public List<RexNode> rexArguments() {
-              return rexArguments.apply(agg);
-            }
-
-            @Override public @Nullable RexNode rexFilterArgument() {
-              return null; // REVIEW
-            }
-          };
-      agg.implementor.implementAdd(requireNonNull(agg.context, "agg.context"), addContext);
+      agg.implementor.implementAdd(requireNonNull(agg.context, "agg.context"),
+          addContext(agg, builder7, frame, rexArguments, jDecl));
+    }
+  }
+
+  private static void implementRemove(List<AggImpState> aggs,
+      final BlockBuilder builder,
+      final Function<BlockBuilder, WinAggFrameResultContext> frame,
+      final Function<AggImpState, List<RexNode>> rexArguments,
+      final DeclarationStatement rDecl) {
+    for (final AggImpState agg : aggs) {
+      ((RemovableAggImplementor) agg.implementor).implementRemove(
+          requireNonNull(agg.context, "agg.context"),
+          addContext(agg, builder, frame, rexArguments, rDecl));
     }
   }
 
+  /** Creates a context for adding the row at {@code jDecl} to, or removing
+   * it from, the accumulator of an aggregate. */
+  private static WinAggAddContext addContext(final AggImpState agg,
+      final BlockBuilder builder,
+      final Function<BlockBuilder, WinAggFrameResultContext> frame,
+      final Function<AggImpState, List<RexNode>> rexArguments,
+      final DeclarationStatement jDecl) {
+    return new WinAggAddContextImpl(builder,
+        requireNonNull(agg.state, "agg.state"), frame) {
+      @Override public Expression currentPosition() {
+        return jDecl.parameter;
+      }
+
+      @Override public List<RexNode> rexArguments() {
+        return rexArguments.apply(agg);
+      }
+
+      @Override public @Nullable RexNode rexFilterArgument() {
+        return null; // REVIEW
+      }
+    };
+  }
+
   private static boolean implementResult(List<AggImpState> aggs,
       final BlockBuilder builder,
       final Function<BlockBuilder, WinAggFrameResultContext> frame,
@@ -0,0 +1,65 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.calcite.adapter.enumerable;
+
+/**
+ * Implements an aggregate function whose accumulator can also remove a row
+ * that was previously added to it.
+ *
+ * <p>When the start of a window frame moves forward, a window whose
+ * aggregates all support removal removes the rows that have left the frame
+ * and adds the rows that have entered it, rather than resetting the
+ * accumulator and adding every row of the new frame. A moving frame over
+ * {@code n} rows then costs {@code O(n)} rather than {@code O(n * w)}, where
+ * {@code w} is the size of the frame.
+ *
+ * <p>Rows are added in increasing order of
+ * {@link WinAggAddContext#currentPosition()}, and removed in the order in
+ * which they were added.
+ *
+ * <p>A sub-class of {@link StrictAggImplementor} implements
+ * {@link #implementRemove} by calling
+ * {@link StrictAggImplementor#implementStrictRemove}, which skips null
+ * arguments in the same way as adding a row does.
+ */
+public interface RemovableAggImplementor extends AggImplementor {
+  /**
+   * Returns whether this implementor can remove rows for a particular call.
+   *
+   * <p>Calcite calls this method before
+   * {@link #getStateType(AggContext)}, with a context whose
+   * {@link WinAggContext#isRemovable()} returns true. If it returns true for
+   * every aggregate of a window, the state of each aggregate is then
+   * created with that context.
+   *
+   * @param info Aggregate context
+   * @return Whether rows can be removed
+   */
+  boolean supportsRemove(AggContext info);
+
+  /**
+   * Updates intermediate values to account for the removal of a value that
+   * was previously added. The context describes the row being removed, in
+   * the same way that the context of
+   * {@link #implementAdd(AggContext, AggAddContext)} describes the row being
+   * added.
+   *
+   * @param info Aggregate context
+   * @param remove Remove context
+   */
+  void implementRemove(AggContext info, AggAddContext remove);
+}
@@ -47,6 +47,7 @@
 import org.apache.calcite.rex.RexWindowExclusion;
 import org.apache.calcite.runtime.FlatLists;
 import org.apache.calcite.runtime.PairList;
+import org.apache.calcite.runtime.SlidingExtremum;
 import org.apache.calcite.runtime.SqlFunctions;
 import org.apache.calcite.schema.FunctionContext;
 import org.apache.calcite.schema.ImplementableAggFunction;
@@ -1682,7 +1683,8 @@ static class CountImplementor extends StrictAggImplementor {
   }
 
   /** Implementor for the {@code COUNT} windowed aggregate function. */
-  static class CountWinImplementor extends StrictWinAggImplementor {
+  static class CountWinImplementor extends StrictWinAggImplementor
+      implements RemovableAggImplementor {
     boolean justFrameRowCount;
 
     @Override public List<Type> getNotNullState(WinAggContext info) {
@@ -1717,10 +1719,29 @@ static class CountWinImplementor extends StrictWinAggImplementor {
       }
       return super.implementNotNullResult(info, result);
     }
+
+    @Override public boolean supportsRemove(AggContext info) {
+      return true;
+    }
+
+    @Override public void implementRemove(AggContext info,
+        AggAddContext remove) {
+      implementStrictRemove(remove, () -> implementNotNullRemove(remove));
+    }
+
+    private void implementNotNullRemove(AggAddContext remove) {
+      if (justFrameRowCount) {
+        return;
+      }
+      remove.currentBlock().add(
+          Expressions.statement(
+              Expressions.postDecrementAssign(remove.accumulator().get(0))));
+    }
   }
 
   /** Implementor for the {@code SUM} windowed aggregate function. */
-  static class SumImplementor extends StrictAggImplementor {
+  static class SumImplementor extends StrictAggImplementor
+      implements RemovableAggImplementor {
     @Override protected void implementNotNullReset(AggContext info,
         AggResetContext reset) {
       Expression start = info.returnType() == BigDecimal.class
@@ -1749,15 +1770,71 @@ static class SumImplementor extends StrictAggImplementor {
         AggResultContext result) {
       return super.implementNotNullResult(info, result);
     }
+
+    /** {@inheritDoc}
+     *
+     * <p>Only exact sums can remove rows; removing from an approximate sum
+     * would accumulate rounding errors. */
+    @Override public boolean supportsRemove(AggContext info) {
+      final Type type = info.returnType();
+      if (type == BigDecimal.class) {
+        return true;
+      }
+      final Primitive primitive = Primitive.of(Primitive.unbox(type));
+      return primitive != null && primitive.isFixedNumeric();
+    }
+
+    @Override public void implementRemove(AggContext info,
+        AggAddContext remove) {
+      implementStrictRemove(remove, () -> implementNotNullRemove(info, remove));
+    }
+
+    private static void implementNotNullRemove(AggContext info,
+        AggAddContext remove) {
+      Expression acc = remove.accumulator().get(0);
+      Expression next;
+      if (info.returnType() == BigDecimal.class) {
+        next = Expressions.call(acc, "subtract", remove.arguments().get(0));
+      } else {
+        final Expression arg =
+            EnumUtils.convert(remove.arguments().get(0), acc.type);
+        next = Expressions.subtract(acc, arg);
+      }
+      accAdvance(remove, acc, next);
+    }
   }
 
-  /** Implementor for the {@code MIN} and {@code MAX} aggregate functions. */
-  static class MinMaxImplementor extends StrictAggImplementor {
+  /** Implementor for the {@code MIN} and {@code MAX} aggregate functions.
+   *
+   * <p>In a window that removes rows, the accumulator is a
+   * {@link SlidingExtremum}. */
+  static class MinMaxImplementor extends StrictAggImplementor
+      implements RemovableAggImplementor {
+    @Override public boolean supportsRemove(AggContext info) {
+      final SqlKind kind = info.aggregation().kind;
+      return kind == SqlKind.MIN || kind == SqlKind.MAX;
+    }
+
+    @Override public List<Type> getNotNullState(AggContext info) {
+      if (isRemovable()) {
+        return Collections.singletonList(SlidingExtremum.class);
+      }
+      return super.getNotNullState(info);
+    }
+
     @Override protected void implementNotNullReset(AggContext info,
         AggResetContext reset) {
       Expression acc = reset.accumulator().get(0);
-      Primitive p = Primitive.of(acc.getType());
       final boolean isMin = info.aggregation().kind == SqlKind.MIN;
+      if (isRemovable()) {
+        reset.currentBlock().add(
+            Expressions.statement(
+                Expressions.assign(acc,
+                    Expressions.new_(SlidingExtremum.class,
+                        Expressions.constant(isMin)))));
+        return;
+      }
+      Primitive p = Primitive.of(acc.getType());
       Object inf = p == null ? null : (isMin ? p.max : p.min);
       reset.currentBlock().add(
           Expressions.statement(
@@ -1769,6 +1846,14 @@ static class MinMaxImplementor extends StrictAggImplementor {
         AggAddContext add) {
       Expression acc = add.accumulator().get(0);
       Expression arg = add.arguments().get(0);
+      if (isRemovable()) {
+        add.currentBlock().add(
+            Expressions.statement(
+                Expressions.call(acc, "add",
+                    ((WinAggAddContext) add).currentPosition(),
+                    Expressions.box(arg))));
+        return;
+      }
       final boolean isMin = info.aggregation().kind == SqlKind.MIN;
       final Method method = (isMin
           ? BuiltInMethod.LESSER
@@ -1778,6 +1863,25 @@ static class MinMaxImplementor extends StrictAggImplementor {
               acc, Expressions.unbox(arg));
       accAdvance(add, acc, next);
     }
+
+    @Override public void implementRemove(AggContext info,
+        AggAddContext remove) {
+      implementStrictRemove(remove, () ->
+          remove.currentBlock().add(
+              Expressions.statement(
+                  Expressions.call(remove.accumulator().get(0), "remove",
+                      ((WinAggAddContext) remove).currentPosition()))));
+    }
+
+    @Override protected Expression implementNotNullResult(AggContext info,
+        AggResultContext result) {
+      if (isRemovable()) {
+        return Expressions.convert_(
+            Expressions.call(result.accumulator().get(0), "get"),
+            Primitive.box(info.returnType()));
+      }
+      return super.implementNotNullResult(info, result);
+    }
   }
 
   /** Implementor for the {@code ARG_MIN} and {@code ARG_MAX} aggregate
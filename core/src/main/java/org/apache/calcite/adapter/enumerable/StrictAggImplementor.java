@@ -39,6 +39,7 @@
 public abstract class StrictAggImplementor implements AggImplementor {
   private boolean needTrackEmptySet;
   private boolean trackNullsPerRow;
+  private boolean removable;
   private int stateSize;
 
   protected boolean nonDefaultOnEmptySet(AggContext info) {
@@ -49,6 +50,13 @@ protected final int getStateSize() {
     return stateSize;
   }
 
+  /** Returns whether the accumulator will be asked to remove rows; valid
+   * from the call to {@link #getStateType(AggContext)}. Never true unless
+   * the sub-class implements {@link RemovableAggImplementor}. */
+  protected final boolean isRemovable() {
+    return removable;
+  }
+
   protected static void accAdvance(AggAddContext add, Expression acc,
       Expression next) {
     add.currentBlock().add(
@@ -57,6 +65,8 @@ protected static void accAdvance(AggAddContext add, Expression acc,
   }
 
   @Override public final List<Type> getStateType(AggContext info) {
+    removable = info instanceof WinAggContext
+        && ((WinAggContext) info).isRemovable();
     List<Type> subState = getNotNullState(info);
     stateSize = subState.size();
     needTrackEmptySet = nonDefaultOnEmptySet(info);
@@ -68,7 +78,11 @@ protected static void accAdvance(AggAddContext add, Expression acc,
 
     List<Type> res = new ArrayList<>(subState.size() + 1);
     res.addAll(subState);
-    res.add(boolean.class); // has not nulls
+    if (removable) {
+      res.add(int.class); // number of not null rows
+    } else {
+      res.add(boolean.class); // has not nulls
+    }
     return res;
   }
 
@@ -115,6 +129,28 @@ protected void implementNotNullReset(AggContext info,
   }
 
   @Override public final void implementAdd(AggContext info, final AggAddContext add) {
+    implementAddOrRemove(add, false, () -> implementNotNullAdd(info, add));
+  }
+
+  /** Implements {@link RemovableAggImplementor#implementRemove} for a
+   * sub-class that implements that interface. Skips the row if any of its
+   * arguments is null or it does not pass the filter, as
+   * {@link #implementAdd} does, updates the count of non-null rows, and
+   * calls {@code notNullRemove} to generate code that removes the row from
+   * the rest of the accumulator.
+   *
+   * @param remove        Remove context
+   * @param notNullRemove Generates code, in the current block of
+   *                      {@code remove}, that removes a row whose arguments
+   *                      are not null
+   */
+  protected final void implementStrictRemove(AggAddContext remove,
+      Runnable notNullRemove) {
+    implementAddOrRemove(remove, true, notNullRemove);
+  }
+
+  private void implementAddOrRemove(final AggAddContext add, boolean remove,
+      Runnable notNull) {
     final List<RexNode> args = add.rexArguments();
     final RexToLixTranslator translator = add.rowTranslator();
     final List<Expression> conditions = new ArrayList<>();
@@ -138,18 +174,22 @@ protected void implementNotNullReset(AggContext info,
         : new BlockBuilder(true, add.currentBlock());
     if (trackNullsPerRow) {
       List<Expression> acc = add.accumulator();
+      final Expression flag = acc.get(acc.size() - 1);
       thenBlock.add(
           Expressions.statement(
-              Expressions.assign(acc.get(acc.size() - 1),
-                  Expressions.constant(true))));
+              !removable
+                  ? Expressions.assign(flag, Expressions.constant(true))
+                  : remove
+                  ? Expressions.postDecrementAssign(flag)
+                  : Expressions.postIncrementAssign(flag)));
     }
     if (argsNotNull) {
-      implementNotNullAdd(info, add);
+      notNull.run();
       return;
     }
 
     add.nestBlock(thenBlock);
-    implementNotNullAdd(info, add);
+    notNull.run();
     add.exitBlock();
     add.currentBlock().add(Expressions.ifThen(condition, thenBlock.toBlock()));
   }
@@ -178,9 +218,12 @@ protected abstract void implementNotNullAdd(AggContext info,
     thenBlock.add(Expressions.statement(Expressions.assign(res, nonNull)));
     BlockStatement thenBranch = thenBlock.toBlock();
     Expression seenNotNullRows =
-        trackNullsPerRow
-        ? acc.get(acc.size() - 1)
-        : ((WinAggResultContext) result).hasRows();
+        !trackNullsPerRow
+        ? ((WinAggResultContext) result).hasRows()
+        : removable
+        ? Expressions.greaterThan(acc.get(acc.size() - 1),
+            Expressions.constant(0))
+        : acc.get(acc.size() - 1);
 
     if (thenBranch.statements.size() == 1) {
       return Expressions.condition(seenNotNullRows,
@@ -26,4 +26,12 @@
 public interface WinAggContext extends AggContext {
   /** The exclude clause of the group of the window function. */
   RexWindowExclusion getExclude();
+
+  /** Whether the accumulator will be asked to remove rows as well as add
+   * them; if true, the implementor is a {@link RemovableAggImplementor} that
+   * has returned true from
+   * {@link RemovableAggImplementor#supportsRemove(AggContext)}. */
+  default boolean isRemovable() {
+    return false;
+  }
 }
@@ -48,12 +48,24 @@ public class JdbcConvention extends Convention.Impl {
 
   public final SqlDialect dialect;
   public final Expression expression;
+  /** Number of rows that the JDBC driver should fetch at a time, or 0 to use
+   * the driver's default. */
+  public final int fetchSize;
+  /** Whether to fetch and convert rows on a background thread. */
+  public final boolean prefetch;
 
   public JdbcConvention(SqlDialect dialect, Expression expression,
       String name) {
+    this(dialect, expression, name, 0, false);
+  }
+
+  public JdbcConvention(SqlDialect dialect, Expression expression,
+      String name, int fetchSize, boolean prefetch) {
     super("JDBC." + name, JdbcRel.class);
     this.dialect = dialect;
     this.expression = expression;
+    this.fetchSize = fetchSize;
+    this.prefetch = prefetch;
   }
 
   public static JdbcConvention of(SqlDialect dialect, Expression expression,
@@ -61,6 +73,11 @@ public static JdbcConvention of(SqlDialect dialect, Expression expression,
     return new JdbcConvention(dialect, expression, name);
   }
 
+  public static JdbcConvention of(SqlDialect dialect, Expression expression,
+      String name, int fetchSize, boolean prefetch) {
+    return new JdbcConvention(dialect, expression, name, fetchSize, prefetch);
+  }
+
   @Override public void register(RelOptPlanner planner) {
     for (RelOptRule rule : JdbcRules.rules(this)) {
       planner.addRule(rule);
@@ -16,6 +16,7 @@
  */
 package org.apache.calcite.adapter.jdbc;
 
+import org.apache.calcite.adapter.enumerable.EnumerableBatchNestedLoopJoinRule;
 import org.apache.calcite.linq4j.Queryable;
 import org.apache.calcite.linq4j.tree.Expression;
 import org.apache.calcite.plan.Contexts;
@@ -49,6 +50,7 @@
 import org.apache.calcite.rel.core.TableModify;
 import org.apache.calcite.rel.core.Union;
 import org.apache.calcite.rel.core.Values;
+import org.apache.calcite.rel.logical.LogicalJoin;
 import org.apache.calcite.rel.metadata.RelMdUtil;
 import org.apache.calcite.rel.metadata.RelMetadataQuery;
 import org.apache.calcite.rel.rel2sql.SqlImplementor;
@@ -222,6 +224,29 @@ private JdbcRules() {
               TABLE_SCAN_FACTORY,
               SNAPSHOT_FACTORY));
 
+  /** Rule that joins an input to a JDBC input by sending the join keys of
+   * the first input to the JDBC data source, so that it returns only the rows
+   * that match.
+   *
+   * <p>It creates an
+   * {@link org.apache.calcite.adapter.enumerable.EnumerableBatchNestedLoopJoin}
+   * that passes the distinct keys of each batch of left rows to the data
+   * source as dynamic parameters, in a query of the form
+   * {@code SELECT ... WHERE key IN (?, ?, ...)}. It is useful when a small
+   * result is joined to a large table in a different data source, so that the
+   * join cannot be pushed down as a {@link JdbcJoin}.
+   *
+   * <p>It is not registered by default. */
+  public static final RelOptRule BATCH_JOIN =
+      EnumerableBatchNestedLoopJoinRule.Config.DEFAULT
+          .withOperandSupplier(b0 ->
+              b0.operand(LogicalJoin.class).inputs(
+                  b1 -> b1.operand(RelNode.class).anyInputs(),
+                  b2 -> b2.operand(JdbcRel.class).anyInputs()))
+          .withDescription("JdbcBatchJoinRule")
+          .as(EnumerableBatchNestedLoopJoinRule.Config.class)
+          .toRule();
+
   /** Creates a list of rules with the given JDBC convention instance. */
   public static List<RelOptRule> rules(JdbcConvention out) {
     final ImmutableList.Builder<RelOptRule> b = ImmutableList.builder();
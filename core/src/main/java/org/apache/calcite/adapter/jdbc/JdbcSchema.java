@@ -132,11 +132,38 @@ public static JdbcSchema create(
       SqlDialectFactory dialectFactory,
       @Nullable String catalog,
       @Nullable String schema) {
+    return create(parentSchema, name, dataSource, dialectFactory, catalog,
+        schema, 0, false);
+  }
+
+  /**
+   * Creates a JdbcSchema, specifying how rows are fetched.
+   *
+   * @param parentSchema Parent schema
+   * @param name Name
+   * @param dataSource Data source
+   * @param dialectFactory Factory for the SQL dialect
+   * @param catalog Catalog name, or null
+   * @param schema Schema name pattern
+   * @param fetchSize Number of rows that the JDBC driver should fetch at a
+   *                  time, or 0 to use the driver's default
+   * @param prefetch Whether to fetch and convert rows on a background thread
+   * @return A JdbcSchema
+   */
+  public static JdbcSchema create(
+      SchemaPlus parentSchema,
+      String name,
+      DataSource dataSource,
+      SqlDialectFactory dialectFactory,
+      @Nullable String catalog,
+      @Nullable String schema,
+      int fetchSize,
+      boolean prefetch) {
     final Expression expression =
         Schemas.subSchemaExpression(parentSchema, name, JdbcSchema.class);
     final SqlDialect dialect = createDialect(dialectFactory, dataSource);
     final JdbcConvention convention =
-        JdbcConvention.of(dialect, expression, name);
+        JdbcConvention.of(dialect, expression, name, fetchSize, prefetch);
     return new JdbcSchema(dataSource, dialect, convention, catalog, schema);
   }
 
@@ -171,17 +198,24 @@ public static JdbcSchema create(
     String jdbcCatalog = (String) operand.get("jdbcCatalog");
     String jdbcSchema = (String) operand.get("jdbcSchema");
     String sqlDialectFactory = (String) operand.get("sqlDialectFactory");
+    // Values are numbers and booleans in a JSON model, but strings in a
+    // connect string
+    final Object jdbcFetchSize = operand.get("jdbcFetchSize");
+    final Object jdbcPrefetch = operand.get("jdbcPrefetch");
 
+    final SqlDialectFactory factory;
     if (sqlDialectFactory == null || sqlDialectFactory.isEmpty()) {
-      return JdbcSchema.create(
-          parentSchema, name, dataSource, jdbcCatalog, jdbcSchema);
+      factory = SqlDialectFactoryImpl.INSTANCE;
     } else {
-      SqlDialectFactory factory =
+      factory =
           AvaticaUtils.instantiatePlugin(SqlDialectFactory.class,
               sqlDialectFactory);
-      return JdbcSchema.create(parentSchema, name, dataSource, factory,
-          jdbcCatalog, jdbcSchema);
     }
+    return JdbcSchema.create(parentSchema, name, dataSource, factory,
+        jdbcCatalog, jdbcSchema,
+        jdbcFetchSize == null ? 0
+            : Integer.parseInt(String.valueOf(jdbcFetchSize)),
+        Boolean.parseBoolean(String.valueOf(jdbcPrefetch)));
   }
 
   /**
@@ -243,6 +243,20 @@ protected JdbcToEnumerableConverter(
             Expressions.call(enumerable,
                 BuiltInMethod.RESULT_SET_ENUMERABLE_SET_TIMEOUT.method,
                 DataContext.ROOT)));
+    if (jdbcConvention.fetchSize > 0) {
+      builder0.add(
+          Expressions.statement(
+              Expressions.call(enumerable,
+                  BuiltInMethod.RESULT_SET_ENUMERABLE_SET_FETCH_SIZE.method,
+                  Expressions.constant(jdbcConvention.fetchSize))));
+    }
+    if (jdbcConvention.prefetch) {
+      builder0.add(
+          Expressions.statement(
+              Expressions.call(enumerable,
+                  BuiltInMethod.RESULT_SET_ENUMERABLE_SET_PREFETCH.method,
+                  Expressions.constant(true))));
+    }
     builder0.add(
         Expressions.return_(null, enumerable));
     return implementor.result(physType, builder0.toBlock());
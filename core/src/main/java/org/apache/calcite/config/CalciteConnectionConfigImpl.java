@@ -215,6 +215,11 @@ public boolean isSet(CalciteConnectionProperty property) {
         .getBoolean();
   }
 
+  @Override public long planningBudget() {
+    return CalciteConnectionProperty.PLANNING_BUDGET.wrap(properties)
+        .getLong();
+  }
+
   @Override public <T> @PolyNull T metaTableFactory(
       Class<T> metaTableFactoryClass,
       @PolyNull T defaultMetaTableFactory) {
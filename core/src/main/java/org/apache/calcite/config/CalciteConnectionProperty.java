@@ -186,7 +186,13 @@ public enum CalciteConnectionProperty implements ConnectionProperty {
   LENIENT_OPERATOR_LOOKUP("lenientOperatorLookup", Type.BOOLEAN, false, false),
 
   /** Whether to enable top-down optimization in Volcano planner. */
-  TOPDOWN_OPT("topDownOpt", Type.BOOLEAN, CalciteSystemProperty.TOPDOWN_OPT.value(), false);
+  TOPDOWN_OPT("topDownOpt", Type.BOOLEAN, CalciteSystemProperty.TOPDOWN_OPT.value(), false),
+
+  /** Wall-clock budget for Volcano planning, in milliseconds. When it
+   * expires, the planner stops exploring and returns the cheapest plan
+   * that it can build from the expressions explored so far. Default 0
+   * means unlimited. */
+  PLANNING_BUDGET("planningBudget", Type.NUMBER, 0, false);
 
   private final String camelName;
   private final Type type;
@@ -392,6 +392,18 @@
   public static final CalciteSystemProperty<Integer> BINDABLE_CACHE_CONCURRENCY_LEVEL =
       intProperty("calcite.bindable.cache.concurrencyLevel", 1, v -> v >= 1);
 
+  /**
+   * Directory in which to persist the bytecode of classes generated and
+   * compiled by Janino, such as metadata handlers and the code of Enumerable
+   * plans, so that a new JVM can load them instead of compiling them again.
+   *
+   * <p>The default value is the empty string, which disables the cache.
+   *
+   * @see org.apache.calcite.util.javac.CompiledClassCache
+   */
+  public static final CalciteSystemProperty<String> COMPILED_CLASS_CACHE_DIRECTORY =
+      stringProperty("calcite.compiled.class.cache.directory", "");
+
   /**
    * The maximum number of items in a function-level cache.
    *
@@ -25,14 +25,21 @@
 import com.google.common.collect.Ordering;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Comparator;
 import java.util.List;
+import java.util.PriorityQueue;
 
 import static java.util.Objects.requireNonNull;
 
 /**
  * Interpreter node that implements a
  * {@link org.apache.calcite.rel.core.Sort}.
+ *
+ * <p>If there is a {@code fetch}, keeps only the first
+ * {@code offset + fetch} rows in a bounded heap rather than sorting the whole
+ * input. If there is no sort key, stops reading the input once it has
+ * {@code offset + fetch} rows.
  */
 public class SortNode extends AbstractSingleNode<Sort> {
   public SortNode(Compiler compiler, Sort rel) {
@@ -57,6 +64,9 @@ private static int getValueAsInt(RexNode node) {
     Row row;
   loop:
     if (rel.getCollation().getFieldCollations().isEmpty()) {
+      if (fetch == 0) {
+        break loop;
+      }
       for (int i = 0; i < offset; i++) {
         row = source.receive();
         if (row == null) {
@@ -72,6 +82,14 @@ private static int getValueAsInt(RexNode node) {
           sink.send(row);
         }
       }
+    } else if (fetch >= 0 && (long) offset + fetch <= Integer.MAX_VALUE) {
+      // Keep only the first "offset + fetch" rows.
+      if (fetch > 0) {
+        final List<Row> list = topN(offset + fetch);
+        for (int i = offset; i < list.size(); i++) {
+          sink.send(list.get(i));
+        }
+      }
     } else {
       // Build a sorted collection.
       final List<Row> list = new ArrayList<>();
@@ -79,7 +97,7 @@ private static int getValueAsInt(RexNode node) {
         list.add(row);
       }
       list.sort(comparator());
-      final int end = fetch < 0 || offset + fetch > list.size()
+      final int end = fetch < 0 || (long) offset + fetch > list.size()
           ? list.size()
           : offset + fetch;
       for (int i = offset; i < end; i++) {
@@ -89,6 +107,34 @@ private static int getValueAsInt(RexNode node) {
     sink.end();
   }
 
+  /** Reads all rows from the source and returns the first {@code n} in sort
+   * order, in {@code O(n)} space and {@code O(r log n)} time for {@code r}
+   * rows.
+   *
+   * <p>Rows are held in a heap whose root is the last of the rows retained
+   * so far; a row that sorts before the root replaces it. As in a stable sort,
+   * rows that compare equal keep the order in which they were received. */
+  private List<Row> topN(int n) throws InterruptedException {
+    final Comparator<Row> comparator = comparator();
+    final Comparator<RankedRow> rankedComparator =
+        Comparator.<RankedRow, Row>comparing(r -> r.row, comparator)
+            .thenComparingLong(r -> r.ordinal);
+    final PriorityQueue<RankedRow> heap =
+        new PriorityQueue<>(Math.min(n, 1024), rankedComparator.reversed());
+    long ordinal = 0;
+    for (Row row; (row = source.receive()) != null; ++ordinal) {
+      if (heap.size() < n) {
+        heap.add(new RankedRow(row, ordinal));
+      } else if (comparator.compare(row, heap.element().row) < 0) {
+        heap.poll();
+        heap.add(new RankedRow(row, ordinal));
+      }
+    }
+    final RankedRow[] rows = heap.toArray(new RankedRow[0]);
+    Arrays.sort(rows, rankedComparator);
+    return Util.transform(Arrays.asList(rows), r -> r.row);
+  }
+
   private Comparator<Row> comparator() {
     if (rel.getCollation().getFieldCollations().size() == 1) {
       return comparator(rel.getCollation().getFieldCollations().get(0));
@@ -116,4 +162,15 @@ private static Comparator<Row> comparator(RelFieldCollation fieldCollation) {
       };
     }
   }
+
+  /** Row and the ordinal at which it was received. */
+  private static class RankedRow {
+    final Row row;
+    final long ordinal;
+
+    RankedRow(Row row, long ordinal) {
+      this.row = row;
+      this.ordinal = ordinal;
+    }
+  }
 }
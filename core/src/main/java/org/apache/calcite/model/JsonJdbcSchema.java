@@ -76,6 +76,20 @@ public class JsonJdbcSchema extends JsonSchema {
    */
   public final @Nullable String jdbcSchema;
 
+  /** Number of rows that the JDBC driver should fetch from the database at a
+   * time.
+   *
+   * <p>Optional. If not specified, uses the driver's default.
+   */
+  public final @Nullable Integer jdbcFetchSize;
+
+  /** Whether to fetch and convert rows on a background thread, so that
+   * waiting for the database overlaps with processing rows.
+   *
+   * <p>Optional. The default is false.
+   */
+  public final @Nullable Boolean jdbcPrefetch;
+
   @JsonCreator
   public JsonJdbcSchema(
       @JsonProperty(value = "name", required = true) String name,
@@ -88,7 +102,9 @@ public JsonJdbcSchema(
       @JsonProperty("jdbcUser") @Nullable String jdbcUser,
       @JsonProperty("jdbcPassword") @Nullable String jdbcPassword,
       @JsonProperty("jdbcCatalog") @Nullable String jdbcCatalog,
-      @JsonProperty("jdbcSchema") @Nullable String jdbcSchema) {
+      @JsonProperty("jdbcSchema") @Nullable String jdbcSchema,
+      @JsonProperty("jdbcFetchSize") @Nullable Integer jdbcFetchSize,
+      @JsonProperty("jdbcPrefetch") @Nullable Boolean jdbcPrefetch) {
     super(name, path, cache, autoLattice);
     this.jdbcDriver = jdbcDriver;
     this.sqlDialectFactory = sqlDialectFactory;
@@ -97,6 +113,8 @@ public JsonJdbcSchema(
     this.jdbcPassword = jdbcPassword;
     this.jdbcCatalog = jdbcCatalog;
     this.jdbcSchema = jdbcSchema;
+    this.jdbcFetchSize = jdbcFetchSize;
+    this.jdbcPrefetch = jdbcPrefetch;
   }
 
   @Override public void accept(ModelHandler handler) {
@@ -42,6 +42,7 @@
 import org.apache.calcite.schema.impl.ViewTable;
 import org.apache.calcite.schema.lookup.LikePattern;
 import org.apache.calcite.sql.SqlDialectFactory;
+import org.apache.calcite.sql.SqlDialectFactoryImpl;
 import org.apache.calcite.sql.type.SqlTypeName;
 import org.apache.calcite.util.Pair;
 import org.apache.calcite.util.Util;
@@ -329,19 +330,19 @@ public void visit(JsonJdbcSchema jsonSchema) {
             jsonSchema.jdbcDriver,
             jsonSchema.jdbcUser,
             jsonSchema.jdbcPassword);
-    final JdbcSchema schema;
+    final SqlDialectFactory factory;
     if (jsonSchema.sqlDialectFactory == null || jsonSchema.sqlDialectFactory.isEmpty()) {
-      schema =
-          JdbcSchema.create(parentSchema, jsonSchema.name, dataSource,
-              jsonSchema.jdbcCatalog, jsonSchema.jdbcSchema);
+      factory = SqlDialectFactoryImpl.INSTANCE;
     } else {
-      SqlDialectFactory factory =
+      factory =
           AvaticaUtils.instantiatePlugin(SqlDialectFactory.class,
               jsonSchema.sqlDialectFactory);
-      schema =
-          JdbcSchema.create(parentSchema, jsonSchema.name, dataSource,
-              factory, jsonSchema.jdbcCatalog, jsonSchema.jdbcSchema);
     }
+    final JdbcSchema schema =
+        JdbcSchema.create(parentSchema, jsonSchema.name, dataSource,
+            factory, jsonSchema.jdbcCatalog, jsonSchema.jdbcSchema,
+            jsonSchema.jdbcFetchSize == null ? 0 : jsonSchema.jdbcFetchSize,
+            jsonSchema.jdbcPrefetch != null && jsonSchema.jdbcPrefetch);
     final SchemaPlus schemaPlus = parentSchema.add(jsonSchema.name, schema);
     populateSchema(jsonSchema, schemaPlus);
   }
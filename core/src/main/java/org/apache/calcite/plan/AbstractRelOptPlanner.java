@@ -74,6 +74,8 @@ public abstract class AbstractRelOptPlanner implements RelOptPlanner {
 
   private @MonotonicNonNull RuleAttemptsListener ruleAttemptsListener;
 
+  private PlannerMetrics.@MonotonicNonNull Recorder metricsRecorder;
+
   private @Nullable Pattern ruleDescExclusionFilter;
 
   protected final AtomicBoolean cancelFlag;
@@ -117,6 +119,12 @@ protected AbstractRelOptPlanner(RelOptCostFactory costFactory,
       addListener(this.ruleAttemptsListener);
     }
     addListener(new RuleEventLogger());
+
+    final PlannerMetrics metrics = context.unwrap(PlannerMetrics.class);
+    if (metrics != null) {
+      this.metricsRecorder = metrics.recorder();
+      addListener(this.metricsRecorder);
+    }
   }
 
   //~ Methods ----------------------------------------------------------------
@@ -253,6 +261,7 @@ protected void onNewClass(RelNode node) {
   }
 
   @Override public @Nullable RelOptCost getCost(RelNode rel, RelMetadataQuery mq) {
+    recordMetadataCall();
     return mq.getCumulativeCost(rel);
   }
 
@@ -308,6 +317,47 @@ protected void onNewClass(RelNode node) {
     // do nothing
   }
 
+  /**
+   * Records the work done by this planner into the given metrics.
+   *
+   * <p>May be called at most once, and not if the metrics were given via the
+   * planner's {@link Context}.
+   */
+  public void setMetrics(PlannerMetrics metrics) {
+    if (metricsRecorder != null) {
+      throw new IllegalStateException("planner already has metrics");
+    }
+    metricsRecorder = metrics.recorder();
+    addListener(metricsRecorder);
+  }
+
+  /** Returns the metrics that this planner records into, or null. */
+  public @Nullable PlannerMetrics getMetrics() {
+    return metricsRecorder == null ? null : metricsRecorder.metrics();
+  }
+
+  /** Records a cost metadata request against the rule that is firing, if
+   * this planner has metrics. */
+  protected void recordMetadataCall() {
+    if (metricsRecorder != null) {
+      metricsRecorder.metadataCall();
+    }
+  }
+
+  /** Records that a call to {@link #findBestExp()} has completed, if this
+   * planner has metrics.
+   *
+   * @param nanos          Elapsed time
+   * @param relSetCount    Number of equivalence sets in the memo
+   * @param relSubsetCount Number of subsets in the memo
+   */
+  protected void recordPlanningCompleted(long nanos, int relSetCount,
+      int relSubsetCount) {
+    if (metricsRecorder != null) {
+      metricsRecorder.planningCompleted(nanos, relSetCount, relSubsetCount);
+    }
+  }
+
   protected void dumpRuleAttemptsInfo() {
     if (this.ruleAttemptsListener != null) {
       RULE_ATTEMPTS_LOGGER.debug("Rule Attempts Info for " + this.getClass().getSimpleName());
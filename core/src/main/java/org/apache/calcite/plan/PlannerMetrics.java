@@ -0,0 +1,274 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.calcite.plan;
+
+import org.apache.calcite.util.Util;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+/**
+ * Metrics about the work done by planners.
+ *
+ * <p>For each rule, records how many times it fired, the cumulative time
+ * spent in its {@link RelOptRule#onMatch(RelOptRuleCall)}, how many
+ * expressions it produced, and how many cost metadata requests it triggered.
+ * For each planning, records the elapsed time and the size of the memo.
+ *
+ * <p>An instance may be shared by any number of planners in any number of
+ * threads. To record the work of a planner, call
+ * {@link AbstractRelOptPlanner#setMetrics(PlannerMetrics)}, or put the
+ * metrics in the {@link Context} given to the planner. Counters are
+ * {@link LongAdder}s, and events are already delivered to listeners, so the
+ * metrics are cheap enough to leave on in production.
+ *
+ * <p>The metrics can be read programmatically, or via JMX after calling
+ * {@link #registerMBean(String)}.
+ */
+public class PlannerMetrics implements PlannerMetricsMXBean {
+  private final ConcurrentMap<String, RuleCounters> rules =
+      new ConcurrentHashMap<>();
+  private final LongAdder planCount = new LongAdder();
+  private final LongAdder planNanos = new LongAdder();
+  private final LongAdder unattributedMetadataCalls = new LongAdder();
+  private final LongAccumulator maxRelSetCount =
+      new LongAccumulator(Math::max, 0);
+  private final LongAccumulator maxRelSubsetCount =
+      new LongAccumulator(Math::max, 0);
+  private volatile long lastRelSetCount;
+  private volatile long lastRelSubsetCount;
+
+  /** Creates a listener that records the events of one planner. */
+  Recorder recorder() {
+    return new Recorder();
+  }
+
+  /** Registers these metrics with the platform MBean server, under the name
+   * "org.apache.calcite:type=PlannerMetrics,name={@code name}". */
+  public ObjectName registerMBean(String name) {
+    try {
+      final ObjectName objectName =
+          new ObjectName("org.apache.calcite:type=PlannerMetrics,name="
+              + ObjectName.quote(name));
+      ManagementFactory.getPlatformMBeanServer()
+          .registerMBean(this, objectName);
+      return objectName;
+    } catch (JMException e) {
+      throw Util.toUnchecked(e);
+    }
+  }
+
+  /** Returns the metrics of each rule that has fired, the most expensive
+   * first. */
+  public List<RuleMetrics> getRuleMetrics() {
+    final List<RuleMetrics> list = new ArrayList<>();
+    rules.forEach((rule, counters) -> list.add(counters.snapshot(rule)));
+    list.sort(
+        Comparator.comparingLong((RuleMetrics m) -> m.matchNanos).reversed()
+            .thenComparing(m -> m.rule));
+    return ImmutableList.copyOf(list);
+  }
+
+  /** Returns the metrics of a rule, or null if it has not fired. */
+  public @Nullable RuleMetrics getRuleMetrics(String rule) {
+    final RuleCounters counters = rules.get(rule);
+    return counters == null ? null : counters.snapshot(rule);
+  }
+
+  @Override public long getPlanCount() {
+    return planCount.sum();
+  }
+
+  @Override public long getPlanMillis() {
+    return TimeUnit.NANOSECONDS.toMillis(planNanos.sum());
+  }
+
+  @Override public long getLastRelSetCount() {
+    return lastRelSetCount;
+  }
+
+  @Override public long getMaxRelSetCount() {
+    return maxRelSetCount.get();
+  }
+
+  @Override public long getLastRelSubsetCount() {
+    return lastRelSubsetCount;
+  }
+
+  @Override public long getMaxRelSubsetCount() {
+    return maxRelSubsetCount.get();
+  }
+
+  @Override public long getUnattributedMetadataCalls() {
+    return unattributedMetadataCalls.sum();
+  }
+
+  @Override public Map<String, Long> getRuleFireCounts() {
+    return ruleMap(c -> c.fireCount.sum());
+  }
+
+  @Override public Map<String, Long> getRuleMatchMicros() {
+    return ruleMap(c -> TimeUnit.NANOSECONDS.toMicros(c.matchNanos.sum()));
+  }
+
+  @Override public Map<String, Long> getRuleTransformCounts() {
+    return ruleMap(c -> c.transformCount.sum());
+  }
+
+  @Override public Map<String, Long> getRuleMetadataCalls() {
+    return ruleMap(c -> c.metadataCallCount.sum());
+  }
+
+  @Override public void reset() {
+    rules.clear();
+    planCount.reset();
+    planNanos.reset();
+    unattributedMetadataCalls.reset();
+    maxRelSetCount.reset();
+    maxRelSubsetCount.reset();
+    lastRelSetCount = 0;
+    lastRelSubsetCount = 0;
+  }
+
+  private Map<String, Long> ruleMap(Function<RuleCounters, Long> fn) {
+    final ImmutableMap.Builder<String, Long> builder = ImmutableMap.builder();
+    rules.forEach((rule, counters) -> builder.put(rule, fn.apply(counters)));
+    return builder.build();
+  }
+
+  private RuleCounters counters(RelOptRule rule) {
+    return rules.computeIfAbsent(rule.toString(), k -> new RuleCounters());
+  }
+
+  //~ Inner Classes ----------------------------------------------------------
+
+  /** Snapshot of the metrics of one rule. */
+  public static class RuleMetrics {
+    public final String rule;
+    public final long fireCount;
+    public final long matchNanos;
+    public final long transformCount;
+    public final long metadataCallCount;
+
+    RuleMetrics(String rule, long fireCount, long matchNanos,
+        long transformCount, long metadataCallCount) {
+      this.rule = rule;
+      this.fireCount = fireCount;
+      this.matchNanos = matchNanos;
+      this.transformCount = transformCount;
+      this.metadataCallCount = metadataCallCount;
+    }
+
+    @Override public String toString() {
+      return rule + "(fires=" + fireCount
+          + ", matchMicros=" + TimeUnit.NANOSECONDS.toMicros(matchNanos)
+          + ", transforms=" + transformCount
+          + ", metadataCalls=" + metadataCallCount + ")";
+    }
+  }
+
+  /** Mutable counters of one rule. */
+  private static class RuleCounters {
+    final LongAdder fireCount = new LongAdder();
+    final LongAdder matchNanos = new LongAdder();
+    final LongAdder transformCount = new LongAdder();
+    final LongAdder metadataCallCount = new LongAdder();
+
+    RuleMetrics snapshot(String rule) {
+      return new RuleMetrics(rule, fireCount.sum(), matchNanos.sum(),
+          transformCount.sum(), metadataCallCount.sum());
+    }
+  }
+
+  /** Listener that records the events of one planner into the metrics.
+   *
+   * <p>A planner fires one rule at a time, so the recorder is not
+   * thread-safe; the metrics it writes to are. */
+  class Recorder implements RelOptListener {
+    private @Nullable RuleCounters current;
+    private long startNanos;
+
+    PlannerMetrics metrics() {
+      return PlannerMetrics.this;
+    }
+
+    @Override public void relEquivalenceFound(RelEquivalenceEvent event) {
+    }
+
+    @Override public void ruleAttempted(RuleAttemptedEvent event) {
+      if (event.isBefore()) {
+        current = counters(event.getRuleCall().getRule());
+        startNanos = System.nanoTime();
+      } else {
+        final RuleCounters counters = current;
+        if (counters != null) {
+          counters.fireCount.increment();
+          counters.matchNanos.add(System.nanoTime() - startNanos);
+          current = null;
+        }
+      }
+    }
+
+    @Override public void ruleProductionSucceeded(RuleProductionEvent event) {
+      if (!event.isBefore()) {
+        counters(event.getRuleCall().getRule()).transformCount.increment();
+      }
+    }
+
+    @Override public void relDiscarded(RelDiscardedEvent event) {
+    }
+
+    @Override public void relChosen(RelChosenEvent event) {
+    }
+
+    /** Records a cost metadata request, against the rule that is firing. */
+    void metadataCall() {
+      final RuleCounters counters = current;
+      if (counters != null) {
+        counters.metadataCallCount.increment();
+      } else {
+        unattributedMetadataCalls.increment();
+      }
+    }
+
+    /** Records that a planner has completed. */
+    void planningCompleted(long nanos, int relSetCount, int relSubsetCount) {
+      planCount.increment();
+      planNanos.add(nanos);
+      lastRelSetCount = relSetCount;
+      lastRelSubsetCount = relSubsetCount;
+      maxRelSetCount.accumulate(relSetCount);
+      maxRelSubsetCount.accumulate(relSubsetCount);
+    }
+  }
+}
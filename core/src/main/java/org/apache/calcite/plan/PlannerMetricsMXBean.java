@@ -0,0 +1,70 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.calcite.plan;
+
+import java.util.Map;
+
+/**
+ * JMX interface of {@link PlannerMetrics}.
+ *
+ * <p>Per-rule maps are keyed by rule description.
+ */
+public interface PlannerMetricsMXBean {
+  /** Returns the number of completed calls to
+   * {@link RelOptPlanner#findBestExp()}. */
+  long getPlanCount();
+
+  /** Returns the total time spent in {@link RelOptPlanner#findBestExp()},
+   * in milliseconds. */
+  long getPlanMillis();
+
+  /** Returns the number of equivalence sets (or, for a
+   * {@link org.apache.calcite.plan.hep.HepPlanner}, vertices) in the memo of
+   * the planner that completed most recently. */
+  long getLastRelSetCount();
+
+  /** Returns the largest number of equivalence sets in any memo. */
+  long getMaxRelSetCount();
+
+  /** Returns the number of subsets in the memo of the planner that completed
+   * most recently. */
+  long getLastRelSubsetCount();
+
+  /** Returns the largest number of subsets in any memo. */
+  long getMaxRelSubsetCount();
+
+  /** Returns the number of cost metadata requests made while no rule was
+   * firing, for example while registering the initial expression. */
+  long getUnattributedMetadataCalls();
+
+  /** Returns the number of times each rule has fired. */
+  Map<String, Long> getRuleFireCounts();
+
+  /** Returns the cumulative time spent in each rule's
+   * {@link RelOptRule#onMatch(RelOptRuleCall)}, in microseconds. */
+  Map<String, Long> getRuleMatchMicros();
+
+  /** Returns the number of expressions produced by each rule. */
+  Map<String, Long> getRuleTransformCounts();
+
+  /** Returns the number of cost metadata requests made while each rule was
+   * firing. */
+  Map<String, Long> getRuleMetadataCalls();
+
+  /** Resets all counters. */
+  void reset();
+}
@@ -261,6 +261,32 @@ class State extends HepState {
     }
   }
 
+  /** Instruction that sets whether rules are applied in batches. */
+  static class MatchBatch extends HepInstruction {
+    final boolean batch;
+    final boolean parallel;
+
+    MatchBatch(boolean batch, boolean parallel) {
+      this.batch = batch;
+      this.parallel = parallel;
+    }
+
+    @Override State prepare(PrepareContext px) {
+      return new State(px);
+    }
+
+    /** State for a {@link MatchBatch} instruction. */
+    class State extends HepState {
+      State(PrepareContext px) {
+        super(px);
+      }
+
+      @Override void execute() {
+        planner.executeMatchBatch(MatchBatch.this, this);
+      }
+    }
+  }
+
   /** Instruction that executes a sub-program. */
   static class SubProgram extends HepInstruction {
     final HepProgram subProgram;
@@ -61,12 +61,15 @@
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.Iterator;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Queue;
 import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import static com.google.common.base.Preconditions.checkArgument;
 
@@ -79,6 +82,12 @@
  * interface.
  */
 public class HepPlanner extends AbstractRelOptPlanner {
+  //~ Static fields/initializers ---------------------------------------------
+
+  /** Minimum number of vertices in a pass for operands to be matched in
+   * parallel, if parallel matching is enabled. */
+  private static final int PARALLEL_MATCH_THRESHOLD = 256;
+
   //~ Instance fields --------------------------------------------------------
 
   private final HepProgram mainProgram;
@@ -100,6 +109,10 @@ public class HepPlanner extends AbstractRelOptPlanner {
 
   private int nTransformationsLastGC;
 
+  /** Whether a batch pass is firing matches; if so, garbage is collected once
+   * at the end of the pass rather than after each transformation. */
+  private boolean inMatchBatch;
+
   private final boolean noDag;
 
   /**
@@ -186,12 +199,15 @@ public HepPlanner(
   }
 
   @Override public RelNode findBestExp() {
+    final long startNanos = System.nanoTime();
     requireNonNull(root, "'root' must not be null");
 
     executeProgram(mainProgram);
+    final int vertexCount = graph.vertexSet().size();
 
     // Get rid of everything except what's in the final plan.
     collectGarbage();
+    recordPlanningCompleted(System.nanoTime() - startNanos, vertexCount, 0);
     dumpRuleAttemptsInfo();
     return buildFinalPlan(requireNonNull(root, "'root' must not be null"));
   }
@@ -235,6 +251,14 @@ void executeMatchOrder(HepInstruction.MatchOrder instruction,
     state.programState.matchOrder = instruction.order;
   }
 
+  void executeMatchBatch(HepInstruction.MatchBatch instruction,
+      HepInstruction.MatchBatch.State state) {
+    LOGGER.trace("Setting match batch to {}, parallel {}", instruction.batch,
+        instruction.parallel);
+    state.programState.matchBatch = instruction.batch;
+    state.programState.parallelMatch = instruction.parallel;
+  }
+
   void executeRuleInstance(HepInstruction.RuleInstance instruction,
       HepInstruction.RuleInstance.State state) {
     if (state.programState.skippingGroup()) {
@@ -402,6 +426,11 @@ private void applyRules(HepProgram.State programState,
 
     LOGGER.trace("Applying rule set {}", rules);
 
+    if (programState.matchBatch) {
+      applyRulesInBatches(programState, rules, forceConversions);
+      return;
+    }
+
     final boolean fullRestartAfterTransformation =
         programState.matchOrder != HepMatchOrder.ARBITRARY
             && programState.matchOrder != HepMatchOrder.DEPTH_FIRST;
@@ -449,6 +478,76 @@ private void applyRules(HepProgram.State programState,
     } while (!fixedPoint);
   }
 
+  /** Applies rules in passes, each of which fires the non-overlapping
+   * matches found in a snapshot of the graph; see
+   * {@link HepProgramBuilder#addMatchBatch(boolean, boolean)}. */
+  private void applyRulesInBatches(HepProgram.State programState,
+      Collection<RelOptRule> rules, boolean forceConversions) {
+    int nMatches = 0;
+    boolean fixedPoint;
+    do {
+      final List<HepRelVertex> vertices =
+          ImmutableList.copyOf(
+              getGraphIterator(programState, requireNonNull(root, "root")));
+      final List<List<HepMatch>> matches =
+          findMatches(vertices, rules, programState.parallelMatch);
+
+      // Rels bound by the matches fired in this pass. A match that binds
+      // one of them was found before the graph changed underneath it; it
+      // will be found again, if it still applies, in the next pass.
+      final Set<RelNode> consumed =
+          Collections.newSetFromMap(new IdentityHashMap<>());
+      fixedPoint = true;
+      inMatchBatch = true;
+      try {
+        for (List<HepMatch> vertexMatches : matches) {
+          for (HepMatch match : vertexMatches) {
+            if (match.isStale(consumed)) {
+              continue;
+            }
+            HepRelVertex newVertex = fireMatch(match, forceConversions);
+            if (newVertex == null || newVertex == match.vertex) {
+              continue;
+            }
+            consumed.addAll(match.bindings);
+            fixedPoint = false;
+            ++nMatches;
+            if (nMatches >= programState.matchLimit) {
+              return;
+            }
+            break;
+          }
+        }
+      } finally {
+        inMatchBatch = false;
+      }
+      collectGarbage();
+    } while (!fixedPoint);
+  }
+
+  /** Matches the operands of each rule against each vertex, in parallel if
+   * requested and if there are enough vertices to make it worthwhile.
+   * Does not modify the graph. */
+  private static List<List<HepMatch>> findMatches(List<HepRelVertex> vertices,
+      Collection<RelOptRule> rules, boolean parallel) {
+    Stream<HepRelVertex> stream = vertices.stream();
+    if (parallel && vertices.size() >= PARALLEL_MATCH_THRESHOLD) {
+      stream = stream.parallel();
+    }
+    return stream
+        .map(vertex -> {
+          final List<HepMatch> list = new ArrayList<>();
+          for (RelOptRule rule : rules) {
+            final HepMatch match = matchRule(rule, vertex);
+            if (match != null) {
+              list.add(match);
+            }
+          }
+          return list;
+        })
+        .collect(Collectors.toList());
+  }
+
   private Iterator<HepRelVertex> getGraphIterator(
       HepProgram.State programState, HepRelVertex start) {
     // Make sure there's no garbage, because topological sort
@@ -501,6 +600,41 @@ private Iterator<HepRelVertex> getGraphIterator(
     if (!graph.vertexSet().contains(vertex)) {
       return null;
     }
+    final HepMatch match = matchRule(rule, vertex);
+    if (match == null) {
+      return null;
+    }
+    return fireMatch(match, forceConversions);
+  }
+
+  /** Matches the operands of a rule against the expression in a vertex and
+   * its inputs. */
+  private static @Nullable HepMatch matchRule(RelOptRule rule,
+      HepRelVertex vertex) {
+    final List<RelNode> bindings = new ArrayList<>();
+    final Map<RelNode, List<RelNode>> nodeChildren = new HashMap<>();
+    boolean match =
+        matchOperands(
+            rule.getOperand(),
+            vertex.getCurrentRel(),
+            bindings,
+            nodeChildren);
+
+    if (!match) {
+      return null;
+    }
+    return new HepMatch(rule, vertex, bindings, nodeChildren);
+  }
+
+  /** Checks the side-conditions of a match, and if they hold, fires the rule
+   * and applies its results to the graph. */
+  private @Nullable HepRelVertex fireMatch(HepMatch match,
+      boolean forceConversions) {
+    final RelOptRule rule = match.rule;
+    final HepRelVertex vertex = match.vertex;
+    if (!graph.vertexSet().contains(vertex)) {
+      return null;
+    }
     RelTrait parentTrait = null;
     List<RelNode> parents = null;
     if (rule instanceof ConverterRule) {
@@ -527,25 +661,12 @@ private Iterator<HepRelVertex> getGraphIterator(
       }
     }
 
-    final List<RelNode> bindings = new ArrayList<>();
-    final Map<RelNode, List<RelNode>> nodeChildren = new HashMap<>();
-    boolean match =
-        matchOperands(
-            rule.getOperand(),
-            vertex.getCurrentRel(),
-            bindings,
-            nodeChildren);
-
-    if (!match) {
-      return null;
-    }
-
     HepRuleCall call =
         new HepRuleCall(
             this,
             rule.getOperand(),
-            bindings.toArray(new RelNode[0]),
-            nodeChildren,
+            match.bindings.toArray(new RelNode[0]),
+            match.nodeChildren,
             parents);
 
     // Allow the rule to apply its own side-conditions.
@@ -762,8 +883,9 @@ private HepRelVertex applyTransformationResults(
       contractVertices(newVertex, vertex, parents);
     }
 
-    if (getListener() != null) {
-      // Assume listener doesn't want to see garbage.
+    if (getListener() != null && !inMatchBatch) {
+      // Assume listener doesn't want to see garbage. In a batch pass, the
+      // garbage is collected once, at the end of the pass.
       collectGarbage();
     }
 
@@ -1074,4 +1196,44 @@ private void dumpGraph() {
   @Override public void addMaterialization(RelOptMaterialization materialization) {
     materializations.add(materialization);
   }
+
+  //~ Inner Classes ----------------------------------------------------------
+
+  /** Rule whose operands match an expression in the graph, and the
+   * expressions they matched. */
+  private static class HepMatch {
+    final RelOptRule rule;
+    final HepRelVertex vertex;
+    final List<RelNode> bindings;
+    final Map<RelNode, List<RelNode>> nodeChildren;
+
+    HepMatch(RelOptRule rule, HepRelVertex vertex, List<RelNode> bindings,
+        Map<RelNode, List<RelNode>> nodeChildren) {
+      this.rule = rule;
+      this.vertex = vertex;
+      this.bindings = bindings;
+      this.nodeChildren = nodeChildren;
+    }
+
+    /** Returns whether the graph has changed since this match was found, in
+     * a way that might invalidate it. */
+    boolean isStale(Set<RelNode> consumed) {
+      if (vertex.getCurrentRel() != bindings.get(0)) {
+        return true;
+      }
+      for (RelNode rel : bindings) {
+        if (consumed.contains(rel)) {
+          return true;
+        }
+      }
+      for (List<RelNode> children : nodeChildren.values()) {
+        for (RelNode child : children) {
+          if (consumed.contains(child)) {
+            return true;
+          }
+        }
+      }
+      return false;
+    }
+  }
 }
@@ -76,6 +76,8 @@ class State extends HepState {
     final ImmutableList<HepState> instructionStates;
     int matchLimit = MATCH_UNTIL_FIXPOINT;
     HepMatchOrder matchOrder = HepMatchOrder.DEPTH_FIRST;
+    boolean matchBatch;
+    boolean parallelMatch;
     HepInstruction.EndGroup.@Nullable State group;
 
     State(PrepareContext px, List<HepInstruction> instructions) {
@@ -111,6 +113,8 @@ class State extends HepState {
     @Override void init() {
       matchLimit = MATCH_UNTIL_FIXPOINT;
       matchOrder = HepMatchOrder.DEPTH_FIRST;
+      matchBatch = false;
+      parallelMatch = false;
       group = null;
     }
 
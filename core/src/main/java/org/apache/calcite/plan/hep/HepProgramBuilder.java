@@ -201,6 +201,37 @@ public HepProgramBuilder addMatchLimit(int limit) {
     return addInstruction(new HepInstruction.MatchLimit(limit));
   }
 
+  /**
+   * Adds an instruction to change whether subsequent instructions apply their
+   * rules in batches. The setting will take effect for the rest of the program
+   * (not counting subprograms) or until another batch instruction is
+   * encountered.
+   *
+   * <p>In batch mode, each pass over the graph first finds the matches of the
+   * rules against a snapshot of the graph, then fires every match that does
+   * not overlap a match fired earlier in the same pass, and collects garbage
+   * only once at the end of the pass. Passes repeat until no rule produces a
+   * new expression. This makes a pass over a graph with many matches roughly
+   * linear in the size of the graph, whereas the default mode restarts
+   * iteration, and collects garbage, after every transformation.
+   *
+   * <p>Within a pass, at most one rule is fired per vertex, and matches are
+   * fired in the order given by the current match order.
+   *
+   * @param batch    Whether to apply rules in batches
+   * @param parallel Whether to match operands in parallel, using the common
+   *                 fork-join pool, when a pass has many vertices; rules are
+   *                 still fired one at a time, but the
+   *                 {@link org.apache.calcite.plan.RelOptRuleOperand}
+   *                 predicates of the rules must be thread-safe
+   */
+  public HepProgramBuilder addMatchBatch(boolean batch, boolean parallel) {
+    checkArgument(group < 0);
+    checkArgument(batch || !parallel,
+        "parallel matching requires batch mode");
+    return addInstruction(new HepInstruction.MatchBatch(batch, parallel));
+  }
+
   /**
    * Adds an instruction to execute a subprogram. Note that this is different
    * from adding the instructions from the subprogram individually. When added
@@ -18,6 +18,7 @@
 
 import org.apache.calcite.plan.Convention;
 import org.apache.calcite.plan.RelOptCluster;
+import org.apache.calcite.plan.RelOptCost;
 import org.apache.calcite.plan.RelOptListener;
 import org.apache.calcite.plan.RelOptUtil;
 import org.apache.calcite.plan.RelTrait;
@@ -105,6 +106,26 @@ class RelSet {
    */
   boolean inMetadataQuery;
 
+  /**
+   * Digest of the first expression registered in this set, in which inputs
+   * are described by the canonical digest of their sets rather than by their
+   * ids. Only computed if the planner has a {@link VolcanoPlanCache}; null if
+   * any input has no canonical digest.
+   */
+  @Nullable String canonicalDigest;
+
+  /**
+   * Whether this set was seeded from a {@link VolcanoPlanCache}. Rule matches
+   * of transformation rules rooted in a seeded set are skipped.
+   */
+  boolean seeded;
+
+  /**
+   * Cost of the cached plan that this set was seeded with, or null. Rules do
+   * not fire on an expression whose lower bound cost exceeds it.
+   */
+  @Nullable RelOptCost costBound;
+
   //~ Constructors -----------------------------------------------------------
 
   RelSet(
@@ -364,6 +385,11 @@ void mergeWith(
     assert otherSet.equivalentSet == null;
     LOGGER.trace("Merge set#{} into set#{}", otherSet.id, id);
     otherSet.equivalentSet = this;
+    seeded |= otherSet.seeded;
+    if (costBound == null
+        || otherSet.costBound != null && otherSet.costBound.isLt(costBound)) {
+      costBound = otherSet.costBound;
+    }
     RelOptCluster cluster = castNonNull(rel).getCluster();
 
     // remove from table
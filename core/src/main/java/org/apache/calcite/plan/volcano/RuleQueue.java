@@ -18,6 +18,7 @@
 
 import org.apache.calcite.plan.RelOptRuleOperand;
 import org.apache.calcite.rel.RelNode;
+import org.apache.calcite.rel.rules.TransformationRule;
 import org.apache.calcite.util.Util;
 
 import java.util.ArrayDeque;
@@ -61,6 +62,14 @@ protected boolean skipMatch(VolcanoRuleMatch match) {
       }
     }
 
+    // Sets seeded from the plan cache already have their best known
+    // alternative, and once the planning budget has expired we only want a
+    // complete plan; in both cases we implement, but do not explore.
+    if (match.getRule() instanceof TransformationRule
+        && (planner.isSeeded(match.rels[0]) || planner.isBudgetExhausted())) {
+      return true;
+    }
+
     // If the same subset appears more than once along any path from root
     // operand to a leaf operand, we have matched a cycle. A relational
     // expression that consumes its own output can never be implemented, and
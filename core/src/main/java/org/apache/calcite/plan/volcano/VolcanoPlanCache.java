@@ -0,0 +1,335 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.calcite.plan.volcano;
+
+import org.apache.calcite.plan.Convention;
+import org.apache.calcite.plan.RelOptCluster;
+import org.apache.calcite.plan.RelOptCost;
+import org.apache.calcite.plan.RelTraitSet;
+import org.apache.calcite.rel.RelNode;
+import org.apache.calcite.rel.convert.Converter;
+import org.apache.calcite.rel.core.Filter;
+import org.apache.calcite.rel.core.Join;
+import org.apache.calcite.rel.core.JoinRelType;
+import org.apache.calcite.rel.core.Project;
+import org.apache.calcite.rel.hint.RelHint;
+import org.apache.calcite.rel.logical.LogicalFilter;
+import org.apache.calcite.rel.logical.LogicalJoin;
+import org.apache.calcite.rel.logical.LogicalProject;
+import org.apache.calcite.rel.type.RelDataType;
+import org.apache.calcite.rex.RexNode;
+import org.apache.calcite.rex.RexUtil;
+import org.apache.calcite.util.Pair;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Cache of optimized sub-plans that can be shared by many
+ * {@link VolcanoPlanner} instances.
+ *
+ * <p>Each entry is keyed by the canonical digest of a logical sub-tree
+ * (a digest in which inputs are described by their own canonical digest
+ * rather than by a set id, so it is the same for the same sub-query in
+ * different planners) and the traits that were required of it.
+ *
+ * <p>The value is a cluster-independent recipe of the best physical
+ * alternative that was found, expressed as a tree of joins, projects and
+ * filters over canonical leaves, together with its cost. When a planner that
+ * uses the same cache registers a sub-tree with a matching digest, it
+ * re-creates the recipe as a logical alternative in the memo and stops
+ * firing {@link org.apache.calcite.rel.rules.TransformationRule}s in the
+ * equivalence sets that the recipe describes, so that only implementation
+ * rules run there. The sets below the recipe's leaves are explored as usual.
+ * Rules do not fire on expressions in a seeded set whose lower bound cost
+ * exceeds the cost of the cached plan.
+ *
+ * <p>Recipes hold {@link RexNode}s and row types, so the cache is intended
+ * for planners whose clusters share a type factory and a schema.
+ *
+ * <p>To use a cache, pass it to
+ * {@link VolcanoPlanner#setPlanCache(VolcanoPlanCache)}, or put it in the
+ * {@link org.apache.calcite.plan.Context} given to the planner.
+ */
+public class VolcanoPlanCache {
+  private final Cache<Pair<String, RelTraitSet>, Entry> cache;
+
+  private VolcanoPlanCache(long maximumSize) {
+    this.cache = CacheBuilder.newBuilder()
+        .maximumSize(maximumSize)
+        .recordStats()
+        .build();
+  }
+
+  /** Creates a cache that holds at most {@code maximumSize} sub-plans. */
+  public static VolcanoPlanCache create(long maximumSize) {
+    return new VolcanoPlanCache(maximumSize);
+  }
+
+  /** Returns the number of cached sub-plans. */
+  public long size() {
+    return cache.size();
+  }
+
+  /** Returns hit and miss statistics of lookups made by planners. */
+  public CacheStats stats() {
+    return cache.stats();
+  }
+
+  /** Removes all entries. */
+  public void invalidateAll() {
+    cache.invalidateAll();
+  }
+
+  /** Looks up the sub-plan for a given canonical digest and traits. */
+  @Nullable Entry get(String digest, RelTraitSet traitSet) {
+    return cache.getIfPresent(Pair.of(digest, traitSet));
+  }
+
+  /** Records the best plan of {@code subset} and of every subset it uses.
+   * An existing entry is replaced only if the new plan is cheaper. */
+  void record(RelSubset subset) {
+    recipe(subset, new IdentityHashMap<>());
+  }
+
+  private @Nullable Recipe recipe(RelSubset subset,
+      Map<RelSubset, Boolean> active) {
+    final RelSet set = VolcanoPlanner.equivRoot(subset.set);
+    final String digest = set.canonicalDigest;
+    final RelNode best = subset.getBest();
+    if (best == null || active.put(subset, true) != null) {
+      // No plan, or a cycle; cannot describe this subset
+      return digest == null ? null : new Leaf(digest);
+    }
+    try {
+      final List<Recipe> inputs = new ArrayList<>();
+      for (RelNode input : best.getInputs()) {
+        final Recipe recipe = recipe((RelSubset) input, active);
+        if (recipe == null) {
+          return digest == null ? null : new Leaf(digest);
+        }
+        inputs.add(recipe);
+      }
+      // A converter has the same logical meaning as its input
+      final Recipe recipe = best instanceof Converter
+          ? inputs.get(0)
+          : Recipe.of(best, inputs);
+      if (recipe == null) {
+        return digest == null ? null : new Leaf(digest);
+      }
+      if (digest != null) {
+        final Entry entry = new Entry(recipe, subset.bestCost);
+        cache.asMap().merge(Pair.of(digest, subset.getTraitSet()), entry,
+            (e0, e1) -> e1.cost.isLt(e0.cost) ? e1 : e0);
+      }
+      return recipe;
+    } finally {
+      active.remove(subset);
+    }
+  }
+
+  //~ Inner Classes ----------------------------------------------------------
+
+  /** Cached sub-plan and the cost it had when it was recorded. */
+  static class Entry {
+    final Recipe recipe;
+    final RelOptCost cost;
+
+    Entry(Recipe recipe, RelOptCost cost) {
+      this.recipe = recipe;
+      this.cost = cost;
+    }
+  }
+
+  /** Cluster-independent description of a logical sub-plan. */
+  abstract static class Recipe {
+    /** Creates a recipe for a physical node, or returns null if the node
+     * cannot be described independently of its planner. */
+    static @Nullable Recipe of(RelNode rel, List<Recipe> inputs) {
+      if (!rel.getVariablesSet().isEmpty()) {
+        return null;
+      }
+      if (rel instanceof Join) {
+        final Join join = (Join) rel;
+        if (RexUtil.containsCorrelation(join.getCondition())) {
+          return null;
+        }
+        return new JoinRecipe(join.getJoinType(), join.getCondition(),
+            join.getHints(), inputs.get(0), inputs.get(1));
+      }
+      if (rel instanceof Project) {
+        final Project project = (Project) rel;
+        for (RexNode e : project.getProjects()) {
+          if (RexUtil.containsCorrelation(e)) {
+            return null;
+          }
+        }
+        return new ProjectRecipe(project.getProjects(),
+            project.getRowType(), project.getHints(), inputs.get(0));
+      }
+      if (rel instanceof Filter) {
+        final Filter filter = (Filter) rel;
+        if (RexUtil.containsCorrelation(filter.getCondition())) {
+          return null;
+        }
+        return new FilterRecipe(filter.getCondition(), inputs.get(0));
+      }
+      return null;
+    }
+
+    /** Returns whether every leaf of this recipe refers to a set that is
+     * registered in a planner. */
+    abstract boolean isAvailable(VolcanoPlanner planner);
+
+    /** Re-creates this recipe as a logical expression in a planner, or
+     * returns null if one of its leaves is not registered there. */
+    abstract @Nullable RelNode toRel(VolcanoPlanner planner,
+        RelOptCluster cluster);
+
+    /** Re-creates an input of this recipe. An input that is not a leaf is
+     * registered, and its set is seeded; a leaf refers to a set that the
+     * cached plan did not describe, so that set is left to be explored. */
+    static @Nullable RelNode input(Recipe input, VolcanoPlanner planner,
+        RelOptCluster cluster) {
+      final RelNode rel = input.toRel(planner, cluster);
+      if (rel == null || input instanceof Leaf) {
+        return rel;
+      }
+      return planner.registerSeeded(rel);
+    }
+  }
+
+  /** Recipe that refers to an equivalence set by its canonical digest. */
+  static class Leaf extends Recipe {
+    final String digest;
+
+    Leaf(String digest) {
+      this.digest = digest;
+    }
+
+    @Override boolean isAvailable(VolcanoPlanner planner) {
+      return planner.getCanonicalSet(digest) != null;
+    }
+
+    @Override @Nullable RelNode toRel(VolcanoPlanner planner,
+        RelOptCluster cluster) {
+      final RelSet set = planner.getCanonicalSet(digest);
+      if (set == null) {
+        return null;
+      }
+      return set.getOrCreateSubset(cluster,
+          cluster.traitSetOf(Convention.NONE), false);
+    }
+  }
+
+  /** Recipe for a join. */
+  static class JoinRecipe extends Recipe {
+    final JoinRelType joinType;
+    final RexNode condition;
+    final ImmutableList<RelHint> hints;
+    final Recipe left;
+    final Recipe right;
+
+    JoinRecipe(JoinRelType joinType, RexNode condition, List<RelHint> hints,
+        Recipe left, Recipe right) {
+      this.joinType = joinType;
+      this.condition = condition;
+      this.hints = ImmutableList.copyOf(hints);
+      this.left = left;
+      this.right = right;
+    }
+
+    @Override boolean isAvailable(VolcanoPlanner planner) {
+      return left.isAvailable(planner) && right.isAvailable(planner);
+    }
+
+    @Override @Nullable RelNode toRel(VolcanoPlanner planner,
+        RelOptCluster cluster) {
+      final RelNode leftRel = input(left, planner, cluster);
+      final RelNode rightRel = input(right, planner, cluster);
+      if (leftRel == null || rightRel == null) {
+        return null;
+      }
+      return LogicalJoin.create(leftRel, rightRel, hints, condition,
+          ImmutableSet.of(), joinType);
+    }
+  }
+
+  /** Recipe for a project. */
+  static class ProjectRecipe extends Recipe {
+    final ImmutableList<RexNode> projects;
+    final RelDataType rowType;
+    final ImmutableList<RelHint> hints;
+    final Recipe input;
+
+    ProjectRecipe(List<RexNode> projects, RelDataType rowType,
+        List<RelHint> hints, Recipe input) {
+      this.projects = ImmutableList.copyOf(projects);
+      this.rowType = rowType;
+      this.hints = ImmutableList.copyOf(hints);
+      this.input = input;
+    }
+
+    @Override boolean isAvailable(VolcanoPlanner planner) {
+      return input.isAvailable(planner);
+    }
+
+    @Override @Nullable RelNode toRel(VolcanoPlanner planner,
+        RelOptCluster cluster) {
+      final RelNode inputRel = input(input, planner, cluster);
+      if (inputRel == null) {
+        return null;
+      }
+      return LogicalProject.create(inputRel, hints, projects, rowType,
+          ImmutableSet.of());
+    }
+  }
+
+  /** Recipe for a filter. */
+  static class FilterRecipe extends Recipe {
+    final RexNode condition;
+    final Recipe input;
+
+    FilterRecipe(RexNode condition, Recipe input) {
+      this.condition = condition;
+      this.input = input;
+    }
+
+    @Override boolean isAvailable(VolcanoPlanner planner) {
+      return input.isAvailable(planner);
+    }
+
+    @Override @Nullable RelNode toRel(VolcanoPlanner planner,
+        RelOptCluster cluster) {
+      final RelNode inputRel = input(input, planner, cluster);
+      if (inputRel == null) {
+        return null;
+      }
+      return LogicalFilter.create(inputRel, condition);
+    }
+  }
+}
@@ -40,6 +40,7 @@
 import org.apache.calcite.plan.RelTraitSet;
 import org.apache.calcite.rel.PhysicalNode;
 import org.apache.calcite.rel.RelNode;
+import org.apache.calcite.rel.RelWriter;
 import org.apache.calcite.rel.convert.Converter;
 import org.apache.calcite.rel.convert.ConverterRule;
 import org.apache.calcite.rel.externalize.RelWriterImpl;
@@ -56,8 +57,11 @@
 import org.apache.calcite.util.Pair;
 import org.apache.calcite.util.Util;
 
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Ticker;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.LinkedListMultimap;
+import com.google.common.collect.Lists;
 import com.google.common.collect.Multimap;
 
 import org.apiguardian.api.API;
@@ -81,6 +85,7 @@
 import java.util.Map;
 import java.util.PriorityQueue;
 import java.util.Set;
+import java.util.concurrent.TimeUnit;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -205,6 +210,44 @@ public class VolcanoPlanner extends AbstractRelOptPlanner {
    */
   final Set<RelSubset> explorationRoots = new HashSet<>();
 
+  /**
+   * Cache of sub-plans shared with other planners, or null.
+   */
+  private @Nullable VolcanoPlanCache planCache;
+
+  /**
+   * Map from canonical digest to the first set that had that digest. Only
+   * populated if {@link #planCache} is set.
+   */
+  private final Map<String, RelSet> mapCanonicalDigestToSet = new HashMap<>();
+
+  /**
+   * Sets created since planning last started, that may be seeded from
+   * {@link #planCache}.
+   */
+  private final List<RelSet> setsToSeed = new ArrayList<>();
+
+  /**
+   * Wall-clock budget for planning, in milliseconds; 0 means unlimited.
+   */
+  private long planningBudget;
+
+  /**
+   * Source of time for the planning budget.
+   */
+  private Ticker ticker = Ticker.systemTicker();
+
+  /**
+   * Value of {@link #ticker} at which the budget of the current planning
+   * expires.
+   */
+  private long budgetDeadlineNanos;
+
+  /**
+   * Whether the budget of the current (or most recent) planning has expired.
+   */
+  private boolean budgetExhausted;
+
   //~ Constructors -----------------------------------------------------------
 
   /**
@@ -239,6 +282,12 @@ public VolcanoPlanner(@Nullable RelOptCostFactory costFactory,
     this.provenanceMap =
         LOGGER.isDebugEnabled() ? new HashMap<>()
             : Util.blackholeMap();
+    this.planCache = this.context.unwrap(VolcanoPlanCache.class);
+    final CalciteConnectionConfig config =
+        this.context.unwrap(CalciteConnectionConfig.class);
+    if (config != null) {
+      this.planningBudget = config.planningBudget();
+    }
     initRuleQueue();
   }
 
@@ -267,6 +316,61 @@ public void setTopDownOpt(boolean value) {
     initRuleQueue();
   }
 
+  /**
+   * Sets the cache of sub-plans that this planner shares with other planners,
+   * or null to plan without one.
+   *
+   * <p>When a cache is set, sub-trees whose best plan was recorded by an
+   * earlier planner are seeded with that plan, and are not explored further
+   * by transformation rules; sub-trees below the inputs that the plan does
+   * not describe are still explored. The best plan found by this planner is recorded
+   * in the cache when {@link #findBestExp()} completes.
+   */
+  public void setPlanCache(@Nullable VolcanoPlanCache planCache) {
+    this.planCache = planCache;
+  }
+
+  /**
+   * Sets the wall-clock budget for {@link #findBestExp()}, in milliseconds;
+   * 0 means unlimited.
+   *
+   * <p>When the budget expires, the planner stops firing transformation
+   * rules, but still fires implementation rules, so that every expression
+   * explored so far gets a physical implementation. It then returns the
+   * cheapest complete plan, and {@link #isBudgetLimited()} returns true.
+   *
+   * @see org.apache.calcite.config.CalciteConnectionProperty#PLANNING_BUDGET
+   */
+  public void setPlanningBudget(long planningBudget) {
+    checkArgument(planningBudget >= 0, "planningBudget must not be negative");
+    this.planningBudget = planningBudget;
+  }
+
+  /** Returns the wall-clock budget for planning, in milliseconds; 0 means
+   * unlimited. */
+  public long getPlanningBudget() {
+    return planningBudget;
+  }
+
+  /** Sets the source of time for the planning budget. Tests use it to
+   * advance time without waiting. */
+  @VisibleForTesting
+  void setTicker(Ticker ticker) {
+    this.ticker = requireNonNull(ticker, "ticker");
+  }
+
+  /** Returns whether the planning budget expired during the most recent
+   * call to {@link #findBestExp()}, in which case the plan is the cheapest
+   * found so far, not necessarily the cheapest possible. */
+  public boolean isBudgetLimited() {
+    return budgetExhausted;
+  }
+
+  /** Returns the cache of sub-plans, or null. */
+  public @Nullable VolcanoPlanCache getPlanCache() {
+    return planCache;
+  }
+
   // implement RelOptPlanner
   @Override public boolean isRegistered(RelNode rel) {
     return mapRel2Subset.get(rel) != null;
@@ -410,6 +514,8 @@ protected void registerMaterializations() {
     this.materializations.clear();
     this.latticeByName.clear();
     this.provenanceMap.clear();
+    this.mapCanonicalDigestToSet.clear();
+    this.setsToSeed.clear();
   }
 
   @Override public boolean addRule(RelOptRule rule) {
@@ -518,9 +624,14 @@ protected void registerMaterializations() {
    * query
    */
   @Override public RelNode findBestExp() {
+    final long startNanos = ticker.read();
     requireNonNull(root, "root");
+    budgetExhausted = false;
+    budgetDeadlineNanos =
+        startNanos + TimeUnit.MILLISECONDS.toNanos(planningBudget);
     ensureRootConverters();
     registerMaterializations();
+    seedFromPlanCache();
 
     ruleDriver.drive();
 
@@ -533,6 +644,9 @@ protected void registerMaterializations() {
     }
     dumpRuleAttemptsInfo();
     RelNode cheapest = root.buildCheapestPlan(this);
+    if (planCache != null) {
+      planCache.record(root);
+    }
     if (LOGGER.isDebugEnabled()) {
       LOGGER.debug(
           "Cheapest plan:\n{}", RelOptUtil.toString(cheapest, SqlExplainLevel.ALL_ATTRIBUTES));
@@ -541,9 +655,117 @@ protected void registerMaterializations() {
         LOGGER.debug("Provenance:\n{}", Dumpers.provenance(provenanceMap, cheapest));
       }
     }
+    if (getMetrics() != null) {
+      int subsetCount = 0;
+      for (RelSet set : allSets) {
+        subsetCount += set.subsets.size();
+      }
+      recordPlanningCompleted(ticker.read() - startNanos, allSets.size(),
+          subsetCount);
+    }
     return cheapest;
   }
 
+  /** Seeds the sets that have been created since planning last started
+   * with sub-plans from {@link #planCache}.
+   *
+   * <p>Sets are created bottom-up, so we visit them in reverse order; once
+   * a set has been seeded, the sets that its sub-plan describes are seeded
+   * too, and are skipped. */
+  private void seedFromPlanCache() {
+    final VolcanoPlanCache planCache = this.planCache;
+    if (planCache == null) {
+      return;
+    }
+    final List<RelSet> sets = new ArrayList<>(setsToSeed);
+    setsToSeed.clear();
+    for (RelSet set : Lists.reverse(sets)) {
+      set = equivRoot(set);
+      final String digest = set.canonicalDigest;
+      if (set.seeded || digest == null) {
+        continue;
+      }
+      for (RelSubset subset : ImmutableList.copyOf(set.subsets)) {
+        RelTraitSet traitSet = subset.getTraitSet();
+        VolcanoPlanCache.Entry entry = planCache.get(digest, traitSet);
+        if (entry == null
+            && rootConvention != null
+            && subset.getConvention() == Convention.NONE) {
+          // Logical subsets below the root will be asked for in the root's
+          // convention
+          traitSet = traitSet.replace(rootConvention);
+          entry = planCache.get(digest, traitSet);
+        }
+        if (entry != null && seed(set, entry)) {
+          LOGGER.debug("Seeded set#{} with {} from plan cache, cost {}",
+              set.id, traitSet, entry.cost);
+          break;
+        }
+      }
+    }
+  }
+
+  /** Registers the sub-plan of a cache entry as equivalent to a set, and
+   * marks the set as seeded. The sets that the sub-plan creates for its
+   * inputs are seeded too, but the sets that its leaves refer to are not,
+   * and are explored as usual. Returns false if the sub-plan cannot be
+   * re-created in this planner. */
+  private boolean seed(RelSet set, VolcanoPlanCache.Entry entry) {
+    final RelNode setRel = requireNonNull(set.rel, "set.rel");
+    if (!entry.recipe.isAvailable(this)) {
+      return false;
+    }
+    final RelNode rel = entry.recipe.toRel(this, setRel.getCluster());
+    if (rel == null
+        || !RelOptUtil.areRowTypesEqual(rel.getRowType(),
+            setRel.getRowType(), false)) {
+      return false;
+    }
+    final RelSet seededSet = equivRoot(ensureRegistered(rel, setRel).set);
+    seededSet.seeded = true;
+    if (seededSet.costBound == null || entry.cost.isLt(seededSet.costBound)) {
+      seededSet.costBound = entry.cost;
+    }
+    return true;
+  }
+
+  /** Registers an input of a sub-plan that is being seeded from
+   * {@link #planCache}, and marks its set as seeded. */
+  RelSubset registerSeeded(RelNode rel) {
+    final RelSubset subset = ensureRegistered(rel, null);
+    equivRoot(subset.set).seeded = true;
+    return subset;
+  }
+
+  /** Returns the set whose canonical digest is {@code digest}, or null. */
+  @Nullable RelSet getCanonicalSet(String digest) {
+    final RelSet set = mapCanonicalDigestToSet.get(digest);
+    return set == null ? null : equivRoot(set);
+  }
+
+  /** Returns whether the planning budget has expired. Once it has, only
+   * implementation rules are fired. */
+  boolean isBudgetExhausted() {
+    if (!budgetExhausted
+        && planningBudget > 0
+        && ticker.read() - budgetDeadlineNanos >= 0) {
+      LOGGER.warn("Planning budget of {} ms expired; implementing the "
+          + "expressions explored so far", planningBudget);
+      budgetExhausted = true;
+    }
+    return budgetExhausted;
+  }
+
+  /** Returns whether a registered expression belongs to a set that was
+   * seeded from the plan cache. */
+  boolean isSeeded(RelNode rel) {
+    if (planCache == null) {
+      return false;
+    }
+    final RelSubset subset = getSubset(rel);
+    return subset != null && equivRoot(subset.set).seeded;
+  }
+
   @Override public void checkCancel() {
     if (cancelFlag.get()) {
       throw new VolcanoTimeoutException();
@@ -728,6 +950,7 @@ private RelOptCost getCostOrInfinite(RelNode rel, RelMetadataQuery mq) {
         && rel.getTraitSet().getTrait(ConventionTraitDef.INSTANCE) == Convention.NONE) {
       return costFactory.makeInfiniteCost();
     }
+    recordMetadataCall();
     RelOptCost cost = mq.getNonCumulativeCost(rel);
     if (cost == null) {
       return null;
@@ -1371,6 +1594,9 @@ private RelSubset registerImpl(
                   rel.getVariablesSet()),
               RelOptUtil.getVariablesUsed(rel));
       this.allSets.add(set);
+      if (planCache != null) {
+        setCanonicalDigest(set, rel);
+      }
     }
 
     // Chain to find 'live' equivalent set, just in case several sets are
@@ -1400,6 +1626,13 @@ private RelSubset registerImpl(
       childSubset.set.parents.add(rel);
     }
 
+    // A set seeded from the plan cache already has a plan of known cost; an
+    // expression that cannot beat that plan is not worth firing rules on.
+    final RelOptCost costBound = set.costBound;
+    if (costBound != null && costBound.isLt(getLowerBound(rel))) {
+      prune(rel);
+    }
+
     // Queue up all rules triggered by this relexp's creation.
     fireRules(rel);
 
@@ -1412,6 +1645,19 @@ private RelSubset registerImpl(
     return subset;
   }
 
+  /** Computes the canonical digest of a new set from its first expression,
+   * whose inputs must already be registered. */
+  private void setCanonicalDigest(RelSet set, RelNode rel) {
+    final CanonicalDigestWriter writer = new CanonicalDigestWriter();
+    rel.explain(writer);
+    final String digest = writer.digest;
+    if (digest != null) {
+      set.canonicalDigest = digest;
+      mapCanonicalDigestToSet.putIfAbsent(digest, set);
+      setsToSeed.add(set);
+    }
+  }
+
   private RelSubset addRelToSet(RelNode rel, RelSet set) {
     RelSubset subset = set.add(rel);
     mapRel2Subset.put(rel, subset);
@@ -1628,6 +1874,52 @@ private static class DeferringRuleCall extends VolcanoRuleCall {
     }
   }
 
+  /**
+   * Writer that computes the digest of a registered expression, describing
+   * each input by the canonical digest of its set rather than by its id.
+   * The digest is null if an input has no canonical digest.
+   */
+  private static class CanonicalDigestWriter implements RelWriter {
+    private final StringBuilder sb = new StringBuilder();
+    private boolean valid = true;
+    @Nullable String digest;
+
+    @Override public void explain(RelNode rel,
+        List<Pair<String, @Nullable Object>> valueList) {
+      throw new IllegalStateException("Should not be called for computing digest");
+    }
+
+    @Override public SqlExplainLevel getDetailLevel() {
+      return SqlExplainLevel.DIGEST_ATTRIBUTES;
+    }
+
+    @Override public RelWriter item(String term, @Nullable Object value) {
+      if (value instanceof RelNode) {
+        final RelSubset subset = value instanceof RelSubset
+            ? (RelSubset) value
+            : null;
+        value = subset == null ? null : equivRoot(subset.set).canonicalDigest;
+        if (value == null) {
+          valid = false;
+          return this;
+        }
+      }
+      if (sb.length() > 0) {
+        sb.append(',');
+      }
+      sb.append(term).append('=').append(value);
+      return this;
+    }
+
+    @Override public RelWriter done(RelNode node) {
+      if (valid) {
+        digest = node.getRelTypeName() + '.' + node.getTraitSet()
+            + '(' + sb + ')';
+      }
+      return this;
+    }
+  }
+
   /**
    * Where a RelNode came from.
    */
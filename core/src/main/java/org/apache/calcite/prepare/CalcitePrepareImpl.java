@@ -455,6 +455,7 @@ protected RelOptPlanner createPlanner(
       planner.addRelTraitDef(RelCollationTraitDef.INSTANCE);
     }
     planner.setTopDownOpt(prepareContext.config().topDownOpt());
+    planner.setPlanningBudget(prepareContext.config().planningBudget());
     RelOptUtil.registerDefaultRules(planner,
         prepareContext.config().materializationsEnabled(),
         enableBindable);
@@ -21,11 +21,13 @@
 import org.apache.calcite.rel.RelNode;
 import org.apache.calcite.rel.metadata.janino.RelMetadataHandlerGeneratorUtil;
 import org.apache.calcite.util.Util;
+import org.apache.calcite.util.javac.CompiledClassCache;
 
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.cache.CacheBuilder;
 import com.google.common.cache.CacheLoader;
 import com.google.common.cache.LoadingCache;
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Multimap;
 import com.google.common.util.concurrent.UncheckedExecutionException;
 
@@ -157,7 +159,10 @@ static  <MH extends MetadataHandler<?>> MH compile(String className,
     }
 
     final ISimpleCompiler compiler = compilerFactory.newSimpleCompiler();
-    compiler.setParentClassLoader(JaninoRexCompiler.class.getClassLoader());
+    final ClassLoader parentClassLoader =
+        requireNonNull(JaninoRexCompiler.class.getClassLoader(),
+            "parentClassLoader");
+    compiler.setParentClassLoader(parentClassLoader);
 
     if (CalciteSystemProperty.DEBUG.value()) {
       // Add line numbers to the generated janino class
@@ -165,12 +170,12 @@ static  <MH extends MetadataHandler<?>> MH compile(String className,
       System.out.println(generatedCode);
     }
 
-    compiler.cook(generatedCode);
     final Constructor constructor;
     final Object o;
     try {
-      constructor = compiler.getClassLoader().loadClass(className)
-          .getDeclaredConstructors()[0];
+      constructor =
+          CompiledClassCache.compile(compiler, parentClassLoader, className,
+              generatedCode).getDeclaredConstructors()[0];
       o = constructor.newInstance(argList.toArray());
     } catch (InstantiationException
         | IllegalAccessException
@@ -191,6 +196,43 @@ static  <MH extends MetadataHandler<?>> MH compile(String className,
     }
   }
 
+  /** Generates and compiles a handler for each kind of metadata in
+   * {@link BuiltInMetadata}, so that queries do not pay that cost when they
+   * first ask for it.
+   *
+   * <p>If a {@link CompiledClassCache} is configured, handlers that are in it
+   * are loaded rather than compiled, and handlers that are not are written to
+   * it. Calling {@code JaninoRelMetadataProvider.DEFAULT.pregenerate()} with
+   * the system property {@code calcite.compiled.class.cache.directory} set,
+   * for example while building a deployment image, populates the cache so
+   * that processes that later use the same directory and the same Calcite
+   * build do not generate any handlers.
+   *
+   * @return Number of handlers
+   */
+  public int pregenerate() {
+    final List<Class<? extends MetadataHandler<?>>> handlerClasses =
+        builtInHandlerClasses();
+    handlerClasses.forEach(this::revise);
+    return handlerClasses.size();
+  }
+
+  /** Returns the handler interfaces of the kinds of metadata in
+   * {@link BuiltInMetadata}. */
+  @SuppressWarnings("unchecked")
+  static List<Class<? extends MetadataHandler<?>>> builtInHandlerClasses() {
+    final ImmutableList.Builder<Class<? extends MetadataHandler<?>>> builder =
+        ImmutableList.builder();
+    for (Class<?> metadataClass : BuiltInMetadata.class.getDeclaredClasses()) {
+      for (Class<?> c : metadataClass.getDeclaredClasses()) {
+        if (c.isInterface() && MetadataHandler.class.isAssignableFrom(c)) {
+          builder.add((Class<? extends MetadataHandler<?>>) c);
+        }
+      }
+    }
+    return builder.build();
+  }
+
   /** Registers some classes. Does not flush the providers, but next time we
    * need to generate a provider, it will handle all of these classes. So,
    * calling this method reduces the number of times we need to re-generate. */
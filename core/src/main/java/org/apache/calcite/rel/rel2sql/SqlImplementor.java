@@ -98,6 +98,7 @@
 import org.apache.calcite.sql.validate.SqlValidatorUtil;
 import org.apache.calcite.util.DateString;
 import org.apache.calcite.util.ImmutableBitSet;
+import org.apache.calcite.util.Litmus;
 import org.apache.calcite.util.NlsString;
 import org.apache.calcite.util.Pair;
 import org.apache.calcite.util.RangeSets;
@@ -903,12 +904,59 @@ private SqlNode callToSql(@Nullable RexProgram program, RexCall call0,
           nodeList.add(castNonNull(dialect.getCastSpec(call.getType())));
         }
         break;
+      case OR:
+        if (!not) {
+          final SqlNode in = toInList(nodeList);
+          if (in != null) {
+            return in;
+          }
+        }
+        break;
       default:
         break;
       }
       return SqlUtil.createCall(op, POS, nodeList);
     }
 
+    /** If every operand of an OR compares the same expression with a dynamic
+     * parameter, as in "x = ? OR ? = x", returns "x IN (?, ?)"; otherwise
+     * returns null.
+     *
+     * <p>Such conditions arise when a batch of correlation variables, for
+     * example from a batch nested loop join, is sent to a JDBC source. */
+    private static @Nullable SqlNode toInList(List<SqlNode> operands) {
+      if (operands.size() < 2) {
+        return null;
+      }
+      @Nullable SqlNode common = null;
+      final SqlNodeList params = new SqlNodeList(POS);
+      for (SqlNode operand : operands) {
+        if (operand.getKind() != SqlKind.EQUALS) {
+          return null;
+        }
+        final SqlCall call = (SqlCall) operand;
+        final SqlNode left = call.operand(0);
+        final SqlNode right = call.operand(1);
+        final SqlNode other;
+        if (left instanceof SqlDynamicParam) {
+          params.add(left);
+          other = right;
+        } else if (right instanceof SqlDynamicParam) {
+          params.add(right);
+          other = left;
+        } else {
+          return null;
+        }
+        if (common == null) {
+          common = other;
+        } else if (!common.equalsDeep(other, Litmus.IGNORE)) {
+          return null;
+        }
+      }
+      return SqlStdOperatorTable.IN.createCall(POS, castNonNull(common),
+          params);
+    }
+
     /** Reverses the order of a call, while preserving semantics, if it improves
      * readability.
      *
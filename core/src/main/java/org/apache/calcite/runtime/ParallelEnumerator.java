@@ -0,0 +1,329 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.calcite.runtime;
+
+import org.apache.calcite.linq4j.Enumerator;
+import org.apache.calcite.util.Util;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Enumerator over the elements produced by a list of producers, each of
+ * which runs on a thread of a shared pool and passes its elements to the
+ * consuming thread in batches.
+ *
+ * <p>At most {@code parallelism} producers run at a time; the others start,
+ * in order, as earlier ones finish. If the enumerator is ordered, it returns
+ * the elements of each producer after those of the previous producer, as if
+ * the producers had run one after another; otherwise it returns batches in
+ * the order they arrive.
+ *
+ * <p>The queue of each producer (or, if the enumerator is unordered, the
+ * queue shared by the producers) holds a bounded number of batches, so a
+ * producer waits while the consumer is behind. When the enumerator is
+ * closed, waiting producers give up, and {@link #close()} waits for running
+ * producers to return, so that a producer may release its resources (files,
+ * cursors, connections) before the enumerator is closed. A producer should
+ * therefore check {@link Sink#isClosed()} between units of work, and acquire
+ * its resources only when it runs, because a producer that has not started
+ * when the enumerator is closed never runs.
+ *
+ * <p>An exception thrown by a producer is thrown by {@link #moveNext()} after
+ * the elements that the producer added before it.
+ *
+ * @param <E> element type
+ */
+public class ParallelEnumerator<E> implements Enumerator<E> {
+  private static final ExecutorService EXECUTOR =
+      Executors.newCachedThreadPool(
+          new ThreadFactoryBuilder()
+              .setDaemon(true)
+              .setNameFormat("calcite-parallel-%d")
+              .build());
+
+  /** Time for which the consumer waits for a batch before it checks the
+   * cancel flag, and a producer waits for space before it checks whether the
+   * enumerator has been closed. */
+  private static final long WAIT_MILLIS = 100;
+
+  private final List<Producer<E>> producers;
+  private final int parallelism;
+  private final int batchSize;
+  private final int queueCapacity;
+  private final @Nullable AtomicBoolean cancelFlag;
+  /** Queue shared by all producers, if the enumerator is unordered. */
+  private final @Nullable BlockingQueue<Batch<E>> sharedQueue;
+  /** Producers that have started and not yet sent their last batch, in the
+   * order they started. */
+  private final Deque<Task> running = new ArrayDeque<>();
+  private volatile boolean closed;
+  private int nextProducer;
+  private boolean done;
+  private List<E> rows = ImmutableList.of();
+  private int rowIndex = -1;
+
+  private ParallelEnumerator(List<? extends Producer<E>> producers,
+      int parallelism, boolean ordered, int batchSize, int queueCapacity,
+      @Nullable AtomicBoolean cancelFlag) {
+    this.producers = ImmutableList.copyOf(producers);
+    this.parallelism = Math.max(1, parallelism);
+    this.batchSize = Math.max(1, batchSize);
+    this.queueCapacity = Math.max(1, queueCapacity);
+    this.cancelFlag = cancelFlag;
+    this.sharedQueue =
+        ordered ? null
+            : new ArrayBlockingQueue<>(this.queueCapacity * this.parallelism);
+    submit();
+  }
+
+  /** Creates a ParallelEnumerator, and starts its first
+   * {@code parallelism} producers.
+   *
+   * @param producers     Producers, in the order their elements are
+   *                      returned if the enumerator is ordered
+   * @param parallelism   Maximum number of producers that run at a time
+   * @param ordered       Whether to return the elements of each producer
+   *                      after those of the previous producer
+   * @param batchSize     Number of elements added by {@link Sink#add} that
+   *                      are passed to the consumer at a time
+   * @param queueCapacity Number of batches that each producer may send
+   *                      before the consumer takes them
+   * @param cancelFlag    Flag that, when set, makes {@link #moveNext()}
+   *                      return false, or null
+   * @param <E> element type
+   */
+  public static <E> ParallelEnumerator<E> create(
+      List<? extends Producer<E>> producers, int parallelism, boolean ordered,
+      int batchSize, int queueCapacity, @Nullable AtomicBoolean cancelFlag) {
+    return new ParallelEnumerator<>(producers, parallelism, ordered, batchSize,
+        queueCapacity, cancelFlag);
+  }
+
+  @Override public E current() {
+    return rows.get(rowIndex);
+  }
+
+  @Override public boolean moveNext() {
+    for (;;) {
+      if (cancelFlag != null && cancelFlag.get()) {
+        return false;
+      }
+      if (++rowIndex < rows.size()) {
+        return true;
+      }
+      rows = ImmutableList.of();
+      rowIndex = -1;
+      if (done) {
+        return false;
+      }
+      submit();
+      final Task head = running.peek();
+      if (head == null) {
+        done = true;
+        return false;
+      }
+      final Batch<E> batch;
+      try {
+        batch =
+            (sharedQueue != null ? sharedQueue : head.queue)
+                .poll(WAIT_MILLIS, TimeUnit.MILLISECONDS);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw Util.throwAsRuntime(e);
+      }
+      if (batch == null) {
+        continue;
+      }
+      if (batch.last) {
+        running.remove(batch.task);
+      }
+      if (batch.error != null) {
+        done = true;
+        throw Util.throwAsRuntime(batch.error);
+      }
+      rows = batch.rows;
+    }
+  }
+
+  /** Starts producers until {@link #parallelism} are running or every
+   * producer has been started. */
+  private void submit() {
+    while (running.size() < parallelism && nextProducer < producers.size()) {
+      final Task task = new Task(producers.get(nextProducer++));
+      running.add(task);
+      task.future = EXECUTOR.submit(task);
+    }
+  }
+
+  @Override public void reset() {
+    throw new UnsupportedOperationException();
+  }
+
+  @Override public void close() {
+    closed = true;
+    done = true;
+    for (Task task : running) {
+      task.await();
+    }
+    running.clear();
+  }
+
+  /** Produces elements, on a thread of the pool, by adding them to a
+   * sink.
+   *
+   * @param <E> element type */
+  @FunctionalInterface
+  public interface Producer<E> {
+    void produce(Sink<E> sink) throws Exception;
+  }
+
+  /** Receives the elements of a producer.
+   *
+   * @param <E> element type */
+  public interface Sink<E> {
+    /** Adds an element. Waits, if the queue is full, until the consumer
+     * takes a batch or the enumerator is closed. */
+    void add(E e);
+
+    /** Adds a list of elements, which is passed to the consumer as a batch
+     * of its own. */
+    void addAll(List<E> list);
+
+    /** Returns whether the enumerator has been closed, in which case the
+     * producer should stop. Elements added after the enumerator is closed
+     * are discarded. */
+    boolean isClosed();
+  }
+
+  /** Elements passed from a producer to the consumer.
+   *
+   * @param <E> element type */
+  private static class Batch<E> {
+    final Object task;
+    final List<E> rows;
+    /** Whether this is the last batch of its producer. */
+    final boolean last;
+    final @Nullable Throwable error;
+
+    Batch(Object task, List<E> rows, boolean last, @Nullable Throwable error) {
+      this.task = task;
+      this.rows = rows;
+      this.last = last;
+      this.error = error;
+    }
+  }
+
+  /** Runs a producer, and puts its elements, in batches, into a queue. */
+  private class Task implements Runnable, Sink<E> {
+    private final Producer<E> producer;
+    final BlockingQueue<Batch<E>> queue;
+    private List<E> buffer = new ArrayList<>();
+    @Nullable Future<?> future;
+
+    Task(Producer<E> producer) {
+      this.producer = producer;
+      this.queue =
+          sharedQueue != null ? sharedQueue
+              : new ArrayBlockingQueue<>(queueCapacity);
+    }
+
+    @Override public void run() {
+      @Nullable Throwable error = null;
+      try {
+        producer.produce(this);
+      } catch (Throwable e) {
+        error = e;
+      }
+      put(
+          new Batch<>(this, error == null ? buffer : ImmutableList.of(), true,
+              error));
+    }
+
+    @Override public void add(E e) {
+      buffer.add(e);
+      if (buffer.size() >= batchSize) {
+        flush();
+      }
+    }
+
+    @Override public void addAll(List<E> list) {
+      flush();
+      if (!list.isEmpty()) {
+        put(new Batch<>(this, list, false, null));
+      }
+    }
+
+    @Override public boolean isClosed() {
+      return closed;
+    }
+
+    private void flush() {
+      if (!buffer.isEmpty()) {
+        put(new Batch<>(this, buffer, false, null));
+        buffer = new ArrayList<>();
+      }
+    }
+
+    /** Adds a batch to the queue, waiting for space, unless the enumerator
+     * has been closed. */
+    private void put(Batch<E> batch) {
+      try {
+        while (!closed) {
+          if (queue.offer(batch, WAIT_MILLIS, TimeUnit.MILLISECONDS)) {
+            return;
+          }
+        }
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    }
+
+    /** Waits for the producer to return. */
+    void await() {
+      try {
+        requireNonNull(future, "future").get();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      } catch (ExecutionException e) {
+        // Not reached; the task passes the producer's errors to the consumer
+        throw Util.throwAsRuntime(Util.causeOrSelf(e));
+      }
+    }
+
+    @Override public String toString() {
+      return String.valueOf(producer);
+    }
+  }
+}
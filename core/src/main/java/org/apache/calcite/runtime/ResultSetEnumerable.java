@@ -26,6 +26,8 @@
 import org.apache.calcite.linq4j.tree.Primitive;
 import org.apache.calcite.util.Static;
 
+import com.google.common.collect.ImmutableList;
+
 import org.checkerframework.checker.nullness.qual.Nullable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -59,6 +61,12 @@
 /**
  * Executes a SQL statement and returns the result as an {@link Enumerable}.
  *
+ * <p>By default, rows are fetched from the {@link ResultSet} and converted on
+ * the thread that consumes them. If {@link #setPrefetch(boolean) prefetch} is
+ * enabled, a background thread fetches and converts rows into batches of
+ * {@link #setFetchSize(int) fetch size} rows, so that waiting for the database
+ * overlaps with processing the rows that have already arrived.
+ *
  * @param <T> Element type
  */
 public class ResultSetEnumerable<T> extends AbstractEnumerable<T> {
@@ -73,6 +81,16 @@
   private @Nullable Long queryStart;
   private long timeout;
   private boolean timeoutSetFailed;
+  private int fetchSize;
+  private boolean prefetch;
+
+  /** Number of rows in a batch, if prefetch is enabled and the fetch size is
+   * not set. */
+  private static final int DEFAULT_BATCH_SIZE = 100;
+
+  /** Number of batches that the prefetch thread may fetch before the consumer
+   * takes them. */
+  private static final int PREFETCH_QUEUE_CAPACITY = 4;
 
   private static final Function1<ResultSet, Function0<@Nullable Object>> AUTO_ROW_BUILDER_FACTORY =
       resultSet -> {
@@ -184,6 +202,18 @@ public void setTimeout(DataContext context) {
     }
   }
 
+  /** Sets the number of rows that the JDBC driver should fetch from the
+   * database at a time; 0, the default, leaves the driver's default. If
+   * prefetch is enabled, this is also the number of rows in each batch. */
+  public void setFetchSize(int fetchSize) {
+    this.fetchSize = fetchSize;
+  }
+
+  /** Sets whether to fetch and convert rows on a background thread. */
+  public void setPrefetch(boolean prefetch) {
+    this.prefetch = prefetch;
+  }
+
   /** Called from generated code that proposes to create a
    * {@code ResultSetEnumerable} over a prepared statement. */
   public static PreparedStatementEnricher createEnricher(Integer[] indexes,
@@ -265,11 +295,14 @@ private Enumerator<T> enumeratorBasedOnStatement() {
       connection = dataSource.getConnection();
       statement = connection.createStatement();
       setTimeoutIfPossible(statement);
+      if (fetchSize > 0) {
+        statement.setFetchSize(fetchSize);
+      }
       if (statement.execute(sql)) {
         final ResultSet resultSet = statement.getResultSet();
         statement = null;
         connection = null;
-        return new ResultSetEnumerator<>(resultSet, rowBuilderFactory);
+        return createEnumerator(resultSet);
       } else {
         Integer updateCount = statement.getUpdateCount();
         //noinspection unchecked
@@ -290,12 +323,15 @@ private Enumerator<T> enumeratorBasedOnPreparedStatement() {
       connection = dataSource.getConnection();
       preparedStatement = connection.prepareStatement(sql);
       setTimeoutIfPossible(preparedStatement);
+      if (fetchSize > 0) {
+        preparedStatement.setFetchSize(fetchSize);
+      }
       castNonNull(preparedStatementEnricher).enrich(preparedStatement);
       if (preparedStatement.execute()) {
         final ResultSet resultSet = preparedStatement.getResultSet();
         preparedStatement = null;
         connection = null;
-        return new ResultSetEnumerator<>(resultSet, rowBuilderFactory);
+        return createEnumerator(resultSet);
       } else {
         Integer updateCount = preparedStatement.getUpdateCount();
         //noinspection unchecked
@@ -309,6 +345,29 @@ private Enumerator<T> enumeratorBasedOnPreparedStatement() {
     }
   }
 
+  private Enumerator<T> createEnumerator(ResultSet resultSet) {
+    final ResultSetEnumerator<T> enumerator =
+        new ResultSetEnumerator<>(resultSet, rowBuilderFactory);
+    if (!prefetch) {
+      return enumerator;
+    }
+    // The background thread reads the result set and builds the rows, and
+    // closes the result set, statement and connection when it has read every
+    // row or when the enumerator is closed.
+    final ParallelEnumerator.Producer<T> producer = sink -> {
+      try {
+        while (!sink.isClosed() && enumerator.moveNext()) {
+          sink.add(enumerator.current());
+        }
+      } finally {
+        enumerator.close();
+      }
+    };
+    return ParallelEnumerator.create(ImmutableList.of(producer), 1, true,
+        fetchSize > 0 ? fetchSize : DEFAULT_BATCH_SIZE,
+        PREFETCH_QUEUE_CAPACITY, null);
+  }
+
   private void setTimeoutIfPossible(Statement statement) throws SQLException {
     Long queryStart = this.queryStart;
     if (timeout == 0 || queryStart == null) {
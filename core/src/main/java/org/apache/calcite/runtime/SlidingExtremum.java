@@ -0,0 +1,118 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.calcite.runtime;
+
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+import java.util.Arrays;
+
+import static org.apache.calcite.linq4j.Nullness.castNonNull;
+
+/**
+ * Accumulator for the {@code MIN} or {@code MAX} of a window whose frame
+ * slides forward.
+ *
+ * <p>Rows must be added in increasing order of index, and removed in
+ * increasing order of index. The accumulator keeps a monotonic deque of the
+ * rows that may yet become the extremum, so that adding, removing and reading
+ * the extremum take amortized constant time, and a window over {@code n}
+ * rows takes {@code O(n)} time regardless of the size of its frame.
+ *
+ * <p>Used by code generated for
+ * {@link org.apache.calcite.adapter.enumerable.EnumerableWindow}.
+ */
+public class SlidingExtremum {
+  private final boolean min;
+  private int[] indexes = new int[8];
+  private @Nullable Comparable[] values = new Comparable[8];
+  /** Position of the first entry. */
+  private int head;
+  /** Number of entries. */
+  private int size;
+
+  /** Creates a SlidingExtremum.
+   *
+   * @param min Whether to compute the minimum; otherwise the maximum
+   */
+  public SlidingExtremum(boolean min) {
+    this.min = min;
+  }
+
+  /** Adds the value of a row. The index must be greater than that of any
+   * row added previously. */
+  @SuppressWarnings("unchecked")
+  public void add(int index, Comparable value) {
+    // Remove the rows that can no longer be the extremum, because the new
+    // row is at least as good and will leave the frame after them.
+    while (size > 0) {
+      final Comparable last = castNonNull(values[slot(size - 1)]);
+      final int c = last.compareTo(value);
+      if (min ? c < 0 : c > 0) {
+        break;
+      }
+      values[slot(size - 1)] = null;
+      --size;
+    }
+    if (size == indexes.length) {
+      grow();
+    }
+    indexes[slot(size)] = index;
+    values[slot(size)] = value;
+    ++size;
+  }
+
+  /** Removes the row with a given index, if it is still held. Rows must be
+   * removed in the order they were added. */
+  public void remove(int index) {
+    if (size > 0 && indexes[head] == index) {
+      values[head] = null;
+      head = slot(1);
+      --size;
+    }
+  }
+
+  /** Returns the extremum of the rows added and not removed, or null if there
+   * are none. */
+  public @Nullable Comparable get() {
+    return size == 0 ? null : values[head];
+  }
+
+  private int slot(int i) {
+    return (head + i) % indexes.length;
+  }
+
+  private void grow() {
+    final int n = indexes.length;
+    final int[] newIndexes = new int[n * 2];
+    final @Nullable Comparable[] newValues = new Comparable[n * 2];
+    for (int i = 0; i < size; i++) {
+      newIndexes[i] = indexes[slot(i)];
+      newValues[i] = values[slot(i)];
+    }
+    indexes = newIndexes;
+    values = newValues;
+    head = 0;
+  }
+
+  @Override public String toString() {
+    final int[] held = new int[size];
+    for (int i = 0; i < size; i++) {
+      held[i] = indexes[slot(i)];
+    }
+    return (min ? "min" : "max") + Arrays.toString(held);
+  }
+}
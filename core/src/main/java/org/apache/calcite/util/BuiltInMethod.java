@@ -199,6 +199,10 @@ public enum BuiltInMethod {
   ROW_COPY_VALUES(Row.class, "copyValues"), // This is an instance method that returns an Object[].
   RESULT_SET_ENUMERABLE_SET_TIMEOUT(ResultSetEnumerable.class, "setTimeout",
       DataContext.class),
+  RESULT_SET_ENUMERABLE_SET_FETCH_SIZE(ResultSetEnumerable.class,
+      "setFetchSize", int.class),
+  RESULT_SET_ENUMERABLE_SET_PREFETCH(ResultSetEnumerable.class, "setPrefetch",
+      boolean.class),
   RESULT_SET_ENUMERABLE_OF(ResultSetEnumerable.class, "of", DataSource.class,
       String.class, Function1.class),
   RESULT_SET_ENUMERABLE_OF_PREPARED(ResultSetEnumerable.class, "of",
@@ -249,6 +253,9 @@ public enum BuiltInMethod {
   CORRELATE_BATCH_JOIN(EnumerableDefaults.class, "correlateBatchJoin",
       JoinType.class, Enumerable.class, Function1.class, Function2.class,
       Predicate2.class, int.class),
+  CORRELATE_BATCH_JOIN_DISTINCT(EnumerableDefaults.class, "correlateBatchJoin",
+      JoinType.class, Enumerable.class, Function1.class, Function1.class,
+      Function2.class, Predicate2.class, int.class),
   SELECT(ExtendedEnumerable.class, "select", Function1.class),
   SELECT2(ExtendedEnumerable.class, "select", Function2.class),
   SELECT_MANY(ExtendedEnumerable.class, "selectMany", Function1.class),
@@ -0,0 +1,363 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.calcite.util.javac;
+
+import org.apache.calcite.config.CalciteSystemProperty;
+import org.apache.calcite.linq4j.Linq4j;
+
+import com.google.common.base.Splitter;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import com.google.common.io.ByteStreams;
+
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.codehaus.commons.compiler.CompileException;
+import org.codehaus.commons.compiler.ISimpleCompiler;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.CodeSource;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Persistent cache of classes compiled by Janino.
+ *
+ * <p>Generating and compiling code is a large part of the latency of the
+ * first queries in a new JVM. When the cache is enabled, the bytecode of each
+ * compiled class, and of its nested and anonymous classes, is written to a
+ * file, and a later JVM that needs to compile the same source defines the
+ * classes from that file, in a class loader of their own, instead of
+ * compiling it again.
+ *
+ * <p>Entries are keyed by a SHA-256 hash of the Calcite build, the class
+ * path that the generated code is linked against, the class name and the
+ * source code. Generated code may refer to any public member of Calcite,
+ * linq4j or an adapter, so the build is identified not by Calcite's version,
+ * which snapshots share, but by the jars and classes directories from which
+ * Calcite's core and linq4j were loaded; and the class path is identified by
+ * the jars and directories of the parent class loader of the generated
+ * classes and of its ancestors. Classes compiled against a different build
+ * or a different class path are never loaded.
+ *
+ * <p>The cache used by Calcite is configured by
+ * {@link CalciteSystemProperty#COMPILED_CLASS_CACHE_DIRECTORY}. It is
+ * disabled if the location of Calcite's classes is not known. To populate
+ * it with the default metadata handlers ahead of time, for example while
+ * building an image, call
+ * {@link org.apache.calcite.rel.metadata.JaninoRelMetadataProvider#pregenerate()}.
+ */
+public class CompiledClassCache {
+  private static final Logger LOGGER =
+      LoggerFactory.getLogger(CompiledClassCache.class);
+
+  /** Hashes of class loaders' class paths; see
+   * {@link #classLoaderBuild(ClassLoader)}. */
+  private static final LoadingCache<ClassLoader, Optional<String>>
+      CLASS_LOADER_BUILDS =
+      CacheBuilder.newBuilder()
+          .weakKeys()
+          .build(
+              CacheLoader.from(loader ->
+                  Optional.ofNullable(computeClassLoaderBuild(loader))));
+
+  private static final @Nullable CompiledClassCache INSTANCE = create();
+
+  private final Path directory;
+  private final String version;
+
+  /** Creates a cache that stores classes in {@code directory}.
+   *
+   * @param directory Directory; created on first write if it does not exist
+   * @param version   Version of the code generator, such as a hash of its
+   *                  build; entries written with a different version are
+   *                  ignored
+   */
+  public CompiledClassCache(Path directory, String version) {
+    this.directory = directory;
+    this.version = version;
+  }
+
+  private static @Nullable CompiledClassCache create() {
+    final String directory =
+        CalciteSystemProperty.COMPILED_CLASS_CACHE_DIRECTORY.value();
+    if (directory.isEmpty()) {
+      return null;
+    }
+    final String build = calciteBuild();
+    if (build == null) {
+      LOGGER.warn("Compiled class cache {} is disabled, because the build of "
+          + "Calcite cannot be identified", directory);
+      return null;
+    }
+    return new CompiledClassCache(Paths.get(directory), build);
+  }
+
+  /** Returns the cache configured by
+   * {@link CalciteSystemProperty#COMPILED_CLASS_CACHE_DIRECTORY}, or null if
+   * the property is not set. */
+  public static @Nullable CompiledClassCache instance() {
+    return INSTANCE;
+  }
+
+  /** Returns a SHA-256 hash that identifies the build of Calcite: of the
+   * locations from which the classes of Calcite's core and of linq4j were
+   * loaded. Returns null if a location is not known or cannot be read. */
+  static @Nullable String calciteBuild() {
+    final Hasher hasher = Hashing.sha256().newHasher();
+    for (Class<?> c : ImmutableList.of(CompiledClassCache.class, Linq4j.class)) {
+      final CodeSource codeSource = c.getProtectionDomain().getCodeSource();
+      final URL location = codeSource == null ? null : codeSource.getLocation();
+      if (location == null) {
+        return null;
+      }
+      try {
+        putLocation(hasher, Paths.get(location.toURI()));
+      } catch (IOException | URISyntaxException | RuntimeException e) {
+        LOGGER.debug("Cannot read Calcite's classes at {}", location, e);
+        return null;
+      }
+    }
+    return hasher.hash().toString();
+  }
+
+  /** Returns a SHA-256 hash that identifies the classes that generated code
+   * can link to if it is loaded by a class loader whose parent is
+   * {@code loader}: of the Java version and the locations on the class path
+   * of {@code loader} and its ancestors. Returns null if the class path of a
+   * loader is not known, or a location cannot be read; code loaded by such
+   * a loader is not cached.
+   *
+   * <p>The hash is computed once per class loader. */
+  static @Nullable String classLoaderBuild(ClassLoader loader) {
+    return CLASS_LOADER_BUILDS.getUnchecked(loader).orElse(null);
+  }
+
+  private static @Nullable String computeClassLoaderBuild(ClassLoader loader) {
+    final ClassLoader systemLoader = ClassLoader.getSystemClassLoader();
+    final Hasher hasher = Hashing.sha256().newHasher()
+        .putString(System.getProperty("java.version", ""),
+            StandardCharsets.UTF_8)
+        .putChar('\0');
+    try {
+      for (ClassLoader l = loader; l != null; l = l.getParent()) {
+        if (l == systemLoader) {
+          // The loaders above the system class loader load the JDK
+          for (String entry : Splitter.on(File.pathSeparatorChar)
+              .omitEmptyStrings()
+              .split(System.getProperty("java.class.path", ""))) {
+            putLocation(hasher, Paths.get(entry));
+          }
+          break;
+        }
+        if (!(l instanceof URLClassLoader)) {
+          LOGGER.debug("Cannot identify the classes of class loader {}", l);
+          return null;
+        }
+        for (URL url : ((URLClassLoader) l).getURLs()) {
+          putLocation(hasher, Paths.get(url.toURI()));
+        }
+      }
+    } catch (IOException | URISyntaxException | RuntimeException e) {
+      LOGGER.debug("Cannot read the class path of class loader {}", loader, e);
+      return null;
+    }
+    return hasher.hash().toString();
+  }
+
+  /** Adds a location on a class path to a hash: its name, and the size and
+   * modification time of the jar, or of each file in the directory. Contents
+   * are not read, so that a long class path can be hashed quickly. */
+  private static void putLocation(Hasher hasher, Path path)
+      throws IOException {
+    hasher.putString(path.toAbsolutePath().toString(), StandardCharsets.UTF_8)
+        .putChar('\0');
+    if (!Files.isDirectory(path)) {
+      if (Files.exists(path)) {
+        hasher.putLong(Files.size(path))
+            .putLong(Files.getLastModifiedTime(path).toMillis());
+      }
+      return;
+    }
+    final List<Path> files;
+    try (Stream<Path> stream = Files.walk(path)) {
+      files =
+          stream.filter(Files::isRegularFile).sorted()
+              .collect(Collectors.toList());
+    }
+    for (Path file : files) {
+      hasher.putString(path.relativize(file).toString(),
+              StandardCharsets.UTF_8)
+          .putLong(Files.size(file))
+          .putLong(Files.getLastModifiedTime(file).toMillis());
+    }
+  }
+
+  /** Compiles {@code source} and loads the class {@code className}, via the
+   * configured cache if there is one.
+   *
+   * <p>The cache is bypassed if {@link CalciteSystemProperty#DEBUG} is set,
+   * because the classes would not have debugging information. */
+  public static Class<?> compile(ISimpleCompiler compiler, ClassLoader parent,
+      String className, String source)
+      throws CompileException, ClassNotFoundException {
+    final CompiledClassCache cache = INSTANCE;
+    if (cache == null || CalciteSystemProperty.DEBUG.value()) {
+      compiler.cook(source);
+      return compiler.getClassLoader().loadClass(className);
+    }
+    return cache.load(compiler, parent, className, source);
+  }
+
+  /** Loads the class {@code className} that was compiled from
+   * {@code source}; if it is not in the cache, compiles it using
+   * {@code compiler} and writes its bytecode to the cache.
+   *
+   * @param compiler  Compiler; not used if the class is in the cache
+   * @param parent    Parent of the class loader that defines cached classes;
+   *                  should be the compiler's parent class loader
+   * @param className Fully-qualified name of the class
+   * @param source    Java source code
+   */
+  public Class<?> load(ISimpleCompiler compiler, ClassLoader parent,
+      String className, String source)
+      throws CompileException, ClassNotFoundException {
+    final String loaderBuild = classLoaderBuild(parent);
+    if (loaderBuild == null) {
+      compiler.cook(source);
+      return compiler.getClassLoader().loadClass(className);
+    }
+    final Path file =
+        directory.resolve(key(loaderBuild, className, source) + ".jar");
+    final Map<String, byte[]> bytecodes = read(file);
+    if (bytecodes != null && bytecodes.containsKey(className)) {
+      return new BytecodeClassLoader(parent, bytecodes).loadClass(className);
+    }
+    compiler.cook(source);
+    write(file, compiler.getBytecodes());
+    return compiler.getClassLoader().loadClass(className);
+  }
+
+  private String key(String loaderBuild, String className, String source) {
+    return Hashing.sha256().newHasher()
+        .putString(version, StandardCharsets.UTF_8)
+        .putChar('\0')
+        .putString(loaderBuild, StandardCharsets.UTF_8)
+        .putChar('\0')
+        .putString(className, StandardCharsets.UTF_8)
+        .putChar('\0')
+        .putString(source, StandardCharsets.UTF_8)
+        .hash()
+        .toString();
+  }
+
+  private static @Nullable Map<String, byte[]> read(Path file) {
+    if (!Files.exists(file)) {
+      return null;
+    }
+    final Map<String, byte[]> bytecodes = new HashMap<>();
+    try (ZipInputStream in = new ZipInputStream(Files.newInputStream(file))) {
+      for (ZipEntry entry; (entry = in.getNextEntry()) != null;) {
+        final String name = entry.getName();
+        if (name.endsWith(".class")) {
+          bytecodes.put(
+              name.substring(0, name.length() - ".class".length())
+                  .replace('/', '.'),
+              ByteStreams.toByteArray(in));
+        }
+      }
+      return bytecodes;
+    } catch (IOException e) {
+      LOGGER.warn("Ignoring unreadable compiled class file {}", file, e);
+      return null;
+    }
+  }
+
+  /** Writes the bytecode of some classes to a file. Writes to a temporary
+   * file first, so that a concurrent reader in another JVM never sees a
+   * partial file. Failure is logged but is not fatal. */
+  private void write(Path file, Map<String, byte[]> bytecodes) {
+    Path temp = null;
+    try {
+      Files.createDirectories(directory);
+      temp = Files.createTempFile(directory, "class", ".tmp");
+      try (ZipOutputStream out =
+               new ZipOutputStream(Files.newOutputStream(temp))) {
+        for (Map.Entry<String, byte[]> e : bytecodes.entrySet()) {
+          out.putNextEntry(
+              new ZipEntry(e.getKey().replace('.', '/') + ".class"));
+          out.write(e.getValue());
+          out.closeEntry();
+        }
+      }
+      Files.move(temp, file, StandardCopyOption.ATOMIC_MOVE,
+          StandardCopyOption.REPLACE_EXISTING);
+      temp = null;
+    } catch (IOException e) {
+      LOGGER.warn("Unable to write compiled class file {}", file, e);
+    } finally {
+      if (temp != null) {
+        try {
+          Files.deleteIfExists(temp);
+        } catch (IOException e) {
+          // ignore
+        }
+      }
+    }
+  }
+
+  /** Class loader that defines classes from bytecode read from the cache. */
+  static class BytecodeClassLoader extends ClassLoader {
+    private final ImmutableMap<String, byte[]> bytecodes;
+
+    BytecodeClassLoader(ClassLoader parent, Map<String, byte[]> bytecodes) {
+      super(parent);
+      this.bytecodes = ImmutableMap.copyOf(bytecodes);
+    }
+
+    @Override protected Class<?> findClass(String name)
+        throws ClassNotFoundException {
+      final byte[] bytes = bytecodes.get(name);
+      if (bytes == null) {
+        throw new ClassNotFoundException(name);
+      }
+      return defineClass(name, bytes, 0, bytes.length);
+    }
+  }
+}
@@ -30,6 +30,7 @@
 import org.apache.calcite.linq4j.QueryProvider;
 import org.apache.calcite.plan.*;
 import org.apache.calcite.plan.volcano.AbstractConverter;
+import org.apache.calcite.plan.volcano.VolcanoPlanCache;
 import org.apache.calcite.plan.volcano.VolcanoPlanner;
 import org.apache.calcite.prepare.CalciteCatalogReader;
 import org.apache.calcite.rel.RelNode;
@@ -139,8 +140,24 @@ public class QueryRunner {
   private static final String queryFilesFolder = "C:\\query_results\\";
   private static final RelOptTable.ViewExpander NOOP_EXPANDER = (rowType, queryString, schemaPath
       , viewPath) -> null;
+  /**
+   * Per-rule planning metrics of all queries, exposed via JMX so that rule
+   * sets such as {@link #BASE_RULES} can be tuned.
+   */
+  private static final PlannerMetrics PLANNER_METRICS = new PlannerMetrics();
+
+  static {
+    PLANNER_METRICS.registerMBean("JOB");
+  }
   private static int successfulQueries = 0;
   private final SchemaBuilder schemaBuilder;
+  /**
+   * Sub-plans shared by the planners of the queries that this runner runs;
+   * JOB variants reuse the same star cores many times. Recipes hold row
+   * types and expressions of this runner's schema and type factory, so the
+   * cache is not shared with other runners.
+   */
+  private final VolcanoPlanCache planCache = VolcanoPlanCache.create(10_000);
 
   public QueryRunner() throws Exception {
     schemaBuilder = SchemaBuilder.getInstance();
@@ -159,8 +176,12 @@ public static void appendToFile(String filename, String text, boolean printToStd
     }
   }
 
-  private static RelOptCluster newCluster(RelDataTypeFactory factory) {
-    RelOptPlanner planner = new VolcanoPlanner();
+  private RelOptCluster newCluster(RelDataTypeFactory factory,
+      CalciteConnectionConfig config) {
+    // The config carries the planning budget, if any
+    VolcanoPlanner planner = new VolcanoPlanner(Contexts.of(config));
+    planner.setPlanCache(planCache);
+    planner.setMetrics(PLANNER_METRICS);
     planner.addRelTraitDef(ConventionTraitDef.INSTANCE);
     return RelOptCluster.create(planner, new RexBuilder(factory));
   }
@@ -230,7 +251,7 @@ public void runQuery(String sqlQuery, String outputFilename, boolean printToStdO
 
       appendToFile(outputFilename, "\n[Valid SqlNode]\n" + validNode, printToStdOutput);
 
-      RelOptCluster cluster = newCluster(schemaBuilder.getTypeFactory());
+      RelOptCluster cluster = newCluster(schemaBuilder.getTypeFactory(), config);
       SqlToRelConverter relConverter = new SqlToRelConverter(
           NOOP_EXPANDER,
           validator,
@@ -252,6 +273,10 @@ public void runQuery(String sqlQuery, String outputFilename, boolean printToStdO
           cluster.traitSet().replace(BindableConvention.INSTANCE));
       planner.setRoot(logPlan);
       BindableRel phyPlan = (BindableRel) planner.findBestExp();
+      if (((VolcanoPlanner) planner).isBudgetLimited()) {
+        appendToFile(outputFilename, "\n[Planning budget expired; plan may not be optimal]",
+            printToStdOutput);
+      }
 
       appendToFile(outputFilename, RelOptUtil.dumpPlan("\n[Physical plan]", phyPlan,
           SqlExplainFormat.TEXT,
@@ -20,6 +20,7 @@
 import org.apache.calcite.adapter.enumerable.EnumerableRules;
 import org.apache.calcite.adapter.enumerable.EnumerableUnion;
 import org.apache.calcite.plan.Convention;
+import org.apache.calcite.plan.Contexts;
 import org.apache.calcite.plan.ConventionTraitDef;
 import org.apache.calcite.plan.RelOptCluster;
 import org.apache.calcite.plan.RelOptListener;
@@ -38,12 +39,17 @@
 import org.apache.calcite.rel.externalize.RelDotWriter;
 import org.apache.calcite.rel.logical.LogicalProject;
 import org.apache.calcite.rel.rules.CoreRules;
+import org.apache.calcite.rel.rules.TransformationRule;
 import org.apache.calcite.sql.SqlExplainLevel;
 import org.apache.calcite.tools.RelBuilder;
 import org.apache.calcite.util.Pair;
 
+import com.google.common.base.Ticker;
+import com.google.common.collect.ImmutableList;
+
 import org.apache.commons.lang.exception.ExceptionUtils;
 
+import org.checkerframework.checker.nullness.qual.Nullable;
 import org.immutables.value.Value;
 import org.junit.jupiter.api.Disabled;
 import org.junit.jupiter.api.Test;
@@ -54,6 +60,9 @@
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
 
 import static org.apache.calcite.plan.volcano.PlannerTests.AssertOperandsDifferentRule;
 import static org.apache.calcite.plan.volcano.PlannerTests.GoodSingleRule;
@@ -77,6 +86,7 @@
 import static org.hamcrest.CoreMatchers.sameInstance;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.arrayWithSize;
+import static org.hamcrest.Matchers.empty;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertNotSame;
 import static org.junit.jupiter.api.Assertions.assertSame;
@@ -596,6 +606,209 @@ private void removeTrivialProject(boolean useRule) {
         isLinux(plan));
   }
 
+  /** Tests that a planner that shares a {@link VolcanoPlanCache} with an
+   * earlier planner is seeded with the sub-plans that the earlier planner
+   * found, and arrives at the same plan. */
+  @Test void testPlanCache() {
+    final VolcanoPlanCache planCache = VolcanoPlanCache.create(100);
+    final String plan = planThreeWayJoin(planCache, null);
+    assertThat(planCache.size() > 0, is(true));
+    assertThat(planCache.stats().hitCount(), is(0L));
+
+    // Record the rules that fire on seeded sets during the second planning;
+    // only implementation rules should
+    final List<RelOptRule> seededTransformations = new ArrayList<>();
+    final List<RelOptRule> seededImplementations = new ArrayList<>();
+    final RelOptListener listener = new RelOptListener() {
+      @Override public void relEquivalenceFound(RelEquivalenceEvent event) {
+      }
+
+      @Override public void ruleAttempted(RuleAttemptedEvent event) {
+        final RelOptRuleCall call = event.getRuleCall();
+        if (!event.isBefore()
+            || !((VolcanoPlanner) call.getPlanner()).isSeeded(call.rels[0])) {
+          return;
+        }
+        if (call.getRule() instanceof TransformationRule) {
+          seededTransformations.add(call.getRule());
+        } else {
+          seededImplementations.add(call.getRule());
+        }
+      }
+
+      @Override public void ruleProductionSucceeded(RuleProductionEvent event) {
+      }
+
+      @Override public void relDiscarded(RelDiscardedEvent event) {
+      }
+
+      @Override public void relChosen(RelChosenEvent event) {
+      }
+    };
+    final String plan2 = planThreeWayJoin(planCache, listener);
+    assertThat(plan2, is(plan));
+    assertThat(planCache.stats().hitCount() > 0, is(true));
+    assertThat(seededImplementations.isEmpty(), is(false));
+    assertThat(seededTransformations, empty());
+  }
+
+  /** Tests that the sets below a leaf of a cached sub-plan are not seeded,
+   * and are still explored by transformation rules. */
+  @Test void testPlanCacheExploresBelowLeaf() {
+    final VolcanoPlanCache planCache = VolcanoPlanCache.create(100);
+    final String plan = planJoinOfIntersect(planCache, null);
+    assertThat(planCache.stats().hitCount(), is(0L));
+
+    final List<RelOptRule> transformations = new ArrayList<>();
+    final RelOptListener listener = new RelOptListener() {
+      @Override public void relEquivalenceFound(RelEquivalenceEvent event) {
+      }
+
+      @Override public void ruleAttempted(RuleAttemptedEvent event) {
+        if (event.isBefore()
+            && event.getRuleCall().getRule() instanceof TransformationRule) {
+          transformations.add(event.getRuleCall().getRule());
+        }
+      }
+
+      @Override public void ruleProductionSucceeded(RuleProductionEvent event) {
+      }
+
+      @Override public void relDiscarded(RelDiscardedEvent event) {
+      }
+
+      @Override public void relChosen(RelChosenEvent event) {
+      }
+    };
+    final String plan2 = planJoinOfIntersect(planCache, listener);
+    assertThat(plan2, is(plan));
+    assertThat(planCache.stats().hitCount() > 0, is(true));
+    assertThat(transformations.contains(CoreRules.INTERSECT_TO_DISTINCT),
+        is(true));
+  }
+
+  /** Tests that when the planning budget expires, the planner stops
+   * exploring but still returns a complete plan. */
+  @Test void testPlanningBudget() {
+    VolcanoPlanner planner = new VolcanoPlanner();
+    planner.addRelTraitDef(ConventionTraitDef.INSTANCE);
+    planner.addRule(EnumerableRules.ENUMERABLE_JOIN_RULE);
+    planner.addRule(EnumerableRules.ENUMERABLE_PROJECT_RULE);
+    planner.addRule(EnumerableRules.ENUMERABLE_VALUES_RULE);
+    planner.addRule(CoreRules.JOIN_COMMUTE);
+    planner.setPlanningBudget(1);
+
+    // Advance time by 5 ms on every rule call, so that the budget expires
+    // after the first
+    final AtomicLong nanos = new AtomicLong();
+    planner.setTicker(new Ticker() {
+      @Override public long read() {
+        return nanos.get();
+      }
+    });
+    final List<RelOptRule> firedTransformations = new ArrayList<>();
+    planner.addListener(new RelOptListener() {
+      @Override public void relEquivalenceFound(RelEquivalenceEvent event) {
+      }
+
+      @Override public void ruleAttempted(RuleAttemptedEvent event) {
+        if (!event.isBefore()) {
+          return;
+        }
+        if (event.getRuleCall().getRule() == CoreRules.JOIN_COMMUTE) {
+          firedTransformations.add(event.getRuleCall().getRule());
+        }
+        nanos.addAndGet(TimeUnit.MILLISECONDS.toNanos(5));
+      }
+
+      @Override public void ruleProductionSucceeded(RuleProductionEvent event) {
+      }
+
+      @Override public void relDiscarded(RelDiscardedEvent event) {
+      }
+
+      @Override public void relChosen(RelChosenEvent event) {
+      }
+    });
+
+    RelOptCluster cluster = newCluster(planner);
+    RelBuilder relBuilder = RelFactories.LOGICAL_BUILDER.create(cluster, null);
+    RelNode logicalPlan = relBuilder
+        .values(new String[]{"id", "name"}, "2", "a", "1", "b")
+        .values(new String[]{"id", "name"}, "1", "x", "2", "y")
+        .join(JoinRelType.INNER, "id")
+        .values(new String[]{"id", "v"}, "1", "p", "2", "q", "3", "r")
+        .join(JoinRelType.INNER, "id")
+        .build();
+
+    RelTraitSet desiredTraits =
+        cluster.traitSet().replace(EnumerableConvention.INSTANCE);
+    planner.setRoot(planner.changeTraits(logicalPlan, desiredTraits));
+    RelNode bestExp = planner.findBestExp();
+
+    assertThat(bestExp.getConvention(), is(EnumerableConvention.INSTANCE));
+    assertThat(planner.isBudgetLimited(), is(true));
+    assertTrue(firedTransformations.size() <= 1);
+  }
+
+  private static String planThreeWayJoin(VolcanoPlanCache planCache,
+      @Nullable RelOptListener listener) {
+    return planWithCache(planCache, listener,
+        ImmutableList.of(EnumerableRules.ENUMERABLE_JOIN_RULE,
+            EnumerableRules.ENUMERABLE_PROJECT_RULE,
+            EnumerableRules.ENUMERABLE_VALUES_RULE,
+            CoreRules.JOIN_COMMUTE),
+        b -> b.values(new String[]{"id", "name"}, "2", "a", "1", "b")
+            .values(new String[]{"id", "name"}, "1", "x", "2", "y")
+            .join(JoinRelType.INNER, "id")
+            .values(new String[]{"id", "v"}, "1", "p", "2", "q", "3", "r")
+            .join(JoinRelType.INNER, "id")
+            .build());
+  }
+
+  /** Plans a join whose left input is an aggregate of an intersect. The
+   * aggregate is a leaf of the cached plan of the join, and the intersect
+   * can only be implemented after {@link CoreRules#INTERSECT_TO_DISTINCT}
+   * has rewritten it. */
+  private static String planJoinOfIntersect(VolcanoPlanCache planCache,
+      @Nullable RelOptListener listener) {
+    return planWithCache(planCache, listener,
+        ImmutableList.of(EnumerableRules.ENUMERABLE_JOIN_RULE,
+            EnumerableRules.ENUMERABLE_PROJECT_RULE,
+            EnumerableRules.ENUMERABLE_FILTER_RULE,
+            EnumerableRules.ENUMERABLE_AGGREGATE_RULE,
+            EnumerableRules.ENUMERABLE_UNION_RULE,
+            EnumerableRules.ENUMERABLE_VALUES_RULE,
+            CoreRules.INTERSECT_TO_DISTINCT),
+        b -> b.values(new String[]{"id"}, 1, 2, 3)
+            .values(new String[]{"id"}, 2, 3, 4)
+            .intersect(false)
+            .aggregate(b.groupKey("id"), b.countStar("c"))
+            .values(new String[]{"id", "v"}, 1, "p", 2, "q", 3, "r")
+            .join(JoinRelType.INNER, "id")
+            .build());
+  }
+
+  private static String planWithCache(VolcanoPlanCache planCache,
+      @Nullable RelOptListener listener, List<RelOptRule> rules,
+      Function<RelBuilder, RelNode> query) {
+    VolcanoPlanner planner = new VolcanoPlanner(Contexts.of(planCache));
+    if (listener != null) {
+      planner.addListener(listener);
+    }
+    planner.addRelTraitDef(ConventionTraitDef.INSTANCE);
+    rules.forEach(planner::addRule);
+
+    RelOptCluster cluster = newCluster(planner);
+    RelBuilder relBuilder = RelFactories.LOGICAL_BUILDER.create(cluster, null);
+    RelNode logicalPlan = query.apply(relBuilder);
+
+    RelTraitSet desiredTraits =
+        cluster.traitSet().replace(EnumerableConvention.INSTANCE);
+    planner.setRoot(planner.changeTraits(logicalPlan, desiredTraits));
+    return RelOptUtil.toString(planner.findBestExp());
+  }
+
   @Test void testPruneNode() {
     VolcanoPlanner planner = new VolcanoPlanner();
     planner.addRelTraitDef(ConventionTraitDef.INSTANCE);
@@ -0,0 +1,158 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.calcite.runtime;
+
+import com.google.common.collect.ImmutableList;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Tests {@link ParallelEnumerator}.
+ */
+class ParallelEnumeratorTest {
+  /** Returns producers each of which adds {@code n} consecutive integers. */
+  private static List<ParallelEnumerator.Producer<Integer>> producers(
+      int count, int n) {
+    final List<ParallelEnumerator.Producer<Integer>> producers =
+        new ArrayList<>();
+    for (int i = 0; i < count; i++) {
+      final int start = i * n;
+      producers.add(sink -> {
+        for (int j = start; j < start + n && !sink.isClosed(); j++) {
+          sink.add(j);
+        }
+      });
+    }
+    return producers;
+  }
+
+  private static List<Integer> toList(ParallelEnumerator<Integer> enumerator) {
+    final List<Integer> list = new ArrayList<>();
+    try {
+      while (enumerator.moveNext()) {
+        list.add(enumerator.current());
+      }
+    } finally {
+      enumerator.close();
+    }
+    return list;
+  }
+
+  @Test void testOrdered() {
+    final List<Integer> expected = new ArrayList<>();
+    for (int i = 0; i < 1000; i++) {
+      expected.add(i);
+    }
+    assertThat(
+        toList(
+            ParallelEnumerator.create(producers(10, 100), 3, true, 7, 2,
+                null)),
+        is(expected));
+  }
+
+  @Test void testUnordered() {
+    final Integer[] expected = new Integer[1000];
+    for (int i = 0; i < expected.length; i++) {
+      expected[i] = i;
+    }
+    assertThat(
+        toList(
+            ParallelEnumerator.create(producers(10, 100), 4, false, 16, 2,
+                null)),
+        containsInAnyOrder(expected));
+  }
+
+  /** Tests that an error of a producer is thrown after the elements that
+   * it added before the error. */
+  @Test void testError() {
+    final ParallelEnumerator<Integer> enumerator =
+        ParallelEnumerator.create(
+            ImmutableList.of(sink -> {
+              sink.add(1);
+              sink.addAll(ImmutableList.of(2, 3));
+              throw new IllegalStateException("boom");
+            }), 1, true, 10, 2, null);
+    try {
+      for (int i = 1; i <= 3; i++) {
+        assertThat(enumerator.moveNext(), is(true));
+        assertThat(enumerator.current(), is(i));
+      }
+      final IllegalStateException e =
+          assertThrows(IllegalStateException.class, enumerator::moveNext);
+      assertThat(e.getMessage(), is("boom"));
+      assertThat(enumerator.moveNext(), is(false));
+    } finally {
+      enumerator.close();
+    }
+  }
+
+  /** Tests that closing the enumerator stops producers that never end, and
+   * that producers that have not started never run. */
+  @Test void testClose() {
+    final AtomicInteger started = new AtomicInteger();
+    final AtomicInteger stopped = new AtomicInteger();
+    final List<ParallelEnumerator.Producer<Integer>> producers =
+        new ArrayList<>();
+    for (int i = 0; i < 5; i++) {
+      producers.add(sink -> {
+        started.incrementAndGet();
+        try {
+          for (int j = 0; !sink.isClosed(); j++) {
+            sink.add(j);
+          }
+        } finally {
+          stopped.incrementAndGet();
+        }
+      });
+    }
+    final ParallelEnumerator<Integer> enumerator =
+        ParallelEnumerator.create(producers, 2, false, 4, 2, null);
+    assertThat(enumerator.moveNext(), is(true));
+    enumerator.close();
+    assertThat(started.get(), is(2));
+    assertThat(stopped.get(), is(2));
+  }
+
+  @Test void testCancel() {
+    final AtomicBoolean cancelFlag = new AtomicBoolean();
+    final ParallelEnumerator<Integer> enumerator =
+        ParallelEnumerator.create(
+            ImmutableList.of(sink -> {
+              sink.add(1);
+              while (!sink.isClosed()) {
+                Thread.sleep(10);
+              }
+            }), 1, true, 1, 2, cancelFlag);
+    try {
+      assertThat(enumerator.moveNext(), is(true));
+      cancelFlag.set(true);
+      assertThat(enumerator.moveNext(), is(false));
+    } finally {
+      enumerator.close();
+    }
+  }
+}
@@ -0,0 +1,85 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.calcite.runtime;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+/**
+ * Tests {@link SlidingExtremum}.
+ */
+class SlidingExtremumTest {
+  @Test void testSimple() {
+    final SlidingExtremum min = new SlidingExtremum(true);
+    assertThat(min.get(), nullValue());
+    min.add(0, 5);
+    min.add(1, 3);
+    min.add(2, 4);
+    assertThat(min.get(), is(3));
+    assertThat(min.toString(), is("min[1, 2]"));
+    min.remove(0);
+    assertThat(min.get(), is(3));
+    min.remove(1);
+    assertThat(min.get(), is(4));
+    min.remove(2);
+    assertThat(min.get(), nullValue());
+
+    final SlidingExtremum max = new SlidingExtremum(false);
+    max.add(0, "b");
+    max.add(1, "c");
+    max.add(2, "a");
+    assertThat(max.get(), is("c"));
+    max.remove(0);
+    max.remove(1);
+    assertThat(max.get(), is("a"));
+  }
+
+  /** Compares a sliding frame with a brute-force scan of the frame, for
+   * frames wide enough that the deque wraps and grows. */
+  @Test void testSlide() {
+    final Random random = new Random(1);
+    final int[] values = new int[200];
+    for (int i = 0; i < values.length; i++) {
+      values[i] = random.nextInt(50);
+    }
+    for (int width : new int[] {1, 3, 20}) {
+      final SlidingExtremum min = new SlidingExtremum(true);
+      final SlidingExtremum max = new SlidingExtremum(false);
+      for (int i = 0; i < values.length; i++) {
+        min.add(i, values[i]);
+        max.add(i, values[i]);
+        if (i >= width) {
+          min.remove(i - width);
+          max.remove(i - width);
+        }
+        int expectedMin = Integer.MAX_VALUE;
+        int expectedMax = Integer.MIN_VALUE;
+        for (int j = Math.max(0, i - width + 1); j <= i; j++) {
+          expectedMin = Math.min(expectedMin, values[j]);
+          expectedMax = Math.max(expectedMax, values[j]);
+        }
+        assertThat(min.get(), is(expectedMin));
+        assertThat(max.get(), is(expectedMax));
+      }
+    }
+  }
+}
@@ -16,8 +16,10 @@
  */
 package org.apache.calcite.test;
 
+import org.apache.calcite.plan.PlannerMetrics;
 import org.apache.calcite.plan.RelOptListener;
 import org.apache.calcite.plan.RelOptMaterialization;
+import org.apache.calcite.plan.RelOptUtil;
 import org.apache.calcite.plan.hep.HepMatchOrder;
 import org.apache.calcite.plan.hep.HepPlanner;
 import org.apache.calcite.plan.hep.HepProgram;
@@ -33,6 +35,7 @@
 import org.apache.calcite.tools.RelBuilder;
 
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
 
 import org.checkerframework.checker.nullness.qual.Nullable;
 import org.junit.jupiter.api.AfterAll;
@@ -155,6 +158,30 @@ public final RelOptFixture sql(String sql) {
     sql(sql).withPlanner(planner).check();
   }
 
+  /** Tests that {@link PlannerMetrics} records the rules that a
+   * {@link HepPlanner} fires and the expressions they produce. */
+  @Test void testPlannerMetrics() {
+    final PlannerMetrics metrics = new PlannerMetrics();
+    HepProgramBuilder programBuilder = HepProgram.builder();
+    programBuilder.addRuleInstance(CoreRules.FILTER_TO_CALC);
+    HepPlanner planner = new HepPlanner(programBuilder.build());
+    planner.setMetrics(metrics);
+
+    final String sql = "select name from sales.dept where deptno=12";
+    planner.setRoot(sql(sql).toRel());
+    planner.findBestExp();
+
+    final PlannerMetrics.RuleMetrics ruleMetrics =
+        metrics.getRuleMetrics(CoreRules.FILTER_TO_CALC.toString());
+    assertThat(ruleMetrics, notNullValue());
+    assertThat(ruleMetrics.fireCount, is(1L));
+    assertThat(ruleMetrics.transformCount, is(1L));
+    assertThat(metrics.getRuleFireCounts(),
+        is(ImmutableMap.of(CoreRules.FILTER_TO_CALC.toString(), 1L)));
+    assertThat(metrics.getPlanCount(), is(1L));
+    assertThat(metrics.getMaxRelSetCount() > 0, is(true));
+  }
+
   /**
    * Ensures {@link org.apache.calcite.rel.AbstractRelNode} digest does not include
    * full digest tree.
@@ -373,6 +400,52 @@ private void assertIncludesExactlyOnce(String message, String digest,
     assertThat(applyTimes2, is(87L));
   }
 
+  /** Tests that applying rules in batches, with and without parallel
+   * matching, produces the same plan as applying them one at a time. */
+  @Test void testMatchBatch() {
+    final String expected = planComplexUnionTree(false, false);
+    assertThat(planComplexUnionTree(true, false), is(expected));
+    assertThat(planComplexUnionTree(true, true), is(expected));
+  }
+
+  /** Tests that applying rules in batches collects garbage once per pass,
+   * not after every transformation. A collection shows up as a run of
+   * {@link RelOptListener.RelDiscardedEvent}s after a transformation. */
+  @Test void testMatchBatchCollectsGarbagePerPass() {
+    final GarbageCollectionListener oneAtATime = new GarbageCollectionListener();
+    final HepPlanner planner = complexUnionTreePlanner(false, false);
+    planner.addListener(oneAtATime);
+    planner.findBestExp();
+
+    final GarbageCollectionListener batch = new GarbageCollectionListener();
+    final HepPlanner batchPlanner = complexUnionTreePlanner(true, false);
+    batchPlanner.addListener(batch);
+    batchPlanner.findBestExp();
+
+    assertThat(batch.transformations > 1, is(true));
+    assertThat(batch.collections < batch.transformations, is(true));
+    assertThat(batch.collections < oneAtATime.collections, is(true));
+  }
+
+  private String planComplexUnionTree(boolean batch, boolean parallel) {
+    final HepPlanner planner = complexUnionTreePlanner(batch, parallel);
+    return RelOptUtil.toString(planner.findBestExp());
+  }
+
+  private HepPlanner complexUnionTreePlanner(boolean batch, boolean parallel) {
+    final HepProgramBuilder programBuilder = HepProgram.builder();
+    programBuilder.addMatchOrder(HepMatchOrder.BOTTOM_UP);
+    if (batch) {
+      programBuilder.addMatchBatch(true, parallel);
+    }
+    programBuilder.addRuleInstance(CoreRules.FILTER_REDUCE_EXPRESSIONS);
+    programBuilder.addRuleInstance(CoreRules.PROJECT_REDUCE_EXPRESSIONS);
+
+    final HepPlanner planner = new HepPlanner(programBuilder.build());
+    planner.setRoot(sql(COMPLEX_UNION_TREE).toRel());
+    return planner;
+  }
+
   @Test void testMaterialization() {
     HepPlanner planner = new HepPlanner(HepProgram.builder().build());
     RelNode tableRel = sql("select * from dept").toRel();
@@ -432,6 +505,37 @@ long getApplyTimes() {
     }
   }
 
+  /** Listener for HepPlannerTest; counts transformations, and garbage
+   * collections that discard the rels they left behind. */
+  private static class GarbageCollectionListener implements RelOptListener {
+    int transformations;
+    int collections;
+    private boolean transformedSinceCollection;
+
+    @Override public void relEquivalenceFound(RelEquivalenceEvent event) {
+    }
+
+    @Override public void ruleAttempted(RuleAttemptedEvent event) {
+    }
+
+    @Override public void ruleProductionSucceeded(RuleProductionEvent event) {
+      if (!event.isBefore()) {
+        ++transformations;
+        transformedSinceCollection = true;
+      }
+    }
+
+    @Override public void relDiscarded(RelDiscardedEvent event) {
+      if (transformedSinceCollection) {
+        ++collections;
+        transformedSinceCollection = false;
+      }
+    }
+
+    @Override public void relChosen(RelChosenEvent event) {
+    }
+  }
+
   /** Test case for
    * <a href="https://issues.apache.org/jira/browse/CALCITE-5401">[CALCITE-5401]
    * Rule fired by HepPlanner can return Volcano's RelSubset</a>. */
@@ -301,6 +301,22 @@ private static void assertRows(Interpreter interpreter,
             "[6, George, 1943]");
   }
 
+  /** Tests ORDER BY with OFFSET and FETCH, which keeps only the top rows;
+   * rows with equal keys keep their input order. */
+  @Test void testInterpretSortFetch() {
+    rootSchema().add("beatles", new ScannableTableTest.BeatlesTable());
+    sql("select * from \"beatles\" order by \"i\" limit 2")
+        .returnsRows("[4, John, 1940]", "[4, Paul, 1942]");
+    sql("select * from \"beatles\" order by \"i\" offset 1 rows fetch next 2 rows only")
+        .returnsRows("[4, Paul, 1942]", "[5, Ringo, 1940]");
+    sql("select * from \"beatles\" order by \"i\" desc limit 3")
+        .returnsRows("[6, George, 1943]", "[5, Ringo, 1940]", "[4, John, 1940]");
+    sql("select * from \"beatles\" order by \"i\" offset 3 rows fetch next 5 rows only")
+        .returnsRows("[6, George, 1943]");
+    sql("select * from \"beatles\" order by \"i\" limit 0")
+        .returnsRows();
+  }
+
   /** Tests executing a plan on a
    * {@link org.apache.calcite.schema.ScannableTable} using an interpreter. */
   @Test void testInterpretScannableTable2() {
@@ -18,6 +18,7 @@
 
 import org.apache.calcite.adapter.enumerable.EnumerableRules;
 import org.apache.calcite.adapter.java.ReflectiveSchema;
+import org.apache.calcite.adapter.jdbc.JdbcRules;
 import org.apache.calcite.config.CalciteConnectionProperty;
 import org.apache.calcite.config.Lex;
 import org.apache.calcite.plan.RelOptPlanner;
@@ -37,6 +38,7 @@
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
+import java.util.Collections;
 import java.util.Properties;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
@@ -100,6 +102,26 @@ class JdbcAdapterTest {
         .returnsCount(14);
   }
 
+  /** Tests a JDBC schema that fetches rows on a background thread, in batches
+   * smaller than the result, including nulls in a column of primitive
+   * type. */
+  @Test void testPrefetch() {
+    final String model =
+        JdbcTest.SCOTT_MODEL.replace("jdbcCatalog: ",
+            "jdbcFetchSize: 2,\n"
+                + "       jdbcPrefetch: true,\n"
+                + "       jdbcCatalog: ");
+    CalciteAssert.model(model)
+        .query("select empno, mgr from scott.emp\n"
+            + "where deptno = 10 order by empno")
+        .returnsOrdered("EMPNO=7782; MGR=7839",
+            "EMPNO=7839; MGR=null",
+            "EMPNO=7934; MGR=7782");
+    CalciteAssert.model(model)
+        .query("select * from scott.emp")
+        .returnsCount(14);
+  }
+
   @Test void testUnionPlan() {
     CalciteAssert.model(FoodmartSchema.FOODMART_MODEL)
         .query("select * from \"sales_fact_1997\"\n"
@@ -1489,31 +1511,8 @@ private LockWrapper exclusiveCleanDb(Connection c) throws SQLException {
     final String explain = "JdbcFilter(condition=[OR(=($cor0.empid0, $0), =($cor1.empid0, $0)";
     final String jdbcSql = "SELECT *\n"
         + "FROM \"foodmart\".\"store\"\n"
-        + "WHERE ? = \"store_id\" OR (? = \"store_id\" OR ? = \"store_id\") OR (? = \"store_id\" OR"
-        + " (? = \"store_id\" OR ? = \"store_id\")) OR (? = \"store_id\" OR (? = \"store_id\" OR ? "
-        + "= \"store_id\") OR (? = \"store_id\" OR (? = \"store_id\" OR ? = \"store_id\"))) OR (? ="
-        + " \"store_id\" OR (? = \"store_id\" OR ? = \"store_id\") OR (? = \"store_id\" OR (? = "
-        + "\"store_id\" OR ? = \"store_id\")) OR (? = \"store_id\" OR (? = \"store_id\" OR ? = "
-        + "\"store_id\") OR (? = \"store_id\" OR ? = \"store_id\" OR (? = \"store_id\" OR ? = "
-        + "\"store_id\")))) OR (? = \"store_id\" OR (? = \"store_id\" OR ? = \"store_id\") OR (? = "
-        + "\"store_id\" OR (? = \"store_id\" OR ? = \"store_id\")) OR (? = \"store_id\" OR (? = "
-        + "\"store_id\" OR ? = \"store_id\") OR (? = \"store_id\" OR (? = \"store_id\" OR ? = "
-        + "\"store_id\"))) OR (? = \"store_id\" OR (? = \"store_id\" OR ? = \"store_id\") OR (? = "
-        + "\"store_id\" OR (? = \"store_id\" OR ? = \"store_id\")) OR (? = \"store_id\" OR (? = "
-        + "\"store_id\" OR ? = \"store_id\") OR (? = \"store_id\" OR ? = \"store_id\" OR (? = "
-        + "\"store_id\" OR ? = \"store_id\"))))) OR (? = \"store_id\" OR (? = \"store_id\" OR ? = "
-        + "\"store_id\") OR (? = \"store_id\" OR (? = \"store_id\" OR ? = \"store_id\")) OR (? = "
-        + "\"store_id\" OR (? = \"store_id\" OR ? = \"store_id\") OR (? = \"store_id\" OR (? = "
-        + "\"store_id\" OR ? = \"store_id\"))) OR (? = \"store_id\" OR (? = \"store_id\" OR ? = "
-        + "\"store_id\") OR (? = \"store_id\" OR (? = \"store_id\" OR ? = \"store_id\")) OR (? = "
-        + "\"store_id\" OR (? = \"store_id\" OR ? = \"store_id\") OR (? = \"store_id\" OR ? = "
-        + "\"store_id\" OR (? = \"store_id\" OR ? = \"store_id\")))) OR (? = \"store_id\" OR (? = "
-        + "\"store_id\" OR ? = \"store_id\") OR (? = \"store_id\" OR (? = \"store_id\" OR ? = "
-        + "\"store_id\")) OR (? = \"store_id\" OR (? = \"store_id\" OR ? = \"store_id\") OR (? = "
-        + "\"store_id\" OR (? = \"store_id\" OR ? = \"store_id\"))) OR (? = \"store_id\" OR (? = "
-        + "\"store_id\" OR ? = \"store_id\") OR (? = \"store_id\" OR (? = \"store_id\" OR ? = "
-        + "\"store_id\")) OR (? = \"store_id\" OR (? = \"store_id\" OR ? = \"store_id\") OR (? = "
-        + "\"store_id\" OR ? = \"store_id\" OR (? = \"store_id\" OR ? = \"store_id\"))))))";
+        + "WHERE \"store_id\" IN ("
+        + String.join(", ", Collections.nCopies(100, "?")) + ")";
     CalciteAssert.model(FoodmartSchema.FOODMART_MODEL)
         .withSchema("s", new ReflectiveSchema(new HrSchema()))
         .withHook(Hook.PLANNER, (Consumer<RelOptPlanner>) planner -> {
@@ -1528,6 +1527,28 @@ private LockWrapper exclusiveCleanDb(Connection c) throws SQLException {
         .returnsCount(4);
   }
 
+  /** Tests {@link JdbcRules#BATCH_JOIN}, which sends the distinct join keys
+   * of a local input to a JDBC source as an IN list. */
+  @Test void testBatchJoinRule() {
+    final String sql = "SELECT *\n"
+        + "FROM \"s\".\"emps\" A\n"
+        + "JOIN \"foodmart\".\"store\" B ON A.\"deptno\" = B.\"store_id\"";
+    final String jdbcSql = "SELECT *\n"
+        + "FROM \"foodmart\".\"store\"\n"
+        + "WHERE \"store_id\" IN ("
+        + String.join(", ", Collections.nCopies(100, "?")) + ")";
+    CalciteAssert.model(FoodmartSchema.FOODMART_MODEL)
+        .withSchema("s", new ReflectiveSchema(new HrSchema()))
+        .withHook(Hook.PLANNER, (Consumer<RelOptPlanner>) planner ->
+            planner.addRule(JdbcRules.BATCH_JOIN))
+        .query(sql)
+        .explainContains("EnumerableBatchNestedLoopJoin")
+        .runs()
+        .enable(CalciteAssert.DB == CalciteAssert.DatabaseInstance.HSQLDB)
+        .planHasSql(jdbcSql)
+        .returnsCount(4);
+  }
+
   /** Acquires a lock, and releases it when closed. */
   static class LockWrapper implements AutoCloseable {
     private final Lock lock;
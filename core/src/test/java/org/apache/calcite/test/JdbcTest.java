@@ -4520,6 +4520,30 @@ void testOrderByOnSortedTable2(String format) {
             "deptno=10; empid=150; S=18760.0; FIVE=5; M=7000.0; C=2; C2=3; C11=3; C11DEPT=2");
   }
 
+  /** Tests window aggregates over a frame that is wide enough to slide,
+   * removing the rows that leave the frame rather than recomputing it. */
+  @Test void testWinAggSlidingFrame() {
+    CalciteAssert.that()
+        .query("with t(i, v) as (values (1, 5), (2, 3), (3, 8), (4, 1),\n"
+            + " (5, cast(null as integer)), (6, 2), (7, 7), (8, 4), (9, 6),\n"
+            + " (10, cast(null as integer)))\n"
+            + "select i, sum(v) over w as s, count(v) over w as c,\n"
+            + " min(v) over w as mi, max(v) over w as ma\n"
+            + "from t\n"
+            + "window w as (order by i rows between 4 preceding and current row)")
+        .returnsUnordered(
+            "I=1; S=5; C=1; MI=5; MA=5",
+            "I=2; S=8; C=2; MI=3; MA=5",
+            "I=3; S=16; C=3; MI=3; MA=8",
+            "I=4; S=17; C=4; MI=1; MA=8",
+            "I=5; S=17; C=4; MI=1; MA=8",
+            "I=6; S=14; C=4; MI=1; MA=8",
+            "I=7; S=18; C=4; MI=1; MA=8",
+            "I=8; S=14; C=4; MI=1; MA=7",
+            "I=9; S=19; C=4; MI=2; MA=7",
+            "I=10; S=19; C=4; MI=2; MA=7");
+  }
+
   /**
    * Tests that window aggregates work when computed over non-nullable
    * {@link org.apache.calcite.adapter.enumerable.JavaRowFormat#SCALAR} inputs.
@@ -6298,6 +6322,14 @@ private void checkCustomSchema(String url, String schemaName) throws SQLExceptio
     checkJdbcSchemaDirectConnection("schemaType=JDBC");
   }
 
+  /** Connects to a JDBC schema without writing a model, with a fetch size and
+   * prefetch, whose values in a connect string are strings. */
+  @Test void testJdbcSchemaDirectConnectionPrefetch() throws Exception {
+    checkJdbcSchemaDirectConnection("schemaType=JDBC"
+        + "; schema.jdbcFetchSize=2"
+        + "; schema.jdbcPrefetch=true");
+  }
+
   private void checkJdbcSchemaDirectConnection(String s) throws SQLException {
     final StringBuilder b = new StringBuilder("jdbc:calcite:");
     b.append(s);
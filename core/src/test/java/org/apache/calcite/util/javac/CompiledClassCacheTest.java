@@ -0,0 +1,150 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.calcite.util.javac;
+
+import org.codehaus.commons.compiler.CompilerFactoryFactory;
+import org.codehaus.commons.compiler.ISimpleCompiler;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+import static org.hamcrest.CoreMatchers.instanceOf;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.CoreMatchers.notNullValue;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Tests for {@link CompiledClassCache}.
+ */
+class CompiledClassCacheTest {
+  /** Class with an anonymous inner class, whose bytecode must be cached
+   * too. */
+  private static final String SOURCE = "public class Foo\n"
+      + "    implements java.util.function.Supplier {\n"
+      + "  public Object get() {\n"
+      + "    return new Object() {\n"
+      + "      public String toString() {\n"
+      + "        return \"bar\";\n"
+      + "      }\n"
+      + "    }.toString();\n"
+      + "  }\n"
+      + "}\n";
+
+  @Test void testLoadFromCache(@TempDir Path dir) throws Exception {
+    final ClassLoader parent =
+        requireNonNull(getClass().getClassLoader(), "classLoader");
+
+    // First load compiles, and writes one file
+    final Class<?> c0 =
+        new CompiledClassCache(dir, "1.0").load(compiler(parent), parent,
+            "Foo", SOURCE);
+    assertThat(get(c0), is("bar"));
+    assertThat(c0.getClassLoader(),
+        not(instanceOf(CompiledClassCache.BytecodeClassLoader.class)));
+    assertThat(fileCount(dir), is(1L));
+
+    // A new cache over the same directory, as in a new JVM, defines the
+    // class from the file
+    final Class<?> c1 =
+        new CompiledClassCache(dir, "1.0").load(compiler(parent), parent,
+            "Foo", SOURCE);
+    assertThat(get(c1), is("bar"));
+    assertThat(c1.getClassLoader(),
+        instanceOf(CompiledClassCache.BytecodeClassLoader.class));
+    assertThat(fileCount(dir), is(1L));
+
+    // A different version does not see the entry
+    final Class<?> c2 =
+        new CompiledClassCache(dir, "2.0").load(compiler(parent), parent,
+            "Foo", SOURCE);
+    assertThat(c2.getClassLoader(),
+        not(instanceOf(CompiledClassCache.BytecodeClassLoader.class)));
+    assertThat(fileCount(dir), is(2L));
+  }
+
+  /** Tests that the build of Calcite, which keys the configured cache, is
+   * identified by a hash of the location of its classes. */
+  @Test void testCalciteBuild() {
+    final String build = CompiledClassCache.calciteBuild();
+    assertThat(build, notNullValue());
+    assertThat(build.length(), is(64));
+    assertThat(CompiledClassCache.calciteBuild(), is(build));
+  }
+
+  /** Tests that the class path that generated code is linked against is
+   * identified by the locations of the parent class loader, and changes if
+   * a jar on it changes. */
+  @Test void testClassLoaderBuild(@TempDir Path dir) throws Exception {
+    final ClassLoader parent =
+        requireNonNull(getClass().getClassLoader(), "classLoader");
+    final Path a = Files.write(dir.resolve("a.jar"), new byte[] {1});
+    final Path b = Files.write(dir.resolve("b.jar"), new byte[] {1});
+
+    final String build = CompiledClassCache.classLoaderBuild(parent);
+    assertThat(build, notNullValue());
+    assertThat(CompiledClassCache.classLoaderBuild(parent), is(build));
+
+    try (URLClassLoader loaderA = loader(a, parent);
+         URLClassLoader loaderB = loader(b, parent)) {
+      final String buildA = CompiledClassCache.classLoaderBuild(loaderA);
+      final String buildB = CompiledClassCache.classLoaderBuild(loaderB);
+      assertThat(buildA, notNullValue());
+      assertThat(buildA, not(is(build)));
+      assertThat(buildA, not(is(buildB)));
+
+      // The same jar, upgraded, is a different class path
+      Files.write(a, new byte[] {1, 2});
+      try (URLClassLoader loaderA2 = loader(a, parent)) {
+        assertThat(CompiledClassCache.classLoaderBuild(loaderA2),
+            not(is(buildA)));
+      }
+    }
+  }
+
+  private static URLClassLoader loader(Path jar, ClassLoader parent)
+      throws Exception {
+    return new URLClassLoader(new URL[] {jar.toUri().toURL()}, parent);
+  }
+
+  private static ISimpleCompiler compiler(ClassLoader parent)
+      throws Exception {
+    final ISimpleCompiler compiler =
+        CompilerFactoryFactory.getDefaultCompilerFactory(parent)
+            .newSimpleCompiler();
+    compiler.setParentClassLoader(parent);
+    return compiler;
+  }
+
+  private static Object get(Class<?> c) throws Exception {
+    return ((Supplier<?>) c.getDeclaredConstructor().newInstance()).get();
+  }
+
+  private static long fileCount(Path dir) throws Exception {
+    try (Stream<Path> files = Files.list(dir)) {
+      return files.count();
+    }
+  }
+}
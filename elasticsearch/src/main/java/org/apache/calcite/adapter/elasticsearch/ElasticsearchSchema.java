@@ -62,6 +62,11 @@ public class ElasticsearchSchema extends AbstractSchema {
    */
   private final int fetchSize;
 
+  /**
+   * Maximum number of slices in which to scroll through an index.
+   */
+  private final int parallelism;
+
   /**
    * Allows schema to be instantiated from existing elastic search client.
    *
@@ -77,12 +82,31 @@ public ElasticsearchSchema(RestClient client, ObjectMapper mapper,
   @VisibleForTesting
   ElasticsearchSchema(RestClient client, ObjectMapper mapper,
       @Nullable String index, int fetchSize) {
+    this(client, mapper, index, fetchSize, 1);
+  }
+
+  /**
+   * Creates a schema with scroll settings.
+   *
+   * @param client existing client instance
+   * @param mapper mapper for JSON (de)serialization
+   * @param index name of ES index, or null for all indices
+   * @param fetchSize number of hits fetched per scroll request
+   * @param parallelism maximum number of slices in which to scroll through
+   *                    an index, each read on its own thread; no more
+   *                    slices than the index has shards are used
+   */
+  ElasticsearchSchema(RestClient client, ObjectMapper mapper,
+      @Nullable String index, int fetchSize, int parallelism) {
     super();
     this.client = requireNonNull(client, "client");
     this.mapper = requireNonNull(mapper, "mapper");
     checkArgument(fetchSize > 0,
         "invalid fetch size. Expected %s > 0", fetchSize);
     this.fetchSize = fetchSize;
+    checkArgument(parallelism > 0,
+        "invalid parallelism. Expected %s > 0", parallelism);
+    this.parallelism = parallelism;
 
     if (index == null) {
       try {
@@ -103,7 +127,8 @@ private Map<String, Table> createTables(Iterable<String> indices) {
     final ImmutableMap.Builder<String, Table> builder = ImmutableMap.builder();
     for (String index : indices) {
       final ElasticsearchTransport transport =
-          new ElasticsearchTransport(client, mapper, index, fetchSize);
+          new ElasticsearchTransport(client, mapper, index, fetchSize,
+              parallelism);
       builder.put(index, new ElasticsearchTable(transport));
     }
     return builder.build();
@@ -116,6 +116,11 @@ public ElasticsearchSchemaFactory() {
    *   the coordinates list must be populated.</li>
    *   <li><b>disableSSLVerification</b>: A boolean parameter to disable SSL verification. Defaults
    *   to false. This should always be set to false for production systems.</li>
+   *   <li><b>fetchSize</b>: Number of hits fetched per scroll request. Defaults
+   *   to 5196.</li>
+   *   <li><b>parallelism</b>: Maximum number of slices in which a query without
+   *   sort and limit scrolls through an index, each read concurrently; no more
+   *   slices than the index has shards are used. Defaults to 1.</li>
    * </ul>
    *
    * @param parentSchema Parent schema
@@ -179,8 +184,14 @@ public ElasticsearchSchemaFactory() {
       final RestClient client =
           connect(sortedHost, pathPrefix, username, password, disableSSLVerification);
       final String index = (String) map.get("index");
-
-      return new ElasticsearchSchema(client, new ObjectMapper(), index);
+      // Values are numbers in a JSON model, but strings in a connect string
+      final Object fetchSize = map.get("fetchSize");
+      final Object parallelism = map.get("parallelism");
+
+      return new ElasticsearchSchema(client, new ObjectMapper(), index,
+          fetchSize == null ? ElasticsearchTransport.DEFAULT_FETCH_SIZE
+              : Integer.parseInt(String.valueOf(fetchSize)),
+          parallelism == null ? 1 : Integer.parseInt(String.valueOf(parallelism)));
     } catch (IOException e) {
       throw new RuntimeException("Cannot parse values from json", e);
     }
@@ -153,7 +153,12 @@ private Enumerable<Object> find(List<String> ops,
         ElasticsearchEnumerators.getter(fields, ImmutableMap.copyOf(mappings));
 
     Iterable<ElasticsearchJson.SearchHit> iter;
-    if (offset == null) {
+    if (offset == null && fetch == null && !query.has("sort")
+        && transport.slices() > 1) {
+      // read a scan of the whole result in several slices at a time
+      final int slices = transport.slices();
+      iter = () -> new SlicedScrolling(transport, slices).query(query);
+    } else if (offset == null) {
       // apply scrolling when there is no offsets
       iter = () -> new Scrolling(transport).query(query);
     } else {
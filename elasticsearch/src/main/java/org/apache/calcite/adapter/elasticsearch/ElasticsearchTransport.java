@@ -32,6 +32,7 @@
 import org.apache.http.util.EntityUtils;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.node.ArrayNode;
 import com.fasterxml.jackson.databind.node.ObjectNode;
@@ -83,14 +84,33 @@ final class ElasticsearchTransport {
    */
   final int fetchSize;
 
+  /**
+   * Maximum number of slices of a scroll, read concurrently.
+   *
+   * @see <a href="https://www.elastic.co/guide/en/elasticsearch/reference/current/paginate-search-results.html#slice-scroll">Sliced scroll</a>
+   */
+  final int parallelism;
+
+  /** Number of primary shards of the index, computed on first use. */
+  private volatile int shardCount;
+
   ElasticsearchTransport(final RestClient restClient,
       final ObjectMapper mapper,
       final String indexName,
       final int fetchSize) {
+    this(restClient, mapper, indexName, fetchSize, 1);
+  }
+
+  ElasticsearchTransport(final RestClient restClient,
+      final ObjectMapper mapper,
+      final String indexName,
+      final int fetchSize,
+      final int parallelism) {
     this.mapper = requireNonNull(mapper, "mapper");
     this.restClient = requireNonNull(restClient, "restClient");
     this.indexName = requireNonNull(indexName, "indexName");
     this.fetchSize = fetchSize;
+    this.parallelism = parallelism;
     this.version = version(); // cache version
     this.mapping = fetchAndCreateMapping(); // cache mapping
   }
@@ -134,6 +154,33 @@ ObjectMapper mapper() {
     return mapper;
   }
 
+  /**
+   * Returns the number of slices in which to scroll through the whole index:
+   * {@link #parallelism}, but no more than the number of primary shards,
+   * because a slice that is smaller than a shard is expensive to compute.
+   * Returns 1 for ES2, which does not support sliced scrolls.
+   */
+  int slices() {
+    if (parallelism <= 1 || version == ElasticsearchVersion.ES2) {
+      return 1;
+    }
+    int shardCount = this.shardCount;
+    if (shardCount == 0) {
+      // An index name may be an alias of several indices
+      final String uri =
+          String.format(Locale.ROOT, "/%s/_settings/index.number_of_shards",
+              indexName);
+      final ObjectNode root = rawHttp(ObjectNode.class).apply(new HttpGet(uri));
+      for (JsonNode index : root) {
+        shardCount +=
+            index.path("settings").path("index").path("number_of_shards")
+                .asInt(1);
+      }
+      this.shardCount = shardCount = Math.max(1, shardCount);
+    }
+    return Math.min(parallelism, shardCount);
+  }
+
   Function<HttpRequest, Response> rawHttp() {
     return new HttpFunction(restClient);
   }
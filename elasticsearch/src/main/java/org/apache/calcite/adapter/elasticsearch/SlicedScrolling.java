@@ -0,0 +1,118 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.calcite.adapter.elasticsearch;
+
+import org.apache.calcite.linq4j.Linq4j;
+import org.apache.calcite.runtime.ParallelEnumerator;
+
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Reads the results of a search with several scrolls at a time, each over a
+ * slice of the index. Uses the
+ * <a href="https://www.elastic.co/guide/en/elasticsearch/reference/current/paginate-search-results.html#slice-scroll">sliced scroll</a>
+ * API.
+ *
+ * <p>Each slice is read on its own thread, and its pages of hits are merged
+ * into a single iterator in the order they arrive, so the results are in no
+ * particular order. Only a search without sort and without limit can be
+ * sliced. Each scroll is cleared when its slice has been read, or when the
+ * iterator is closed.
+ */
+class SlicedScrolling {
+  /** Number of pages per slice that a reading thread may fetch before the
+   * consumer takes them. */
+  private static final int QUEUE_CAPACITY_PER_SLICE = 2;
+
+  private final ElasticsearchTransport transport;
+  private final int slices;
+
+  SlicedScrolling(ElasticsearchTransport transport, int slices) {
+    this.transport = requireNonNull(transport, "transport");
+    checkArgument(transport.fetchSize > 0,
+        "invalid fetch size. Expected %s > 0", transport.fetchSize);
+    checkArgument(slices > 1, "slices: %s > 1", slices);
+    this.slices = slices;
+  }
+
+  /** Returns an iterator over the hits of all slices. It is
+   * {@link AutoCloseable}; closing it stops the reading threads. */
+  Iterator<ElasticsearchJson.SearchHit> query(ObjectNode query) {
+    requireNonNull(query, "query");
+    checkArgument(!query.has("size") && !query.has("sort"),
+        "a sliced scroll cannot have a size or a sort: %s", query);
+    final List<SliceReader> readers = new ArrayList<>();
+    for (int i = 0; i < slices; i++) {
+      final ObjectNode sliceQuery = query.deepCopy();
+      sliceQuery.put("size", transport.fetchSize);
+      sliceQuery.putObject("slice").put("id", i).put("max", slices);
+      readers.add(new SliceReader(sliceQuery));
+    }
+    return Linq4j.enumeratorIterator(
+        ParallelEnumerator.create(readers, slices, false, transport.fetchSize,
+            QUEUE_CAPACITY_PER_SLICE, null));
+  }
+
+  /** Reads a slice, one page at a time. */
+  private class SliceReader
+      implements ParallelEnumerator.Producer<ElasticsearchJson.SearchHit> {
+    private final ObjectNode sliceQuery;
+
+    SliceReader(ObjectNode sliceQuery) {
+      this.sliceQuery = sliceQuery;
+    }
+
+    @Override public void produce(
+        ParallelEnumerator.Sink<ElasticsearchJson.SearchHit> sink) {
+      @Nullable String scrollId = null;
+      try {
+        ElasticsearchJson.Result result =
+            transport.search(Collections.singletonMap("scroll", "1m"))
+                .apply(sliceQuery);
+        for (;;) {
+          scrollId = result.scrollId().orElse(scrollId);
+          final List<ElasticsearchJson.SearchHit> hits =
+              result.searchHits().hits();
+          sink.addAll(hits);
+          if (hits.isEmpty() || scrollId == null || sink.isClosed()) {
+            return;
+          }
+          result = transport.scroll().apply(scrollId);
+        }
+      } finally {
+        if (scrollId != null) {
+          transport.closeScroll(Collections.singleton(scrollId));
+        }
+      }
+    }
+
+    @Override public String toString() {
+      return "slice " + sliceQuery.get("slice");
+    }
+  }
+}
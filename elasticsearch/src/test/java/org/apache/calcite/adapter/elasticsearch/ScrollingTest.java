@@ -42,6 +42,9 @@
 import java.util.Locale;
 import java.util.stream.IntStream;
 
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+
 /**
  * Tests usage of scrolling API like correct results and resource cleanup
  * (delete scroll after scan).
@@ -52,6 +55,8 @@ class ScrollingTest {
   public static final EmbeddedElasticsearchPolicy NODE = EmbeddedElasticsearchPolicy.create();
 
   private static final String NAME = "scroll";
+  /** Index with several shards, so that it can be read in slices. */
+  private static final String SLICED_NAME = "scroll_sliced";
   private static final int SIZE = 10;
 
   @BeforeAll
@@ -63,17 +68,28 @@ public static void setupInstance() throws Exception {
       docs.add((ObjectNode) NODE.mapper().readTree(json));
     }
     NODE.insertBulk(NAME, docs);
+
+    final Request request = new Request("PUT", "/" + SLICED_NAME);
+    request.setJsonEntity("{\"settings\": {\"number_of_shards\": 3}, "
+        + "\"mappings\": {\"properties\": {\"value\": {\"type\": \"long\"}}}}");
+    NODE.restClient().performRequest(request);
+    NODE.insertBulk(SLICED_NAME, docs);
   }
 
   private ConnectionFactory newConnectionFactory(int fetchSize) {
+    return newConnectionFactory(NAME, fetchSize, 1);
+  }
+
+  private ConnectionFactory newConnectionFactory(String index, int fetchSize,
+      int parallelism) {
     return () -> {
       final Connection connection =
           DriverManager.getConnection("jdbc:calcite:");
       final SchemaPlus root =
           connection.unwrap(CalciteConnection.class).getRootSchema();
       root.add("elastic",
-          new ElasticsearchSchema(NODE.restClient(), NODE.mapper(), NAME,
-              fetchSize));
+          new ElasticsearchSchema(NODE.restClient(), NODE.mapper(), index,
+              fetchSize, parallelism));
       return connection;
     };
   }
@@ -95,6 +111,37 @@ private ConnectionFactory newConnectionFactory(int fetchSize) {
     }
   }
 
+  /** Tests that a scan reads an index with several shards in slices, one
+   * per shard at most. */
+  @Test void slicedScrolling() {
+    assertThat(
+        new ElasticsearchTransport(NODE.restClient(), NODE.mapper(),
+            SLICED_NAME, 2, 8).slices(), is(3));
+    assertThat(
+        new ElasticsearchTransport(NODE.restClient(), NODE.mapper(),
+            SLICED_NAME, 2, 2).slices(), is(2));
+    assertThat(
+        new ElasticsearchTransport(NODE.restClient(), NODE.mapper(),
+            NAME, 2, 8).slices(), is(1));
+
+    final String[] expected = IntStream.range(0, SIZE).mapToObj(i -> "V=" + i)
+        .toArray(String[]::new);
+    final String query = String.format(Locale.ROOT, "select _MAP['value'] as v from "
+        + "\"elastic\".\"%s\"", SLICED_NAME);
+    for (int fetchSize : Arrays.asList(1, 3, SIZE, 2 * SIZE)) {
+      CalciteAssert.that()
+          .with(newConnectionFactory(SLICED_NAME, fetchSize, 4))
+          .query(query)
+          .returnsUnordered(expected);
+    }
+
+    // A query with a limit is not sliced
+    CalciteAssert.that()
+        .with(newConnectionFactory(SLICED_NAME, 2, 4))
+        .query(query + " limit 3")
+        .returnsCount(3);
+  }
+
   /**
    * Ensures there are no pending scroll contexts in elastic search cluster.
    * Queries {@code /_nodes/stats/indices/search} endpoint.
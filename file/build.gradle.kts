@@ -35,6 +35,8 @@
     implementation("org.jsoup:jsoup")
     implementation("com.fasterxml.jackson.core:jackson-core")
     implementation("com.fasterxml.jackson.core:jackson-databind")
+    implementation("org.codehaus.janino:commons-compiler")
+    implementation("org.codehaus.janino:janino")
 
     testImplementation(project(":testkit"))
     annotationProcessor("org.immutables:value")
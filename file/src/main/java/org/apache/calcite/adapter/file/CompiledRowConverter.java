@@ -0,0 +1,213 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.calcite.adapter.file;
+
+import org.apache.calcite.linq4j.function.Function1;
+import org.apache.calcite.linq4j.tree.BlockBuilder;
+import org.apache.calcite.linq4j.tree.Expression;
+import org.apache.calcite.linq4j.tree.Expressions;
+import org.apache.calcite.linq4j.tree.MethodDeclaration;
+import org.apache.calcite.linq4j.tree.ParameterExpression;
+import org.apache.calcite.rel.type.RelDataType;
+import org.apache.calcite.util.BuiltInMethod;
+import org.apache.calcite.util.Util;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.ImmutableList;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.codehaus.commons.compiler.CompileException;
+import org.codehaus.janino.ClassBodyEvaluator;
+import org.codehaus.janino.Scanner;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.lang.reflect.Modifier;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Row converter whose code is generated for a particular list of field types
+ * and projection.
+ *
+ * <p>Rather than switch on the type of each field of each row, as
+ * {@link CsvEnumerator.ArrayRowConverter} does, generates a method that
+ * converts each projected field with code for its type, and compiles it with
+ * Janino, as {@link org.apache.calcite.rex.RexExecutable} does. Integer and
+ * floating-point fields are parsed by {@link Integer#parseInt(String)} and
+ * similar methods, and string fields are copied without conversion.
+ *
+ * <p>Compiled converters are cached by their code, so scans that have the
+ * same field types and projection share a class.
+ *
+ * <p>Returns the same values as {@link CsvEnumerator.ArrayRowConverter}: an
+ * {@code Object[]}, or a single value if there is one field.
+ */
+class CompiledRowConverter extends CsvEnumerator.RowConverter<Object> {
+  private static final String GENERATED_CLASS_NAME = "RowConverter";
+
+  /** Compiled converters, keyed by their code. */
+  private static final Cache<String, Function1<@Nullable String[], Object>>
+      CACHE = CacheBuilder.newBuilder().maximumSize(256).build();
+
+  final Function1<@Nullable String[], Object> function;
+
+  private CompiledRowConverter(Function1<@Nullable String[], Object> function) {
+    this.function = function;
+  }
+
+  /** Creates a converter for a given projection of fields. */
+  static CompiledRowConverter of(List<RelDataType> fieldTypes,
+      List<Integer> fields) {
+    final String code = generate(fieldTypes, fields);
+    try {
+      return new CompiledRowConverter(CACHE.get(code, () -> compile(code)));
+    } catch (ExecutionException | UncheckedExecutionException e) {
+      throw Util.toUnchecked(e.getCause());
+    }
+  }
+
+  @Override Object convertRow(@Nullable String[] strings) {
+    return function.apply(strings);
+  }
+
+  /** Generates the body of a class that implements {@link Function1} and
+   * converts an array of strings into a row. */
+  static String generate(List<RelDataType> fieldTypes, List<Integer> fields) {
+    final ParameterExpression o = Expressions.parameter(Object.class, "o");
+    final ParameterExpression strings =
+        Expressions.parameter(String[].class, "strings");
+    final BlockBuilder builder = new BlockBuilder(false);
+    builder.add(
+        Expressions.declare(Modifier.FINAL, strings,
+            Expressions.convert_(o, String[].class)));
+    if (fields.size() == 1) {
+      final int field = fields.get(0);
+      final ParameterExpression s = Expressions.parameter(String.class, "s");
+      builder.add(
+          Expressions.declare(Modifier.FINAL, s,
+              Expressions.arrayIndex(strings, Expressions.constant(field))));
+      final Expression value = convert(fieldTypes.get(field), s);
+      if (value == s) {
+        builder.add(Expressions.return_(null, s));
+      } else {
+        builder.add(
+            Expressions.ifThen(isEmpty(s),
+                Expressions.return_(null, Expressions.constant(null))));
+        builder.add(Expressions.return_(null, value));
+      }
+    } else {
+      final ParameterExpression row =
+          Expressions.parameter(Object[].class, "row");
+      builder.add(
+          Expressions.declare(Modifier.FINAL, row,
+              Expressions.newArrayBounds(Object.class, 1,
+                  Expressions.constant(fields.size()))));
+      for (int i = 0; i < fields.size(); i++) {
+        final int field = fields.get(i);
+        final ParameterExpression s =
+            Expressions.parameter(String.class, "s" + i);
+        builder.add(
+            Expressions.declare(Modifier.FINAL, s,
+                Expressions.arrayIndex(strings, Expressions.constant(field))));
+        final Expression value = convert(fieldTypes.get(field), s);
+        final Expression slot =
+            Expressions.arrayIndex(row, Expressions.constant(i));
+        if (value == s) {
+          builder.add(Expressions.statement(Expressions.assign(slot, s)));
+        } else {
+          // An empty or missing value is null, which the slot already holds
+          builder.add(
+              Expressions.ifThen(Expressions.not(isEmpty(s)),
+                  Expressions.statement(Expressions.assign(slot, value))));
+        }
+      }
+      builder.add(Expressions.return_(null, row));
+    }
+    final MethodDeclaration method =
+        Expressions.methodDecl(Modifier.PUBLIC, Object.class,
+            BuiltInMethod.FUNCTION1_APPLY.method.getName(),
+            ImmutableList.of(o), builder.toBlock());
+    return Expressions.toString(method);
+  }
+
+  /** Returns an expression that tests whether a string is null or empty. */
+  private static Expression isEmpty(ParameterExpression s) {
+    return Expressions.orElse(
+        Expressions.equal(s, Expressions.constant(null)),
+        Expressions.call(s, "isEmpty"));
+  }
+
+  /** Returns an expression that converts a non-empty string to a value of a
+   * field, as {@link CsvEnumerator.RowConverter#convert} does; or the string
+   * itself if the field is a string. */
+  private static Expression convert(@Nullable RelDataType fieldType,
+      ParameterExpression s) {
+    if (fieldType == null) {
+      return s;
+    }
+    switch (fieldType.getSqlTypeName()) {
+    case BOOLEAN:
+      return Expressions.box(
+          Expressions.call(Boolean.class, "parseBoolean", s));
+    case TINYINT:
+      return Expressions.box(Expressions.call(Byte.class, "parseByte", s));
+    case SMALLINT:
+      return Expressions.box(Expressions.call(Short.class, "parseShort", s));
+    case INTEGER:
+      return Expressions.box(Expressions.call(Integer.class, "parseInt", s));
+    case BIGINT:
+      return Expressions.box(Expressions.call(Long.class, "parseLong", s));
+    case REAL:
+      return Expressions.box(Expressions.call(Float.class, "parseFloat", s));
+    case FLOAT:
+    case DOUBLE:
+      return Expressions.box(
+          Expressions.call(Double.class, "parseDouble", s));
+    case DECIMAL:
+      return Expressions.call(CsvEnumerator.class, "parseDecimal",
+          Expressions.constant(fieldType.getPrecision()),
+          Expressions.constant(fieldType.getScale()), s);
+    case DATE:
+      return Expressions.call(CsvEnumerator.class, "parseDate", s);
+    case TIME:
+      return Expressions.call(CsvEnumerator.class, "parseTime", s);
+    case TIMESTAMP:
+      return Expressions.call(CsvEnumerator.class, "parseTimestamp", s);
+    default:
+      return s;
+    }
+  }
+
+  @SuppressWarnings("unchecked")
+  private static Function1<@Nullable String[], Object> compile(String code) {
+    try {
+      final ClassBodyEvaluator cbe = new ClassBodyEvaluator();
+      cbe.setClassName(GENERATED_CLASS_NAME);
+      cbe.setImplementedInterfaces(new Class[] {Function1.class});
+      cbe.setParentClassLoader(CompiledRowConverter.class.getClassLoader());
+      cbe.cook(new Scanner(null, new StringReader(code)));
+      return (Function1<@Nullable String[], Object>) cbe.getClazz()
+          .getConstructor()
+          .newInstance();
+    } catch (CompileException | IOException | ReflectiveOperationException e) {
+      throw new RuntimeException("While compiling row converter:\n" + code, e);
+    }
+  }
+}
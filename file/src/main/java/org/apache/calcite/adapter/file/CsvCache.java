@@ -0,0 +1,405 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.calcite.adapter.file;
+
+import org.apache.calcite.linq4j.Enumerator;
+import org.apache.calcite.rel.type.RelDataType;
+import org.apache.calcite.schema.Statistic;
+import org.apache.calcite.schema.Statistics;
+import org.apache.calcite.util.ImmutableBitSet;
+import org.apache.calcite.util.ImmutableIntList;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.ImmutableList;
+
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Supplier;
+
+import static org.apache.calcite.linq4j.Nullness.castNonNull;
+
+/**
+ * Cache of CSV files, converted to columns.
+ *
+ * <p>An {@link Entry} holds the row type of a file, which is deduced from its
+ * header once rather than each time a schema is created, and, after the
+ * first scan, the values of each column, so that later scans do not parse
+ * the file. It also records the minimum, maximum, number of distinct values
+ * and number of nulls of each column, from which it derives a
+ * {@link Statistic}.
+ *
+ * <p>An entry is valid while the length and modification time of the file
+ * are unchanged; otherwise it is replaced. Entries are softly referenced, so
+ * the garbage collector reclaims them if memory is short.
+ */
+class CsvCache {
+  /** The cache shared by all schemas. */
+  static final CsvCache INSTANCE = new CsvCache();
+
+  private final Cache<String, Entry> entries =
+      CacheBuilder.newBuilder().softValues().build();
+
+  /** Returns the entry for a file, creating it if there is no entry or the
+   * file has changed since the entry was created.
+   *
+   * @param file    File
+   * @param factory Creates an entry; called with the length and modification
+   *                time of the file
+   */
+  Entry get(File file, EntryFactory factory) {
+    final String key = file.getAbsolutePath();
+    final long length = file.length();
+    final long modified = file.lastModified();
+    final Entry entry = entries.getIfPresent(key);
+    if (entry != null
+        && entry.length == length
+        && entry.modified == modified) {
+      return entry;
+    }
+    entries.invalidate(key);
+    try {
+      return entries.get(key, () -> factory.create(length, modified));
+    } catch (ExecutionException e) {
+      throw new RuntimeException(e.getCause());
+    }
+  }
+
+  /** Returns the columns of a file, or null if the file has no valid entry
+   * or has not yet been scanned. */
+  @Nullable Columns columnsIfPresent(File file) {
+    final Entry entry = entries.getIfPresent(file.getAbsolutePath());
+    if (entry == null
+        || entry.length != file.length()
+        || entry.modified != file.lastModified()) {
+      return null;
+    }
+    synchronized (entry) {
+      return entry.columns;
+    }
+  }
+
+  /** Creates an {@link Entry}. */
+  @FunctionalInterface
+  interface EntryFactory {
+    Entry create(long length, long modified);
+  }
+
+  /** Cached row type and columns of a CSV file. */
+  static class Entry {
+    final long length;
+    final long modified;
+    final RelDataType rowType;
+    /** Field types. List must not be null, but any element may be null. */
+    final List<RelDataType> fieldTypes;
+    private @Nullable Columns columns;
+
+    Entry(long length, long modified, RelDataType rowType,
+        List<RelDataType> fieldTypes) {
+      this.length = length;
+      this.modified = modified;
+      this.rowType = rowType;
+      this.fieldTypes = fieldTypes;
+    }
+
+    /** Returns the columns of the file, reading every row of the file from
+     * an enumerator the first time this method is called. */
+    synchronized Columns columns(Supplier<Enumerator<Object>> rows) {
+      if (columns == null) {
+        columns = Columns.load(fieldTypes, rows.get());
+      }
+      return columns;
+    }
+  }
+
+  /** Values of each column of a file. */
+  static class Columns {
+    final int rowCount;
+    final ImmutableList<Column> columns;
+
+    private Columns(int rowCount, List<Column> columns) {
+      this.rowCount = rowCount;
+      this.columns = ImmutableList.copyOf(columns);
+    }
+
+    /** Reads rows, each an {@code Object[]} of every field, into columns. */
+    static Columns load(List<RelDataType> fieldTypes,
+        Enumerator<Object> rows) {
+      final List<ColumnBuilder> builders = new ArrayList<>();
+      for (RelDataType fieldType : fieldTypes) {
+        builders.add(new ColumnBuilder(fieldType));
+      }
+      int rowCount = 0;
+      try (Enumerator<Object> enumerator = rows) {
+        while (enumerator.moveNext()) {
+          final Object row = enumerator.current();
+          if (builders.size() == 1) {
+            builders.get(0).add(row);
+          } else {
+            final @Nullable Object[] values = (@Nullable Object[]) row;
+            for (int i = 0; i < builders.size(); i++) {
+              builders.get(i).add(values[i]);
+            }
+          }
+          ++rowCount;
+        }
+      }
+      final List<Column> columns = new ArrayList<>();
+      for (ColumnBuilder builder : builders) {
+        columns.add(builder.build());
+      }
+      return new Columns(rowCount, columns);
+    }
+
+    /** Returns an enumerator over a projection of the rows that satisfy
+     * the predicates. Each row is an {@code Object[]}, or a single value if
+     * there is one field. */
+    Enumerator<Object> enumerator(ImmutableIntList fields,
+        List<CsvPredicate> predicates) {
+      final List<Column> projected = new ArrayList<>();
+      for (int field : fields) {
+        projected.add(columns.get(field));
+      }
+      final List<Column> tested = new ArrayList<>();
+      for (CsvPredicate predicate : predicates) {
+        tested.add(columns.get(predicate.field));
+      }
+      return new ColumnEnumerator(rowCount, projected, predicates, tested);
+    }
+
+    /** Returns the statistic of the file: its row count, and as keys the
+     * columns that have a distinct, non-null value in each row. */
+    Statistic statistic() {
+      final List<ImmutableBitSet> keys = new ArrayList<>();
+      for (int i = 0; i < columns.size(); i++) {
+        final Column column = columns.get(i);
+        if (rowCount > 0
+            && column.nullCount == 0
+            && column.distinctCount == rowCount) {
+          keys.add(ImmutableBitSet.of(i));
+        }
+      }
+      return Statistics.of(rowCount, keys);
+    }
+  }
+
+  /** Values of a column, and their statistics.
+   *
+   * <p>{@code INTEGER}, {@code DATE} and {@code TIME} values are held in an
+   * {@code int[]}, {@code BIGINT} and {@code TIMESTAMP} values in a
+   * {@code long[]}, {@code DOUBLE} values in a {@code double[]}, and other
+   * values in an {@code Object[]}, in which equal values share one
+   * instance. */
+  static class Column {
+    private final Object data;
+    private final @Nullable BitSet nulls;
+    final @Nullable Comparable min;
+    final @Nullable Comparable max;
+    final int distinctCount;
+    final int nullCount;
+
+    Column(Object data, @Nullable BitSet nulls, @Nullable Comparable min,
+        @Nullable Comparable max, int distinctCount) {
+      this.data = data;
+      this.nulls = nulls;
+      this.min = min;
+      this.max = max;
+      this.distinctCount = distinctCount;
+      this.nullCount = nulls == null ? 0 : nulls.cardinality();
+    }
+
+    @Nullable Object get(int row) {
+      if (nulls != null && nulls.get(row)) {
+        return null;
+      }
+      if (data instanceof int[]) {
+        return ((int[]) data)[row];
+      } else if (data instanceof long[]) {
+        return ((long[]) data)[row];
+      } else if (data instanceof double[]) {
+        return ((double[]) data)[row];
+      } else {
+        return ((@Nullable Object[]) data)[row];
+      }
+    }
+  }
+
+  /** Accumulates the values of a column. */
+  private static class ColumnBuilder {
+    private final Storage storage;
+    /** Distinct values, each mapped to itself, so that equal values can
+     * share one instance. */
+    private final Map<Object, Object> distinct = new HashMap<>();
+    private final BitSet nulls = new BitSet();
+    private int[] ints = new int[0];
+    private long[] longs = new long[0];
+    private double[] doubles = new double[0];
+    private @Nullable Object[] objects = new Object[0];
+    private @Nullable Comparable min;
+    private @Nullable Comparable max;
+    private int size;
+
+    ColumnBuilder(@Nullable RelDataType fieldType) {
+      this.storage = Storage.of(fieldType);
+    }
+
+    @SuppressWarnings("unchecked")
+    void add(@Nullable Object value) {
+      final int n = size++;
+      if (value == null) {
+        nulls.set(n);
+      } else {
+        value = distinct.computeIfAbsent(value, v -> v);
+        final Comparable c = (Comparable) value;
+        if (min == null || c.compareTo(min) < 0) {
+          min = c;
+        }
+        if (max == null || c.compareTo(max) > 0) {
+          max = c;
+        }
+      }
+      switch (storage) {
+      case INT:
+        if (n == ints.length) {
+          ints = Arrays.copyOf(ints, Math.max(16, n * 2));
+        }
+        ints[n] = value == null ? 0 : (Integer) value;
+        break;
+      case LONG:
+        if (n == longs.length) {
+          longs = Arrays.copyOf(longs, Math.max(16, n * 2));
+        }
+        longs[n] = value == null ? 0L : (Long) value;
+        break;
+      case DOUBLE:
+        if (n == doubles.length) {
+          doubles = Arrays.copyOf(doubles, Math.max(16, n * 2));
+        }
+        doubles[n] = value == null ? 0D : (Double) value;
+        break;
+      default:
+        if (n == objects.length) {
+          objects = Arrays.copyOf(objects, Math.max(16, n * 2));
+        }
+        objects[n] = value;
+        break;
+      }
+    }
+
+    Column build() {
+      final Object data;
+      switch (storage) {
+      case INT:
+        data = Arrays.copyOf(ints, size);
+        break;
+      case LONG:
+        data = Arrays.copyOf(longs, size);
+        break;
+      case DOUBLE:
+        data = Arrays.copyOf(doubles, size);
+        break;
+      default:
+        data = Arrays.copyOf(objects, size);
+        break;
+      }
+      return new Column(data, nulls.isEmpty() ? null : nulls, min, max,
+          distinct.size());
+    }
+  }
+
+  /** How the values of a column are held. */
+  private enum Storage {
+    INT, LONG, DOUBLE, OBJECT;
+
+    static Storage of(@Nullable RelDataType fieldType) {
+      if (fieldType == null) {
+        return OBJECT;
+      }
+      switch (fieldType.getSqlTypeName()) {
+      case INTEGER:
+      case DATE:
+      case TIME:
+        return INT;
+      case BIGINT:
+      case TIMESTAMP:
+        return LONG;
+      case FLOAT:
+      case DOUBLE:
+        return DOUBLE;
+      default:
+        return OBJECT;
+      }
+    }
+  }
+
+  /** Enumerator over the rows of a projection of columns. */
+  private static class ColumnEnumerator implements Enumerator<Object> {
+    private final int rowCount;
+    private final List<Column> columns;
+    private final List<CsvPredicate> predicates;
+    /** Columns referenced by {@link #predicates}, one per predicate. */
+    private final List<Column> testedColumns;
+    private int row = -1;
+
+    ColumnEnumerator(int rowCount, List<Column> columns,
+        List<CsvPredicate> predicates, List<Column> testedColumns) {
+      this.rowCount = rowCount;
+      this.columns = columns;
+      this.predicates = predicates;
+      this.testedColumns = testedColumns;
+    }
+
+    @Override public Object current() {
+      if (columns.size() == 1) {
+        return castNonNull(columns.get(0).get(row));
+      }
+      final @Nullable Object[] values = new Object[columns.size()];
+      for (int i = 0; i < values.length; i++) {
+        values[i] = columns.get(i).get(row);
+      }
+      return values;
+    }
+
+    @Override public boolean moveNext() {
+      outer:
+      while (++row < rowCount) {
+        for (int i = 0; i < predicates.size(); i++) {
+          if (!predicates.get(i).test(testedColumns.get(i).get(row))) {
+            continue outer;
+          }
+        }
+        return true;
+      }
+      return false;
+    }
+
+    @Override public void reset() {
+      row = -1;
+    }
+
+    @Override public void close() {
+    }
+  }
+}
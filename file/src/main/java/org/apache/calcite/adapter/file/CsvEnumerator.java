@@ -31,8 +31,6 @@
 
 import au.com.bytecode.opencsv.CSVReader;
 
-import com.google.common.annotations.VisibleForTesting;
-
 import org.checkerframework.checker.nullness.qual.Nullable;
 import org.slf4j.LoggerFactory;
 
@@ -116,14 +114,9 @@ public CsvEnumerator(Source source, AtomicBoolean cancelFlag, boolean stream,
     }
   }
 
-  private static RowConverter<?> converter(List<RelDataType> fieldTypes,
+  static RowConverter<?> converter(List<RelDataType> fieldTypes,
       List<Integer> fields) {
-    if (fields.size() == 1) {
-      final int field = fields.get(0);
-      return new SingleColumnRowConverter(fieldTypes.get(field), field);
-    } else {
-      return arrayConverter(fieldTypes, fields, false);
-    }
+    return CompiledRowConverter.of(fieldTypes, fields);
   }
 
   public static RowConverter<@Nullable Object[]> arrayConverter(
@@ -305,7 +298,6 @@ private static RelDataType toNullableRelDataType(JavaTypeFactory typeFactory,
   abstract static class RowConverter<E> {
     abstract E convertRow(@Nullable String[] rows);
 
-    @SuppressWarnings("JavaUtilDate")
     protected @Nullable Object convert(@Nullable RelDataType fieldType, @Nullable String string) {
       if (fieldType == null || string == null) {
         return string;
@@ -356,32 +348,17 @@ private static RelDataType toNullableRelDataType(JavaTypeFactory typeFactory,
         if (string.length() == 0) {
           return null;
         }
-        try {
-          Date date = TIME_FORMAT_DATE.parse(string);
-          return (int) (date.getTime() / DateTimeUtils.MILLIS_PER_DAY);
-        } catch (ParseException e) {
-          return null;
-        }
+        return parseDate(string);
       case TIME:
         if (string.length() == 0) {
           return null;
         }
-        try {
-          Date date = TIME_FORMAT_TIME.parse(string);
-          return (int) date.getTime();
-        } catch (ParseException e) {
-          return null;
-        }
+        return parseTime(string);
       case TIMESTAMP:
         if (string.length() == 0) {
           return null;
         }
-        try {
-          Date date = TIME_FORMAT_TIMESTAMP.parse(string);
-          return date.getTime();
-        } catch (ParseException e) {
-          return null;
-        }
+        return parseTimestamp(string);
       case VARCHAR:
       default:
         return string;
@@ -400,8 +377,47 @@ private static RelDataType parseDecimalSqlType(JavaTypeFactory typeFactory, int
         typeFactory.createSqlType(SqlTypeName.DECIMAL, precision, scale), true);
   }
 
-  @VisibleForTesting
-  protected static BigDecimal parseDecimal(int precision, int scale, String string) {
+  /** Parses a date of the form "yyyy-MM-dd" as a number of days since the
+   * epoch, or returns null if it is not of that form. */
+  @SuppressWarnings("JavaUtilDate")
+  public static @Nullable Integer parseDate(String string) {
+    try {
+      Date date = TIME_FORMAT_DATE.parse(string);
+      return (int) (date.getTime() / DateTimeUtils.MILLIS_PER_DAY);
+    } catch (ParseException e) {
+      return null;
+    }
+  }
+
+  /** Parses a time of the form "HH:mm:ss" as a number of milliseconds since
+   * midnight, or returns null if it is not of that form. */
+  @SuppressWarnings("JavaUtilDate")
+  public static @Nullable Integer parseTime(String string) {
+    try {
+      Date date = TIME_FORMAT_TIME.parse(string);
+      return (int) date.getTime();
+    } catch (ParseException e) {
+      return null;
+    }
+  }
+
+  /** Parses a timestamp of the form "yyyy-MM-dd HH:mm:ss" as a number of
+   * milliseconds since the epoch, or returns null if it is not of that
+   * form. */
+  @SuppressWarnings("JavaUtilDate")
+  public static @Nullable Long parseTimestamp(String string) {
+    try {
+      Date date = TIME_FORMAT_TIMESTAMP.parse(string);
+      return date.getTime();
+    } catch (ParseException e) {
+      return null;
+    }
+  }
+
+  /** Parses a decimal value, rounding it to {@code scale} fractional
+   * digits. Public because it is called from the code generated by
+   * {@link CompiledRowConverter}. */
+  public static BigDecimal parseDecimal(int precision, int scale, String string) {
     BigDecimal result = new BigDecimal(string);
     // If the parsed value has more fractional digits than the specified scale, round ties away
     // from 0.
@@ -465,19 +481,4 @@ static class ArrayRowConverter extends RowConverter<@Nullable Object[]> {
       return objects;
     }
   }
-
-  /** Single column row converter. */
-  private static class SingleColumnRowConverter extends RowConverter<Object> {
-    private final RelDataType fieldType;
-    private final int fieldIndex;
-
-    private SingleColumnRowConverter(RelDataType fieldType, int fieldIndex) {
-      this.fieldType = fieldType;
-      this.fieldIndex = fieldIndex;
-    }
-
-    @Override public @Nullable Object convertRow(@Nullable String[] strings) {
-      return convert(fieldType, strings[fieldIndex]);
-    }
-  }
 }
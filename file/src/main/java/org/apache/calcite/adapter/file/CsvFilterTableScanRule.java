@@ -0,0 +1,262 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.calcite.adapter.file;
+
+import org.apache.calcite.plan.RelOptRuleCall;
+import org.apache.calcite.plan.RelOptUtil;
+import org.apache.calcite.plan.RelRule;
+import org.apache.calcite.rel.RelNode;
+import org.apache.calcite.rel.logical.LogicalFilter;
+import org.apache.calcite.rel.type.RelDataType;
+import org.apache.calcite.rex.RexCall;
+import org.apache.calcite.rex.RexInputRef;
+import org.apache.calcite.rex.RexLiteral;
+import org.apache.calcite.rex.RexNode;
+import org.apache.calcite.rex.RexUtil;
+import org.apache.calcite.sql.SqlKind;
+import org.apache.calcite.sql.type.SqlTypeFamily;
+import org.apache.calcite.sql.type.SqlTypeName;
+
+import com.google.common.collect.ImmutableList;
+
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.immutables.value.Value;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Planner rule that pushes the conjuncts of a filter that compare a field
+ * with literals into a {@link CsvTableScan}, so that the scan evaluates them
+ * as it parses each row; see {@link CsvPredicate}.
+ *
+ * <p>Conjuncts that the scan cannot evaluate remain in a filter on top of the
+ * scan.
+ *
+ * @see FileRules#FILTER_SCAN
+ */
+@Value.Enclosing
+public class CsvFilterTableScanRule
+    extends RelRule<CsvFilterTableScanRule.Config> {
+
+  /** Creates a CsvFilterTableScanRule. */
+  protected CsvFilterTableScanRule(Config config) {
+    super(config);
+  }
+
+  @Override public void onMatch(RelOptRuleCall call) {
+    final LogicalFilter filter = call.rel(0);
+    final CsvTableScan scan = call.rel(1);
+    final RexNode condition =
+        RexUtil.expandSearch(filter.getCluster().getRexBuilder(), null,
+            filter.getCondition());
+    final List<RelDataType> fieldTypes =
+        scan.csvTable.getFieldTypes(scan.getCluster().getTypeFactory());
+    final List<List<String>> conditions = new ArrayList<>(scan.conditions);
+    final List<RexNode> remaining = new ArrayList<>();
+    for (RexNode node : RelOptUtil.conjunctions(condition)) {
+      final List<String> c = translate(node, scan.fields, fieldTypes);
+      if (c == null) {
+        remaining.add(node);
+      } else if (!conditions.contains(c)) {
+        conditions.add(c);
+      }
+    }
+    if (conditions.size() == scan.conditions.size()) {
+      return;
+    }
+    final RelNode newScan =
+        new CsvTableScan(scan.getCluster(), scan.getTable(), scan.csvTable,
+            scan.fields, conditions);
+    call.transformTo(
+        call.builder()
+            .push(newScan)
+            .filter(remaining)
+            .build());
+  }
+
+  /** Translates an expression into a condition, or returns null if it is
+   * not of a form that a scan can evaluate. */
+  private static @Nullable List<String> translate(RexNode node, int[] fields,
+      List<RelDataType> fieldTypes) {
+    switch (node.getKind()) {
+    case EQUALS:
+    case NOT_EQUALS:
+    case LESS_THAN:
+    case LESS_THAN_OR_EQUAL:
+    case GREATER_THAN:
+    case GREATER_THAN_OR_EQUAL:
+      final RexNode left = ((RexCall) node).operands.get(0);
+      final RexNode right = ((RexCall) node).operands.get(1);
+      if (left instanceof RexInputRef && right instanceof RexLiteral) {
+        return comparison(node.getKind(), (RexInputRef) left,
+            ImmutableList.of((RexLiteral) right), fields, fieldTypes);
+      }
+      if (left instanceof RexLiteral && right instanceof RexInputRef) {
+        return comparison(node.getKind().reverse(), (RexInputRef) right,
+            ImmutableList.of((RexLiteral) left), fields, fieldTypes);
+      }
+      return null;
+    case IS_NULL:
+    case IS_NOT_NULL:
+      final RexNode operand = ((RexCall) node).operands.get(0);
+      if (operand instanceof RexInputRef) {
+        final int field = fields[((RexInputRef) operand).getIndex()];
+        return ImmutableList.of(node.getKind().name(),
+            Integer.toString(field));
+      }
+      return null;
+    case OR:
+      return in(node, fields, fieldTypes);
+    default:
+      return null;
+    }
+  }
+
+  /** Translates a disjunction of equalities on the same field, such as
+   * "x = 1 OR x = 2 OR x = 3", into an {@code IN} condition. */
+  private static @Nullable List<String> in(RexNode node, int[] fields,
+      List<RelDataType> fieldTypes) {
+    @Nullable RexInputRef ref = null;
+    final List<RexLiteral> literals = new ArrayList<>();
+    for (RexNode disjunct : RelOptUtil.disjunctions(node)) {
+      if (disjunct.getKind() != SqlKind.EQUALS) {
+        return null;
+      }
+      final RexNode left = ((RexCall) disjunct).operands.get(0);
+      final RexNode right = ((RexCall) disjunct).operands.get(1);
+      final RexInputRef r;
+      if (left instanceof RexInputRef && right instanceof RexLiteral) {
+        r = (RexInputRef) left;
+        literals.add((RexLiteral) right);
+      } else if (left instanceof RexLiteral && right instanceof RexInputRef) {
+        r = (RexInputRef) right;
+        literals.add((RexLiteral) left);
+      } else {
+        return null;
+      }
+      if (ref != null && ref.getIndex() != r.getIndex()) {
+        return null;
+      }
+      ref = r;
+    }
+    if (ref == null) {
+      return null;
+    }
+    return comparison(SqlKind.IN, ref, literals, fields, fieldTypes);
+  }
+
+  private static @Nullable List<String> comparison(SqlKind kind,
+      RexInputRef ref, List<RexLiteral> literals, int[] fields,
+      List<RelDataType> fieldTypes) {
+    final int field = fields[ref.getIndex()];
+    final RelDataType fieldType = fieldTypes.get(field);
+    final ImmutableList.Builder<String> builder = ImmutableList.builder();
+    builder.add(kind.name(), Integer.toString(field));
+    for (RexLiteral literal : literals) {
+      final String value = toString(literal, fieldType);
+      if (value == null) {
+        return null;
+      }
+      builder.add(value);
+    }
+    return builder.build();
+  }
+
+  /** Converts a literal to a string that {@link CsvPredicate} can parse as a
+   * value of a field, or returns null if the literal is null or the scan
+   * would not compare it as the query would. */
+  private static @Nullable String toString(RexLiteral literal,
+      @Nullable RelDataType fieldType) {
+    if (literal.isNull()) {
+      return null;
+    }
+    final SqlTypeName typeName =
+        fieldType == null ? SqlTypeName.VARCHAR : fieldType.getSqlTypeName();
+    final SqlTypeName literalTypeName = literal.getType().getSqlTypeName();
+    switch (typeName) {
+    case TINYINT:
+    case SMALLINT:
+    case INTEGER:
+    case BIGINT:
+      if (SqlTypeName.EXACT_TYPES.contains(literalTypeName)) {
+        final BigDecimal value = literal.getValueAs(BigDecimal.class);
+        if (value != null && value.stripTrailingZeros().scale() <= 0) {
+          try {
+            return Long.toString(value.longValueExact());
+          } catch (ArithmeticException e) {
+            return null;
+          }
+        }
+      }
+      return null;
+    case FLOAT:
+    case DOUBLE:
+      if (SqlTypeName.NUMERIC_TYPES.contains(literalTypeName)) {
+        final BigDecimal value = literal.getValueAs(BigDecimal.class);
+        return value == null ? null : Double.toString(value.doubleValue());
+      }
+      return null;
+    case DECIMAL:
+      if (SqlTypeName.EXACT_TYPES.contains(literalTypeName)) {
+        final BigDecimal value = literal.getValueAs(BigDecimal.class);
+        return value == null ? null : value.toString();
+      }
+      return null;
+    case VARCHAR:
+      if (SqlTypeFamily.CHARACTER.contains(literal.getType())) {
+        final String value = literal.getValueAs(String.class);
+        // A CHAR literal with trailing spaces may compare differently
+        return value == null || value.endsWith(" ") ? null : value;
+      }
+      return null;
+    case BOOLEAN:
+      if (literalTypeName == SqlTypeName.BOOLEAN) {
+        return String.valueOf(literal.getValueAs(Boolean.class));
+      }
+      return null;
+    case DATE:
+    case TIME:
+      if (literalTypeName == typeName) {
+        return String.valueOf(literal.getValueAs(Integer.class));
+      }
+      return null;
+    case TIMESTAMP:
+      if (literalTypeName == typeName) {
+        return String.valueOf(literal.getValueAs(Long.class));
+      }
+      return null;
+    default:
+      return null;
+    }
+  }
+
+  /** Rule configuration. */
+  @Value.Immutable(singleton = false)
+  public interface Config extends RelRule.Config {
+    Config DEFAULT = ImmutableCsvFilterTableScanRule.Config.builder()
+        .withOperandSupplier(b0 ->
+            b0.operand(LogicalFilter.class).oneInput(b1 ->
+                b1.operand(CsvTableScan.class).noInputs()))
+        .build();
+
+    @Override default CsvFilterTableScanRule toRule() {
+      return new CsvFilterTableScanRule(this);
+    }
+  }
+}
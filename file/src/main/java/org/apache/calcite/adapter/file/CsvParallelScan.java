@@ -0,0 +1,195 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.calcite.adapter.file;
+
+import org.apache.calcite.linq4j.Enumerator;
+import org.apache.calcite.rel.type.RelDataType;
+import org.apache.calcite.runtime.ParallelEnumerator;
+import org.apache.calcite.util.ImmutableIntList;
+import org.apache.calcite.util.ImmutableNullableList;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.primitives.Longs;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Scan of a CSV file that parses byte ranges of the file on several threads.
+ *
+ * <p>{@link #split(File, long)} divides the file into ranges that start and
+ * end at record boundaries. It finds the boundaries by tracking quotes and
+ * escapes in a single pass over the bytes, so that a line break within a
+ * quoted field does not end a range. Each range is then parsed by its own
+ * {@link MappedCsvEnumerator}.
+ *
+ * <p>If the scan is ordered, rows are returned in the order of the file, as a
+ * sequential scan returns them: ranges are parsed concurrently, but each
+ * range's rows are returned only after those of the previous range. If the
+ * scan is unordered, rows are returned as soon as any range has parsed them.
+ */
+class CsvParallelScan {
+  /** Number of rows passed from a parsing thread to the consumer at a
+   * time. */
+  private static final int BATCH_SIZE = 1024;
+
+  /** Number of batches that the parser of a range may produce before the
+   * consumer takes them. */
+  private static final int QUEUE_CAPACITY = 4;
+
+  private final File file;
+  private final long[] boundaries;
+  private final int parallelism;
+  private final boolean ordered;
+  private final AtomicBoolean cancelFlag;
+  /** Field types. List must not be null, but any element may be null. */
+  private final List<RelDataType> fieldTypes;
+  private final ImmutableIntList fields;
+  private final List<CsvPredicate> predicates;
+
+  /** Creates a CsvParallelScan.
+   *
+   * @param file        CSV file
+   * @param boundaries  Offsets of the range boundaries, as returned by
+   *                    {@link #split(File, long)}
+   * @param parallelism Maximum number of threads
+   * @param ordered     Whether to return rows in the order of the file
+   * @param cancelFlag  Flag that is set when the query is cancelled
+   * @param fieldTypes  Types of the fields of the file
+   * @param fields      Ordinals of the fields to return
+   * @param predicates  Predicates that rows must satisfy
+   */
+  CsvParallelScan(File file, long[] boundaries, int parallelism,
+      boolean ordered, AtomicBoolean cancelFlag, List<RelDataType> fieldTypes,
+      ImmutableIntList fields, List<CsvPredicate> predicates) {
+    this.file = file;
+    this.boundaries = boundaries.clone();
+    this.parallelism =
+        Math.max(1, Math.min(parallelism, boundaries.length - 1));
+    this.ordered = ordered;
+    this.cancelFlag = cancelFlag;
+    this.fieldTypes = ImmutableNullableList.copyOf(fieldTypes);
+    this.fields = fields;
+    this.predicates = ImmutableList.copyOf(predicates);
+  }
+
+  /** Divides a CSV file into ranges of at least {@code splitSize} bytes (the
+   * last range may be shorter), each of which ends after the line break that
+   * ends a record. Returns the offsets of the range boundaries, starting with
+   * 0 and ending with the length of the file. */
+  static long[] split(File file, long splitSize) throws IOException {
+    final List<Long> boundaries = new ArrayList<>();
+    boundaries.add(0L);
+    try (FileChannel channel =
+             FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+      final long size = channel.size();
+      long target = splitSize;
+      boolean quoted = false;
+      boolean fieldStart = true;
+      boolean escaped = false;
+      for (long offset = 0; offset < size && target < size;) {
+        final int length =
+            (int) Math.min(MappedCsvEnumerator.DEFAULT_MAP_SIZE,
+                size - offset);
+        final MappedByteBuffer buffer =
+            channel.map(FileChannel.MapMode.READ_ONLY, offset, length);
+        for (int i = 0; i < length; i++) {
+          final byte b = buffer.get(i);
+          if (escaped) {
+            escaped = false;
+            if (b == '"' || b == '\\') {
+              // As in OpenCSV, an escaped quote or escape is a literal
+              fieldStart = false;
+              continue;
+            }
+          }
+          switch (b) {
+          case '\\':
+            // As in OpenCSV, the escape character applies within a quoted
+            // field or after the start of an unquoted field
+            escaped = quoted || !fieldStart;
+            fieldStart = false;
+            break;
+          case '"':
+            quoted = !quoted;
+            fieldStart = false;
+            break;
+          case ',':
+            fieldStart = !quoted;
+            break;
+          case '\n':
+            fieldStart = !quoted;
+            if (!quoted && offset + i + 1 >= target) {
+              boundaries.add(offset + i + 1);
+              target = offset + i + 1 + splitSize;
+            }
+            break;
+          default:
+            fieldStart = false;
+            break;
+          }
+        }
+        offset += length;
+      }
+      if (boundaries.get(boundaries.size() - 1) < size) {
+        boundaries.add(size);
+      }
+    }
+    return Longs.toArray(boundaries);
+  }
+
+  /** Returns an enumerator over the rows of the scan. Each row is an
+   * {@code Object[]}, or a single value if there is one field. */
+  Enumerator<Object> enumerator() {
+    final List<ParallelEnumerator.Producer<Object>> readers = new ArrayList<>();
+    for (int i = 0; i < boundaries.length - 1; i++) {
+      readers.add(new RangeReader(i));
+    }
+    return ParallelEnumerator.create(readers, parallelism, ordered, BATCH_SIZE,
+        QUEUE_CAPACITY, null);
+  }
+
+  /** Parses a range of the file. */
+  private class RangeReader implements ParallelEnumerator.Producer<Object> {
+    private final int range;
+
+    RangeReader(int range) {
+      this.range = range;
+    }
+
+    @Override public void produce(ParallelEnumerator.Sink<Object> sink) {
+      try (MappedCsvEnumerator<Object> enumerator =
+               new MappedCsvEnumerator<>(file, cancelFlag, fieldTypes, fields,
+                   predicates, boundaries[range], boundaries[range + 1],
+                   MappedCsvEnumerator.DEFAULT_MAP_SIZE)) {
+        while (!sink.isClosed() && enumerator.moveNext()) {
+          sink.add(enumerator.current());
+        }
+      }
+    }
+
+    @Override public String toString() {
+      return "range " + range + " of " + file;
+    }
+  }
+}
@@ -0,0 +1,372 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.calcite.adapter.file;
+
+import org.apache.calcite.linq4j.Enumerator;
+import org.apache.calcite.rel.type.RelDataType;
+import org.apache.calcite.sql.SqlKind;
+import org.apache.calcite.sql.type.SqlTypeName;
+import org.apache.calcite.util.ImmutableIntList;
+
+import com.google.common.collect.ImmutableList;
+
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.apache.calcite.linq4j.Nullness.castNonNull;
+
+/**
+ * Predicate on a field of a CSV file, evaluated by a scan before it converts
+ * the other fields of a row.
+ *
+ * <p>{@link CsvFilterTableScanRule} pushes conditions into a
+ * {@link CsvTableScan}. Each condition is a list of strings: the name of a
+ * {@link SqlKind} ({@code EQUALS}, {@code NOT_EQUALS}, {@code LESS_THAN},
+ * {@code LESS_THAN_OR_EQUAL}, {@code GREATER_THAN},
+ * {@code GREATER_THAN_OR_EQUAL}, {@code IN}, {@code IS_NULL} or
+ * {@code IS_NOT_NULL}), the ordinal of the field, and the values that the
+ * field is compared to, formatted as the field's converted values would be by
+ * {@link String#valueOf(Object)}.
+ *
+ * <p>As in SQL, a comparison with a null value is not true.
+ */
+class CsvPredicate {
+  final SqlKind kind;
+  final int field;
+  private final @Nullable SqlTypeName typeName;
+  /** Values to compare to, converted to {@link Long} if the field is of an
+   * integer type, {@link Double} if it is of an approximate numeric type,
+   * and otherwise to the class of the field's converted values. */
+  private final ImmutableList<Comparable> values;
+  /** Values as {@code long}, if the field is of an integer type. */
+  final long @Nullable [] longValues;
+  /** Values as {@code double}, if the field is of an approximate numeric
+   * type. */
+  private final double @Nullable [] doubleValues;
+  /** Values as UTF-8 bytes, if the field is a string and the predicate is an
+   * equality or {@code IN}. */
+  final byte @Nullable [][] byteValues;
+
+  private CsvPredicate(SqlKind kind, int field, @Nullable SqlTypeName typeName,
+      List<Comparable> values) {
+    this.kind = kind;
+    this.field = field;
+    this.typeName = typeName;
+    this.values = ImmutableList.copyOf(values);
+    if (isInteger(typeName)) {
+      longValues = new long[values.size()];
+      for (int i = 0; i < values.size(); i++) {
+        longValues[i] = (Long) values.get(i);
+      }
+    } else {
+      longValues = null;
+    }
+    if (isApproximate(typeName)) {
+      doubleValues = new double[values.size()];
+      for (int i = 0; i < values.size(); i++) {
+        doubleValues[i] = (Double) values.get(i);
+      }
+    } else {
+      doubleValues = null;
+    }
+    if (isString(typeName)
+        && (kind == SqlKind.EQUALS || kind == SqlKind.NOT_EQUALS
+            || kind == SqlKind.IN)) {
+      byteValues = new byte[values.size()][];
+      for (int i = 0; i < values.size(); i++) {
+        byteValues[i] =
+            ((String) values.get(i)).getBytes(StandardCharsets.UTF_8);
+      }
+    } else {
+      byteValues = null;
+    }
+  }
+
+  /** Creates a predicate from a condition.
+   *
+   * @param condition  Condition, as described in the class comment
+   * @param fieldTypes Types of the fields of the file
+   */
+  static CsvPredicate of(List<String> condition,
+      List<RelDataType> fieldTypes) {
+    final SqlKind kind = SqlKind.valueOf(condition.get(0));
+    final int field = Integer.parseInt(condition.get(1));
+    final RelDataType fieldType = fieldTypes.get(field);
+    final @Nullable SqlTypeName typeName =
+        fieldType == null ? null : fieldType.getSqlTypeName();
+    final List<Comparable> values = new ArrayList<>();
+    for (String s : condition.subList(2, condition.size())) {
+      values.add(parse(typeName, s));
+    }
+    return new CsvPredicate(kind, field, typeName, values);
+  }
+
+  /** Creates a list of predicates from a list of conditions. */
+  static List<CsvPredicate> list(List<? extends List<String>> conditions,
+      List<RelDataType> fieldTypes) {
+    final ImmutableList.Builder<CsvPredicate> builder = ImmutableList.builder();
+    for (List<String> condition : conditions) {
+      builder.add(of(condition, fieldTypes));
+    }
+    return builder.build();
+  }
+
+  private static Comparable parse(@Nullable SqlTypeName typeName, String s) {
+    if (typeName == null) {
+      return s;
+    }
+    switch (typeName) {
+    case TINYINT:
+    case SMALLINT:
+    case INTEGER:
+    case BIGINT:
+    case TIMESTAMP:
+      return Long.parseLong(s);
+    case FLOAT:
+    case DOUBLE:
+      return Double.parseDouble(s);
+    case DECIMAL:
+      return new BigDecimal(s);
+    case BOOLEAN:
+      return Boolean.parseBoolean(s);
+    case DATE:
+    case TIME:
+      return Integer.parseInt(s);
+    default:
+      return s;
+    }
+  }
+
+  /** Returns whether values of a type are compared as {@code long}. */
+  static boolean isInteger(@Nullable SqlTypeName typeName) {
+    if (typeName == null) {
+      return false;
+    }
+    switch (typeName) {
+    case TINYINT:
+    case SMALLINT:
+    case INTEGER:
+    case BIGINT:
+    case TIMESTAMP:
+      return true;
+    default:
+      return false;
+    }
+  }
+
+  private static boolean isApproximate(@Nullable SqlTypeName typeName) {
+    return typeName == SqlTypeName.FLOAT || typeName == SqlTypeName.DOUBLE;
+  }
+
+  private static boolean isString(@Nullable SqlTypeName typeName) {
+    return typeName == null || typeName == SqlTypeName.VARCHAR;
+  }
+
+  /** Returns whether a converted value of the field satisfies this
+   * predicate. */
+  boolean test(@Nullable Object value) {
+    switch (kind) {
+    case IS_NULL:
+      return value == null;
+    case IS_NOT_NULL:
+      return value != null;
+    default:
+      break;
+    }
+    if (value == null) {
+      return false;
+    }
+    if (longValues != null) {
+      return testLong(((Number) value).longValue());
+    }
+    if (doubleValues != null) {
+      return testDouble(((Number) value).doubleValue());
+    }
+    @SuppressWarnings("unchecked")
+    final Comparable<Object> c = (Comparable<Object>) value;
+    if (kind == SqlKind.IN) {
+      for (Comparable v : values) {
+        if (c.compareTo(v) == 0) {
+          return true;
+        }
+      }
+      return false;
+    }
+    return test(c.compareTo(values.get(0)));
+  }
+
+  /** Returns whether a non-null value of a field of an integer type satisfies
+   * this predicate. */
+  boolean testLong(long v) {
+    final long[] longValues = castNonNull(this.longValues);
+    switch (kind) {
+    case IS_NULL:
+      return false;
+    case IS_NOT_NULL:
+      return true;
+    case IN:
+      for (long longValue : longValues) {
+        if (v == longValue) {
+          return true;
+        }
+      }
+      return false;
+    default:
+      return test(Long.compare(v, longValues[0]));
+    }
+  }
+
+  private boolean testDouble(double v) {
+    final double[] doubleValues = castNonNull(this.doubleValues);
+    switch (kind) {
+    case IN:
+      for (double doubleValue : doubleValues) {
+        if (v == doubleValue) {
+          return true;
+        }
+      }
+      return false;
+    case EQUALS:
+      return v == doubleValues[0];
+    case NOT_EQUALS:
+      return v != doubleValues[0];
+    case LESS_THAN:
+      return v < doubleValues[0];
+    case LESS_THAN_OR_EQUAL:
+      return v <= doubleValues[0];
+    case GREATER_THAN:
+      return v > doubleValues[0];
+    case GREATER_THAN_OR_EQUAL:
+      return v >= doubleValues[0];
+    default:
+      throw new AssertionError(kind);
+    }
+  }
+
+  /** Returns whether the result of comparing a value to the predicate's
+   * value satisfies the predicate. */
+  private boolean test(int c) {
+    switch (kind) {
+    case EQUALS:
+      return c == 0;
+    case NOT_EQUALS:
+      return c != 0;
+    case LESS_THAN:
+      return c < 0;
+    case LESS_THAN_OR_EQUAL:
+      return c <= 0;
+    case GREATER_THAN:
+      return c > 0;
+    case GREATER_THAN_OR_EQUAL:
+      return c >= 0;
+    default:
+      throw new AssertionError(kind);
+    }
+  }
+
+  /** Returns whether every predicate is satisfied by a row whose fields are
+   * given as strings, converting only the fields that the predicates
+   * reference. */
+  static boolean test(List<CsvPredicate> predicates,
+      CsvEnumerator.RowConverter<?> rowConverter,
+      List<RelDataType> fieldTypes, @Nullable String[] strings) {
+    for (CsvPredicate predicate : predicates) {
+      final @Nullable String string =
+          predicate.field < strings.length ? strings[predicate.field] : null;
+      if (!predicate.test(
+          rowConverter.convert(fieldTypes.get(predicate.field), string))) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /** Returns an enumerator that returns the rows of an enumerator over every
+   * field that satisfy the predicates, projected to {@code fields}. */
+  static Enumerator<Object> filter(Enumerator<Object> enumerator,
+      int fieldCount, List<CsvPredicate> predicates, ImmutableIntList fields) {
+    return new Enumerator<Object>() {
+      private @Nullable Object current;
+
+      @Override public Object current() {
+        return castNonNull(current);
+      }
+
+      @Override public boolean moveNext() {
+        outer:
+        while (enumerator.moveNext()) {
+          final Object row = enumerator.current();
+          for (CsvPredicate predicate : predicates) {
+            final @Nullable Object value =
+                fieldCount == 1 ? row : ((@Nullable Object[]) row)[predicate.field];
+            if (!predicate.test(value)) {
+              continue outer;
+            }
+          }
+          if (fields.size() == 1) {
+            current = fieldCount == 1 ? row
+                : ((@Nullable Object[]) row)[fields.get(0)];
+          } else {
+            final @Nullable Object[] values = new Object[fields.size()];
+            for (int i = 0; i < values.length; i++) {
+              values[i] = fieldCount == 1 ? row
+                  : ((@Nullable Object[]) row)[fields.get(i)];
+            }
+            current = values;
+          }
+          return true;
+        }
+        return false;
+      }
+
+      @Override public void reset() {
+        throw new UnsupportedOperationException();
+      }
+
+      @Override public void close() {
+        enumerator.close();
+      }
+    };
+  }
+
+  /** Returns a description of a condition, for use in plans; for example,
+   * {@code =($3, 'F')} or {@code IN($0, 10, 20)}. */
+  static String describe(List<String> condition,
+      List<RelDataType> fieldTypes) {
+    final SqlKind kind = SqlKind.valueOf(condition.get(0));
+    final int field = Integer.parseInt(condition.get(1));
+    final RelDataType fieldType = fieldTypes.get(field);
+    final boolean quote =
+        fieldType == null || isString(fieldType.getSqlTypeName());
+    final StringBuilder b = new StringBuilder();
+    b.append(kind == SqlKind.IN ? "IN" : kind.sql);
+    b.append("($").append(field);
+    for (String value : condition.subList(2, condition.size())) {
+      b.append(", ");
+      if (quote) {
+        b.append('\'').append(value).append('\'');
+      } else {
+        b.append(value);
+      }
+    }
+    return b.append(')').toString();
+  }
+}
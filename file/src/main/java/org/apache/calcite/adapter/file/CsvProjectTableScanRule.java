@@ -22,6 +22,7 @@
 import org.apache.calcite.rex.RexInputRef;
 import org.apache.calcite.rex.RexNode;
 
+import org.checkerframework.checker.nullness.qual.Nullable;
 import org.immutables.value.Value;
 
 import java.util.List;
@@ -45,7 +46,7 @@ protected CsvProjectTableScanRule(Config config) {
   @Override public void onMatch(RelOptRuleCall call) {
     final LogicalProject project = call.rel(0);
     final CsvTableScan scan = call.rel(1);
-    int[] fields = getProjectFields(project.getProjects());
+    int[] fields = getProjectFields(project.getProjects(), scan.fields);
     if (fields == null) {
       // Project contains expressions more complex than just field references.
       return;
@@ -55,15 +56,17 @@ protected CsvProjectTableScanRule(Config config) {
             scan.getCluster(),
             scan.getTable(),
             scan.csvTable,
-            fields));
+            fields,
+            scan.conditions));
   }
 
-  private static int[] getProjectFields(List<RexNode> exps) {
+  private static int @Nullable [] getProjectFields(List<RexNode> exps,
+      int[] scanFields) {
     final int[] fields = new int[exps.size()];
     for (int i = 0; i < exps.size(); i++) {
       final RexNode exp = exps.get(i);
       if (exp instanceof RexInputRef) {
-        fields[i] = ((RexInputRef) exp).getIndex();
+        fields[i] = scanFields[((RexInputRef) exp).getIndex()];
       } else {
         return null; // not a simple projection
       }
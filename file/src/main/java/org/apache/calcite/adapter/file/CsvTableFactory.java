@@ -35,6 +35,9 @@
  *
  * <p>Allows a file-based table to be included in a model.json file, even in a
  * schema that is not based upon {@link FileSchema}.
+ *
+ * <p>Operands are {@code file}, and {@code parallelism}, {@code splitSize},
+ * {@code ordered} and {@code cache}, as for {@link FileSchemaFactory}.
  */
 @SuppressWarnings("UnusedDeclaration")
 public class CsvTableFactory implements TableFactory<CsvTable> {
@@ -50,6 +53,11 @@ public CsvTableFactory() {
     final Source source = Sources.file(base, fileName);
     final RelProtoDataType protoRowType =
         rowType != null ? RelDataTypeImpl.proto(rowType) : null;
-    return new CsvTranslatableTable(source, protoRowType);
+    return new CsvTranslatableTable(source, protoRowType,
+        FileSchemaFactory.longOperand(operand, "splitSize",
+            CsvTranslatableTable.DEFAULT_SPLIT_SIZE),
+        (int) FileSchemaFactory.longOperand(operand, "parallelism", 1),
+        !"false".equals(String.valueOf(operand.get("ordered"))),
+        "true".equals(String.valueOf(operand.get("cache"))));
   }
 }
@@ -37,11 +37,13 @@
 import org.apache.calcite.rel.type.RelDataType;
 import org.apache.calcite.rel.type.RelDataTypeFactory;
 import org.apache.calcite.rel.type.RelDataTypeField;
+import org.apache.calcite.sql.SqlKind;
 
 import com.google.common.collect.ImmutableList;
 
 import org.checkerframework.checker.nullness.qual.Nullable;
 
+import java.util.ArrayList;
 import java.util.List;
 
 import static java.util.Objects.requireNonNull;
@@ -50,26 +52,70 @@
  * Relational expression representing a scan of a CSV file.
  *
  * <p>Like any table scan, it serves as a leaf node of a query tree.
+ *
+ * <p>It returns the rows that satisfy its conditions, which are pushed into
+ * it by {@link CsvFilterTableScanRule}; see {@link CsvPredicate}.
  */
 public class CsvTableScan extends TableScan implements EnumerableRel {
   final CsvTranslatableTable csvTable;
-  private final int[] fields;
+  final int[] fields;
+  /** Conditions that rows must satisfy, each over the fields of the
+   * table. */
+  final ImmutableList<List<String>> conditions;
 
   protected CsvTableScan(RelOptCluster cluster, RelOptTable table,
       CsvTranslatableTable csvTable, int[] fields) {
+    this(cluster, table, csvTable, fields, ImmutableList.of());
+  }
+
+  protected CsvTableScan(RelOptCluster cluster, RelOptTable table,
+      CsvTranslatableTable csvTable, int[] fields,
+      List<? extends List<String>> conditions) {
     super(cluster, cluster.traitSetOf(EnumerableConvention.INSTANCE), ImmutableList.of(), table);
     this.csvTable = requireNonNull(csvTable, "csvTable");
     this.fields = fields;
+    this.conditions = ImmutableList.copyOf(conditions);
   }
 
   @Override public RelNode copy(RelTraitSet traitSet, List<RelNode> inputs) {
     assert inputs.isEmpty();
-    return new CsvTableScan(getCluster(), table, csvTable, fields);
+    return new CsvTableScan(getCluster(), table, csvTable, fields, conditions);
   }
 
   @Override public RelWriter explainTerms(RelWriter pw) {
     return super.explainTerms(pw)
-        .item("fields", Primitive.asList(fields));
+        .item("fields", Primitive.asList(fields))
+        .itemIf("filters", describeConditions(), !conditions.isEmpty());
+  }
+
+  private List<String> describeConditions() {
+    final List<RelDataType> fieldTypes =
+        csvTable.getFieldTypes(getCluster().getTypeFactory());
+    final List<String> list = new ArrayList<>();
+    for (List<String> condition : conditions) {
+      list.add(CsvPredicate.describe(condition, fieldTypes));
+    }
+    return list;
+  }
+
+  @Override public double estimateRowCount(RelMetadataQuery mq) {
+    double rowCount = super.estimateRowCount(mq);
+    for (List<String> condition : conditions) {
+      switch (SqlKind.valueOf(condition.get(0))) {
+      case EQUALS:
+      case IN:
+      case IS_NULL:
+        rowCount *= 0.15;
+        break;
+      case IS_NOT_NULL:
+        rowCount *= 0.9;
+        break;
+      default:
+        rowCount *= 0.5;
+        break;
+      }
+    }
+    return rowCount;
   }
 
   @Override public RelDataType deriveRowType() {
@@ -84,6 +130,7 @@ protected CsvTableScan(RelOptCluster cluster, RelOptTable table,
 
   @Override public void register(RelOptPlanner planner) {
     planner.addRule(FileRules.PROJECT_SCAN);
+    planner.addRule(FileRules.FILTER_SCAN);
   }
 
   @Override public @Nullable RelOptCost computeSelfCost(RelOptPlanner planner,
@@ -110,11 +157,20 @@ protected CsvTableScan(RelOptCluster cluster, RelOptTable table,
 
     final Expression expression =
         requireNonNull(table.getExpression(CsvTranslatableTable.class));
+    if (conditions.isEmpty()) {
+      return implementor.result(
+          physType,
+          Blocks.toBlock(
+              Expressions.call(expression,
+                  "project", implementor.getRootExpression(),
+                  Expressions.constant(fields))));
+    }
     return implementor.result(
         physType,
         Blocks.toBlock(
             Expressions.call(expression,
                 "project", implementor.getRootExpression(),
-                Expressions.constant(fields))));
+                Expressions.constant(fields),
+                Expressions.constant(conditions, List.class))));
   }
 }
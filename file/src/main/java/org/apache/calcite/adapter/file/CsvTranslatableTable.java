@@ -26,19 +26,31 @@
 import org.apache.calcite.linq4j.tree.Expression;
 import org.apache.calcite.plan.RelOptTable;
 import org.apache.calcite.rel.RelNode;
+import org.apache.calcite.rel.type.RelDataType;
+import org.apache.calcite.rel.type.RelDataTypeFactory;
 import org.apache.calcite.rel.type.RelProtoDataType;
 import org.apache.calcite.schema.QueryableTable;
 import org.apache.calcite.schema.SchemaPlus;
 import org.apache.calcite.schema.Schemas;
+import org.apache.calcite.schema.Statistic;
+import org.apache.calcite.schema.Statistics;
 import org.apache.calcite.schema.TranslatableTable;
 import org.apache.calcite.util.ImmutableIntList;
 import org.apache.calcite.util.Source;
 
+import com.google.common.collect.ImmutableList;
+
 import org.checkerframework.checker.nullness.qual.Nullable;
 
+import java.io.File;
+import java.io.IOException;
 import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.atomic.AtomicBoolean;
 
+import static com.google.common.base.Preconditions.checkArgument;
+
 /**
  * Table based on a CSV file.
  *
@@ -47,29 +59,193 @@
  */
 public class CsvTranslatableTable extends CsvTable
     implements QueryableTable, TranslatableTable {
-  /** Creates a CsvTable. */
+  /** Default number of bytes in each range of a parallel scan. */
+  static final long DEFAULT_SPLIT_SIZE = 64L << 20;
+
+  private final long splitSize;
+  private final int parallelism;
+  private final boolean ordered;
+  private final boolean cache;
+
+  /** Boundaries of the ranges of the file, and the length and modification
+   * time of the file when they were computed. */
+  private long @Nullable [] boundaries;
+  private long boundariesLength;
+  private long boundariesModified;
+
+  /** Creates a CsvTable that is scanned sequentially. */
   CsvTranslatableTable(Source source, @Nullable RelProtoDataType protoRowType) {
+    this(source, protoRowType, DEFAULT_SPLIT_SIZE, 1, true, false);
+  }
+
+  /** Creates a CsvTable.
+   *
+   * <p>If {@code parallelism} is greater than 1, and the source is an
+   * uncompressed local file longer than {@code splitSize} bytes, the file is
+   * split into ranges of about {@code splitSize} bytes that are parsed by up
+   * to {@code parallelism} threads. If {@code ordered}, rows are returned in
+   * the order of the file.
+   *
+   * <p>If {@code cache}, and the source is a local file, the row type and
+   * contents of the file are held in {@link CsvCache}, and later scans read
+   * the cached columns until the file changes.
+   */
+  CsvTranslatableTable(Source source, @Nullable RelProtoDataType protoRowType,
+      long splitSize, int parallelism, boolean ordered, boolean cache) {
     super(source, protoRowType);
+    checkArgument(splitSize > 0, "splitSize must be positive: %s", splitSize);
+    checkArgument(parallelism > 0, "parallelism must be positive: %s",
+        parallelism);
+    this.splitSize = splitSize;
+    this.parallelism = parallelism;
+    this.ordered = ordered;
+    this.cache = cache;
   }
 
   @Override public String toString() {
     return "CsvTranslatableTable";
   }
 
-  /** Returns an enumerable over a given projection of the fields. */
+  @Override public RelDataType getRowType(RelDataTypeFactory typeFactory) {
+    if (protoRowType == null) {
+      final CsvCache.@Nullable Entry entry = cacheEntry(typeFactory);
+      if (entry != null) {
+        return entry.rowType;
+      }
+    }
+    return super.getRowType(typeFactory);
+  }
+
+  @Override public List<RelDataType> getFieldTypes(
+      RelDataTypeFactory typeFactory) {
+    final CsvCache.@Nullable Entry entry = cacheEntry(typeFactory);
+    if (entry != null) {
+      return entry.fieldTypes;
+    }
+    return super.getFieldTypes(typeFactory);
+  }
+
+  /** {@inheritDoc}
+   *
+   * <p>If the table is cached, and its file has been scanned, returns the
+   * statistic of the cached columns. */
+  @Override public Statistic getStatistic() {
+    if (cache && source.fileOpt().isPresent()) {
+      final CsvCache.@Nullable Columns columns =
+          CsvCache.INSTANCE.columnsIfPresent(source.file());
+      if (columns != null) {
+        return columns.statistic();
+      }
+    }
+    return Statistics.UNKNOWN;
+  }
+
+  /** Returns the entry in {@link CsvCache} for this table's file, creating
+   * it if necessary, or null if the table is not cached. */
+  private CsvCache.@Nullable Entry cacheEntry(RelDataTypeFactory typeFactory) {
+    if (!cache || !source.fileOpt().isPresent()) {
+      return null;
+    }
+    return CsvCache.INSTANCE.get(source.file(), (length, modified) -> {
+      final List<RelDataType> fieldTypes = new ArrayList<>();
+      final RelDataType rowType =
+          CsvEnumerator.deduceRowType((JavaTypeFactory) typeFactory, source,
+              fieldTypes, false);
+      return new CsvCache.Entry(length, modified, rowType, fieldTypes);
+    });
+  }
+
+  /** Returns an enumerable over a given projection of the fields.
+   *
+   * <p>If the table is cached, reads the cached columns, first reading the
+   * whole file into the cache if necessary. Otherwise reads an uncompressed
+   * local file using a {@link MappedCsvEnumerator}, or a
+   * {@link CsvParallelScan} if it is large enough to split, and any other
+   * source using a {@link CsvEnumerator}. */
   @SuppressWarnings("unused") // called from generated code
   public Enumerable<Object> project(final DataContext root,
       final int[] fields) {
+    return project(root, fields, ImmutableList.of());
+  }
+
+  /** Returns an enumerable over a given projection of the fields of the rows
+   * that satisfy the given conditions.
+   *
+   * <p>Each condition is a list of strings, as described in
+   * {@link CsvPredicate}; they are pushed into the scan by
+   * {@link CsvFilterTableScanRule}. */
+  @SuppressWarnings("unused") // called from generated code
+  public Enumerable<Object> project(final DataContext root,
+      final int[] fields, final List<List<String>> conditions) {
     final AtomicBoolean cancelFlag = DataContext.Variable.CANCEL_FLAG.get(root);
     return new AbstractEnumerable<Object>() {
       @Override public Enumerator<Object> enumerator() {
         JavaTypeFactory typeFactory = root.getTypeFactory();
-        return new CsvEnumerator<>(source, cancelFlag,
-            getFieldTypes(typeFactory), ImmutableIntList.of(fields));
+        final CsvCache.@Nullable Entry entry = cacheEntry(typeFactory);
+        if (entry != null) {
+          // Read the file with a flag of its own, so that cancelling this
+          // query does not leave the cache incomplete
+          final CsvCache.Columns columns =
+              entry.columns(() ->
+                  scan(new AtomicBoolean(), entry.fieldTypes,
+                      ImmutableIntList.identity(entry.fieldTypes.size()),
+                      ImmutableList.of()));
+          return columns.enumerator(ImmutableIntList.of(fields),
+              CsvPredicate.list(conditions, entry.fieldTypes));
+        }
+        final List<RelDataType> fieldTypes = getFieldTypes(typeFactory);
+        return scan(cancelFlag, fieldTypes, ImmutableIntList.of(fields),
+            CsvPredicate.list(conditions, fieldTypes));
       }
     };
   }
 
+  /** Returns an enumerator that parses the file. */
+  private Enumerator<Object> scan(AtomicBoolean cancelFlag,
+      List<RelDataType> fieldTypes, ImmutableIntList fields,
+      List<CsvPredicate> predicates) {
+    if (MappedCsvEnumerator.canRead(source)) {
+      final File file = source.file();
+      if (parallelism > 1 && file.length() > splitSize) {
+        final long[] boundaries = boundaries(file);
+        if (boundaries.length > 2) {
+          return new CsvParallelScan(file, boundaries, parallelism, ordered,
+              cancelFlag, fieldTypes, fields, predicates).enumerator();
+        }
+      }
+      return new MappedCsvEnumerator<>(file, cancelFlag, fieldTypes, fields,
+          predicates, 0, file.length(), MappedCsvEnumerator.DEFAULT_MAP_SIZE);
+    }
+    if (predicates.isEmpty()) {
+      return new CsvEnumerator<>(source, cancelFlag, fieldTypes, fields);
+    }
+    // Convert every field, then filter and project
+    final ImmutableIntList allFields =
+        ImmutableIntList.identity(fieldTypes.size());
+    return CsvPredicate.filter(
+        new CsvEnumerator<>(source, cancelFlag, fieldTypes, allFields),
+        allFields.size(), predicates, fields);
+  }
+
+  /** Returns the boundaries of the ranges of a parallel scan, computing
+   * them if the file has changed since they were last computed. */
+  private synchronized long[] boundaries(File file) {
+    final long length = file.length();
+    final long modified = file.lastModified();
+    if (boundaries == null
+        || length != boundariesLength
+        || modified != boundariesModified) {
+      try {
+        boundaries = CsvParallelScan.split(file, splitSize);
+      } catch (IOException e) {
+        throw new RuntimeException(e);
+      }
+      boundariesLength = length;
+      boundariesModified = modified;
+    }
+    return boundaries;
+  }
+
   @Override public Expression getExpression(SchemaPlus schema, String tableName,
       Class clazz) {
     return Schemas.tableExpression(schema, getElementType(), tableName, clazz);
@@ -24,4 +24,10 @@ private FileRules() {}
    * a {@link CsvTableScan} and pushes down projects if possible. */
   public static final CsvProjectTableScanRule PROJECT_SCAN =
       CsvProjectTableScanRule.Config.DEFAULT.toRule();
+
+  /** Rule that matches a {@link org.apache.calcite.rel.core.Filter} on
+   * a {@link CsvTableScan} and pushes down the conditions that the scan can
+   * evaluate. */
+  public static final CsvFilterTableScanRule FILTER_SCAN =
+      CsvFilterTableScanRule.Config.DEFAULT.toRule();
 }
@@ -39,6 +39,10 @@
 class FileSchema extends AbstractSchema {
   private final ImmutableList<Map<String, Object>> tables;
   private final @Nullable File baseDirectory;
+  private final long splitSize;
+  private final int parallelism;
+  private final boolean ordered;
+  private final boolean cache;
 
   /**
    * Creates an HTML tables schema.
@@ -47,13 +51,24 @@ class FileSchema extends AbstractSchema {
    * @param name          Schema name
    * @param baseDirectory Base directory to look for relative files, or null
    * @param tables        List containing HTML table identifiers, or null
+   * @param splitSize     Number of bytes in each range of a parallel scan of
+   *                      a CSV file
+   * @param parallelism   Maximum number of threads that scan a CSV file
+   * @param ordered       Whether a parallel scan returns rows in the order of
+   *                      the file
+   * @param cache         Whether to cache the contents of CSV files
    */
   FileSchema(SchemaPlus parentSchema, String name, @Nullable File baseDirectory,
-      @Nullable List<Map<String, Object>> tables) {
+      @Nullable List<Map<String, Object>> tables, long splitSize,
+      int parallelism, boolean ordered, boolean cache) {
     this.tables =
         tables == null ? ImmutableList.of()
             : ImmutableList.copyOf(tables);
     this.baseDirectory = baseDirectory;
+    this.splitSize = splitSize;
+    this.parallelism = parallelism;
+    this.ordered = ordered;
+    this.cache = cache;
   }
 
   /**
@@ -131,7 +146,7 @@ private boolean addTable(ImmutableMap.Builder<String, Table> builder,
     return addTable(builder, source, tableName, tableDef);
   }
 
-  private static boolean addTable(ImmutableMap.Builder<String, Table> builder,
+  private boolean addTable(ImmutableMap.Builder<String, Table> builder,
       Source source, String tableName, @Nullable Map<String, Object> tableDef) {
     final Source sourceSansGz = source.trim(".gz");
     final Source sourceSansJson = sourceSansGz.trimOrNull(".json");
@@ -142,7 +157,9 @@ private static boolean addTable(ImmutableMap.Builder<String, Table> builder,
     }
     final Source sourceSansCsv = sourceSansGz.trimOrNull(".csv");
     if (sourceSansCsv != null) {
-      final Table table = new CsvTranslatableTable(source, null);
+      final Table table =
+          new CsvTranslatableTable(source, null, splitSize, parallelism,
+              ordered, cache);
       builder.put(Util.first(tableName, sourceSansCsv.path()), table);
       return true;
     }
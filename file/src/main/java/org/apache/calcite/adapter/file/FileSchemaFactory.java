@@ -30,6 +30,11 @@
  *
  * <p>Allows a custom schema to be included in a model.json file.
  * See <a href="http://calcite.apache.org/docs/file_adapter.html">File adapter</a>.
+ *
+ * <p>Operands {@code parallelism} (default 1, a sequential scan),
+ * {@code splitSize} (default 64 MB) and {@code ordered} (default true)
+ * control parallel scans of CSV files, and operand {@code cache} (default
+ * false) whether to cache their contents; see {@link CsvTranslatableTable}.
  */
 @SuppressWarnings("UnusedDeclaration")
 public class FileSchemaFactory implements SchemaFactory {
@@ -61,6 +66,25 @@ private FileSchemaFactory() {
         directoryFile = new File(baseDirectory, directory);
       }
     }
-    return new FileSchema(parentSchema, name, directoryFile, tables);
+    return new FileSchema(parentSchema, name, directoryFile, tables,
+        longOperand(operand, "splitSize",
+            CsvTranslatableTable.DEFAULT_SPLIT_SIZE),
+        (int) longOperand(operand, "parallelism", 1),
+        !"false".equals(String.valueOf(operand.get("ordered"))),
+        "true".equals(String.valueOf(operand.get("cache"))));
+  }
+
+  /** Returns the value of a numeric operand. The value may be a number, as in
+   * a JSON model, or a string, as in a connect string. */
+  static long longOperand(Map<String, Object> operand, String name,
+      long defaultValue) {
+    final Object value = operand.get(name);
+    if (value == null) {
+      return defaultValue;
+    }
+    if (value instanceof Number) {
+      return ((Number) value).longValue();
+    }
+    return Long.parseLong(value.toString());
   }
 }
@@ -21,19 +21,31 @@
 import org.apache.calcite.linq4j.AbstractEnumerable;
 import org.apache.calcite.linq4j.Enumerable;
 import org.apache.calcite.linq4j.Enumerator;
+import org.apache.calcite.rel.type.RelDataType;
+import org.apache.calcite.rex.RexNode;
+import org.apache.calcite.schema.ProjectableFilterableTable;
 import org.apache.calcite.schema.ScannableTable;
+import org.apache.calcite.util.ImmutableIntList;
 import org.apache.calcite.util.Source;
 
 import org.checkerframework.checker.nullness.qual.Nullable;
 
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
 /**
  * Table based on a JSON file.
  *
  * <p>It implements the {@link ScannableTable} interface, so Calcite gets
- * data by calling the {@link #scan(DataContext)} method.
+ * data by calling the {@link #scan(DataContext)} method. It also implements
+ * {@link ProjectableFilterableTable}, so that a scan deserializes only the
+ * fields that the query uses; it evaluates no filters.
+ *
+ * <p>Rows are read by a {@link JsonStreamEnumerator} as the source is parsed,
+ * rather than after the whole source has been read.
  */
 public class JsonScannableTable extends JsonTable
-    implements ScannableTable {
+    implements ScannableTable, ProjectableFilterableTable {
   /**
    * Creates a JsonScannableTable.
    */
@@ -46,10 +58,25 @@ public JsonScannableTable(Source source) {
   }
 
   @Override public Enumerable<@Nullable Object[]> scan(DataContext root) {
+    return scan(root, null);
+  }
+
+  @Override public Enumerable<@Nullable Object[]> scan(DataContext root,
+      List<RexNode> filters, int @Nullable [] projects) {
+    return scan(root, projects);
+  }
+
+  private Enumerable<@Nullable Object[]> scan(DataContext root,
+      int @Nullable [] projects) {
+    final AtomicBoolean cancelFlag = DataContext.Variable.CANCEL_FLAG.get(root);
     return new AbstractEnumerable<@Nullable Object[]>() {
       @Override public Enumerator<@Nullable Object[]> enumerator() {
         JavaTypeFactory typeFactory = root.getTypeFactory();
-        return new JsonEnumerator(getDataList(typeFactory));
+        final RelDataType rowType = getRowType(typeFactory);
+        final int[] fields = projects != null ? projects
+            : ImmutableIntList.identity(rowType.getFieldCount()).toIntArray();
+        return new JsonStreamEnumerator(source, cancelFlag,
+            rowType.getFieldNames(), fields);
       }
     };
   }
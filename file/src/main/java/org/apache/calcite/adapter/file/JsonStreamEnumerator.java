@@ -0,0 +1,223 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.calcite.adapter.file;
+
+import org.apache.calcite.linq4j.Enumerator;
+import org.apache.calcite.rel.type.RelDataType;
+import org.apache.calcite.rel.type.RelDataTypeFactory;
+import org.apache.calcite.util.Source;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.apache.calcite.linq4j.Nullness.castNonNull;
+
+/**
+ * Enumerator that reads rows from a JSON source as it parses it.
+ *
+ * <p>The source may hold an array whose elements are rows, or a sequence of
+ * values each of which is a row, as in newline-delimited JSON. A row that is
+ * an object is read by field name; a field that is missing is null, and a
+ * field that the row type does not have, or that is not projected, is
+ * skipped without being deserialized. A row that is not an object has one
+ * field.
+ *
+ * <p>Only the current row is held in memory, so a large source can be
+ * scanned in constant memory, and the first row is returned before the rest
+ * of the source has been read.
+ */
+class JsonStreamEnumerator implements Enumerator<@Nullable Object[]> {
+  /** Name of the field of a table whose source has no rows. */
+  static final String EMPTY_FIELD_NAME = "EmptyFileHasNoColumns";
+
+  /** Name of the field of a table whose rows are not objects. */
+  static final String VALUE_FIELD_NAME = "line";
+
+  /** Mapper that reads nested objects and arrays. Thread-safe, because its
+   * configuration does not change after it is created. */
+  private static final ObjectMapper MAPPER =
+      new ObjectMapper()
+          .configure(JsonParser.Feature.ALLOW_UNQUOTED_FIELD_NAMES, true)
+          .configure(JsonParser.Feature.ALLOW_SINGLE_QUOTES, true)
+          .configure(JsonParser.Feature.ALLOW_COMMENTS, true);
+
+  private final JsonParser parser;
+  private final AtomicBoolean cancelFlag;
+  /** Position in the result row of each projected field, by name. */
+  private final Map<String, Integer> positions = new HashMap<>();
+  /** Position in the result row of the value of a row that is not an object,
+   * or -1 if the first field is not projected. */
+  private final int valuePosition;
+  private final int fieldCount;
+  /** Whether rows are the elements of an array. */
+  private boolean inArray;
+  private boolean started;
+  private @Nullable Object @Nullable [] current;
+
+  /** Creates a JsonStreamEnumerator.
+   *
+   * @param source     Source
+   * @param cancelFlag Flag that is set when the query is cancelled
+   * @param fieldNames Names of the fields of the row type
+   * @param projects   Ordinals of the fields to return
+   */
+  JsonStreamEnumerator(Source source, AtomicBoolean cancelFlag,
+      List<String> fieldNames, int[] projects) {
+    this.cancelFlag = cancelFlag;
+    this.fieldCount = projects.length;
+    int valuePosition = -1;
+    for (int i = 0; i < projects.length; i++) {
+      positions.put(fieldNames.get(projects[i]), i);
+      if (projects[i] == 0 && valuePosition < 0) {
+        valuePosition = i;
+      }
+    }
+    this.valuePosition = valuePosition;
+    try {
+      this.parser = createParser(source);
+    } catch (IOException e) {
+      throw new RuntimeException("Couldn't read " + source, e);
+    }
+  }
+
+  private static JsonParser createParser(Source source) throws IOException {
+    if ("file".equals(source.protocol()) && !source.path().endsWith(".gz")) {
+      return MAPPER.getFactory().createParser(source.file());
+    }
+    return MAPPER.getFactory().createParser(source.reader());
+  }
+
+  /** Deduces the names and types of a table's columns by reading the first
+   * row of a JSON source. */
+  static RelDataType deduceRowType(RelDataTypeFactory typeFactory,
+      Source source) {
+    final Map<String, @Nullable Object> fields = new LinkedHashMap<>();
+    try (JsonParser parser = createParser(source)) {
+      JsonToken token = parser.nextToken();
+      if (token == JsonToken.START_ARRAY) {
+        token = parser.nextToken();
+      }
+      if (token == null || token == JsonToken.END_ARRAY) {
+        fields.put(EMPTY_FIELD_NAME, Boolean.TRUE);
+      } else {
+        final Object row = MAPPER.readValue(parser, Object.class);
+        if (row instanceof Map) {
+          //noinspection unchecked
+          fields.putAll((Map<String, @Nullable Object>) row);
+        } else {
+          fields.put(VALUE_FIELD_NAME, row);
+        }
+      }
+    } catch (IOException e) {
+      throw new RuntimeException("Couldn't read " + source, e);
+    }
+    final RelDataTypeFactory.Builder builder = typeFactory.builder();
+    for (Map.Entry<String, @Nullable Object> field : fields.entrySet()) {
+      final Object value = field.getValue();
+      builder.add(field.getKey(),
+          typeFactory.createJavaType(
+              value == null ? Object.class : value.getClass()));
+    }
+    return builder.build();
+  }
+
+  @Override public @Nullable Object[] current() {
+    return castNonNull(current);
+  }
+
+  @Override public boolean moveNext() {
+    if (cancelFlag.get()) {
+      return false;
+    }
+    try {
+      JsonToken token = parser.nextToken();
+      if (!started) {
+        started = true;
+        if (token == JsonToken.START_ARRAY) {
+          inArray = true;
+          token = parser.nextToken();
+        }
+      }
+      if (token == null || (inArray && token == JsonToken.END_ARRAY)) {
+        current = null;
+        return false;
+      }
+      final @Nullable Object[] row = new Object[fieldCount];
+      if (token == JsonToken.START_OBJECT) {
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+          final Integer position = positions.get(parser.getCurrentName());
+          token = parser.nextToken();
+          if (position == null) {
+            parser.skipChildren();
+          } else {
+            row[position] = readValue(token);
+          }
+        }
+      } else if (valuePosition >= 0) {
+        row[valuePosition] = readValue(token);
+      } else {
+        parser.skipChildren();
+      }
+      current = row;
+      return true;
+    } catch (IOException e) {
+      throw new RuntimeException(e);
+    }
+  }
+
+  /** Reads the value that starts at the current token, converting it as
+   * {@link ObjectMapper} would convert it to an {@link Object}. */
+  private @Nullable Object readValue(JsonToken token) throws IOException {
+    switch (token) {
+    case VALUE_STRING:
+      return parser.getText();
+    case VALUE_NUMBER_INT:
+    case VALUE_NUMBER_FLOAT:
+      return parser.getNumberValue();
+    case VALUE_TRUE:
+      return Boolean.TRUE;
+    case VALUE_FALSE:
+      return Boolean.FALSE;
+    case VALUE_NULL:
+      return null;
+    default:
+      return MAPPER.readValue(parser, Object.class);
+    }
+  }
+
+  @Override public void reset() {
+    throw new UnsupportedOperationException();
+  }
+
+  @Override public void close() {
+    try {
+      parser.close();
+    } catch (IOException e) {
+      throw new RuntimeException("Error closing JSON source", e);
+    }
+  }
+}
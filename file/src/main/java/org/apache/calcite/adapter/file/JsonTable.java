@@ -32,7 +32,7 @@
  * Table based on a JSON file.
  */
 public class JsonTable extends AbstractTable {
-  private final Source source;
+  protected final Source source;
   private @Nullable RelDataType rowType;
   protected @Nullable List<Object> dataList;
 
@@ -42,12 +42,15 @@ public JsonTable(Source source) {
 
   @Override public RelDataType getRowType(RelDataTypeFactory typeFactory) {
     if (rowType == null) {
-      rowType = JsonEnumerator.deduceRowType(typeFactory, source).getRelDataType();
+      rowType = JsonStreamEnumerator.deduceRowType(typeFactory, source);
     }
     return rowType;
   }
 
-  /** Returns the data list of the table. */
+  /** Returns the data list of the table.
+   *
+   * <p>Reads the whole source into memory; a scan of the table instead
+   * reads the source as it returns rows. */
   public List<Object> getDataList(RelDataTypeFactory typeFactory) {
     if (dataList == null) {
       JsonDataConverter jsonDataConverter =
@@ -0,0 +1,682 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.calcite.adapter.file;
+
+import org.apache.calcite.avatica.util.DateTimeUtils;
+import org.apache.calcite.linq4j.Enumerator;
+import org.apache.calcite.rel.type.RelDataType;
+import org.apache.calcite.sql.SqlKind;
+import org.apache.calcite.sql.type.SqlTypeName;
+import org.apache.calcite.util.ImmutableIntList;
+import org.apache.calcite.util.ImmutableNullableList;
+import org.apache.calcite.util.Source;
+
+import com.google.common.collect.ImmutableList;
+
+import au.com.bytecode.opencsv.CSVParser;
+
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.apache.calcite.linq4j.Nullness.castNonNull;
+
+/** Enumerator that reads a CSV file by mapping it into memory.
+ *
+ * <p>Produces the same rows as {@link CsvEnumerator}, but finds line ends
+ * and separators by scanning the bytes of the mapped file, and converts only
+ * the projected fields. Integer, boolean, and canonically formatted date,
+ * time and timestamp values are parsed directly from bytes; other values are
+ * decoded to a {@link String} and converted as {@link CsvEnumerator} would.
+ *
+ * <p>A line that contains an escape character, or a quote other than
+ * around a whole field, is parsed by OpenCSV's {@link CSVParser}, so that
+ * escapes, doubled quotes and quoted line breaks behave as in
+ * {@link CsvEnumerator}.
+ *
+ * <p>Rows that do not satisfy the {@link CsvPredicate}s are skipped before
+ * their other fields are converted. Predicates on integer fields, and
+ * equality predicates on string fields, are evaluated on the bytes of the
+ * field.
+ *
+ * <p>May read a range of the file that starts and ends at record boundaries;
+ * see {@link CsvParallelScan}. Only the range that starts at the beginning of
+ * the file has a header row.
+ *
+ * @param <E> Row type
+ */
+class MappedCsvEnumerator<E> implements Enumerator<E> {
+  /** Default number of bytes mapped at a time. */
+  static final int DEFAULT_MAP_SIZE = 1 << 30;
+
+  /** Classes of bytes, indexed by the byte's unsigned value; 0 for a byte
+   * that does not end a line and needs no special parsing. */
+  private static final byte[] CLASSES = new byte[256];
+  private static final byte EOL = 1;
+  private static final byte QUOTE = 2;
+  private static final byte ESCAPE = 4;
+
+  static {
+    CLASSES['\n'] = EOL;
+    CLASSES['\r'] = EOL;
+    CLASSES['"'] = QUOTE;
+    CLASSES['\\'] = ESCAPE;
+  }
+
+  private final FileChannel channel;
+  /** Offset in the file of the end of the range to read. */
+  private final long end;
+  private final AtomicBoolean cancelFlag;
+  /** Field types. List must not be null, but any element may be null. */
+  private final List<RelDataType> fieldTypes;
+  private final ImmutableIntList fields;
+  private final List<CsvPredicate> predicates;
+  /** Number of fields that a row must have to contain every projected
+   * field and every field referenced by a predicate. */
+  private final int minFieldCount;
+  private final CsvEnumerator.RowConverter<E> rowConverter;
+  private final CSVParser parser = new CSVParser();
+  private int mapSize;
+
+  /** Mapped window of the file. */
+  private MappedByteBuffer buffer;
+  /** Offset in the file of the start of {@link #buffer}. */
+  private long bufferStart;
+  /** Position in {@link #buffer} of the start of the next line. */
+  private int pos;
+  /** Position in {@link #buffer} of the end of the current line, excluding
+   * the line terminator. */
+  private int lineEnd;
+  /** Position in {@link #buffer} of the start of the line after the current
+   * line. */
+  private int next;
+  /** Classes of the bytes in the current line, OR-ed together. */
+  private int lineClasses;
+
+  /** Start and end positions in {@link #buffer} of the fields of the
+   * current line, if it is simple. */
+  private int[] fieldStarts = new int[16];
+  private int[] fieldEnds = new int[16];
+  private int fieldCount;
+  private byte[] scratch = new byte[64];
+  /** Value parsed by {@link #parseLong(int, int)}. */
+  private long longValue;
+  private @Nullable E current;
+
+  /** Creates a MappedCsvEnumerator that reads the whole of a file. */
+  MappedCsvEnumerator(File file, AtomicBoolean cancelFlag,
+      List<RelDataType> fieldTypes, List<Integer> fields) {
+    this(file, cancelFlag, fieldTypes, fields, ImmutableList.of(), 0,
+        file.length(), DEFAULT_MAP_SIZE);
+  }
+
+  /** Creates a MappedCsvEnumerator that reads a range of a file and returns
+   * the rows that satisfy the predicates, mapping a given number of bytes at
+   * a time. A line that is longer is mapped in a larger window. */
+  @SuppressWarnings("unchecked")
+  MappedCsvEnumerator(File file, AtomicBoolean cancelFlag,
+      List<RelDataType> fieldTypes, List<Integer> fields,
+      List<CsvPredicate> predicates, long start, long end, int mapSize) {
+    this.cancelFlag = cancelFlag;
+    this.fieldTypes = ImmutableNullableList.copyOf(fieldTypes);
+    this.fields = ImmutableIntList.copyOf(fields);
+    this.predicates = ImmutableList.copyOf(predicates);
+    int minFieldCount = 0;
+    for (int field : fields) {
+      minFieldCount = Math.max(minFieldCount, field + 1);
+    }
+    for (CsvPredicate predicate : predicates) {
+      minFieldCount = Math.max(minFieldCount, predicate.field + 1);
+    }
+    this.minFieldCount = minFieldCount;
+    this.rowConverter =
+        (CsvEnumerator.RowConverter<E>) CsvEnumerator.converter(fieldTypes,
+            fields);
+    this.mapSize = mapSize;
+    try {
+      this.channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+      this.end = Math.min(end, channel.size());
+      this.buffer = map(start);
+      if (start == 0) {
+        readRecord(); // skip header row
+      }
+    } catch (IOException e) {
+      throw new RuntimeException(e);
+    }
+  }
+
+  /** Returns whether a source can be read by a MappedCsvEnumerator; that is,
+   * whether it is an uncompressed local file. */
+  static boolean canRead(Source source) {
+    return source.fileOpt().isPresent()
+        && !source.path().endsWith(".gz");
+  }
+
+  @Override public E current() {
+    return castNonNull(current);
+  }
+
+  @Override public boolean moveNext() {
+    try {
+      for (;;) {
+        if (cancelFlag.get()) {
+          return false;
+        }
+        final @Nullable String @Nullable [] strings = readRecord();
+        if (strings != null) {
+          if (CsvPredicate.test(predicates, rowConverter, fieldTypes,
+              strings)) {
+            current = rowConverter.convertRow(strings);
+            return true;
+          }
+          continue;
+        }
+        if (fieldCount < 0) {
+          current = null;
+          return false;
+        }
+        if (testSimpleRow()) {
+          current = convertSimpleRow();
+          return true;
+        }
+      }
+    } catch (IOException e) {
+      throw new RuntimeException(e);
+    }
+  }
+
+  @Override public void reset() {
+    throw new UnsupportedOperationException();
+  }
+
+  @Override public void close() {
+    try {
+      channel.close();
+    } catch (IOException e) {
+      throw new RuntimeException("Error closing CSV file", e);
+    }
+  }
+
+  private MappedByteBuffer map(long offset) throws IOException {
+    bufferStart = offset;
+    pos = 0;
+    return channel.map(FileChannel.MapMode.READ_ONLY, offset,
+        Math.min(mapSize, end - offset));
+  }
+
+  /** Reads the next record.
+   *
+   * <p>If the record needs OpenCSV to parse it, returns its fields.
+   * Otherwise returns null, and either sets {@link #fieldCount} to -1 if
+   * there are no more records, or records the positions of the fields in
+   * {@link #fieldStarts} and {@link #fieldEnds}. */
+  private @Nullable String @Nullable [] readRecord() throws IOException {
+    if (!nextLine()) {
+      fieldCount = -1;
+      return null;
+    }
+    final int start = pos;
+    pos = next;
+    if ((lineClasses & ESCAPE) == 0) {
+      if ((lineClasses & QUOTE) == 0) {
+        splitSimple(start, lineEnd);
+        return null;
+      }
+      if (splitQuoted(start, lineEnd)) {
+        return null;
+      }
+    }
+
+    // Parse as CSVReader.readNext does, continuing onto the following lines
+    // while a quoted field is open.
+    String[] result = parser.parseLineMulti(decode(start, lineEnd));
+    while (parser.isPending() && nextLine()) {
+      final String line = decode(pos, lineEnd);
+      pos = next;
+      final String[] r = parser.parseLineMulti(line);
+      if (r.length > 0) {
+        final String[] t = new String[result.length + r.length];
+        System.arraycopy(result, 0, t, 0, result.length);
+        System.arraycopy(r, 0, t, result.length, r.length);
+        result = t;
+      }
+    }
+    if (result.length < minFieldCount) {
+      // Missing fields are null
+      result = Arrays.copyOf(result, minFieldCount);
+    }
+    return result;
+  }
+
+  /** Finds the end of the line that starts at {@link #pos}, mapping a new
+   * window of the file if the line does not end within the current window.
+   * Sets {@link #lineEnd}, {@link #next} and {@link #lineClasses}, and
+   * returns false if there are no more lines. */
+  private boolean nextLine() throws IOException {
+    for (;;) {
+      final int limit = buffer.limit();
+      final boolean lastWindow = bufferStart + limit >= end;
+      if (pos >= limit && lastWindow) {
+        return false;
+      }
+      int classes = 0;
+      int i = pos;
+      for (; i < limit; i++) {
+        final int c = CLASSES[buffer.get(i) & 0xFF];
+        if (c != 0) {
+          if (c == EOL) {
+            break;
+          }
+          classes |= c;
+        }
+      }
+      if (i < limit) {
+        int n = i + 1;
+        if (buffer.get(i) == '\r') {
+          if (n < limit) {
+            if (buffer.get(n) == '\n') {
+              ++n;
+            }
+          } else if (!lastWindow) {
+            // The '\n' of a "\r\n" terminator may be in the next window
+            buffer = remap();
+            continue;
+          }
+        }
+        lineEnd = i;
+        next = n;
+        lineClasses = classes;
+        return true;
+      }
+      if (lastWindow) {
+        // The last line has no terminator
+        lineEnd = limit;
+        next = limit;
+        lineClasses = classes;
+        return true;
+      }
+      buffer = remap();
+    }
+  }
+
+  /** Maps a window that starts at the current line. If the current line
+   * already starts the window, the line is longer than the window, so maps
+   * a window twice as large. */
+  private MappedByteBuffer remap() throws IOException {
+    if (pos == 0) {
+      if (mapSize == Integer.MAX_VALUE) {
+        throw new IOException("line too long in CSV file at offset "
+            + bufferStart);
+      }
+      mapSize = (int) Math.min(2L * mapSize, Integer.MAX_VALUE);
+    }
+    return map(bufferStart + pos);
+  }
+
+  /** Splits a line that contains no quotes or escapes. */
+  private void splitSimple(int start, int end) {
+    fieldCount = 0;
+    int fieldStart = start;
+    for (int i = start; i < end; i++) {
+      if (buffer.get(i) == ',') {
+        addField(fieldStart, i);
+        fieldStart = i + 1;
+      }
+    }
+    addField(fieldStart, end);
+  }
+
+  /** Splits a line that contains no escapes, and whose quotes enclose whole
+   * fields. Returns false if the line has a quote elsewhere, or a quoted field
+   * that does not end on this line. */
+  private boolean splitQuoted(int start, int end) {
+    fieldCount = 0;
+    int i = start;
+    for (;;) {
+      if (i < end && buffer.get(i) == '"') {
+        int close = i + 1;
+        while (close < end && buffer.get(close) != '"') {
+          ++close;
+        }
+        if (close >= end) {
+          return false;
+        }
+        final int after = close + 1;
+        if (after < end && buffer.get(after) != ',') {
+          return false;
+        }
+        addField(i + 1, close);
+        if (after >= end) {
+          return true;
+        }
+        i = after + 1;
+      } else {
+        int j = i;
+        for (; j < end; j++) {
+          final byte b = buffer.get(j);
+          if (b == ',') {
+            break;
+          }
+          if (b == '"') {
+            return false;
+          }
+        }
+        addField(i, j);
+        if (j >= end) {
+          return true;
+        }
+        i = j + 1;
+      }
+    }
+  }
+
+  private void addField(int start, int end) {
+    if (fieldCount == fieldStarts.length) {
+      fieldStarts = Arrays.copyOf(fieldStarts, fieldCount * 2);
+      fieldEnds = Arrays.copyOf(fieldEnds, fieldCount * 2);
+    }
+    fieldStarts[fieldCount] = start;
+    fieldEnds[fieldCount] = end;
+    ++fieldCount;
+  }
+
+  /** Returns whether a simple line satisfies every predicate. */
+  private boolean testSimpleRow() {
+    for (CsvPredicate predicate : predicates) {
+      if (!testSimpleField(predicate)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private boolean testSimpleField(CsvPredicate predicate) {
+    final int field = predicate.field;
+    if (field < fieldCount) {
+      final int start = fieldStarts[field];
+      final int end = fieldEnds[field];
+      final RelDataType fieldType = fieldTypes.get(field);
+      if (predicate.byteValues != null) {
+        boolean found = false;
+        for (byte[] bytes : predicate.byteValues) {
+          if (equalBytes(start, end, bytes)) {
+            found = true;
+            break;
+          }
+        }
+        return predicate.kind == SqlKind.NOT_EQUALS ? !found : found;
+      }
+      if (predicate.longValues != null
+          && fieldType != null
+          && start < end
+          && parseLong(start, end)
+          && fits(fieldType.getSqlTypeName(), longValue)) {
+        return predicate.testLong(longValue);
+      }
+    }
+    return predicate.test(convertField(field));
+  }
+
+  /** Returns whether {@link #parseLong(int, int)} has parsed a value of an
+   * integer type, as {@link #convertField(int)} would. */
+  private static boolean fits(SqlTypeName typeName, long v) {
+    switch (typeName) {
+    case TINYINT:
+      return v >= Byte.MIN_VALUE && v <= Byte.MAX_VALUE;
+    case SMALLINT:
+      return v >= Short.MIN_VALUE && v <= Short.MAX_VALUE;
+    case INTEGER:
+      return v >= Integer.MIN_VALUE && v <= Integer.MAX_VALUE;
+    case BIGINT:
+      return true;
+    default:
+      return false;
+    }
+  }
+
+  /** Returns whether the bytes of a field are equal to given bytes. */
+  private boolean equalBytes(int start, int end, byte[] bytes) {
+    if (end - start != bytes.length) {
+      return false;
+    }
+    for (int i = 0; i < bytes.length; i++) {
+      if (buffer.get(start + i) != bytes[i]) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  @SuppressWarnings("unchecked")
+  private E convertSimpleRow() {
+    if (fields.size() == 1) {
+      return (E) convertField(fields.get(0));
+    }
+    final @Nullable Object[] objects = new Object[fields.size()];
+    for (int i = 0; i < objects.length; i++) {
+      objects[i] = convertField(fields.get(i));
+    }
+    return (E) objects;
+  }
+
+  /** Converts a field of a simple line; returns null if the line has fewer
+   * fields. */
+  private @Nullable Object convertField(int field) {
+    if (field >= fieldCount) {
+      return null;
+    }
+    final int start = fieldStarts[field];
+    final int end = fieldEnds[field];
+    final RelDataType fieldType = fieldTypes.get(field);
+    if (fieldType == null) {
+      return decode(start, end);
+    }
+    switch (fieldType.getSqlTypeName()) {
+    case BOOLEAN:
+      if (start == end) {
+        return null;
+      }
+      return isTrue(start, end);
+    case TINYINT:
+      if (start == end) {
+        return null;
+      }
+      if (parseLong(start, end)
+          && longValue >= Byte.MIN_VALUE && longValue <= Byte.MAX_VALUE) {
+        return (byte) longValue;
+      }
+      break;
+    case SMALLINT:
+      if (start == end) {
+        return null;
+      }
+      if (parseLong(start, end)
+          && longValue >= Short.MIN_VALUE && longValue <= Short.MAX_VALUE) {
+        return (short) longValue;
+      }
+      break;
+    case INTEGER:
+      if (start == end) {
+        return null;
+      }
+      if (parseLong(start, end)
+          && longValue >= Integer.MIN_VALUE && longValue <= Integer.MAX_VALUE) {
+        return (int) longValue;
+      }
+      break;
+    case BIGINT:
+      if (start == end) {
+        return null;
+      }
+      if (parseLong(start, end)) {
+        return longValue;
+      }
+      break;
+    case DATE:
+      if (start == end) {
+        return null;
+      }
+      if (end - start == 10) {
+        final int date = parseDate(start);
+        if (date != Integer.MIN_VALUE) {
+          return date;
+        }
+      }
+      break;
+    case TIME:
+      if (start == end) {
+        return null;
+      }
+      if (end - start == 8) {
+        final int time = parseTime(start);
+        if (time >= 0) {
+          return time;
+        }
+      }
+      break;
+    case TIMESTAMP:
+      if (start == end) {
+        return null;
+      }
+      if (end - start == 19 && buffer.get(start + 10) == ' ') {
+        final int date = parseDate(start);
+        final int time = parseTime(start + 11);
+        if (date != Integer.MIN_VALUE && time >= 0) {
+          return date * DateTimeUtils.MILLIS_PER_DAY + time;
+        }
+      }
+      break;
+    default:
+      break;
+    }
+    // Not handled above, or not in canonical form; convert the string, so
+    // that the value (or error) is the same as from CsvEnumerator
+    return rowConverter.convert(fieldType, decode(start, end));
+  }
+
+  /** Returns whether a field is "true", ignoring case, as
+   * {@link Boolean#parseBoolean(String)} does. */
+  private boolean isTrue(int start, int end) {
+    return end - start == 4
+        && (buffer.get(start) | 0x20) == 't'
+        && (buffer.get(start + 1) | 0x20) == 'r'
+        && (buffer.get(start + 2) | 0x20) == 'u'
+        && (buffer.get(start + 3) | 0x20) == 'e';
+  }
+
+  /** Parses an optionally signed decimal integer of up to 18 digits into
+   * {@link #longValue}; returns false if the field is not of that form. */
+  private boolean parseLong(int start, int end) {
+    int i = start;
+    final byte first = buffer.get(i);
+    final boolean negative = first == '-';
+    if (negative || first == '+') {
+      ++i;
+    }
+    if (i == end || end - i > 18) {
+      return false;
+    }
+    long v = 0;
+    for (; i < end; i++) {
+      final int d = buffer.get(i) - '0';
+      if (d < 0 || d > 9) {
+        return false;
+      }
+      v = v * 10 + d;
+    }
+    longValue = negative ? -v : v;
+    return true;
+  }
+
+  /** Parses a date of the form "yyyy-MM-dd" as a number of days since the
+   * epoch, or returns {@link Integer#MIN_VALUE} if it is not of that form. */
+  private int parseDate(int start) {
+    final int year = digits(start, 4);
+    final int month = digits(start + 5, 2);
+    final int day = digits(start + 8, 2);
+    // Years before 1583 are left to the parser, whose calendar is Julian
+    // before October 1582
+    if (year < 1583 || month < 1 || month > 12 || day < 1
+        || day > daysInMonth(year, month)
+        || buffer.get(start + 4) != '-' || buffer.get(start + 7) != '-') {
+      return Integer.MIN_VALUE;
+    }
+    return DateTimeUtils.ymdToUnixDate(year, month, day);
+  }
+
+  private static int daysInMonth(int year, int month) {
+    switch (month) {
+    case 2:
+      return year % 4 == 0 && (year % 100 != 0 || year % 400 == 0) ? 29 : 28;
+    case 4:
+    case 6:
+    case 9:
+    case 11:
+      return 30;
+    default:
+      return 31;
+    }
+  }
+
+  /** Parses a time of the form "HH:mm:ss" as a number of milliseconds since
+   * midnight, or returns -1 if it is not of that form. */
+  private int parseTime(int start) {
+    final int hour = digits(start, 2);
+    final int minute = digits(start + 3, 2);
+    final int second = digits(start + 6, 2);
+    if (hour < 0 || hour > 23 || minute < 0 || minute > 59
+        || second < 0 || second > 59
+        || buffer.get(start + 2) != ':' || buffer.get(start + 5) != ':') {
+      return -1;
+    }
+    return (int) ((hour * 3600L + minute * 60L + second) * 1000L);
+  }
+
+  /** Parses a fixed number of decimal digits, or returns -1 if any is not a
+   * digit. */
+  private int digits(int start, int n) {
+    int v = 0;
+    for (int i = start; i < start + n; i++) {
+      final int d = buffer.get(i) - '0';
+      if (d < 0 || d > 9) {
+        return -1;
+      }
+      v = v * 10 + d;
+    }
+    return v;
+  }
+
+  /** Decodes bytes of the current window as UTF-8. */
+  private String decode(int start, int end) {
+    final int length = end - start;
+    if (scratch.length < length) {
+      scratch = new byte[Math.max(length, scratch.length * 2)];
+    }
+    for (int i = 0; i < length; i++) {
+      scratch[i] = buffer.get(start + i);
+    }
+    return new String(scratch, 0, length, StandardCharsets.UTF_8);
+  }
+}
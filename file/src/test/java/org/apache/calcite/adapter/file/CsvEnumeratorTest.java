@@ -16,16 +16,37 @@
  */
 package org.apache.calcite.adapter.file;
 
+import org.apache.calcite.adapter.java.JavaTypeFactory;
+import org.apache.calcite.jdbc.JavaTypeFactoryImpl;
+import org.apache.calcite.linq4j.Enumerator;
+import org.apache.calcite.rel.type.RelDataType;
+import org.apache.calcite.sql.type.SqlTypeName;
+import org.apache.calcite.util.ImmutableIntList;
+import org.apache.calcite.util.Sources;
+
+import com.google.common.collect.ImmutableList;
+
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
+import java.io.File;
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.sameInstance;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 
 /**
- * Test for the {@link CsvEnumerator}.
+ * Test for the {@link CsvEnumerator} and {@link MappedCsvEnumerator}.
  */
 @SuppressWarnings("SameParameterValue")
 class CsvEnumeratorTest {
@@ -57,4 +78,171 @@ private static void checkThrows(int precision, int scale, String s) {
     assertThrows(IllegalArgumentException.class,
         () -> CsvEnumerator.parseDecimal(precision, scale, s));
   }
+
+  /** Checks that {@link MappedCsvEnumerator} reads the same rows as
+   * {@link CsvEnumerator}, including lines that need OpenCSV to parse them,
+   * values that are not in canonical form, and windows so small that lines
+   * cross them. */
+  @Test void testMappedCsvEnumerator(@TempDir Path dir) throws Exception {
+    final String csv = "ID:int,NAME:string,B:boolean,D:date,T:time,"
+        + "TS:timestamp,L:long,X:double\n"
+        + "1,Fred,true,2001-02-03,04:05:06,2001-02-03 04:05:06,123,1.5\n"
+        + "-2,\"Wilma, Jr.\",TRUE,2001-02-31,23:59:59,"
+        + "1969-12-31 23:59:59,-9223372036854775808,-0.5\r\n"
+        + "+3,,false,1500-01-01,,,,\r"
+        + "4,\"say \"\"hi\"\"\",tRuE,,,,0042,1e3\n"
+        + "5,\"two\nlines\",yes,2001-2-3,4:05:06,2001-02-03 04:05,,\n"
+        + "6,back\\slash,,2020-12-31,00:00:00,2020-12-31 00:00:00,7,\n"
+        + "7,\"\",false,,,,,\n"
+        + "8,\"x\",\"true\",\"2020-01-01\",,,,\n"
+        + "9,caf\u00e9,false,2020-01-01,12:00:00,2020-01-01 12:00:00,9,9";
+    final File file = dir.resolve("test.csv").toFile();
+    Files.write(file.toPath(), csv.getBytes(StandardCharsets.UTF_8));
+
+    final JavaTypeFactory typeFactory = new JavaTypeFactoryImpl();
+    final List<RelDataType> fieldTypes = new ArrayList<>();
+    for (SqlTypeName typeName
+        : Arrays.asList(SqlTypeName.INTEGER, SqlTypeName.VARCHAR,
+            SqlTypeName.BOOLEAN, SqlTypeName.DATE, SqlTypeName.TIME,
+            SqlTypeName.TIMESTAMP, SqlTypeName.BIGINT, SqlTypeName.DOUBLE)) {
+      fieldTypes.add(
+          typeFactory.createTypeWithNullability(
+              typeFactory.createSqlType(typeName), true));
+    }
+    for (List<Integer> fields
+        : Arrays.<List<Integer>>asList(ImmutableList.of(0, 1, 2, 3, 4, 5, 6, 7),
+            ImmutableList.of(5, 1), ImmutableList.of(3))) {
+      final List<String> expected =
+          rows(
+              new CsvEnumerator<>(Sources.of(file), new AtomicBoolean(),
+                  fieldTypes, fields));
+      assertThat(expected.size(), is(9));
+      for (int mapSize : new int[] {7, 64, MappedCsvEnumerator.DEFAULT_MAP_SIZE}) {
+        final List<String> actual =
+            rows(
+                new MappedCsvEnumerator<>(file, new AtomicBoolean(),
+                    fieldTypes, fields, ImmutableList.of(), 0, file.length(),
+                    mapSize));
+        assertThat(actual, is(expected));
+      }
+    }
+  }
+
+  /** Checks that {@link CompiledRowConverter} converts rows as
+   * {@link CsvEnumerator.ArrayRowConverter} does, for each type. */
+  @Test void testCompiledRowConverter() {
+    final JavaTypeFactory typeFactory = new JavaTypeFactoryImpl();
+    final List<RelDataType> fieldTypes = new ArrayList<>();
+    for (SqlTypeName typeName
+        : Arrays.asList(SqlTypeName.BOOLEAN, SqlTypeName.TINYINT,
+            SqlTypeName.SMALLINT, SqlTypeName.INTEGER, SqlTypeName.BIGINT,
+            SqlTypeName.REAL, SqlTypeName.DOUBLE, SqlTypeName.DATE,
+            SqlTypeName.TIME, SqlTypeName.TIMESTAMP, SqlTypeName.VARCHAR)) {
+      fieldTypes.add(typeFactory.createSqlType(typeName));
+    }
+    fieldTypes.add(typeFactory.createSqlType(SqlTypeName.DECIMAL, 5, 2));
+    final List<String[]> rows =
+        Arrays.asList(
+            new String[] {"true", "1", "-2", "3", "4", "1.5", "-2.5",
+                "2001-02-03", "04:05:06", "2001-02-03 04:05:06", "abc",
+                "123.456"},
+            new String[] {"TRUE", "+1", "0", "-2147483648",
+                "9223372036854775807", "1e3", "NaN", "not a date", "",
+                "2001-02-03", "", "-0.5"},
+            new String[] {"", "", "", "", "", "", "", "", "", "", "", ""},
+            new String[12]);
+    for (List<Integer> fields
+        : Arrays.<List<Integer>>asList(
+            ImmutableList.of(0, 1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11),
+            ImmutableList.of(10, 3), ImmutableList.of(4),
+            ImmutableList.of(10))) {
+      final CompiledRowConverter compiled =
+          CompiledRowConverter.of(fieldTypes, fields);
+      final CsvEnumerator.ArrayRowConverter interpreted =
+          new CsvEnumerator.ArrayRowConverter(fieldTypes, fields, false);
+      for (String[] row : rows) {
+        final Object[] expected = interpreted.convertRow(row);
+        final Object actual = compiled.convertRow(row);
+        assertThat(actual,
+            is(fields.size() == 1 ? expected[0] : expected));
+      }
+    }
+
+    // Converters with the same field types and projection share a class
+    assertThat(
+        CompiledRowConverter.of(fieldTypes, ImmutableList.of(4)).function,
+        sameInstance(
+            CompiledRowConverter.of(fieldTypes, ImmutableList.of(4))
+                .function));
+  }
+
+  /** Checks that {@link CsvParallelScan} splits a file at record
+   * boundaries, even if a quoted field contains a line break, and returns
+   * the same rows as a sequential scan. */
+  @Test void testParallelScan(@TempDir Path dir) throws Exception {
+    final StringBuilder csv = new StringBuilder("ID:int,NAME:string\n");
+    for (int i = 0; i < 500; i++) {
+      csv.append(i).append(',');
+      switch (i % 4) {
+      case 0:
+        csv.append("\"line\nbreak ").append(i).append('"');
+        break;
+      case 1:
+        csv.append("\"quote \\\" ").append(i).append('"');
+        break;
+      default:
+        csv.append("name ").append(i);
+      }
+      csv.append(i % 3 == 0 ? "\r\n" : "\n");
+    }
+    final File file = dir.resolve("test.csv").toFile();
+    Files.write(file.toPath(),
+        csv.toString().getBytes(StandardCharsets.UTF_8));
+
+    final long[] boundaries = CsvParallelScan.split(file, 100);
+    assertThat(boundaries.length > 50, is(true));
+    assertThat(boundaries[0], is(0L));
+    assertThat(boundaries[boundaries.length - 1], is(file.length()));
+
+    final JavaTypeFactory typeFactory = new JavaTypeFactoryImpl();
+    final List<RelDataType> fieldTypes =
+        ImmutableList.of(typeFactory.createSqlType(SqlTypeName.INTEGER),
+            typeFactory.createSqlType(SqlTypeName.VARCHAR));
+    final ImmutableIntList fields = ImmutableIntList.of(0, 1);
+    final List<String> expected =
+        rows(
+            new CsvEnumerator<>(Sources.of(file), new AtomicBoolean(),
+                fieldTypes, fields));
+    assertThat(expected.size(), is(500));
+    assertThat(expected.get(4), is("[4, line\nbreak 4]"));
+    final List<String> ordered =
+        rows(
+            new CsvParallelScan(file, boundaries, 4, true,
+                new AtomicBoolean(), fieldTypes, fields, ImmutableList.of())
+                .enumerator());
+    assertThat(ordered, is(expected));
+    final List<String> unordered =
+        new ArrayList<>(
+            rows(
+                new CsvParallelScan(file, boundaries, 4, false,
+                    new AtomicBoolean(), fieldTypes, fields, ImmutableList.of())
+                    .enumerator()));
+    Collections.sort(unordered);
+    final List<String> sorted = new ArrayList<>(expected);
+    Collections.sort(sorted);
+    assertThat(unordered, is(sorted));
+  }
+
+  private static List<String> rows(Enumerator<Object> enumerator) {
+    final List<String> rows = new ArrayList<>();
+    try (Enumerator<Object> e = enumerator) {
+      while (e.moveNext()) {
+        final Object row = e.current();
+        rows.add(row instanceof Object[]
+            ? Arrays.toString((Object[]) row)
+            : String.valueOf(row));
+      }
+    }
+    return rows;
+  }
 }
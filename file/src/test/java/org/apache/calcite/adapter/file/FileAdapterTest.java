@@ -19,6 +19,7 @@
 import org.apache.calcite.jdbc.CalciteConnection;
 import org.apache.calcite.schema.Schema;
 import org.apache.calcite.sql2rel.SqlToRelConverter;
+import org.apache.calcite.util.ImmutableBitSet;
 import org.apache.calcite.util.TestUtil;
 
 import com.google.common.collect.ImmutableMap;
@@ -26,10 +27,15 @@
 import org.junit.jupiter.api.Disabled;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.MethodSource;
 
+import java.io.File;
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.sql.Connection;
 import java.sql.Date;
 import java.sql.DriverManager;
@@ -41,6 +47,7 @@
 import java.sql.Time;
 import java.sql.Timestamp;
 import java.sql.Types;
+import java.util.Arrays;
 import java.util.Properties;
 import java.util.function.Consumer;
 import java.util.stream.Stream;
@@ -50,6 +57,7 @@
 import static org.hamcrest.CoreMatchers.equalTo;
 import static org.hamcrest.CoreMatchers.is;
 import static org.hamcrest.CoreMatchers.isA;
+import static org.hamcrest.CoreMatchers.notNullValue;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 
@@ -265,6 +273,120 @@ private static void checkEmpty(ResultSet resultSet) {
         .ok();
   }
 
+  /** Reads newline-delimited JSON, whose rows may have fields in a different
+   * order, fields missing, or fields not in the row type, and a JSON array of
+   * rows. */
+  @Test void testJsonStream(@TempDir Path dir) throws Exception {
+    Files.write(dir.resolve("T.json"),
+        Arrays.asList(
+            "{\"ID\": 1, \"NAME\": \"a\", \"TAGS\": [\"x\", \"y\"]}",
+            "{\"NAME\": \"b\", \"ID\": 2, \"TAGS\": [],"
+                + " \"EXTRA\": {\"DEEP\": [1, {\"X\": 2}]}}",
+            "",
+            "{\"TAGS\": [\"z\"], \"ID\": 3}"),
+        StandardCharsets.UTF_8);
+    Files.write(dir.resolve("U.json"),
+        Arrays.asList("[ {'ID': 10}, {'ID': 20},", "{'ID': 30} ]"),
+        StandardCharsets.UTF_8);
+    final Properties info = new Properties();
+    info.put("model",
+        "inline:"
+            + "{\n"
+            + "  version: '1.0',\n"
+            + "  defaultSchema: 'S',\n"
+            + "  schemas: [ {\n"
+            + "    type: 'custom',\n"
+            + "    name: 'S',\n"
+            + "    factory: 'org.apache.calcite.adapter.file.FileSchemaFactory',\n"
+            + "    operand: {\n"
+            + "      directory: '" + dir.toAbsolutePath().toString()
+            .replace("\\", "\\\\").replace("'", "\\'") + "'\n"
+            + "    }\n"
+            + "  } ]\n"
+            + "}");
+    try (Connection connection =
+             DriverManager.getConnection("jdbc:calcite:", info);
+         Statement statement = connection.createStatement()) {
+      try (ResultSet resultSet =
+               statement.executeQuery("select name, id from t")) {
+        assertThat(FileAdapterTests.toString(resultSet),
+            is("NAME=a; ID=1\nNAME=b; ID=2\nNAME=null; ID=3\n"));
+      }
+      try (ResultSet resultSet =
+               statement.executeQuery("select tags from t where id > 1")) {
+        assertThat(FileAdapterTests.toString(resultSet),
+            is("TAGS=[]\nTAGS=[z]\n"));
+      }
+      try (ResultSet resultSet =
+               statement.executeQuery("select sum(id) as s from u")) {
+        assertThat(FileAdapterTests.toString(resultSet), is("S=60\n"));
+      }
+    }
+  }
+
+  /** Tests a schema whose CSV files are cached. The first scan of a file
+   * fills the cache, which then knows the statistics of each column; a change
+   * to the file invalidates the cache. */
+  @Test void testCsvCache(@TempDir Path dir) throws Exception {
+    final File file = dir.resolve("T.csv").toFile();
+    Files.write(file.toPath(),
+        Arrays.asList("ID:int,NAME:string", "3,b", "1,a", "2,b"),
+        StandardCharsets.UTF_8);
+    final Properties info = new Properties();
+    info.put("model",
+        "inline:"
+            + "{\n"
+            + "  version: '1.0',\n"
+            + "  defaultSchema: 'S',\n"
+            + "  schemas: [ {\n"
+            + "    type: 'custom',\n"
+            + "    name: 'S',\n"
+            + "    factory: 'org.apache.calcite.adapter.file.FileSchemaFactory',\n"
+            + "    operand: {\n"
+            + "      directory: '" + dir.toAbsolutePath().toString()
+            .replace("\\", "\\\\").replace("'", "\\'") + "',\n"
+            + "      cache: true\n"
+            + "    }\n"
+            + "  } ]\n"
+            + "}");
+    try (Connection connection =
+             DriverManager.getConnection("jdbc:calcite:", info);
+         Statement statement = connection.createStatement()) {
+      final String sql = "select name, id from t order by id";
+      try (ResultSet resultSet = statement.executeQuery(sql)) {
+        assertThat(FileAdapterTests.toString(resultSet),
+            is("NAME=a; ID=1\nNAME=b; ID=2\nNAME=b; ID=3\n"));
+      }
+      final CsvCache.Columns columns =
+          CsvCache.INSTANCE.columnsIfPresent(file);
+      assertThat(columns, notNullValue());
+      assertThat(columns.rowCount, is(3));
+      final CsvCache.Column id = columns.columns.get(0);
+      assertThat(id.min, is(1));
+      assertThat(id.max, is(3));
+      assertThat(id.distinctCount, is(3));
+      assertThat(columns.columns.get(1).distinctCount, is(2));
+      assertThat(columns.statistic().isKey(ImmutableBitSet.of(0)), is(true));
+      assertThat(columns.statistic().isKey(ImmutableBitSet.of(1)), is(false));
+
+      // Served from the cache
+      try (ResultSet resultSet = statement.executeQuery(sql)) {
+        assertThat(FileAdapterTests.toString(resultSet),
+            is("NAME=a; ID=1\nNAME=b; ID=2\nNAME=b; ID=3\n"));
+      }
+
+      // A change to the file invalidates the cache
+      Files.write(file.toPath(),
+          Arrays.asList("ID:int,NAME:string", "3,b", "1,a", "2,b", "4,c"),
+          StandardCharsets.UTF_8);
+      assertThat(CsvCache.INSTANCE.columnsIfPresent(file) == null, is(true));
+      try (ResultSet resultSet = statement.executeQuery(sql)) {
+        assertThat(FileAdapterTests.toString(resultSet),
+            is("NAME=a; ID=1\nNAME=b; ID=2\nNAME=b; ID=3\nNAME=c; ID=4\n"));
+      }
+    }
+  }
+
   /** Tests an inline schema with a non-existent directory. */
   @Test void testBadDirectory() throws SQLException {
     Properties info = new Properties();
@@ -353,6 +475,41 @@ private static void checkEmpty(ResultSet resultSet) {
         .ok();
   }
 
+  /** Tests that conditions are pushed into the scan of a compressed file,
+   * which is read by {@link CsvEnumerator}, and of an uncompressed file,
+   * which is mapped. */
+  @Test void testPushDownFilter() {
+    final String sql = "select name from EMPS\n"
+        + "where deptno in (10, 20) and age > 20";
+    sql("smart", "explain plan for " + sql)
+        .returns("PLAN=CsvTableScan(table=[[SALES, EMPS]], fields=[[1]], "
+            + "filters=[[IN($2, 10, 20), >($6, 20)]])\n")
+        .ok();
+    sql("smart", sql)
+        .returnsUnordered("NAME=Fred", "NAME=Eric")
+        .ok();
+    sql("smart", "select name from EMPS where age is null")
+        .returnsUnordered("NAME=John", "NAME=Alice")
+        .ok();
+    sql("smart", "select name from EMPS where gender <> 'M'")
+        .returnsUnordered("NAME=Fred", "NAME=Wilma", "NAME=Alice")
+        .ok();
+    sql("smart", "select name from EMPS\n"
+        + "where joinedat > date '2002-01-01' and name <> 'Wilma'")
+        .returnsUnordered("NAME=John", "NAME=Alice")
+        .ok();
+    sql("smart", "select name from DEPTS where deptno >= 20")
+        .returnsUnordered("NAME=Marketing", "NAME=Accounts")
+        .ok();
+    sql("smart", "select deptno from DEPTS where 20 > deptno")
+        .returnsUnordered("DEPTNO=10")
+        .ok();
+    sql("smart", "select deptno from DEPTS where name = 'Sales'\n"
+        + "or name = 'Accounts'")
+        .returnsUnordered("DEPTNO=10", "DEPTNO=30")
+        .ok();
+  }
+
   @ParameterizedTest
   @MethodSource("explainFormats")
   void testPushDownProjectAggregate(String format) {
@@ -386,21 +543,17 @@ void testPushDownProjectAggregateWithFilter(String format) {
     switch (format) {
     case "dot":
       expected = "PLAN=digraph {\n"
-          + "\"EnumerableCalc\\nexpr#0..1 = {inputs}\\nexpr#2 = 'F':VARCHAR\\nexpr#3 = =($t1, $t2)"
-          + "\\nproj#0..1 = {exprs}\\n$condition = $t3\" -> \"EnumerableAggregate\\ngroup = "
-          + "{}\\nEXPR$0 = MAX($0)\\n\" [label=\"0\"]\n"
-          + "\"CsvTableScan\\ntable = [SALES, EMPS\\n]\\nfields = [0, 3]\\n\" -> "
-          + "\"EnumerableCalc\\nexpr#0..1 = {inputs}\\nexpr#2 = 'F':VARCHAR\\nexpr#3 = =($t1, $t2)"
-          + "\\nproj#0..1 = {exprs}\\n$condition = $t3\" [label=\"0\"]\n"
+          + "\"CsvTableScan\\ntable = [SALES, EMPS\\n]\\nfields = [0]\\n"
+          + "filters = [=($3, 'F'\\n)]\\n\" -> "
+          + "\"EnumerableAggregate\\ngroup = {}\\nEXPR$0 = MAX($0)\\n\" [label=\"0\"]\n"
           + "}\n";
       extra = " as dot ";
       break;
     case "text":
       expected = "PLAN="
           + "EnumerableAggregate(group=[{}], EXPR$0=[MAX($0)])\n"
-          + "  EnumerableCalc(expr#0..1=[{inputs}], expr#2=['F':VARCHAR], "
-          + "expr#3=[=($t1, $t2)], proj#0..1=[{exprs}], $condition=[$t3])\n"
-          + "    CsvTableScan(table=[[SALES, EMPS]], fields=[[0, 3]])\n";
+          + "  CsvTableScan(table=[[SALES, EMPS]], fields=[[0]], "
+          + "filters=[[=($3, 'F')]])\n";
       extra = "";
       break;
     }
@@ -0,0 +1,159 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.calcite.adapter.geode.rel;
+
+import org.apache.calcite.adapter.enumerable.EnumerableRel;
+import org.apache.calcite.adapter.enumerable.EnumerableRelImplementor;
+import org.apache.calcite.adapter.enumerable.JavaRowFormat;
+import org.apache.calcite.adapter.enumerable.PhysType;
+import org.apache.calcite.adapter.enumerable.PhysTypeImpl;
+import org.apache.calcite.linq4j.Enumerable;
+import org.apache.calcite.linq4j.tree.BlockBuilder;
+import org.apache.calcite.linq4j.tree.Expression;
+import org.apache.calcite.linq4j.tree.Expressions;
+import org.apache.calcite.linq4j.tree.Types;
+import org.apache.calcite.plan.RelOptCluster;
+import org.apache.calcite.plan.RelOptCost;
+import org.apache.calcite.plan.RelOptPlanner;
+import org.apache.calcite.plan.RelOptTable;
+import org.apache.calcite.plan.RelTraitSet;
+import org.apache.calcite.rel.RelNode;
+import org.apache.calcite.rel.RelWriter;
+import org.apache.calcite.rel.core.Join;
+import org.apache.calcite.rel.core.JoinRelType;
+import org.apache.calcite.rel.metadata.RelMetadataQuery;
+import org.apache.calcite.rex.RexNode;
+import org.apache.calcite.util.BuiltInMethod;
+import org.apache.calcite.util.Util;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+import java.lang.reflect.Method;
+import java.util.List;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * Implementation of {@link Join} in enumerable calling convention whose right
+ * input is a Geode region, and whose condition equates a column of the left
+ * input with the key of the region.
+ *
+ * <p>Rather than scanning the region, it reads the left input in batches,
+ * and fetches the matching entries of each batch with one call to
+ * {@link org.apache.geode.cache.Region#getAll}. Only the fields of the right
+ * input are decoded from each entry.
+ *
+ * <p>The right input is not executed; it describes the fields that are read
+ * from the region. Because it is an input, the planner nevertheless adds the
+ * cost of scanning the region to the cost of this join. Every other
+ * implementation of the join reads the same input, so the charge does not
+ * change which one is chosen; the cost of the join itself, which decides,
+ * is that of the calls to {@code getAll}.
+ */
+public class GeodeKeyJoin extends Join implements EnumerableRel {
+  /** Reference to the method {@link GeodeTable.GeodeQueryable#lookup}. */
+  private static final Method GEODE_LOOKUP_METHOD =
+      Types.lookupMethod(GeodeTable.GeodeQueryable.class, "lookup",
+          Enumerable.class, int.class, List.class,
+          boolean.class);
+
+  private final RelOptTable table;
+  /** Names of the fields of the region that make up the right input. */
+  private final ImmutableList<String> fieldNames;
+
+  /** Creates a GeodeKeyJoin.
+   *
+   * @param cluster    Cluster
+   * @param traitSet   Traits
+   * @param left       Left input
+   * @param right      Right input, a scan of {@code table} or a projection
+   *                   of its fields
+   * @param condition  Join condition, an equality between a column of the
+   *                   left input and the key field of the region
+   * @param joinType   Join type, INNER or LEFT
+   * @param table      Table of the region
+   * @param fieldNames Names of the region fields read for the right input
+   */
+  GeodeKeyJoin(RelOptCluster cluster, RelTraitSet traitSet, RelNode left,
+      RelNode right, RexNode condition, JoinRelType joinType,
+      RelOptTable table, List<String> fieldNames) {
+    super(cluster, traitSet, ImmutableList.of(), left, right, condition,
+        ImmutableSet.of(), joinType);
+    this.table = table;
+    this.fieldNames = ImmutableList.copyOf(fieldNames);
+    checkArgument(joinType == JoinRelType.INNER
+        || joinType == JoinRelType.LEFT, "joinType");
+    checkArgument(joinInfo.isEqui() && joinInfo.leftKeys.size() == 1,
+        "condition");
+  }
+
+  @Override public GeodeKeyJoin copy(RelTraitSet traitSet, RexNode condition,
+      RelNode left, RelNode right, JoinRelType joinType,
+      boolean semiJoinDone) {
+    return new GeodeKeyJoin(getCluster(), traitSet, left, right, condition,
+        joinType, table, fieldNames);
+  }
+
+  @Override public RelWriter explainTerms(RelWriter pw) {
+    return super.explainTerms(pw)
+        .item("region", table.getQualifiedName());
+  }
+
+  @Override public @Nullable RelOptCost computeSelfCost(RelOptPlanner planner,
+      RelMetadataQuery mq) {
+    // One call to getAll per batch of rows of the left input, plus the rows
+    // produced; the entries of the region that do not match are never read.
+    // The planner adds the cost of the left input.
+    final double leftRowCount = mq.getRowCount(left);
+    final double getAllCount =
+        Math.ceil(leftRowCount / GeodeLookupEnumerator.BATCH_SIZE);
+    return planner.getCostFactory()
+        .makeCost(mq.getRowCount(this) + getAllCount, leftRowCount,
+            getAllCount);
+  }
+
+  @Override public Result implement(EnumerableRelImplementor implementor,
+      Prefer pref) {
+    final BlockBuilder builder = new BlockBuilder();
+    final Result leftResult =
+        implementor.visitChild(this, 0, (EnumerableRel) left, pref);
+    final Expression leftExpression =
+        builder.append("left", leftResult.block);
+    final Expression rows =
+        builder.append("rows",
+            leftResult.physType.convertTo(leftExpression,
+                JavaRowFormat.ARRAY));
+    final PhysType physType =
+        PhysTypeImpl.of(implementor.getTypeFactory(), getRowType(),
+            JavaRowFormat.ARRAY, false);
+    builder.add(
+        Expressions.return_(null,
+            Expressions.call(
+                table.getExpression(GeodeTable.GeodeQueryable.class),
+                GEODE_LOOKUP_METHOD,
+                rows,
+                Expressions.constant(joinInfo.leftKeys.get(0)),
+                Expressions.call(BuiltInMethod.ARRAYS_AS_LIST.method,
+                    Expressions.newArrayInit(String.class,
+                        Util.transform(fieldNames, Expressions::constant))),
+                Expressions.constant(joinType == JoinRelType.LEFT))));
+    return implementor.result(physType, builder.toBlock());
+  }
+}
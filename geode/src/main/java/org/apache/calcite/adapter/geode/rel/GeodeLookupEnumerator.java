@@ -0,0 +1,156 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.calcite.adapter.geode.rel;
+
+import org.apache.calcite.linq4j.Enumerator;
+import org.apache.calcite.linq4j.tree.Primitive;
+import org.apache.calcite.rel.type.RelDataTypeField;
+
+import org.apache.geode.cache.Region;
+
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+import java.lang.reflect.Type;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.apache.calcite.adapter.geode.util.GeodeUtils.convertToRowValues;
+
+/**
+ * Enumerator that joins rows with the entries of a Geode region, fetching
+ * the entries for a batch of rows with one call to {@link Region#getAll}.
+ */
+class GeodeLookupEnumerator implements Enumerator<Object> {
+  /** Number of rows of the left input whose keys are fetched together. */
+  static final int BATCH_SIZE = 1_000;
+
+  private final Enumerator<Object[]> left;
+  private final int leftKey;
+  private final Region<Object, Object> region;
+  private final @Nullable Primitive keyPrimitive;
+  private final List<RelDataTypeField> fields;
+  private final boolean outer;
+  private final Deque<Object[]> rows = new ArrayDeque<>();
+  private boolean leftDone;
+  private Object @Nullable [] current;
+
+  /**
+   * Creates a GeodeLookupEnumerator.
+   *
+   * @param left    Rows to join
+   * @param leftKey Ordinal of the column whose value is a key of the region
+   * @param region  Region
+   * @param keyType Java type of the keys of the region; a numeric value
+   *                is converted to it before it is looked up
+   * @param fields  Fields of the region to append to each row
+   * @param outer   Whether to keep a row that has no entry
+   */
+  GeodeLookupEnumerator(Enumerator<Object[]> left, int leftKey,
+      Region<Object, Object> region, Type keyType,
+      List<RelDataTypeField> fields, boolean outer) {
+    this.left = left;
+    this.leftKey = leftKey;
+    this.region = region;
+    final Primitive primitive = Primitive.ofBoxOr(keyType);
+    this.keyPrimitive =
+        primitive != null && primitive.isNumeric() ? primitive : null;
+    this.fields = fields;
+    this.outer = outer;
+  }
+
+  @Override public Object current() {
+    if (current == null) {
+      throw new IllegalStateException();
+    }
+    return current;
+  }
+
+  @Override public boolean moveNext() {
+    while (rows.isEmpty()) {
+      if (leftDone) {
+        current = null;
+        return false;
+      }
+      fetch();
+    }
+    current = rows.remove();
+    return true;
+  }
+
+  /** Reads the next batch of rows from the left input, and joins them with
+   * the entries that have their keys. */
+  private void fetch() {
+    final List<Object[]> batch = new ArrayList<>();
+    final Set<Object> keys = new LinkedHashSet<>();
+    while (batch.size() < BATCH_SIZE) {
+      if (!left.moveNext()) {
+        leftDone = true;
+        break;
+      }
+      final Object[] row = left.current();
+      batch.add(row);
+      final Object key = key(row);
+      if (key != null) {
+        keys.add(key);
+      }
+    }
+    if (batch.isEmpty()) {
+      return;
+    }
+    final Map<Object, Object> entries = region.getAll(keys);
+    for (Object[] row : batch) {
+      final Object key = key(row);
+      final Object value = key == null ? null : entries.get(key);
+      if (value == null && !outer) {
+        continue;
+      }
+      final Object[] joined = new Object[row.length + fields.size()];
+      System.arraycopy(row, 0, joined, 0, row.length);
+      if (value != null) {
+        final Object values = convertToRowValues(fields, value);
+        if (fields.size() == 1) {
+          joined[row.length] = values;
+        } else {
+          final Object[] array = (Object[]) values;
+          System.arraycopy(array, 0, joined, row.length, array.length);
+        }
+      }
+      rows.add(joined);
+    }
+  }
+
+  private @Nullable Object key(Object[] row) {
+    final Object key = row[leftKey];
+    if (key instanceof Number && keyPrimitive != null) {
+      return keyPrimitive.number((Number) key);
+    }
+    return key;
+  }
+
+  @Override public void reset() {
+    throw new UnsupportedOperationException();
+  }
+
+  @Override public void close() {
+    left.close();
+  }
+}
@@ -16,6 +16,7 @@
  */
 package org.apache.calcite.adapter.geode.rel;
 
+import org.apache.calcite.adapter.enumerable.EnumerableConvention;
 import org.apache.calcite.plan.Convention;
 import org.apache.calcite.plan.RelOptRule;
 import org.apache.calcite.plan.RelOptRuleCall;
@@ -25,9 +26,12 @@
 import org.apache.calcite.rel.RelCollations;
 import org.apache.calcite.rel.RelNode;
 import org.apache.calcite.rel.convert.ConverterRule;
+import org.apache.calcite.rel.core.JoinInfo;
+import org.apache.calcite.rel.core.JoinRelType;
 import org.apache.calcite.rel.core.Sort;
 import org.apache.calcite.rel.logical.LogicalAggregate;
 import org.apache.calcite.rel.logical.LogicalFilter;
+import org.apache.calcite.rel.logical.LogicalJoin;
 import org.apache.calcite.rel.logical.LogicalProject;
 import org.apache.calcite.rel.type.RelDataType;
 import org.apache.calcite.rex.RexCall;
@@ -61,6 +65,8 @@ public class GeodeRules {
       GeodeFilterRule.INSTANCE,
       GeodeProjectRule.INSTANCE,
       GeodeAggregateRule.INSTANCE,
+      GeodeKeyJoinRule.INSTANCE,
+      GeodeKeyJoinRule.PROJECT_INSTANCE,
   };
 
 
@@ -395,6 +401,94 @@ public interface GeodeFilterRuleConfig extends RelRule.Config {
     }
   }
 
+  /**
+   * Rule to convert a {@link LogicalJoin} whose right input is a Geode region,
+   * and whose condition equates a column of the left input with the key
+   * field of the region, to a {@link GeodeKeyJoin}.
+   *
+   * <p>Fires only for a region whose key field is declared in the schema.
+   */
+  public static class GeodeKeyJoinRule
+      extends RelRule<GeodeKeyJoinRule.GeodeKeyJoinRuleConfig> {
+
+    /** Matches a join whose right input is a scan. */
+    private static final GeodeKeyJoinRule INSTANCE =
+        ImmutableGeodeKeyJoinRuleConfig.builder()
+            .withOperandSupplier(b0 ->
+                b0.operand(LogicalJoin.class).inputs(
+                    b1 -> b1.operand(RelNode.class).anyInputs(),
+                    b2 -> b2.operand(GeodeTableScan.class).noInputs()))
+            .build()
+            .toRule();
+
+    /** Matches a join whose right input projects fields of a scan. */
+    private static final GeodeKeyJoinRule PROJECT_INSTANCE =
+        ImmutableGeodeKeyJoinRuleConfig.builder()
+            .withOperandSupplier(b0 ->
+                b0.operand(LogicalJoin.class).inputs(
+                    b1 -> b1.operand(RelNode.class).anyInputs(),
+                    b2 -> b2.operand(LogicalProject.class).oneInput(b3 ->
+                        b3.operand(GeodeTableScan.class).noInputs())))
+            .build()
+            .toRule();
+
+    /** Creates a GeodeKeyJoinRule. */
+    protected GeodeKeyJoinRule(GeodeKeyJoinRuleConfig config) {
+      super(config);
+    }
+
+    @Override public void onMatch(RelOptRuleCall call) {
+      final LogicalJoin join = call.rel(0);
+      final RelNode right = call.rel(2);
+      final GeodeTableScan scan = call.rel(call.rels.length - 1);
+      final String keyField = scan.geodeTable.keyField;
+      if (keyField == null
+          || join.getJoinType() != JoinRelType.INNER
+              && join.getJoinType() != JoinRelType.LEFT
+          || !join.getVariablesSet().isEmpty()) {
+        return;
+      }
+      final JoinInfo joinInfo = join.analyzeCondition();
+      if (!joinInfo.isEqui() || joinInfo.leftKeys.size() != 1) {
+        return;
+      }
+
+      // Names of the fields of the region that make up the right input
+      final List<String> scanFieldNames = geodeFieldNames(scan.getRowType());
+      final List<String> fieldNames = new ArrayList<>();
+      if (right instanceof LogicalProject) {
+        for (RexNode e : ((LogicalProject) right).getProjects()) {
+          if (!(e instanceof RexInputRef)) {
+            return;
+          }
+          fieldNames.add(scanFieldNames.get(((RexInputRef) e).getIndex()));
+        }
+      } else {
+        fieldNames.addAll(scanFieldNames);
+      }
+      if (!keyField.equals(fieldNames.get(joinInfo.rightKeys.get(0)))) {
+        return;
+      }
+
+      final RelTraitSet traitSet =
+          join.getTraitSet().replace(EnumerableConvention.INSTANCE);
+      call.transformTo(
+          new GeodeKeyJoin(join.getCluster(), traitSet,
+              convert(join.getLeft(), EnumerableConvention.INSTANCE),
+              convert(right, GeodeRel.CONVENTION),
+              join.getCondition(), join.getJoinType(), scan.getTable(),
+              fieldNames));
+    }
+
+    /** Rule configuration. */
+    @Value.Immutable(singleton = false)
+    public interface GeodeKeyJoinRuleConfig extends RelRule.Config {
+      @Override default GeodeKeyJoinRule toRule() {
+        return new GeodeKeyJoinRule(this);
+      }
+    }
+  }
+
   /**
    * Base class for planner rules that convert a relational
    * expression to Geode calling convention.
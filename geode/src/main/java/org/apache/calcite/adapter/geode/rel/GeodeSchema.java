@@ -38,12 +38,28 @@ public class GeodeSchema extends AbstractSchema {
 
   final GemFireCache cache;
   private final List<String> regionNames;
+  private final Map<String, String> keyFields;
   private ImmutableMap<String, Table> tableMap;
 
   public GeodeSchema(final GemFireCache gemFireCache, final Iterable<String> regionNames) {
+    this(gemFireCache, regionNames, ImmutableMap.of());
+  }
+
+  /**
+   * Creates a GeodeSchema.
+   *
+   * @param gemFireCache Geode cache
+   * @param regionNames  Names of the regions to map to tables
+   * @param keyFields    Map from region name to the name of the field whose
+   *                     value is the key of each entry; a join on that field
+   *                     fetches entries by key
+   */
+  public GeodeSchema(final GemFireCache gemFireCache, final Iterable<String> regionNames,
+      final Map<String, String> keyFields) {
     super();
     this.cache = requireNonNull(gemFireCache, "gemFireCache");
     this.regionNames = ImmutableList.copyOf(regionNames);
+    this.keyFields = ImmutableMap.copyOf(keyFields);
   }
 
   @Override protected Map<String, Table> getTableMap() {
@@ -54,7 +70,7 @@ public GeodeSchema(final GemFireCache gemFireCache, final Iterable<String> regio
 
       for (String regionName : regionNames) {
         Region region = GeodeUtils.createRegion(cache, regionName);
-        Table table = new GeodeTable(region);
+        Table table = new GeodeTable(region, keyFields.get(regionName));
         builder.put(regionName, table);
       }
 
@@ -23,6 +23,7 @@
 import org.apache.calcite.schema.SchemaPlus;
 
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
 
 import java.util.Arrays;
 import java.util.Map;
@@ -40,6 +41,9 @@ public class GeodeSchemaFactory implements SchemaFactory {
   public static final String REGIONS = "regions";
   public static final String PDX_SERIALIZABLE_PACKAGE_PATH = "pdxSerializablePackagePath";
   public static final String ALLOW_SPATIAL_FUNCTIONS = "spatialFunction";
+  /** Operand that declares, for some regions, the field whose value is the
+   * key of each entry, as a list of "region:field" pairs. */
+  public static final String KEY_FIELDS = "keyFields";
   public static final String COMMA_DELIMITER = ",";
 
   public GeodeSchemaFactory() {
@@ -64,8 +68,16 @@ public GeodeSchemaFactory() {
           SpatialTypeFunctions.class.getName(), "*", true);
     }
 
+    final ImmutableMap.Builder<String, String> keyFields = ImmutableMap.builder();
+    if (map.containsKey(KEY_FIELDS)) {
+      for (String keyField : ((String) map.get(KEY_FIELDS)).split(COMMA_DELIMITER)) {
+        final String[] pair = keyField.split(":");
+        keyFields.put(pair[0].trim(), pair[1].trim());
+      }
+    }
+
     return new GeodeSchema(
         createClientCache(locatorHost, locatorPort, pbxSerializablePackagePath, true),
-        Arrays.asList(regionNames));
+        Arrays.asList(regionNames), keyFields.build());
   }
 }
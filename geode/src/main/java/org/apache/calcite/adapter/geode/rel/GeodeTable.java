@@ -29,6 +29,7 @@
 import org.apache.calcite.rel.RelNode;
 import org.apache.calcite.rel.type.RelDataType;
 import org.apache.calcite.rel.type.RelDataTypeFactory;
+import org.apache.calcite.rel.type.RelDataTypeField;
 import org.apache.calcite.rel.type.RelDataTypeImpl;
 import org.apache.calcite.rel.type.RelProtoDataType;
 import org.apache.calcite.runtime.Hook;
@@ -50,6 +51,7 @@
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
@@ -65,11 +67,19 @@ public class GeodeTable extends AbstractQueryableTable implements TranslatableTa
 
   private final String regionName;
   private final RelDataType rowType;
+  /** Name of the field whose value is the key of each entry of the region,
+   * or null if the key is not a field. */
+  final @Nullable String keyField;
 
   GeodeTable(Region<?, ?> region) {
+    this(region, null);
+  }
+
+  GeodeTable(Region<?, ?> region, @Nullable String keyField) {
     super(Object[].class);
     this.regionName = region.getName();
     this.rowType = GeodeUtils.autodetectRelTypeFromRegion(region);
+    this.keyField = keyField;
   }
 
   @Override public String toString() {
@@ -213,6 +223,41 @@ public Enumerable<Object> query(final GemFireCache clientCache,
     };
   }
 
+  /**
+   * Joins rows with the entries of the region whose key is the value of a
+   * column of each row.
+   *
+   * <p>Called by {@link GeodeKeyJoin} via the {@link GeodeQueryable}.
+   *
+   * @param clientCache Geode client cache
+   * @param left        Rows to join
+   * @param leftKey     Ordinal of the column whose value is a key
+   * @param fieldNames  Fields of the region to append to each row
+   * @param outer       Whether to keep a row that has no entry, with null
+   *                    values for the region fields
+   * @return Enumerable of joined rows
+   */
+  public Enumerable<Object> lookup(final GemFireCache clientCache,
+      final Enumerable<Object[]> left, final int leftKey,
+      final List<String> fieldNames, final boolean outer) {
+    final RelDataTypeField keyType =
+        requireNonNull(rowType.getField(requireNonNull(keyField, "keyField"),
+            true, false));
+    final List<RelDataTypeField> fields = new ArrayList<>();
+    for (String fieldName : fieldNames) {
+      fields.add(requireNonNull(rowType.getField(fieldName, true, false)));
+    }
+    return new AbstractEnumerable<Object>() {
+      @Override public Enumerator<Object> enumerator() {
+        final Region<Object, Object> region =
+            GeodeUtils.createRegion(clientCache, regionName);
+        return new GeodeLookupEnumerator(left.enumerator(), leftKey, region,
+            new JavaTypeFactoryExtImpl().getJavaClass(keyType.getType()),
+            fields, outer);
+      }
+    };
+  }
+
   @Override public <T> Queryable<T> asQueryable(QueryProvider queryProvider,
       SchemaPlus schema, String tableName) {
     return new GeodeQueryable<>(queryProvider, schema, this, tableName);
@@ -273,5 +318,15 @@ public Enumerable<Object> query(
       return getTable().query(getClientCache(), fields, selectFields,
           aggregateFunctions, groupByFields, predicates, order, limit);
     }
+
+    /**
+     * Called via code-generation.
+     */
+    @SuppressWarnings("UnusedDeclaration")
+    public Enumerable<Object> lookup(Enumerable<Object[]> left, int leftKey,
+        List<String> fieldNames, boolean outer) {
+      return getTable().lookup(getClientCache(), left, leftKey, fieldNames,
+          outer);
+    }
   }
 }
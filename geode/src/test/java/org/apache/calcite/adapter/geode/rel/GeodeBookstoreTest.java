@@ -23,6 +23,9 @@
 
 import org.apache.geode.cache.Cache;
 import org.apache.geode.cache.Region;
+import org.apache.geode.pdx.PdxInstance;
+
+import com.google.common.collect.ImmutableMap;
 
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Test;
@@ -46,6 +49,13 @@ public static void setUp() throws Exception {
     Region<?, ?> bookCustomer =  cache.<String, Object>createRegionFactory().create("BookCustomer");
     new JsonLoader(bookCustomer).loadClasspathResource("/book_customer.json");
 
+    // The same books, keyed by item number
+    Region<Object, Object> bookByItem =
+        cache.createRegionFactory().create("BookByItem");
+    for (Object book : bookMaster.values()) {
+      bookByItem.put(((PdxInstance) book).getField("itemNumber"), book);
+    }
+
   }
 
   private static Connection createConnection() throws SQLException {
@@ -55,7 +65,8 @@ private static Connection createConnection() throws SQLException {
         connection.unwrap(CalciteConnection.class).getRootSchema();
     root.add("geode",
         new GeodeSchema(POLICY.cache(),
-            Arrays.asList("BookMaster", "BookCustomer")));
+            Arrays.asList("BookMaster", "BookCustomer", "BookByItem"),
+            ImmutableMap.of("BookByItem", "itemNumber")));
     return connection;
   }
 
@@ -496,4 +507,25 @@ private CalciteAssert.AssertThat calciteAssert() {
         .queryContains(
             GeodeAssertions.query(expectedQuery));
   }
+
+  /** Tests that a join on the key field of a region fetches the entries by
+   * key, rather than scanning the region. */
+  @Test void testKeyJoin() {
+    calciteAssert()
+        .query("SELECT b.author, i.title\n"
+            + "FROM geode.BookMaster AS b\n"
+            + "JOIN geode.BookByItem AS i ON b.itemNumber = i.itemNumber")
+        .explainContains("GeodeKeyJoin(condition=")
+        .returnsUnordered("author=Daisy Mae West; title=A Treatise of Treatises",
+            "author=Clarence Meeks; title=Clifford the Big Red Dog",
+            "author=Jim Heavisides; title=Operating Systems: An Introduction");
+
+    calciteAssert()
+        .query("SELECT t.id, i.title\n"
+            + "FROM (VALUES 123, 999) AS t (id)\n"
+            + "LEFT JOIN geode.BookByItem AS i ON t.id = i.itemNumber")
+        .explainContains("GeodeKeyJoin(condition=")
+        .returnsUnordered("id=123; title=A Treatise of Treatises",
+            "id=999; title=null");
+  }
 }
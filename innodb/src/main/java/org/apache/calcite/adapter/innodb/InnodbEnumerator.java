@@ -24,36 +24,46 @@
 import org.apache.calcite.sql.type.SqlTypeName;
 
 import com.alibaba.innodb.java.reader.page.index.GenericRecord;
-import com.alibaba.innodb.java.reader.util.Utils;
 
 import org.checkerframework.checker.nullness.qual.Nullable;
 
-import java.sql.Date;
-import java.sql.Time;
-import java.sql.Timestamp;
-import java.time.LocalDate;
 import java.util.Iterator;
 import java.util.List;
-import java.util.TimeZone;
+
+import static com.google.common.base.Preconditions.checkArgument;
 
 /**
  * Enumerator that reads from InnoDB data file.
+ *
+ * <p>Fields are read from each record by their ordinal in the table, and the
+ * type of each field is resolved once, when the enumerator is created.
  */
 class InnodbEnumerator implements Enumerator<Object> {
   private final Iterator<GenericRecord> iterator;
   private @Nullable GenericRecord current;
-  private final List<RelDataTypeField> fieldTypes;
+  /** Ordinal in the table of each field of the resulting rows. */
+  private final int[] ordinals;
+  private final SqlTypeName[] typeNames;
 
   /**
    * Creates an InnodbEnumerator.
    *
    * @param resultIterator result iterator
    * @param rowType   the type of resulting rows
+   * @param ordinals  ordinal in the table of each field of the resulting rows
    */
-  InnodbEnumerator(Iterator<GenericRecord> resultIterator, RelDataType rowType) {
+  InnodbEnumerator(Iterator<GenericRecord> resultIterator, RelDataType rowType,
+      List<Integer> ordinals) {
+    checkArgument(ordinals.size() == rowType.getFieldCount());
     this.iterator = resultIterator;
     this.current = null;
-    this.fieldTypes = rowType.getFieldList();
+    final List<RelDataTypeField> fieldList = rowType.getFieldList();
+    this.ordinals = new int[fieldList.size()];
+    this.typeNames = new SqlTypeName[fieldList.size()];
+    for (int i = 0; i < fieldList.size(); i++) {
+      this.ordinals[i] = ordinals.get(i);
+      this.typeNames[i] = fieldList.get(i).getType().getSqlTypeName();
+    }
   }
 
   /**
@@ -62,58 +72,51 @@ class InnodbEnumerator implements Enumerator<Object> {
    * @return a new row from the results
    */
   @Override public Object current() {
-    if (fieldTypes.size() == 1) {
+    if (current == null) {
+      throw new IllegalStateException();
+    }
+    final Object[] values = current.getValues();
+    if (ordinals.length == 1) {
       // If we just have one field, produce it directly
-      return currentRowField(fieldTypes.get(0));
+      return convertToEnumeratorObject(values[ordinals[0]], typeNames[0]);
     } else {
       // Build an array with all fields in this row
-      Object[] row = new Object[fieldTypes.size()];
-      for (int i = 0; i < fieldTypes.size(); i++) {
-        row[i] = currentRowField(fieldTypes.get(i));
+      Object[] row = new Object[ordinals.length];
+      for (int i = 0; i < ordinals.length; i++) {
+        row[i] = convertToEnumeratorObject(values[ordinals[i]], typeNames[i]);
       }
       return row;
     }
   }
 
-  /**
-   * Get a field for the current row from the underlying object.
-   */
-  private @Nullable Object currentRowField(RelDataTypeField relDataTypeField) {
-    if (current == null) {
-      throw new IllegalStateException();
-    }
-    final Object o = current.get(relDataTypeField.getName());
-    return convertToEnumeratorObject(o, relDataTypeField.getType());
-  }
-
   /**
    * Convert an object into the expected internal representation.
    *
+   * <p>The reader returns temporal values as strings in the time zone of the
+   * server; they are parsed directly into Calcite's internal representation,
+   * the number of days or milliseconds since the epoch, without creating
+   * intermediate {@link java.sql.Date} or {@link java.sql.Timestamp}
+   * objects.
+   *
    * @param obj         object to convert, if needed
-   * @param relDataType data type
+   * @param sqlTypeName data type
    */
   private static @Nullable Object convertToEnumeratorObject(
-      @Nullable Object obj, RelDataType relDataType) {
+      @Nullable Object obj, SqlTypeName sqlTypeName) {
     if (obj == null) {
       return null;
     }
-    SqlTypeName sqlTypeName = relDataType.getSqlTypeName();
     switch (sqlTypeName) {
     case BINARY:
     case VARBINARY:
       return new ByteString((byte[]) obj);
     case TIMESTAMP:
     case TIMESTAMP_WITH_LOCAL_TIME_ZONE:
-      Timestamp timestamp =
-          Utils.convertDateTime((String) obj, relDataType.getPrecision());
-      return shift(timestamp).getTime();
+      return DateTimeUtils.timestampStringToUnixDate((String) obj);
     case TIME:
-      Time time =
-          Utils.convertTime((String) obj, relDataType.getPrecision());
-      return shift(time).getTime();
+      return DateTimeUtils.timeStringToUnixDate((String) obj);
     case DATE:
-      Date date = Date.valueOf(LocalDate.parse((String) obj));
-      return DateTimeUtils.dateStringToUnixDate(date.toString());
+      return DateTimeUtils.dateStringToUnixDate((String) obj);
     default:
       return obj;
     }
@@ -135,16 +138,4 @@ class InnodbEnumerator implements Enumerator<Object> {
   @Override public void close() {
     // Nothing to do here
   }
-
-  private static Timestamp shift(Timestamp v) {
-    long time = v.getTime();
-    int offset = TimeZone.getDefault().getOffset(time);
-    return new Timestamp(time + offset);
-  }
-
-  private static Time shift(Time v) {
-    long time = v.getTime();
-    int offset = TimeZone.getDefault().getOffset(time);
-    return new Time((time + offset) % DateTimeUtils.MILLIS_PER_DAY);
-  }
 }
@@ -0,0 +1,162 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.calcite.adapter.innodb;
+
+import org.apache.calcite.adapter.enumerable.EnumerableRel;
+import org.apache.calcite.adapter.enumerable.EnumerableRelImplementor;
+import org.apache.calcite.adapter.enumerable.JavaRowFormat;
+import org.apache.calcite.adapter.enumerable.PhysType;
+import org.apache.calcite.adapter.enumerable.PhysTypeImpl;
+import org.apache.calcite.config.CalciteSystemProperty;
+import org.apache.calcite.linq4j.tree.BlockBuilder;
+import org.apache.calcite.linq4j.tree.Expression;
+import org.apache.calcite.linq4j.tree.Expressions;
+import org.apache.calcite.plan.RelOptCluster;
+import org.apache.calcite.plan.RelOptCost;
+import org.apache.calcite.plan.RelOptPlanner;
+import org.apache.calcite.plan.RelOptTable;
+import org.apache.calcite.plan.RelTraitSet;
+import org.apache.calcite.rel.RelNode;
+import org.apache.calcite.rel.RelWriter;
+import org.apache.calcite.rel.SingleRel;
+import org.apache.calcite.rel.core.JoinRelType;
+import org.apache.calcite.rel.metadata.RelMetadataQuery;
+import org.apache.calcite.rel.type.RelDataType;
+import org.apache.calcite.util.ImmutableIntList;
+
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+import java.util.List;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Join that looks up the rows of an InnoDB table through an index, using the
+ * join key of each row of its input.
+ *
+ * <p>The input is the outer side of the join; the InnoDB table is the inner
+ * side, and is never scanned in full. Each distinct key of a batch of outer
+ * rows becomes a point query if it covers all columns of the index, or a
+ * range query on a prefix of the index otherwise.
+ *
+ * @see InnodbRules#INDEX_JOIN
+ * @see InnodbIndexJoinEnumerator
+ */
+public class InnodbIndexJoin extends SingleRel implements EnumerableRel {
+  final RelOptTable table;
+  final InnodbTable innodbTable;
+  final JoinRelType joinType;
+  final String indexName;
+  final QueryType queryType;
+  /** Ordinals of the join key in the input, in the order of the index
+   * columns. */
+  final ImmutableIntList outerKeys;
+  /** Ordinals of the index columns in the table. */
+  final ImmutableIntList innerKeys;
+
+  /** Creates an InnodbIndexJoin. */
+  protected InnodbIndexJoin(RelOptCluster cluster, RelTraitSet traitSet,
+      RelNode input, RelOptTable table, InnodbTable innodbTable,
+      RelDataType rowType, JoinRelType joinType, String indexName,
+      QueryType queryType, List<Integer> outerKeys, List<Integer> innerKeys) {
+    super(cluster, traitSet, input);
+    this.table = requireNonNull(table, "table");
+    this.innodbTable = requireNonNull(innodbTable, "innodbTable");
+    this.rowType = requireNonNull(rowType, "rowType");
+    this.joinType = requireNonNull(joinType, "joinType");
+    this.indexName = requireNonNull(indexName, "indexName");
+    this.queryType = requireNonNull(queryType, "queryType");
+    this.outerKeys = ImmutableIntList.copyOf(outerKeys);
+    this.innerKeys = ImmutableIntList.copyOf(innerKeys);
+  }
+
+  @Override public RelNode copy(RelTraitSet traitSet, List<RelNode> inputs) {
+    return new InnodbIndexJoin(getCluster(), traitSet, sole(inputs), table,
+        innodbTable, rowType, joinType, indexName, queryType, outerKeys,
+        innerKeys);
+  }
+
+  @Override protected RelDataType deriveRowType() {
+    return rowType;
+  }
+
+  @Override public RelWriter explainTerms(RelWriter pw) {
+    return super.explainTerms(pw)
+        .item("table", table.getQualifiedName())
+        .item("index", indexName)
+        .item("queryType", queryType)
+        .item("joinType", joinType.lowerName)
+        .item("outerKeys", outerKeys)
+        .item("innerKeys", innerKeys);
+  }
+
+  @Override public double estimateRowCount(RelMetadataQuery mq) {
+    final double outerRowCount = mq.getRowCount(getInput());
+    if (queryType == QueryType.PK_POINT_QUERY) {
+      // At most one match per outer row
+      return outerRowCount;
+    }
+    // A guess; each key of a secondary or partial key matches a few rows
+    return outerRowCount * 4d;
+  }
+
+  @Override public @Nullable RelOptCost computeSelfCost(RelOptPlanner planner,
+      RelMetadataQuery mq) {
+    // Each outer row costs a descent of the index's B-tree, rather than the
+    // scan of the whole table that a hash join would need. The table has no
+    // statistics, so its row count is a default; that is why the rule that
+    // creates this join only fires if the schema has the indexJoin operand
+    final double outerRowCount = mq.getRowCount(getInput());
+    final double probeCount =
+        outerRowCount * Math.log(Math.max(2d, table.getRowCount()))
+            / Math.log(2d);
+    final double rowCount = mq.getRowCount(this) + probeCount;
+    return planner.getCostFactory().makeCost(rowCount, rowCount, probeCount);
+  }
+
+  @Override public Result implement(EnumerableRelImplementor implementor,
+      Prefer pref) {
+    final BlockBuilder list = new BlockBuilder();
+    final Result inputResult =
+        implementor.visitChild(this, 0, (EnumerableRel) getInput(), pref);
+    final Expression input = list.append("input", inputResult.block);
+    final Expression outer =
+        list.append("outer",
+            inputResult.physType.convertTo(input, JavaRowFormat.ARRAY));
+    final PhysType physType =
+        PhysTypeImpl.of(implementor.getTypeFactory(), getRowType(),
+            JavaRowFormat.ARRAY);
+    final Expression queryable =
+        list.append("table",
+            requireNonNull(
+                table.getExpression(InnodbTable.InnodbQueryable.class)));
+    final Expression enumerable =
+        list.append("enumerable",
+            Expressions.call(queryable,
+                InnodbMethod.INNODB_QUERYABLE_LOOKUP.method, outer,
+                Expressions.constant(outerKeys, List.class),
+                Expressions.constant(innerKeys, List.class),
+                Expressions.constant(indexName, String.class),
+                Expressions.constant(queryType, QueryType.class),
+                Expressions.constant(joinType == JoinRelType.LEFT)));
+    if (CalciteSystemProperty.DEBUG.value()) {
+      System.out.println("Innodb: " + Expressions.toString(enumerable));
+    }
+    list.add(Expressions.return_(null, enumerable));
+    return implementor.result(physType, list.toBlock());
+  }
+}
@@ -0,0 +1,231 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.calcite.adapter.innodb;
+
+import org.apache.calcite.linq4j.Enumerator;
+import org.apache.calcite.linq4j.function.Function1;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Ordering;
+
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.TreeMap;
+
+/**
+ * Enumerator that joins the rows of an outer enumerator to the rows found by
+ * looking up an InnoDB index with the join key of each outer row.
+ *
+ * <p>Outer rows are read in batches of {@link #BATCH_SIZE}. Each distinct
+ * key in a batch is looked up once, in ascending key order.
+ */
+class InnodbIndexJoinEnumerator implements Enumerator<Object> {
+  /** Maximum number of outer rows read before the index is looked up. */
+  static final int BATCH_SIZE = 256;
+
+  @SuppressWarnings({"rawtypes", "unchecked"})
+  private static final Ordering<Iterable<Comparable>> KEY_ORDERING =
+      Ordering.<Comparable>natural().lexicographical();
+
+  private final Enumerator<Object[]> outer;
+  private final List<Integer> outerKeys;
+  private final List<Integer> innerKeys;
+  private final int innerFieldCount;
+  private final boolean leftJoin;
+  @SuppressWarnings("rawtypes")
+  private final Function1<List<Comparable>, Enumerator<Object>> lookup;
+
+  /** Joined rows of the current batch. */
+  private final List<@Nullable Object[]> rows = new ArrayList<>();
+  private int index;
+  private boolean outerDone;
+  private @Nullable Object @Nullable [] current;
+
+  /**
+   * Creates an InnodbIndexJoinEnumerator.
+   *
+   * @param outer           outer rows
+   * @param outerKeys       ordinals of the join key in the outer rows
+   * @param innerKeys       ordinals of the join key in the inner rows
+   * @param innerFieldCount number of fields of an inner row
+   * @param leftJoin        whether to return outer rows without a match
+   * @param lookup          returns the inner rows for a key
+   */
+  @SuppressWarnings("rawtypes")
+  InnodbIndexJoinEnumerator(Enumerator<Object[]> outer,
+      List<Integer> outerKeys, List<Integer> innerKeys, int innerFieldCount,
+      boolean leftJoin,
+      Function1<List<Comparable>, Enumerator<Object>> lookup) {
+    this.outer = outer;
+    this.outerKeys = ImmutableList.copyOf(outerKeys);
+    this.innerKeys = ImmutableList.copyOf(innerKeys);
+    this.innerFieldCount = innerFieldCount;
+    this.leftJoin = leftJoin;
+    this.lookup = lookup;
+  }
+
+  @Override public Object current() {
+    if (current == null) {
+      throw new NoSuchElementException();
+    }
+    return current;
+  }
+
+  @Override public boolean moveNext() {
+    for (;;) {
+      if (index < rows.size()) {
+        current = rows.get(index++);
+        return true;
+      }
+      if (outerDone) {
+        current = null;
+        return false;
+      }
+      nextBatch();
+    }
+  }
+
+  /** Reads a batch of outer rows, looks up their keys, and joins them. */
+  @SuppressWarnings("rawtypes")
+  private void nextBatch() {
+    rows.clear();
+    index = 0;
+    final List<Object[]> outerRows = new ArrayList<>();
+    final List<@Nullable List<Comparable>> keys = new ArrayList<>();
+    final TreeMap<List<Comparable>, List<Object[]>> matches =
+        new TreeMap<>(KEY_ORDERING);
+    while (outerRows.size() < BATCH_SIZE) {
+      if (!outer.moveNext()) {
+        outerDone = true;
+        break;
+      }
+      final Object[] outerRow = outer.current();
+      final @Nullable List<Comparable> key = key(outerRow, outerKeys);
+      outerRows.add(outerRow);
+      keys.add(key);
+      if (key != null) {
+        matches.put(key, ImmutableList.of());
+      }
+    }
+
+    // Look up the keys in index order, so that successive lookups read
+    // neighbouring pages
+    for (Map.Entry<List<Comparable>, List<Object[]>> entry
+        : matches.entrySet()) {
+      entry.setValue(probe(entry.getKey()));
+    }
+
+    for (int i = 0; i < outerRows.size(); i++) {
+      final Object[] outerRow = outerRows.get(i);
+      final @Nullable List<Comparable> key = keys.get(i);
+      final List<Object[]> innerRows =
+          key == null ? ImmutableList.of() : matches.get(key);
+      if (innerRows == null || innerRows.isEmpty()) {
+        if (leftJoin) {
+          rows.add(join(outerRow, null));
+        }
+        continue;
+      }
+      for (Object[] innerRow : innerRows) {
+        rows.add(join(outerRow, innerRow));
+      }
+    }
+  }
+
+  /** Returns the rows whose key is equal to a given key. */
+  @SuppressWarnings("rawtypes")
+  private List<Object[]> probe(List<Comparable> key) {
+    final List<Object[]> innerRows = new ArrayList<>();
+    try (Enumerator<Object> enumerator = lookup.apply(key)) {
+      while (enumerator.moveNext()) {
+        final Object o = enumerator.current();
+        final Object[] innerRow =
+            o instanceof Object[] ? (Object[]) o : new Object[] {o};
+        // The index may match more rows than SQL equality, for instance
+        // under a case-insensitive collation
+        if (matches(key, innerRow)) {
+          innerRows.add(innerRow);
+        }
+      }
+    }
+    return innerRows;
+  }
+
+  /** Returns whether the key columns of an inner row are equal to a
+   * key. */
+  @SuppressWarnings({"rawtypes", "unchecked"})
+  private boolean matches(List<Comparable> key, Object[] innerRow) {
+    for (int i = 0; i < key.size(); i++) {
+      final Comparable value = key.get(i);
+      final Object innerValue = innerRow[innerKeys.get(i)];
+      if (innerValue == null) {
+        return false;
+      }
+      if (value instanceof Number && innerValue instanceof Number) {
+        // The reader may return a different class, say Integer for a
+        // TINYINT column, than the outer input
+        if (new BigDecimal(value.toString())
+            .compareTo(new BigDecimal(innerValue.toString())) != 0) {
+          return false;
+        }
+      } else if (value.getClass() != innerValue.getClass()
+          || value.compareTo(innerValue) != 0) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /** Returns the key of a row, or null if any of its columns is null. */
+  @SuppressWarnings("rawtypes")
+  private static @Nullable List<Comparable> key(Object[] row,
+      List<Integer> ordinals) {
+    final List<Comparable> key = new ArrayList<>(ordinals.size());
+    for (int ordinal : ordinals) {
+      final Object value = row[ordinal];
+      if (value == null) {
+        return null;
+      }
+      key.add((Comparable) value);
+    }
+    return key;
+  }
+
+  private @Nullable Object[] join(Object[] outerRow,
+      Object @Nullable [] innerRow) {
+    final @Nullable Object[] row =
+        new Object[outerRow.length + innerFieldCount];
+    System.arraycopy(outerRow, 0, row, 0, outerRow.length);
+    if (innerRow != null) {
+      System.arraycopy(innerRow, 0, row, outerRow.length, innerFieldCount);
+    }
+    return row;
+  }
+
+  @Override public void reset() {
+    throw new UnsupportedOperationException();
+  }
+
+  @Override public void close() {
+    outer.close();
+  }
+}
@@ -16,6 +16,7 @@
  */
 package org.apache.calcite.adapter.innodb;
 
+import org.apache.calcite.linq4j.Enumerable;
 import org.apache.calcite.linq4j.tree.Types;
 
 import com.google.common.collect.ImmutableMap;
@@ -29,7 +30,13 @@
 public enum InnodbMethod {
   /** Method signature to call for code generation. */
   INNODB_QUERYABLE_QUERY(InnodbTable.InnodbQueryable.class, "query",
-      List.class, List.class, IndexCondition.class, Boolean.class);
+      List.class, List.class, IndexCondition.class, Boolean.class),
+
+  /** Method signature to call for code generation of
+   * {@link InnodbIndexJoin}. */
+  INNODB_QUERYABLE_LOOKUP(InnodbTable.InnodbQueryable.class, "lookup",
+      Enumerable.class, List.class, List.class, String.class, QueryType.class,
+      Boolean.class);
 
   @SuppressWarnings("ImmutableEnumChecker")
   public final Method method;
@@ -0,0 +1,229 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.calcite.adapter.innodb;
+
+import org.apache.calcite.linq4j.Enumerator;
+import org.apache.calcite.rel.type.RelDataType;
+import org.apache.calcite.runtime.ParallelEnumerator;
+import org.apache.calcite.util.ImmutableIntList;
+
+import com.alibaba.innodb.java.reader.TableReader;
+import com.alibaba.innodb.java.reader.TableReaderFactory;
+import com.alibaba.innodb.java.reader.comparator.ComparisonOperator;
+import com.alibaba.innodb.java.reader.page.index.GenericRecord;
+import com.google.common.cache.Cache;
+import com.google.common.collect.ImmutableList;
+
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+
+import static org.apache.calcite.linq4j.Nullness.castNonNull;
+
+/**
+ * Full scan of the clustered index of an InnoDB table that reads ranges of
+ * the primary key on several threads.
+ *
+ * <p>The reader does not expose the leaf pages of the B+ tree, so the table
+ * is divided by key rather than by page. {@link #split} reads the smallest
+ * and the largest key, each of which costs a descent of the tree, and
+ * divides the keys between them into ranges of equal width. Each range is
+ * read by a range query on its own {@link TableReader}, and its records are
+ * decoded on the thread that reads them.
+ *
+ * <p>Rows are returned in key order, as a sequential scan returns them:
+ * ranges are read concurrently, but each range's rows are returned only after
+ * those of the previous range.
+ *
+ * <p>If the schema has a range cache, the decoded rows of each range are kept
+ * in it, and a later scan of the same range, by any query on the schema,
+ * takes them from the cache rather than from the file.
+ */
+class InnodbParallelScan {
+  /** Number of ranges per thread, so that threads that read sparse ranges
+   * do not wait for those that read dense ones. */
+  static final int RANGES_PER_THREAD = 4;
+
+  /** Number of rows passed from a reading thread to the consumer at a
+   * time. */
+  private static final int BATCH_SIZE = 1024;
+
+  /** Number of batches that the reader of a range may produce before the
+   * consumer takes them. */
+  private static final int QUEUE_CAPACITY = 4;
+
+  private final TableReaderFactory tableReaderFactory;
+  private final String tableName;
+  private final long[] boundaries;
+  private final int parallelism;
+  private final boolean ascOrder;
+  private final RelDataType rowType;
+  private final ImmutableIntList ordinals;
+  private final ImmutableList<String> selectedColumnNames;
+  private final @Nullable Cache<List<Object>, List<@Nullable Object>> cache;
+  private final long cacheRows;
+  /** Modification time of the data file, so that a cached range is not used
+   * after the file changes. */
+  private final long version;
+
+  /** Creates an InnodbParallelScan.
+   *
+   * @param tableReaderFactory  Factory of table readers
+   * @param tableName           Table name
+   * @param boundaries          Keys of the range boundaries, as returned by
+   *                            {@link #split}
+   * @param parallelism         Maximum number of threads
+   * @param ascOrder            Whether to return rows in ascending key order
+   * @param rowType             Type of the returned rows
+   * @param ordinals            Ordinal in the table of each returned field
+   * @param selectedColumnNames Columns to read, or empty to read all
+   * @param cache               Cache of decoded ranges, or null
+   * @param cacheRows           Maximum number of rows in the cache
+   * @param version             Modification time of the data file
+   */
+  InnodbParallelScan(TableReaderFactory tableReaderFactory, String tableName,
+      long[] boundaries, int parallelism, boolean ascOrder, RelDataType rowType,
+      List<Integer> ordinals, List<String> selectedColumnNames,
+      @Nullable Cache<List<Object>, List<@Nullable Object>> cache,
+      long cacheRows, long version) {
+    this.tableReaderFactory = tableReaderFactory;
+    this.tableName = tableName;
+    this.boundaries = boundaries.clone();
+    this.parallelism =
+        Math.max(1, Math.min(parallelism, boundaries.length - 1));
+    this.ascOrder = ascOrder;
+    this.rowType = rowType;
+    this.ordinals = ImmutableIntList.copyOf(ordinals);
+    this.selectedColumnNames = ImmutableList.copyOf(selectedColumnNames);
+    this.cache = cache;
+    this.cacheRows = cacheRows;
+    this.version = version;
+  }
+
+  /** Divides the keys of a table, whose primary key is a single integer
+   * column, into at most {@code rangeCount} ranges of equal width. Returns
+   * the boundaries, starting with the smallest key and ending with the
+   * largest; each range includes its lower boundary, and the last range also
+   * includes its upper boundary. Returns null if the table is empty. */
+  static long @Nullable [] split(TableReader tableReader, String keyColumnName,
+      int rangeCount) {
+    final List<String> keyColumns = ImmutableList.of(keyColumnName);
+    final Iterator<GenericRecord> first =
+        tableReader.getQueryAllIterator(keyColumns, true);
+    if (!first.hasNext()) {
+      return null;
+    }
+    final long min = ((Number) first.next().get(keyColumnName)).longValue();
+    final long max =
+        ((Number) tableReader.getQueryAllIterator(keyColumns, false).next()
+            .get(keyColumnName)).longValue();
+    // Compute in double, because max - min may overflow a long
+    final double width = ((double) max - (double) min) / rangeCount;
+    final List<Long> boundaries = new ArrayList<>();
+    boundaries.add(min);
+    for (int i = 1; i < rangeCount; i++) {
+      final long boundary = (long) (min + width * i);
+      if (boundary > boundaries.get(boundaries.size() - 1) && boundary < max) {
+        boundaries.add(boundary);
+      }
+    }
+    boundaries.add(max);
+    final long[] array = new long[boundaries.size()];
+    for (int i = 0; i < array.length; i++) {
+      array[i] = boundaries.get(i);
+    }
+    return array;
+  }
+
+  /** Returns an enumerator over the rows of the scan. Each row is an
+   * {@code Object[]}, or a single value if there is one field. */
+  Enumerator<Object> enumerator() {
+    final int rangeCount = boundaries.length - 1;
+    final List<ParallelEnumerator.Producer<Object>> readers = new ArrayList<>();
+    for (int i = 0; i < rangeCount; i++) {
+      readers.add(new RangeReader(ascOrder ? i : rangeCount - 1 - i));
+    }
+    return ParallelEnumerator.create(readers, parallelism, true, BATCH_SIZE,
+        QUEUE_CAPACITY, null);
+  }
+
+  /** Reads a range of keys. */
+  private class RangeReader implements ParallelEnumerator.Producer<Object> {
+    private final int range;
+
+    RangeReader(int range) {
+      this.range = range;
+    }
+
+    @Override public void produce(ParallelEnumerator.Sink<Object> sink) {
+      final long lower = boundaries[range];
+      final long upper = boundaries[range + 1];
+      final boolean lastRange = range == boundaries.length - 2;
+      final List<Object> key =
+          ImmutableList.of(tableName, version, lower, upper, lastRange,
+              selectedColumnNames, ascOrder);
+      final List<@Nullable Object> cached =
+          cache == null ? null : cache.getIfPresent(key);
+      if (cached != null) {
+        for (int i = 0; i < cached.size(); i += BATCH_SIZE) {
+          sink.addAll(
+              cached.subList(i, Math.min(i + BATCH_SIZE, cached.size())));
+        }
+        return;
+      }
+      @Nullable List<@Nullable Object> allRows =
+          cache == null ? null : new ArrayList<>();
+      final TableReader tableReader =
+          tableReaderFactory.createTableReader(tableName);
+      tableReader.open();
+      try (InnodbEnumerator enumerator =
+               new InnodbEnumerator(
+                   tableReader.getRangeQueryIterator(
+                       ImmutableList.of(String.valueOf(lower)),
+                       ComparisonOperator.GTE,
+                       ImmutableList.of(String.valueOf(upper)),
+                       lastRange ? ComparisonOperator.LTE
+                           : ComparisonOperator.LT,
+                       selectedColumnNames, ascOrder),
+                   rowType, ordinals)) {
+        while (!sink.isClosed() && enumerator.moveNext()) {
+          final Object row = enumerator.current();
+          sink.add(row);
+          if (allRows != null) {
+            allRows.add(row);
+            if (allRows.size() > cacheRows) {
+              // Too large to cache
+              allRows = null;
+            }
+          }
+        }
+        if (allRows != null && !sink.isClosed()) {
+          castNonNull(cache).put(key, Collections.unmodifiableList(allRows));
+        }
+      } finally {
+        tableReader.close();
+      }
+    }
+
+    @Override public String toString() {
+      return "range " + range + " of " + tableName;
+    }
+  }
+}
@@ -28,22 +28,38 @@
 import org.apache.calcite.rel.RelFieldCollation;
 import org.apache.calcite.rel.RelNode;
 import org.apache.calcite.rel.convert.ConverterRule;
+import org.apache.calcite.rel.core.JoinInfo;
+import org.apache.calcite.rel.core.JoinRelType;
 import org.apache.calcite.rel.core.Sort;
 import org.apache.calcite.rel.logical.LogicalFilter;
+import org.apache.calcite.rel.logical.LogicalJoin;
 import org.apache.calcite.rel.logical.LogicalProject;
 import org.apache.calcite.rel.type.RelDataType;
+import org.apache.calcite.rel.type.RelDataTypeField;
 import org.apache.calcite.rex.RexInputRef;
 import org.apache.calcite.rex.RexNode;
 import org.apache.calcite.rex.RexUtil;
 import org.apache.calcite.rex.RexVisitorImpl;
+import org.apache.calcite.sql.type.SqlTypeName;
 import org.apache.calcite.sql.validate.SqlValidatorUtil;
+import org.apache.calcite.util.mapping.IntPair;
 
+import com.alibaba.innodb.java.reader.schema.KeyMeta;
 import com.alibaba.innodb.java.reader.schema.TableDef;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Sets;
 
+import org.checkerframework.checker.nullness.qual.Nullable;
 import org.immutables.value.Value;
 
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static java.util.Objects.requireNonNull;
 
 /**
  * Rules and relational operators for {@link InnodbRel#CONVENTION}
@@ -80,6 +96,15 @@ private InnodbRules() {
   public static final InnodbSortTableScanRule SORT_SCAN =
       InnodbSortTableScanRule.InnodbSortTableScanRuleConfig.DEFAULT.toRule();
 
+  /** Rule to convert a {@link org.apache.calcite.rel.logical.LogicalJoin}
+   * whose right input is an InnoDB table to an {@link InnodbIndexJoin} that
+   * looks up the table through an index.
+   *
+   * <p>Not in {@link #RULES}; a scan registers it if its schema has the
+   * {@code indexJoin} operand. */
+  public static final InnodbIndexJoinRule INDEX_JOIN =
+      InnodbIndexJoinRule.InnodbIndexJoinRuleConfig.DEFAULT.toRule();
+
   public static final List<RelOptRule> RULES =
       ImmutableList.of(PROJECT,
           FILTER,
@@ -371,4 +396,144 @@ public interface InnodbSortTableScanRuleConfig extends RelRule.Config {
       }
     }
   }
+
+  /**
+   * Rule to convert a {@link org.apache.calcite.rel.logical.LogicalJoin}
+   * whose right input is an {@link InnodbTableScan} to an
+   * {@link InnodbIndexJoin}.
+   *
+   * <p>The join must be an inner or left join whose condition consists only
+   * of equalities between columns of the left input and columns of the
+   * table, and those columns must be a leading prefix of the primary key or
+   * of a secondary index. A primary key is preferred to a secondary index,
+   * and an index that the key covers to one of which it is a prefix.
+   *
+   * @see #INDEX_JOIN
+   */
+  public static class InnodbIndexJoinRule
+      extends RelRule<InnodbIndexJoinRule.InnodbIndexJoinRuleConfig> {
+    /** Column types whose values the reader can look up by their string
+     * representation. */
+    private static final Set<SqlTypeName> LOOKUP_TYPES =
+        Sets.immutableEnumSet(SqlTypeName.TINYINT, SqlTypeName.SMALLINT,
+            SqlTypeName.INTEGER, SqlTypeName.BIGINT, SqlTypeName.DECIMAL,
+            SqlTypeName.VARCHAR);
+
+    /** Creates an InnodbIndexJoinRule. */
+    protected InnodbIndexJoinRule(InnodbIndexJoinRuleConfig config) {
+      super(config);
+    }
+
+    @Override public void onMatch(RelOptRuleCall call) {
+      final LogicalJoin join = call.rel(0);
+      final InnodbTableScan scan = call.rel(2);
+      if (!scan.innodbTable.isIndexJoin()) {
+        return;
+      }
+      final JoinInfo joinInfo = join.analyzeCondition();
+      if (!joinInfo.isEqui() || joinInfo.pairs().isEmpty()) {
+        return;
+      }
+
+      // map each key column of the table to its ordinal in the left input
+      final List<String> fieldNames = innodbFieldNames(scan.getRowType());
+      final List<RelDataTypeField> leftFields =
+          join.getLeft().getRowType().getFieldList();
+      final List<RelDataTypeField> rightFields =
+          scan.getRowType().getFieldList();
+      final Map<String, Integer> keyColumns = new HashMap<>();
+      for (IntPair pair : joinInfo.pairs()) {
+        final SqlTypeName typeName =
+            rightFields.get(pair.target).getType().getSqlTypeName();
+        if (!LOOKUP_TYPES.contains(typeName)
+            || leftFields.get(pair.source).getType().getSqlTypeName()
+                != typeName
+            || keyColumns.put(fieldNames.get(pair.target), pair.source)
+                != null) {
+          return;
+        }
+      }
+
+      final KeyMeta keyMeta = findIndex(scan, keyColumns.keySet());
+      if (keyMeta == null) {
+        return;
+      }
+      final List<Integer> outerKeys = new ArrayList<>();
+      final List<Integer> innerKeys = new ArrayList<>();
+      for (String column
+          : keyMeta.getKeyColumnNames().subList(0, keyColumns.size())) {
+        outerKeys.add(requireNonNull(keyColumns.get(column)));
+        innerKeys.add(fieldNames.indexOf(column));
+      }
+      final RelNode left = join.getLeft();
+      call.transformTo(
+          new InnodbIndexJoin(join.getCluster(),
+              join.getTraitSet().replace(EnumerableConvention.INSTANCE),
+              convert(left,
+                  left.getTraitSet().replace(EnumerableConvention.INSTANCE)),
+              scan.getTable(), scan.innodbTable, join.getRowType(),
+              join.getJoinType(), keyMeta.getName(),
+              queryType(keyMeta, keyColumns.size()), outerKeys, innerKeys));
+    }
+
+    /** Returns the best index whose leading columns are the given columns,
+     * or null if there is none. */
+    private static @Nullable KeyMeta findIndex(InnodbTableScan scan,
+        Set<String> columns) {
+      final TableDef tableDef = scan.innodbTable.getTableDef();
+      final List<KeyMeta> keyMetas = new ArrayList<>();
+      if (tableDef.getPrimaryKeyMeta() != null) {
+        keyMetas.add(tableDef.getPrimaryKeyMeta());
+      }
+      keyMetas.addAll(tableDef.getSecondaryKeyMetaList());
+      final String forceIndexName = scan.getForceIndexName();
+      return keyMetas.stream()
+          .filter(keyMeta -> forceIndexName == null
+              || forceIndexName.equalsIgnoreCase(keyMeta.getName()))
+          .filter(keyMeta -> isPrefix(keyMeta, columns))
+          .min(
+              Comparator.comparingInt(keyMeta ->
+                  queryType(keyMeta, columns.size()).priority()))
+          .orElse(null);
+    }
+
+    private static boolean isPrefix(KeyMeta keyMeta, Set<String> columns) {
+      final List<String> keyColumnNames = keyMeta.getKeyColumnNames();
+      if (keyColumnNames.size() < columns.size()) {
+        return false;
+      }
+      for (String column : keyColumnNames.subList(0, columns.size())) {
+        // a column indexed by a prefix of its value cannot be looked up
+        // by its whole value
+        if (!columns.contains(column)
+            || keyMeta.getVarLen(column).isPresent()) {
+          return false;
+        }
+      }
+      return true;
+    }
+
+    private static QueryType queryType(KeyMeta keyMeta, int columnCount) {
+      return columnCount == keyMeta.getNumOfColumns()
+          ? QueryType.getPointQuery(keyMeta.isSecondaryKey())
+          : QueryType.getRangeQuery(keyMeta.isSecondaryKey());
+    }
+
+    /** Rule configuration. */
+    @Value.Immutable(singleton = false)
+    public interface InnodbIndexJoinRuleConfig extends RelRule.Config {
+      InnodbIndexJoinRuleConfig DEFAULT = ImmutableInnodbIndexJoinRuleConfig.builder()
+          .withOperandSupplier(b0 ->
+              b0.operand(LogicalJoin.class)
+                  .predicate(join -> join.getJoinType() == JoinRelType.INNER
+                      || join.getJoinType() == JoinRelType.LEFT)
+                  .inputs(b1 -> b1.operand(RelNode.class).anyInputs(),
+                      b2 -> b2.operand(InnodbTableScan.class).noInputs()))
+          .build();
+
+      @Override default InnodbIndexJoinRule toRule() {
+        return new InnodbIndexJoinRule(this);
+      }
+    }
+  }
 }
@@ -33,8 +33,12 @@
 import com.alibaba.innodb.java.reader.schema.TableDef;
 import com.alibaba.innodb.java.reader.schema.provider.TableDefProvider;
 import com.alibaba.innodb.java.reader.schema.provider.impl.SqlFileTableDefProvider;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import com.google.common.collect.ImmutableMap;
 
+import org.checkerframework.checker.nullness.qual.Nullable;
+
 import java.util.List;
 import java.util.Map;
 
@@ -49,18 +53,57 @@ public class InnodbSchema extends AbstractSchema {
   final List<String> sqlFilePathList;
   final String ibdDataFileBasePath;
   final TableReaderFactory tableReaderFactory;
+  /** Maximum number of threads that scan the clustered index of a table. */
+  final int parallelism;
+  /** Maximum number of decoded rows in {@link #rangeCache}. */
+  final long cacheRows;
+  /** Decoded rows of ranges of clustered indexes, shared by all queries on
+   * this schema; null if {@link #cacheRows} is 0. */
+  final @Nullable Cache<List<Object>, List<@Nullable Object>> rangeCache;
+  /** Whether joins to tables of this schema may look up the table through
+   * an index; see {@link InnodbIndexJoin}. */
+  final boolean indexJoin;
 
   static final ColumnTypeToSqlTypeConversionRules COLUMN_TYPE_TO_SQL_TYPE =
       ColumnTypeToSqlTypeConversionRules.instance();
 
   public InnodbSchema(List<String> sqlFilePathList,
       String ibdDataFileBasePath) {
+    this(sqlFilePathList, ibdDataFileBasePath, 1, 0, false);
+  }
+
+  /**
+   * Creates an InnodbSchema.
+   *
+   * @param sqlFilePathList     Paths of the files of DDL statements
+   * @param ibdDataFileBasePath Directory of the data files
+   * @param parallelism         Maximum number of threads that scan the
+   *                            clustered index of a table; 1 for a
+   *                            sequential scan
+   * @param cacheRows           Maximum number of decoded rows to cache;
+   *                            0 for no cache
+   * @param indexJoin           Whether joins to tables of this schema may
+   *                            look up the table through an index
+   */
+  public InnodbSchema(List<String> sqlFilePathList,
+      String ibdDataFileBasePath, int parallelism, long cacheRows,
+      boolean indexJoin) {
     checkArgument(sqlFilePathList != null && !sqlFilePathList.isEmpty(),
         "SQL file path list cannot be empty");
     checkArgument(StringUtils.isNotEmpty(ibdDataFileBasePath),
         "InnoDB data file with ibd suffix cannot be empty");
     this.sqlFilePathList = sqlFilePathList;
     this.ibdDataFileBasePath = ibdDataFileBasePath;
+    this.parallelism = Math.max(1, parallelism);
+    this.cacheRows = Math.max(0, cacheRows);
+    this.indexJoin = indexJoin;
+    this.rangeCache = this.cacheRows == 0 ? null
+        : CacheBuilder.newBuilder()
+            .maximumWeight(this.cacheRows)
+            .weigher((List<Object> key, List<@Nullable Object> rows) ->
+                rows.size())
+            .recordStats()
+            .build();
 
     List<TableDefProvider> tableDefProviderList = sqlFilePathList.stream()
         .map(SqlFileTableDefProvider::new).collect(toList());
@@ -27,6 +27,17 @@
 
 /**
  * Factory that creates a {@link InnodbSchema}.
+ *
+ * <p>Operand {@code parallelism} (default 1) is the maximum number of threads
+ * that scan the clustered index of a table, and operand {@code cacheRows}
+ * (default 0, no cache) is the number of decoded rows that the schema keeps
+ * for scans of the same key ranges.
+ *
+ * <p>Operand {@code indexJoin} (default false) allows joins whose right
+ * input is a table of the schema to look up the table through an index; see
+ * {@link InnodbIndexJoin}. The adapter has no statistics about the size of
+ * tables, so the planner cannot tell by itself whether a lookup per row of
+ * the left input is cheaper than a scan of the table.
  */
 public class InnodbSchemaFactory implements SchemaFactory {
   public InnodbSchemaFactory() {
@@ -41,6 +52,24 @@ public InnodbSchemaFactory() {
       System.setProperty("innodb.java.reader.server.timezone", timeZone);
     }
 
-    return new InnodbSchema(sqlFilePathList, ibdDataFileBasePath);
+    final Object indexJoin = operand.get("indexJoin");
+    return new InnodbSchema(sqlFilePathList, ibdDataFileBasePath,
+        (int) longOperand(operand, "parallelism", 1),
+        longOperand(operand, "cacheRows", 0),
+        indexJoin != null && Boolean.parseBoolean(indexJoin.toString()));
+  }
+
+  /** Returns the value of a numeric operand. The value may be a number, as in
+   * a JSON model, or a string, as in a connect string. */
+  private static long longOperand(Map<String, Object> operand, String name,
+      long defaultValue) {
+    final Object value = operand.get(name);
+    if (value == null) {
+      return defaultValue;
+    }
+    if (value instanceof Number) {
+      return ((Number) value).longValue();
+    }
+    return Long.parseLong(value.toString());
   }
 }
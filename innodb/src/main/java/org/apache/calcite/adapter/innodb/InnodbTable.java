@@ -36,6 +36,8 @@
 import org.apache.calcite.schema.TranslatableTable;
 import org.apache.calcite.schema.impl.AbstractTableQueryable;
 import org.apache.calcite.sql.type.SqlTypeFactoryImpl;
+import org.apache.calcite.sql.type.SqlTypeName;
+import org.apache.calcite.util.ImmutableIntList;
 
 import com.alibaba.innodb.java.reader.Constants;
 import com.alibaba.innodb.java.reader.TableReader;
@@ -49,9 +51,11 @@
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableSet;
 
+import org.checkerframework.checker.nullness.qual.Nullable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.File;
 import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
@@ -102,6 +106,12 @@ private TableDef supplyTableDef() {
     return schema.getTableDef(tableName);
   }
 
+  /** Returns whether joins to this table may look up the table through an
+   * index. */
+  boolean isIndexJoin() {
+    return schema.indexJoin;
+  }
+
   /**
    * Get index name set.
    *
@@ -149,12 +159,14 @@ public Enumerable<Object> query(
         new SqlTypeFactoryImpl(RelDataTypeSystem.DEFAULT);
     final RelDataTypeFactory.Builder fieldInfo = typeFactory.builder();
     final RelDataType rowType = getRowType(typeFactory);
+    final List<Integer> ordinals = new ArrayList<>();
 
     Function1<String, Void> addField = fieldName -> {
       final RelDataTypeField field =
           requireNonNull(rowType.getField(fieldName, true, false));
       RelDataType relDataType = field.getType();
       fieldInfo.add(fieldName, relDataType).nullable(relDataType.isNullable());
+      ordinals.add(field.getIndex());
       return null;
     };
 
@@ -172,51 +184,178 @@ public Enumerable<Object> query(
 
     final RelProtoDataType resultRowType = RelDataTypeImpl.proto(fieldInfo.build());
 
+    if (queryType == QueryType.PK_FULL_SCAN
+        && (schema.parallelism > 1 || schema.rangeCache != null)) {
+      final InnodbParallelScan parallelScan =
+          parallelScan(tableReaderFactory, rowType,
+              resultRowType.apply(typeFactory), ordinals, selectedColumnNames,
+              ascOrder);
+      if (parallelScan != null) {
+        return new AbstractEnumerable<Object>() {
+          @Override public Enumerator<Object> enumerator() {
+            return parallelScan.enumerator();
+          }
+        };
+      }
+    }
+
     TableReader tableReader = tableReaderFactory.createTableReader(tableName);
     tableReader.open();
     return new AbstractEnumerable<Object>() {
       @Override public Enumerator<Object> enumerator() {
-        Iterator<GenericRecord> resultIterator;
         LOGGER.debug("Create query iterator, queryType={}, indexName={}, "
                 + "pointQueryKey={}, projection={}, rangeQueryKey={}{} AND {}{}, "
                 + "ascOrder={}", queryType, indexName, pointQueryKey,
             selectedColumnNames, rangeQueryLowerKey, rangeQueryLowerOp,
             rangeQueryUpperKey, rangeQueryUpperOp, ascOrder);
-        switch (queryType) {
-          case PK_POINT_QUERY:
-            resultIterator =
-                RecordIterator.create(tableReader
-                    .queryByPrimaryKey(pointQueryKey, selectedColumnNames));
-            break;
-          case PK_RANGE_QUERY:
-            resultIterator =
-                tableReader.getRangeQueryIterator(rangeQueryLowerKey,
-                    rangeQueryLowerOp, rangeQueryUpperKey, rangeQueryUpperOp,
-                    selectedColumnNames, ascOrder);
-            break;
-          case SK_POINT_QUERY:
-            resultIterator =
-                tableReader.getRecordIteratorBySk(indexName, pointQueryKey,
-                    ComparisonOperator.GTE, pointQueryKey,
-                    ComparisonOperator.LTE, selectedColumnNames, ascOrder);
-            break;
-          case SK_RANGE_QUERY:
-          case SK_FULL_SCAN:
-            resultIterator =
-                tableReader.getRecordIteratorBySk(indexName, rangeQueryLowerKey,
-                    rangeQueryLowerOp, rangeQueryUpperKey, rangeQueryUpperOp,
-                    selectedColumnNames, ascOrder);
-            break;
-          case PK_FULL_SCAN:
-            resultIterator =
-                tableReader.getQueryAllIterator(selectedColumnNames, ascOrder);
-            break;
-          default:
-            throw new AssertionError("query type is invalid");
-        }
+        final Iterator<GenericRecord> resultIterator =
+            iterator(tableReader, queryType, indexName, pointQueryKey,
+                rangeQueryLowerOp, rangeQueryLowerKey, rangeQueryUpperOp,
+                rangeQueryUpperKey, selectedColumnNames, ascOrder);
 
         RelDataType rowType = resultRowType.apply(typeFactory);
-        return new InnodbEnumerator(resultIterator, rowType) {
+        return new InnodbEnumerator(resultIterator, rowType, ordinals) {
+          @Override public void close() {
+            super.close();
+            tableReader.close();
+          }
+        };
+      }
+    };
+  }
+
+  /**
+   * Creates a parallel scan of the clustered index, or returns null if the
+   * primary key is not a single integer column or the table is empty.
+   */
+  private @Nullable InnodbParallelScan parallelScan(
+      TableReaderFactory tableReaderFactory, RelDataType tableRowType,
+      RelDataType resultRowType, List<Integer> ordinals,
+      List<String> selectedColumnNames, boolean ascOrder) {
+    final List<String> keyColumnNames =
+        getTableDef().getPrimaryKeyColumnNames();
+    if (keyColumnNames.size() != 1) {
+      return null;
+    }
+    final String keyColumnName = keyColumnNames.get(0);
+    final RelDataTypeField keyField =
+        tableRowType.getField(keyColumnName, true, false);
+    if (keyField == null
+        || !SqlTypeName.INT_TYPES.contains(
+            keyField.getType().getSqlTypeName())) {
+      return null;
+    }
+    final long @Nullable [] boundaries;
+    final TableReader tableReader =
+        tableReaderFactory.createTableReader(tableName);
+    tableReader.open();
+    try {
+      boundaries =
+          InnodbParallelScan.split(tableReader, keyColumnName,
+              schema.parallelism * InnodbParallelScan.RANGES_PER_THREAD);
+    } finally {
+      tableReader.close();
+    }
+    if (boundaries == null) {
+      return null;
+    }
+    final long version =
+        new File(schema.ibdDataFileBasePath, tableName + ".ibd")
+            .lastModified();
+    return new InnodbParallelScan(tableReaderFactory, tableName, boundaries,
+        schema.parallelism, ascOrder, resultRowType, ordinals,
+        selectedColumnNames, schema.rangeCache, schema.cacheRows, version);
+  }
+
+  /**
+   * Creates an iterator over the records of an index.
+   */
+  private static Iterator<GenericRecord> iterator(TableReader tableReader,
+      QueryType queryType, String indexName, List<Object> pointQueryKey,
+      ComparisonOperator rangeQueryLowerOp, List<Object> rangeQueryLowerKey,
+      ComparisonOperator rangeQueryUpperOp, List<Object> rangeQueryUpperKey,
+      List<String> selectedColumnNames, boolean ascOrder) {
+    switch (queryType) {
+    case PK_POINT_QUERY:
+      return RecordIterator.create(tableReader
+          .queryByPrimaryKey(pointQueryKey, selectedColumnNames));
+    case PK_RANGE_QUERY:
+      return tableReader.getRangeQueryIterator(rangeQueryLowerKey,
+          rangeQueryLowerOp, rangeQueryUpperKey, rangeQueryUpperOp,
+          selectedColumnNames, ascOrder);
+    case SK_POINT_QUERY:
+      return tableReader.getRecordIteratorBySk(indexName, pointQueryKey,
+          ComparisonOperator.GTE, pointQueryKey, ComparisonOperator.LTE,
+          selectedColumnNames, ascOrder);
+    case SK_RANGE_QUERY:
+    case SK_FULL_SCAN:
+      return tableReader.getRecordIteratorBySk(indexName, rangeQueryLowerKey,
+          rangeQueryLowerOp, rangeQueryUpperKey, rangeQueryUpperOp,
+          selectedColumnNames, ascOrder);
+    case PK_FULL_SCAN:
+      return tableReader.getQueryAllIterator(selectedColumnNames, ascOrder);
+    default:
+      throw new AssertionError("query type is invalid");
+    }
+  }
+
+  /**
+   * Joins each row of an outer input to the rows of this table whose index
+   * key is equal to the row's join key.
+   *
+   * <p>Outer rows are read in batches. The distinct keys of a batch are
+   * looked up in ascending order, as point queries if the key covers the
+   * index or as range queries on a prefix of the index otherwise, so that
+   * successive lookups read neighbouring pages of the index. The joined rows
+   * are returned in the order of the outer rows.
+   *
+   * @param tableReaderFactory InnoDB Java table reader factory
+   * @param outer              outer rows
+   * @param outerKeys          ordinals of the join key in the outer rows,
+   *                           in the order of the index columns
+   * @param innerKeys          ordinals of the index columns in this table
+   * @param indexName          name of the index to look up
+   * @param queryType          point or range query on the index
+   * @param leftJoin           whether to return outer rows that have no
+   *                           match, padded with nulls
+   * @return Enumerable of joined rows
+   */
+  public Enumerable<Object> lookup(
+      final TableReaderFactory tableReaderFactory,
+      final Enumerable<Object[]> outer,
+      final List<Integer> outerKeys,
+      final List<Integer> innerKeys,
+      final String indexName,
+      final QueryType queryType,
+      final boolean leftJoin) {
+    final RelDataType rowType =
+        getRowType(new SqlTypeFactoryImpl(RelDataTypeSystem.DEFAULT));
+    final boolean pointQuery = queryType == QueryType.PK_POINT_QUERY
+        || queryType == QueryType.SK_POINT_QUERY;
+    return new AbstractEnumerable<Object>() {
+      @Override public Enumerator<Object> enumerator() {
+        final TableReader tableReader =
+            tableReaderFactory.createTableReader(tableName);
+        tableReader.open();
+        return new InnodbIndexJoinEnumerator(outer.enumerator(), outerKeys,
+            innerKeys, rowType.getFieldCount(), leftJoin, values -> {
+              // Keys are passed to the reader as strings, as they are by
+              // InnodbFilterTranslator
+              final List<Object> key = values.stream()
+                  .map(String::valueOf).collect(Collectors.toList());
+              LOGGER.debug("Look up index, queryType={}, indexName={}, key={}",
+                  queryType, indexName, key);
+              final Iterator<GenericRecord> iterator = pointQuery
+                  ? iterator(tableReader, queryType, indexName, key,
+                      ComparisonOperator.NOP, ImmutableList.of(),
+                      ComparisonOperator.NOP, ImmutableList.of(),
+                      ImmutableList.of(), true)
+                  : iterator(tableReader, queryType, indexName,
+                      ImmutableList.of(), ComparisonOperator.GTE, key,
+                      ComparisonOperator.LTE, key, ImmutableList.of(), true);
+              return new InnodbEnumerator(iterator, rowType,
+                  ImmutableIntList.identity(rowType.getFieldCount()));
+            }) {
           @Override public void close() {
             super.close();
             tableReader.close();
@@ -279,5 +418,18 @@ public Enumerable<Object> query(List<Map.Entry<String, Class>> fields,
       return getTable().query(getTableReaderFactory(), fields, selectFields,
           condition, ascOrder);
     }
+
+    /**
+     * Called via code-generation.
+     *
+     * @see org.apache.calcite.adapter.innodb.InnodbMethod#INNODB_QUERYABLE_LOOKUP
+     */
+    @SuppressWarnings("UnusedDeclaration")
+    public Enumerable<Object> lookup(Enumerable<Object[]> outer,
+        List<Integer> outerKeys, List<Integer> innerKeys, String indexName,
+        QueryType queryType, Boolean leftJoin) {
+      return getTable().lookup(getTableReaderFactory(), outer, outerKeys,
+          innerKeys, indexName, queryType, leftJoin);
+    }
   }
 }
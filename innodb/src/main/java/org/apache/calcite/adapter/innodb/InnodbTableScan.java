@@ -84,6 +84,9 @@ protected InnodbTableScan(RelOptCluster cluster, RelTraitSet traitSet,
     for (RelOptRule rule : InnodbRules.RULES) {
       planner.addRule(rule);
     }
+    if (innodbTable.isIndexJoin()) {
+      planner.addRule(InnodbRules.INDEX_JOIN);
+    }
   }
 
   @Override public void implement(Implementor implementor) {
@@ -20,13 +20,16 @@
 import org.apache.calcite.rel.hint.HintPredicates;
 import org.apache.calcite.rel.hint.HintStrategyTable;
 import org.apache.calcite.runtime.Hook;
+import org.apache.calcite.schema.SchemaPlus;
 import org.apache.calcite.sql2rel.SqlToRelConverter;
 import org.apache.calcite.test.CalciteAssert;
 import org.apache.calcite.util.Holder;
 import org.apache.calcite.util.Pair;
 import org.apache.calcite.util.Sources;
+import org.apache.calcite.util.TestUtil;
 
 import com.alibaba.innodb.java.reader.util.Utils;
+import com.google.common.cache.CacheStats;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.Lists;
 
@@ -35,6 +38,9 @@
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
 import java.time.Instant;
 import java.time.LocalDateTime;
 import java.time.OffsetDateTime;
@@ -47,6 +53,9 @@
 import java.util.Map;
 import java.util.stream.Collectors;
 
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.MatcherAssert.assertThat;
+
 import static java.util.Objects.requireNonNull;
 import static java.util.stream.Collectors.toList;
 
@@ -124,6 +133,55 @@ public class InnodbAdapterTest {
         .returns(allReversed());
   }
 
+  /** Scans the clustered index of EMP as parallel ranges of EMPNO. The
+   * second scan in the query reads the ranges from the schema's cache. */
+  @Test void testParallelScan() throws Exception {
+    final CalciteAssert.AssertThat with = CalciteAssert.that()
+        .withModel(model("parallelism: 3, cacheRows: 100"))
+        .enable(enabled());
+    final String sql =
+        "SELECT * FROM \"EMP\" UNION ALL SELECT * FROM \"EMP\"";
+    with.query(sql)
+        .returns(all() + all());
+    with.doWithConnection(connection -> {
+      try (Statement statement = connection.createStatement();
+           ResultSet resultSet = statement.executeQuery(sql)) {
+        int rowCount = 0;
+        while (resultSet.next()) {
+          ++rowCount;
+        }
+        assertThat(rowCount, is(28));
+      } catch (SQLException e) {
+        throw TestUtil.rethrow(e);
+      }
+      final SchemaPlus schema =
+          requireNonNull(connection.getRootSchema().subSchemas().get("test"));
+      final InnodbSchema innodbSchema =
+          requireNonNull(schema.unwrap(InnodbSchema.class));
+      final CacheStats stats =
+          requireNonNull(innodbSchema.rangeCache).stats();
+      assertThat(stats.missCount() > 0, is(true));
+      assertThat(stats.hitCount(), is(stats.missCount()));
+    });
+    with.query("SELECT * FROM \"EMP\" ORDER BY EMPNO DESC")
+        .returns(allReversed());
+    with.query("SELECT ENAME FROM \"EMP\"")
+        .returns("ENAME=SMITH\n"
+            + "ENAME=ALLEN\n"
+            + "ENAME=WARD\n"
+            + "ENAME=JONES\n"
+            + "ENAME=MARTIN\n"
+            + "ENAME=BLAKE\n"
+            + "ENAME=CLARK\n"
+            + "ENAME=SCOTT\n"
+            + "ENAME=KING\n"
+            + "ENAME=TURNER\n"
+            + "ENAME=ADAMS\n"
+            + "ENAME=JAMES\n"
+            + "ENAME=FORD\n"
+            + "ENAME=MILLER\n");
+  }
+
   @Test void testSelectAllProjectSomeFieldsOrderByDesc() {
     sql("SELECT EMPNO,ENAME FROM \"EMP\" ORDER BY EMPNO DESC")
         .explainContains("PLAN=InnodbToEnumerableConverter\n"
@@ -1038,6 +1096,40 @@ public class InnodbAdapterTest {
         .returns("EMPNO=7900; DEPTNO=30; JOB=CLERK; DNAME=SALES\n");
   }
 
+  /** Joins to EMP by looking up its primary key, rather than scanning it. */
+  @Test void testIndexJoinPrimaryKey() {
+    indexJoinSql("SELECT E.EMPNO, E.ENAME FROM (VALUES 7369, 7839, 1234) AS T(EMPNO) "
+        + "JOIN \"EMP\" AS E ON T.EMPNO = E.EMPNO")
+        .explainContains("InnodbIndexJoin(table=[[test, EMP]], index=[PRIMARY_KEY], "
+            + "queryType=[PK_POINT_QUERY], joinType=[inner], outerKeys=[[0]], "
+            + "innerKeys=[[0]])")
+        .returnsUnordered("EMPNO=7369; ENAME=SMITH",
+            "EMPNO=7839; ENAME=KING");
+  }
+
+  /** Joins to EMP by looking up a prefix of a secondary key. Departments
+   * without employees are kept because the join is a left join. */
+  @Test void testIndexJoinSecondaryKeyPrefix() {
+    indexJoinSql("SELECT D.DNAME, E.ENAME FROM \"DEPT\" AS D "
+        + "LEFT JOIN \"EMP\" AS E ON D.DEPTNO = E.DEPTNO")
+        .explainContains("queryType=[SK_RANGE_QUERY], joinType=[left]")
+        .returnsUnordered("DNAME=ACCOUNTING; ENAME=CLARK",
+            "DNAME=ACCOUNTING; ENAME=KING",
+            "DNAME=ACCOUNTING; ENAME=MILLER",
+            "DNAME=RESEARCH; ENAME=SMITH",
+            "DNAME=RESEARCH; ENAME=JONES",
+            "DNAME=RESEARCH; ENAME=SCOTT",
+            "DNAME=RESEARCH; ENAME=ADAMS",
+            "DNAME=RESEARCH; ENAME=FORD",
+            "DNAME=SALES; ENAME=ALLEN",
+            "DNAME=SALES; ENAME=WARD",
+            "DNAME=SALES; ENAME=MARTIN",
+            "DNAME=SALES; ENAME=BLAKE",
+            "DNAME=SALES; ENAME=TURNER",
+            "DNAME=SALES; ENAME=JAMES",
+            "DNAME=OPERATIONS; ENAME=null");
+  }
+
   @Test void testSelectFilterNoIndex() {
     sql("SELECT * FROM \"EMP\" WHERE MGR = 7839")
         .explainContains("InnodbToEnumerableConverter\n"
@@ -1163,6 +1255,32 @@ private CalciteAssert.AssertQuery sql(String sql) {
         .query(sql);
   }
 
+  /** Returns a query on a schema that allows index joins. */
+  private CalciteAssert.AssertQuery indexJoinSql(String sql) {
+    return CalciteAssert.that()
+        .withModel(model("indexJoin: true"))
+        .enable(enabled())
+        .query(sql);
+  }
+
+  /** Returns a model of the test schema with some extra operands. */
+  private static String model(String operands) {
+    return "{\n"
+        + "  version: '1.0',\n"
+        + "  defaultSchema: 'test',\n"
+        + "  schemas: [ {\n"
+        + "    name: 'test',\n"
+        + "    type: 'custom',\n"
+        + "    factory: '" + InnodbSchemaFactory.class.getName() + "',\n"
+        + "    operand: {\n"
+        + "      sqlFilePath: [ 'src/test/resources/scott.sql' ],\n"
+        + "      ibdDataFileBasePath: 'src/test/resources/data',\n"
+        + "      " + operands + "\n"
+        + "    }\n"
+        + "  } ]\n"
+        + "}";
+  }
+
   Hook.@Nullable Closeable closeable;
 
   @BeforeEach
@@ -17,80 +17,251 @@
 package org.apache.calcite.adapter.kafka;
 
 import org.apache.calcite.linq4j.Enumerator;
+import org.apache.calcite.runtime.ParallelEnumerator;
 
 import org.apache.kafka.clients.consumer.Consumer;
 import org.apache.kafka.clients.consumer.ConsumerConfig;
 import org.apache.kafka.clients.consumer.ConsumerRecord;
-import org.apache.kafka.clients.consumer.ConsumerRecords;
+import org.apache.kafka.clients.consumer.OffsetAndTimestamp;
+import org.apache.kafka.common.TopicPartition;
+
+import com.google.common.collect.ImmutableList;
 
 import org.checkerframework.checker.nullness.qual.Nullable;
 
 import java.time.Duration;
-import java.util.ArrayDeque;
-import java.util.Deque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 import static java.util.Objects.requireNonNull;
 
 /**
- * Enumerator to read data from {@link Consumer},
+ * Enumerator to read data from one or more {@link Consumer}s,
  * and converted into SQL rows with {@link KafkaRowConverter}.
  *
+ * <p>Each consumer is polled on its own thread, which converts its messages
+ * into rows and passes them, in batches, to the thread that calls
+ * {@link #moveNext()}. Consumers that are assigned disjoint partitions of a
+ * topic therefore read those partitions concurrently. Rows of different
+ * partitions may be interleaved; rows of each partition are returned in
+ * offset order.
+ *
+ * <p>A consumer to which partitions have been assigned starts each partition
+ * at the offset given by the {@link KafkaScanRange}. If the scan is bounded,
+ * or the range has an upper bound on offsets, it stops reading a partition
+ * once it reaches the end offset of the partition at the start of the scan,
+ * or the upper bound, and the enumerator ends when every consumer has
+ * stopped. Otherwise the enumerator waits for new messages until it is
+ * closed or the statement is cancelled.
+ *
+ * <p>The enumerator closes its consumers when it is closed.
+ *
  * @param <K> Type for Kafka message key,
  *           refer to {@link ConsumerConfig#KEY_DESERIALIZER_CLASS_CONFIG};
  * @param <V> Type for Kafka message value,
  *           refer to {@link ConsumerConfig#VALUE_DESERIALIZER_CLASS_CONFIG};
  */
 public class KafkaMessageEnumerator<K, V> implements Enumerator<@Nullable Object[]> {
-  final Consumer consumer;
+  private static final Duration POLL_TIMEOUT = Duration.ofMillis(100);
+
+  /** Number of batches that each reader may produce before the consumer of
+   * the enumerator takes them. */
+  private static final int QUEUE_CAPACITY = 4;
+
   final KafkaRowConverter<K, V> rowConverter;
+  private final KafkaScanRange range;
+  private final boolean bounded;
   private final AtomicBoolean cancelFlag;
 
-  // runtime
-  private final Deque<ConsumerRecord<K, V>> bufferedRecords = new ArrayDeque<>();
-  private @Nullable ConsumerRecord<K, V> curRecord;
+  /** Merges the rows read by all consumers. */
+  private final Enumerator<@Nullable Object[]> enumerator;
 
   KafkaMessageEnumerator(final Consumer consumer,
       final KafkaRowConverter<K, V> rowConverter,
       final AtomicBoolean cancelFlag) {
-    this.consumer = consumer;
+    this(ImmutableList.of(consumer), rowConverter, KafkaScanRange.ALL, false,
+        cancelFlag);
+  }
+
+  /** Creates a KafkaMessageEnumerator.
+   *
+   * @param consumers    Consumers, each of which is subscribed to the topic
+   *                     or has been assigned partitions of it
+   * @param rowConverter Converter of messages to rows
+   * @param range        Offsets and timestamps to read
+   * @param bounded      Whether to stop at the end offsets of the partitions
+   * @param cancelFlag   Flag that is set when the statement is cancelled
+   */
+  KafkaMessageEnumerator(final List<Consumer> consumers,
+      final KafkaRowConverter<K, V> rowConverter,
+      final KafkaScanRange range, final boolean bounded,
+      final AtomicBoolean cancelFlag) {
     this.rowConverter = rowConverter;
+    this.range = range;
+    this.bounded = bounded;
     this.cancelFlag = cancelFlag;
+    final List<Reader> readers = new ArrayList<>();
+    for (Consumer consumer : consumers) {
+      readers.add(new Reader(consumer));
+    }
+    // Each poll is passed to the enumerator as a batch, so the batch size
+    // is not used
+    this.enumerator =
+        ParallelEnumerator.create(readers, readers.size(), false, 1,
+            QUEUE_CAPACITY, cancelFlag);
   }
 
   /**
    * It returns an Array of Object, with each element represents a field of row.
    */
-  @Override public Object[] current() {
-    return rowConverter.toRow(requireNonNull(curRecord, "curRecord"));
+  @Override public @Nullable Object[] current() {
+    return enumerator.current();
   }
 
   @Override public boolean moveNext() {
-    if (cancelFlag.get()) {
-      return false;
+    return enumerator.moveNext();
+  }
+
+  @Override public void reset() {
+    throw new UnsupportedOperationException();
+  }
+
+  @Override public void close() {
+    // Stop the readers, and wait for them, because they close the consumers.
+    enumerator.close();
+  }
+
+  /** Polls a consumer, and passes the rows of the messages of each poll as a
+   * batch. */
+  private class Reader
+      implements ParallelEnumerator.Producer<@Nullable Object[]> {
+    private final Consumer<K, V> consumer;
+
+    @SuppressWarnings("unchecked")
+    Reader(Consumer consumer) {
+      this.consumer = consumer;
     }
 
-    while (bufferedRecords.isEmpty()) {
-      pullRecords();
+    @Override public void produce(
+        ParallelEnumerator.Sink<@Nullable Object[]> sink) {
+      try {
+        read(sink);
+      } finally {
+        consumer.close();
+      }
     }
 
-    curRecord = bufferedRecords.removeFirst();
-    return true;
-  }
+    private void read(ParallelEnumerator.Sink<@Nullable Object[]> sink) {
+      // A consumer that is subscribed to the topic has no partitions until
+      // it is first polled, and reads from the committed offsets.
+      final Set<TopicPartition> partitions = consumer.assignment();
+      final boolean finite =
+          !partitions.isEmpty() && (bounded || range.hasUpperOffset());
+      final Map<TopicPartition, Long> ends = new HashMap<>();
+      if (bounded && !partitions.isEmpty()) {
+        consumer.endOffsets(partitions).forEach((partition, end) ->
+            ends.put(partition, Math.min(end, endOffset(range.upperOffset))));
+      } else if (range.hasUpperOffset()) {
+        for (TopicPartition partition : partitions) {
+          ends.put(partition, endOffset(range.upperOffset));
+        }
+      }
+      seek(partitions, ends);
 
-  private void pullRecords() {
-    ConsumerRecords<K, V> records = consumer.poll(Duration.ofMillis(100));
-    for (ConsumerRecord record : records) {
-      bufferedRecords.add(record);
+      final Set<TopicPartition> remaining = new HashSet<>(ends.keySet());
+      pauseFinished(remaining, ends);
+      while (!sink.isClosed()
+          && !cancelFlag.get()
+          && (!finite || !remaining.isEmpty())) {
+        final List<@Nullable Object[]> rows = new ArrayList<>();
+        for (ConsumerRecord<K, V> record : consumer.poll(POLL_TIMEOUT)) {
+          final Long end =
+              ends.get(new TopicPartition(record.topic(), record.partition()));
+          if (end == null || record.offset() < end) {
+            rows.add(rowConverter.toRow(record));
+          }
+        }
+        sink.addAll(rows);
+        pauseFinished(remaining, ends);
+      }
     }
-  }
 
-  @Override public void reset() {
-    this.bufferedRecords.clear();
-    pullRecords();
+    /** Moves each assigned partition to the first offset to read. */
+    private void seek(Set<TopicPartition> partitions,
+        Map<TopicPartition, Long> ends) {
+      if (partitions.isEmpty()) {
+        return;
+      }
+      final Map<TopicPartition, OffsetAndTimestamp> offsetsForTimes;
+      if (range.minTimestamp >= 0) {
+        final Map<TopicPartition, Long> timestamps = new HashMap<>();
+        for (TopicPartition partition : partitions) {
+          timestamps.put(partition, range.minTimestamp);
+        }
+        offsetsForTimes = consumer.offsetsForTimes(timestamps);
+      } else {
+        offsetsForTimes = new HashMap<>();
+      }
+      final List<TopicPartition> fromBeginning = new ArrayList<>();
+      final List<TopicPartition> fromEnd = new ArrayList<>();
+      for (TopicPartition partition : partitions) {
+        long offset = range.lowerOffset;
+        if (range.minTimestamp >= 0) {
+          final OffsetAndTimestamp offsetAndTimestamp =
+              offsetsForTimes.get(partition);
+          if (offsetAndTimestamp == null) {
+            // No message has that timestamp yet
+            final Long end = ends.get(partition);
+            if (end == null) {
+              fromEnd.add(partition);
+            } else {
+              consumer.seek(partition, end);
+            }
+            continue;
+          }
+          offset = Math.max(offset, offsetAndTimestamp.offset());
+        }
+        if (offset > 0) {
+          consumer.seek(partition, offset);
+        } else if (offset == 0 || bounded) {
+          // A lower bound of 0, or a bounded scan, reads from the beginning
+          // rather than from the committed or latest position
+          fromBeginning.add(partition);
+        }
+      }
+      if (!fromBeginning.isEmpty()) {
+        consumer.seekToBeginning(fromBeginning);
+      }
+      if (!fromEnd.isEmpty()) {
+        consumer.seekToEnd(fromEnd);
+      }
+    }
+
+    /** Pauses, and removes from {@code remaining}, the partitions whose
+     * position has reached their end offset. */
+    private void pauseFinished(Set<TopicPartition> remaining,
+        Map<TopicPartition, Long> ends) {
+      final List<TopicPartition> finished = new ArrayList<>();
+      for (TopicPartition partition : remaining) {
+        final long end = requireNonNull(ends.get(partition), "end");
+        if (consumer.position(partition) >= end) {
+          finished.add(partition);
+        }
+      }
+      if (!finished.isEmpty()) {
+        consumer.pause(finished);
+        finished.forEach(remaining::remove);
+      }
+    }
   }
 
-  @Override public void close() {
-    consumer.close();
+  /** Returns the offset after a given offset, without overflow. */
+  private static long endOffset(long offset) {
+    return offset == Long.MAX_VALUE ? offset : offset + 1;
   }
 }
@@ -44,6 +44,9 @@
    * Parses and reformats a Kafka message from the consumer,
    * to align with row type defined as {@link #rowDataType(String)}.
    *
+   * <p>If a scan reads several partitions concurrently, this method may be
+   * called from several threads at the same time.
+   *
    * @param message Raw Kafka message record
    * @return fields in the row
    */
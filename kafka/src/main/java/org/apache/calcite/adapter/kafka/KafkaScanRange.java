@@ -0,0 +1,288 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.calcite.adapter.kafka;
+
+import org.apache.calcite.plan.RelOptUtil;
+import org.apache.calcite.rex.RexCall;
+import org.apache.calcite.rex.RexInputRef;
+import org.apache.calcite.rex.RexLiteral;
+import org.apache.calcite.rex.RexNode;
+import org.apache.calcite.sql.SqlKind;
+import org.apache.calcite.util.Sarg;
+
+import com.google.common.collect.BoundType;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Range;
+import com.google.common.collect.Sets;
+
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+import java.math.BigDecimal;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Partitions, offsets and timestamps of the messages that a scan of a Kafka
+ * topic needs to read, derived from the filters of the scan.
+ *
+ * <p>Applies to the columns of {@link KafkaRowConverterImpl}. Filters on
+ * {@code MSG_PARTITION} choose the partitions that are assigned to the
+ * consumers, and filters on {@code MSG_OFFSET} the offset at which each
+ * partition is read from and the offset after which it is no longer read;
+ * both are removed from the list of filters, because every message that the
+ * scan returns satisfies them.
+ *
+ * <p>A lower bound on {@code MSG_TIMESTAMP} is used to find, by
+ * {@link org.apache.kafka.clients.consumer.Consumer#offsetsForTimes}, the
+ * first offset of each partition that can satisfy it. Timestamps need not
+ * increase with offsets, so the filter remains in the list.
+ */
+class KafkaScanRange {
+  /** Range that reads every message. */
+  static final KafkaScanRange ALL =
+      new KafkaScanRange(null, -1L, Long.MAX_VALUE, -1L);
+
+  private static final int PARTITION_FIELD = 0;
+  private static final int TIMESTAMP_FIELD = 1;
+  private static final int OFFSET_FIELD = 2;
+
+  /** Partitions to read, or null to read all. */
+  final @Nullable ImmutableSet<Integer> partitions;
+  /** Smallest offset to read, or -1 if there is no lower bound, in which
+   * case a scan that is not bounded starts from the consumer's position. */
+  final long lowerOffset;
+  /** Largest offset to read. */
+  final long upperOffset;
+  /** Smallest timestamp to read, or -1. */
+  final long minTimestamp;
+
+  private KafkaScanRange(@Nullable ImmutableSet<Integer> partitions,
+      long lowerOffset, long upperOffset, long minTimestamp) {
+    this.partitions = partitions;
+    this.lowerOffset = lowerOffset;
+    this.upperOffset = upperOffset;
+    this.minTimestamp = minTimestamp;
+  }
+
+  /** Derives a range from the filters of a scan, and removes from the list
+   * the filters that the range applies. */
+  static KafkaScanRange of(List<RexNode> filters) {
+    KafkaScanRange range = ALL;
+    for (Iterator<RexNode> i = filters.iterator(); i.hasNext();) {
+      final RexNode filter = i.next();
+      final KafkaScanRange range2 = range.and(filter);
+      if (range2 == null) {
+        continue;
+      }
+      if (!RelOptUtil.InputFinder.bits(filter).get(TIMESTAMP_FIELD)) {
+        i.remove();
+      }
+      range = range2;
+    }
+    return range;
+  }
+
+  /** Returns whether this range reads every message. */
+  boolean isAll() {
+    return partitions == null
+        && lowerOffset < 0L
+        && upperOffset == Long.MAX_VALUE
+        && minTimestamp < 0L;
+  }
+
+  /** Returns whether this range reads a given partition. */
+  boolean containsPartition(int partition) {
+    return partitions == null || partitions.contains(partition);
+  }
+
+  /** Returns whether this range has an upper bound on offsets, and therefore
+   * a scan of it ends even if the table is not bounded. */
+  boolean hasUpperOffset() {
+    return upperOffset < Long.MAX_VALUE;
+  }
+
+  /** Returns the range that reads the messages of this range that satisfy a
+   * filter, or null if the filter cannot be applied. */
+  private @Nullable KafkaScanRange and(RexNode filter) {
+    if (!(filter instanceof RexCall)) {
+      return null;
+    }
+    final RexCall call = (RexCall) filter;
+    if (call.getOperands().size() != 2) {
+      return null;
+    }
+    final RexNode op0 = call.getOperands().get(0);
+    final RexNode op1 = call.getOperands().get(1);
+    final int field;
+    final RexLiteral literal;
+    SqlKind kind = call.getKind();
+    if (op0 instanceof RexInputRef && op1 instanceof RexLiteral) {
+      field = ((RexInputRef) op0).getIndex();
+      literal = (RexLiteral) op1;
+    } else if (op1 instanceof RexInputRef && op0 instanceof RexLiteral
+        && kind != SqlKind.SEARCH) {
+      field = ((RexInputRef) op1).getIndex();
+      literal = (RexLiteral) op0;
+      kind = kind.reverse();
+    } else {
+      return null;
+    }
+    if (field != PARTITION_FIELD
+        && field != TIMESTAMP_FIELD
+        && field != OFFSET_FIELD) {
+      return null;
+    }
+    if (kind == SqlKind.SEARCH) {
+      final Sarg<?> sarg = literal.getValueAs(Sarg.class);
+      return sarg == null ? null : and(field, sarg);
+    }
+    final Long value = longValue(literal.getValueAs(BigDecimal.class));
+    if (value == null) {
+      return null;
+    }
+    switch (kind) {
+    case EQUALS:
+      return and(field, Range.singleton(value));
+    case GREATER_THAN:
+      return and(field, Range.greaterThan(value));
+    case GREATER_THAN_OR_EQUAL:
+      return and(field, Range.atLeast(value));
+    case LESS_THAN:
+      return and(field, Range.lessThan(value));
+    case LESS_THAN_OR_EQUAL:
+      return and(field, Range.atMost(value));
+    default:
+      return null;
+    }
+  }
+
+  private @Nullable KafkaScanRange and(int field, Sarg<?> sarg) {
+    if (field == PARTITION_FIELD && sarg.isPoints()) {
+      final ImmutableSet.Builder<Integer> points = ImmutableSet.builder();
+      for (Range<?> r : sarg.rangeSet.asRanges()) {
+        final Long value = longValue(r.lowerEndpoint());
+        if (value == null) {
+          return null;
+        }
+        if (value >= 0 && value <= Integer.MAX_VALUE) {
+          points.add(value.intValue());
+        }
+      }
+      return withPartitions(points.build());
+    }
+    if (sarg.rangeSet.asRanges().size() != 1) {
+      return null;
+    }
+    final Range<?> r = sarg.rangeSet.span();
+    Range<Long> longRange = Range.all();
+    if (r.hasLowerBound()) {
+      final Long value = longValue(r.lowerEndpoint());
+      if (value == null) {
+        return null;
+      }
+      longRange = Range.downTo(value, r.lowerBoundType());
+    }
+    if (r.hasUpperBound()) {
+      final Long value = longValue(r.upperEndpoint());
+      if (value == null) {
+        return null;
+      }
+      longRange = longRange.intersection(Range.upTo(value, r.upperBoundType()));
+    }
+    return and(field, longRange);
+  }
+
+  private @Nullable KafkaScanRange and(int field, Range<Long> r) {
+    switch (field) {
+    case PARTITION_FIELD:
+      if (r.hasLowerBound() && r.hasUpperBound()
+          && r.lowerEndpoint().equals(r.upperEndpoint())) {
+        final long value = r.lowerEndpoint();
+        return withPartitions(
+            value >= 0 && value <= Integer.MAX_VALUE
+                ? ImmutableSet.of((int) value)
+                : ImmutableSet.of());
+      }
+      return null;
+    case OFFSET_FIELD:
+      long lower = lowerOffset;
+      long upper = upperOffset;
+      if (r.hasLowerBound()) {
+        lower = Math.max(lower, lower(r));
+      }
+      if (r.hasUpperBound()) {
+        upper = Math.min(upper, upper(r));
+      }
+      return new KafkaScanRange(partitions, lower, upper, minTimestamp);
+    case TIMESTAMP_FIELD:
+      if (!r.hasLowerBound()) {
+        return null;
+      }
+      return new KafkaScanRange(partitions, lowerOffset, upperOffset,
+          Math.max(minTimestamp, lower(r)));
+    default:
+      return null;
+    }
+  }
+
+  private KafkaScanRange withPartitions(Set<Integer> partitions) {
+    return new KafkaScanRange(
+        this.partitions == null
+            ? ImmutableSet.copyOf(partitions)
+            : Sets.intersection(this.partitions, partitions).immutableCopy(),
+        lowerOffset, upperOffset, minTimestamp);
+  }
+
+  /** Returns the smallest value in a range that has a lower bound. */
+  private static long lower(Range<Long> r) {
+    final long value = r.lowerEndpoint();
+    if (r.lowerBoundType() == BoundType.CLOSED) {
+      return value;
+    }
+    return value == Long.MAX_VALUE ? value : value + 1;
+  }
+
+  /** Returns the largest value in a range that has an upper bound, or -1 if
+   * the range contains no non-negative values. */
+  private static long upper(Range<Long> r) {
+    final long value = r.upperEndpoint();
+    if (r.upperBoundType() == BoundType.CLOSED) {
+      return Math.max(value, -1L);
+    }
+    return Math.max(value - 1, -1L);
+  }
+
+  /** Converts a bound to a long, or returns null if it is not an integer
+   * that fits in a long. */
+  private static @Nullable Long longValue(@Nullable Object o) {
+    if (!(o instanceof BigDecimal)) {
+      return null;
+    }
+    try {
+      return ((BigDecimal) o).longValueExact();
+    } catch (ArithmeticException e) {
+      return null;
+    }
+  }
+
+  @Override public String toString() {
+    return "partitions " + (partitions == null ? "all" : partitions)
+        + ", offsets [" + Math.max(lowerOffset, 0L) + ".." + upperOffset + "]"
+        + (minTimestamp < 0 ? "" : ", timestamp >= " + minTimestamp);
+  }
+}
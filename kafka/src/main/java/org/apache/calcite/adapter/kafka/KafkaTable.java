@@ -0,0 +1,192 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.calcite.adapter.kafka;
+
+import org.apache.calcite.DataContext;
+import org.apache.calcite.config.CalciteConnectionConfig;
+import org.apache.calcite.linq4j.AbstractEnumerable;
+import org.apache.calcite.linq4j.Enumerable;
+import org.apache.calcite.linq4j.Enumerator;
+import org.apache.calcite.rel.type.RelDataType;
+import org.apache.calcite.rel.type.RelDataTypeFactory;
+import org.apache.calcite.rex.RexNode;
+import org.apache.calcite.schema.FilterableTable;
+import org.apache.calcite.schema.ScannableTable;
+import org.apache.calcite.schema.Schema;
+import org.apache.calcite.schema.Statistic;
+import org.apache.calcite.schema.Statistics;
+import org.apache.calcite.sql.SqlCall;
+import org.apache.calcite.sql.SqlNode;
+
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.KafkaConsumer;
+import org.apache.kafka.common.PartitionInfo;
+import org.apache.kafka.common.TopicPartition;
+
+import com.google.common.collect.ImmutableList;
+
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * A table that maps to an Apache Kafka topic, and whose scan reads the
+ * messages up to the end offsets of the topic's partitions at the start of
+ * the scan.
+ *
+ * <p>Filters on the partition, offset and timestamp of messages, if the table
+ * uses {@link KafkaRowConverterImpl}, are applied by assigning partitions to
+ * the consumers and moving them to the first offset to read; see
+ * {@link KafkaScanRange}. If {@link KafkaTableOptions#getParallelism()} is
+ * greater than 1, the partitions are divided among that many consumers, which
+ * read them concurrently.
+ *
+ * @see KafkaStreamTable
+ */
+public class KafkaTable implements ScannableTable, FilterableTable {
+  final KafkaTableOptions tableOptions;
+  private final boolean bounded;
+
+  KafkaTable(final KafkaTableOptions tableOptions) {
+    this(tableOptions, tableOptions.isBounded());
+  }
+
+  KafkaTable(final KafkaTableOptions tableOptions, final boolean bounded) {
+    this.tableOptions = tableOptions;
+    this.bounded = bounded;
+  }
+
+  @Override public Enumerable<@Nullable Object[]> scan(final DataContext root) {
+    return scan(root, new ArrayList<>());
+  }
+
+  @Override public Enumerable<@Nullable Object[]> scan(final DataContext root,
+      final List<RexNode> filters) {
+    final AtomicBoolean cancelFlag = DataContext.Variable.CANCEL_FLAG.get(root);
+    final Consumer injected = tableOptions.getConsumer();
+    final KafkaScanRange range =
+        tableOptions.getRowConverter() instanceof KafkaRowConverterImpl
+            && (injected == null || !injected.assignment().isEmpty())
+            ? KafkaScanRange.of(filters)
+            : KafkaScanRange.ALL;
+    return new AbstractEnumerable<@Nullable Object[]>() {
+      @Override public Enumerator<@Nullable Object[]> enumerator() {
+        return new KafkaMessageEnumerator(consumers(range),
+            tableOptions.getRowConverter(), range, bounded, cancelFlag);
+      }
+    };
+  }
+
+  /** Creates the consumers for a scan, and subscribes them to the topic or
+   * assigns partitions to them. */
+  private List<Consumer> consumers(KafkaScanRange range) {
+    final Consumer injected = tableOptions.getConsumer();
+    if (injected != null) {
+      if (range.partitions != null) {
+        final List<TopicPartition> partitions = new ArrayList<>();
+        for (Object o : injected.assignment()) {
+          final TopicPartition partition = (TopicPartition) o;
+          if (range.containsPartition(partition.partition())) {
+            partitions.add(partition);
+          }
+        }
+        if (partitions.isEmpty()) {
+          injected.close();
+          return ImmutableList.of();
+        }
+        injected.assign(partitions);
+      }
+      return ImmutableList.of(injected);
+    }
+
+    if (!bounded && range.isAll() && tableOptions.getParallelism() <= 1) {
+      final Consumer consumer = createConsumer();
+      consumer.subscribe(Collections.singletonList(tableOptions.getTopicName()));
+      return ImmutableList.of(consumer);
+    }
+
+    final Consumer first = createConsumer();
+    final List<TopicPartition> partitions = new ArrayList<>();
+    final List<PartitionInfo> infos =
+        first.partitionsFor(tableOptions.getTopicName());
+    for (PartitionInfo info : infos) {
+      if (range.containsPartition(info.partition())) {
+        partitions.add(new TopicPartition(info.topic(), info.partition()));
+      }
+    }
+    if (partitions.isEmpty()) {
+      first.close();
+      return ImmutableList.of();
+    }
+    final int n =
+        Math.max(1, Math.min(tableOptions.getParallelism(), partitions.size()));
+    final List<Consumer> consumers = new ArrayList<>();
+    for (int i = 0; i < n; i++) {
+      final List<TopicPartition> assignment = new ArrayList<>();
+      for (int j = i; j < partitions.size(); j += n) {
+        assignment.add(partitions.get(j));
+      }
+      final Consumer consumer = i == 0 ? first : createConsumer();
+      consumer.assign(assignment);
+      consumers.add(consumer);
+    }
+    return consumers;
+  }
+
+  private Consumer createConsumer() {
+    Properties consumerConfig = new Properties();
+    consumerConfig.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG,
+        tableOptions.getBootstrapServers());
+    // by default it's <byte[], byte[]>
+    consumerConfig.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG,
+        "org.apache.kafka.common.serialization.ByteArrayDeserializer");
+    consumerConfig.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG,
+        "org.apache.kafka.common.serialization.ByteArrayDeserializer");
+
+    if (tableOptions.getConsumerParams() != null) {
+      consumerConfig.putAll(tableOptions.getConsumerParams());
+    }
+    return new KafkaConsumer<>(consumerConfig);
+  }
+
+  @Override public RelDataType getRowType(final RelDataTypeFactory typeFactory) {
+    return tableOptions.getRowConverter().rowDataType(tableOptions.getTopicName());
+  }
+
+  @Override public Statistic getStatistic() {
+    return Statistics.UNKNOWN;
+  }
+
+  @Override public boolean isRolledUp(final String column) {
+    return false;
+  }
+
+  @Override public boolean rolledUpColumnValidInsideAgg(final String column, final SqlCall call,
+      final @Nullable SqlNode parent,
+      final @Nullable CalciteConnectionConfig config) {
+    return false;
+  }
+
+  @Override public Schema.TableType getJdbcTableType() {
+    return Schema.TableType.TABLE;
+  }
+}
@@ -25,4 +25,6 @@ interface KafkaTableConstants {
   String SCHEMA_ROW_CONVERTER = "row.converter";
   String SCHEMA_CUST_CONSUMER = "consumer.cust";
   String SCHEMA_CONSUMER_PARAMS = "consumer.params";
+  String SCHEMA_BOUNDED = "bounded";
+  String SCHEMA_PARALLELISM = "parallelism";
 }
@@ -30,14 +30,15 @@
 import java.util.Map;
 
 /**
- * Implementation of {@link TableFactory} for Apache Kafka. Currently an Apache Kafka
- * topic is mapping to a STREAM table.
+ * Implementation of {@link TableFactory} for Apache Kafka. An Apache Kafka
+ * topic is mapped to a STREAM table, or, if the {@code bounded} operand is
+ * true, to a table whose scan ends at the current end of the topic.
  */
-public class KafkaTableFactory implements TableFactory<KafkaStreamTable> {
+public class KafkaTableFactory implements TableFactory<KafkaTable> {
   public KafkaTableFactory() {
   }
 
-  @Override public KafkaStreamTable create(SchemaPlus schema,
+  @Override public KafkaTable create(SchemaPlus schema,
       String name,
       Map<String, Object> operand,
       @Nullable RelDataType rowType) {
@@ -93,6 +94,16 @@ public KafkaTableFactory() {
       }
     }
 
+    if (operand.containsKey(KafkaTableConstants.SCHEMA_PARALLELISM)) {
+      tableOptionBuilder.setParallelism(
+          Integer.parseInt(
+              String.valueOf(operand.get(KafkaTableConstants.SCHEMA_PARALLELISM))));
+    }
+    if (Boolean.parseBoolean(
+        String.valueOf(operand.get(KafkaTableConstants.SCHEMA_BOUNDED)))) {
+      tableOptionBuilder.setBounded(true);
+      return new KafkaTable(tableOptionBuilder);
+    }
     return new KafkaStreamTable(tableOptionBuilder);
   }
 }
@@ -21,7 +21,7 @@
 import java.util.Map;
 
 /**
- * Available options for {@link KafkaStreamTable}.
+ * Available options for {@link KafkaTable} and {@link KafkaStreamTable}.
  */
 public final class KafkaTableOptions {
   private String bootstrapServers;
@@ -30,6 +30,8 @@ public final class KafkaTableOptions {
   private Map<String, String> consumerParams;
   // added to inject MockConsumer for testing.
   private Consumer consumer;
+  private boolean bounded;
+  private int parallelism = 1;
 
   public String getBootstrapServers() {
     return bootstrapServers;
@@ -76,4 +78,27 @@ public KafkaTableOptions setConsumer(final Consumer consumer) {
     this.consumer = consumer;
     return this;
   }
+
+  /** Returns whether a scan reads the messages up to the end offsets of the
+   * topic's partitions at the start of the scan, and then ends; otherwise it
+   * waits for new messages until it is closed. */
+  public boolean isBounded() {
+    return bounded;
+  }
+
+  public KafkaTableOptions setBounded(final boolean bounded) {
+    this.bounded = bounded;
+    return this;
+  }
+
+  /** Returns the maximum number of consumers that read the partitions of
+   * the topic concurrently during a scan. */
+  public int getParallelism() {
+    return parallelism;
+  }
+
+  public KafkaTableOptions setParallelism(final int parallelism) {
+    this.parallelism = parallelism;
+    return this;
+  }
 }
@@ -84,9 +84,54 @@ private CalciteAssert.AssertThat assertModel(URL url) {
         .returnsUnordered(
             "MSG_PARTITION=0; MSG_OFFSET=1; MSG_VALUE_BYTES=myvalue1")
         .explainContains(
-            "PLAN=EnumerableCalc(expr#0..4=[{inputs}], expr#5=[0:BIGINT], expr#6=[>($t2, $t5)], MSG_PARTITION=[$t0], MSG_OFFSET=[$t2], MSG_VALUE_BYTES=[$t4], $condition=[$t6])\n"
+            "PLAN=EnumerableCalc(expr#0..4=[{inputs}], MSG_PARTITION=[$t0], MSG_OFFSET=[$t2], MSG_VALUE_BYTES=[$t4])\n"
                 + "  EnumerableInterpreter\n"
-                + "    BindableTableScan(table=[[KAFKA, MOCKTABLE, (STREAM)]])");
+                + "    BindableTableScan(table=[[KAFKA, MOCKTABLE, (STREAM)]], filters=[[>($2, 0)]])");
+  }
+
+  /** Tests that a range of offsets is read by seeking to its start, and that
+   * a scan of the stream ends at its end; otherwise the query would wait for
+   * new messages. */
+  @Test void testOffsetRange() {
+    assertModel(MODEL)
+        .query("SELECT STREAM MSG_OFFSET FROM KAFKA.MOCKTABLE"
+            + " WHERE MSG_OFFSET BETWEEN 3 AND 5")
+        .returnsUnordered("MSG_OFFSET=3", "MSG_OFFSET=4", "MSG_OFFSET=5");
+  }
+
+  /** Tests that a lower bound of 0 on the offset of a stream reads from the
+   * beginning, not from the consumer's committed offset, which is 5. */
+  @Test void testOffsetRangeFromZero() {
+    assertModel(MODEL)
+        .query("SELECT STREAM MSG_OFFSET FROM KAFKA.MOCKTABLE_COMMITTED"
+            + " WHERE MSG_OFFSET BETWEEN 0 AND 2")
+        .returnsUnordered("MSG_OFFSET=0", "MSG_OFFSET=1", "MSG_OFFSET=2");
+    assertModel(MODEL)
+        .query("SELECT STREAM MSG_OFFSET FROM KAFKA.MOCKTABLE_COMMITTED"
+            + " WHERE MSG_OFFSET >= 0")
+        .limit(1)
+        .returnsUnordered("MSG_OFFSET=0");
+  }
+
+  /** Tests that a filter on the partition assigns only that partition; the
+   * mock consumer has only partition 0, so the scan ends at once. */
+  @Test void testPartitionFilter() {
+    assertModel(MODEL)
+        .query("SELECT STREAM * FROM KAFKA.MOCKTABLE WHERE MSG_PARTITION = 1")
+        .returnsCount(0);
+  }
+
+  /** Tests a bounded table, whose scan ends at the end offsets of the
+   * partitions, and which can be queried as a relation. */
+  @Test void testBounded() {
+    assertModel(MODEL)
+        .query("SELECT COUNT(*) AS C, MIN(MSG_OFFSET) AS LO,"
+            + " MAX(MSG_OFFSET) AS HI FROM KAFKA.MOCKTABLE_BOUNDED")
+        .returnsUnordered("C=10; LO=0; HI=9");
+    assertModel(MODEL)
+        .query("SELECT MSG_OFFSET FROM KAFKA.MOCKTABLE_BOUNDED"
+            + " WHERE MSG_OFFSET >= 8")
+        .returnsUnordered("MSG_OFFSET=8", "MSG_OFFSET=9");
   }
 
   @Test void testCustRowConverter() {
@@ -38,6 +38,10 @@ public KafkaMockConsumer(final OffsetResetStrategy offsetResetStrategy) {
     beginningOffsets.put(new TopicPartition("testtopic", 0), 0L);
     updateBeginningOffsets(beginningOffsets);
 
+    HashMap<TopicPartition, Long> endOffsets = new HashMap<>();
+    endOffsets.put(new TopicPartition("testtopic", 0), 10L);
+    updateEndOffsets(endOffsets);
+
     for (int idx = 0; idx < 10; ++idx) {
       addRecord(
           new ConsumerRecord<>("testtopic",
@@ -1855,11 +1855,40 @@ public static <TSource, TInner, TResult> Enumerable<TResult> correlateBatchJoin(
       final Function2<TSource, TInner, TResult> resultSelector,
       final Predicate2<TSource, TInner> predicate,
       final int batchSize) {
+    return correlateBatchJoin(joinType, outer, null, inner, resultSelector,
+        predicate, batchSize);
+  }
+
+  /**
+   * As {@link #correlateBatchJoin(JoinType, Enumerable, Function1, Function2, Predicate2, int)},
+   * but passes to {@code inner} only one {@code outer} value for each distinct
+   * key.
+   *
+   * <p>A block is complete when it has {@code batchSize} distinct keys (or
+   * {@code 16 * batchSize} values, whichever comes first), so if the keys of
+   * {@code outer} repeat, the {@code inner} function is called fewer times,
+   * and each call is asked for fewer duplicate rows.
+   *
+   * <p>If {@code outerKeySelector} is null, each value is its own key.
+   */
+  public static <TSource, TInner, TResult, TKey> Enumerable<TResult> correlateBatchJoin(
+      final JoinType joinType,
+      final Enumerable<TSource> outer,
+      final @Nullable Function1<TSource, TKey> outerKeySelector,
+      final Function1<List<TSource>, Enumerable<TInner>> inner,
+      final Function2<TSource, TInner, TResult> resultSelector,
+      final Predicate2<TSource, TInner> predicate,
+      final int batchSize) {
+    final int maxOuterValues =
+        outerKeySelector == null ? batchSize : 16 * batchSize;
     return new AbstractEnumerable<TResult>() {
       @Override public Enumerator<TResult> enumerator() {
         return new Enumerator<TResult>() {
           final Enumerator<TSource> outerEnumerator = outer.enumerator();
           final List<TSource> outerValues = new ArrayList<>(batchSize);
+          /** One outer value for each distinct key in {@code outerValues}. */
+          final List<TSource> keyValues = new ArrayList<>(batchSize);
+          final Set<@Nullable TKey> keys = new HashSet<>();
           final List<TInner> innerValues = new ArrayList<>();
           @Nullable TSource outerValue;
           @Nullable TInner innerValue;
@@ -1883,9 +1912,17 @@ public static <TSource, TInner, TResult> Enumerable<TResult> correlateBatchJoin(
                 j = 0;
                 outerValues.clear();
                 innerValues.clear();
-                while (outerValues.size() < batchSize && outerEnumerator.moveNext()) {
+                keyValues.clear();
+                keys.clear();
+                while (keyValues.size() < batchSize
+                    && outerValues.size() < maxOuterValues
+                    && outerEnumerator.moveNext()) {
                   TSource tSource = outerEnumerator.current();
                   outerValues.add(tSource);
+                  if (outerKeySelector == null
+                      || keys.add(outerKeySelector.apply(tSource))) {
+                    keyValues.add(tSource);
+                  }
                 }
                 if (outerValues.isEmpty()) {
                   return false;
@@ -1894,7 +1931,7 @@ public static <TSource, TInner, TResult> Enumerable<TResult> correlateBatchJoin(
                   // If the last batch isn't complete fill it with the first value
                   // No harm since it's a disjunction
                   @Override public TSource get(final int index) {
-                    return index < outerValues.size() ? outerValues.get(index) : outerValues.get(0);
+                    return index < keyValues.size() ? keyValues.get(index) : keyValues.get(0);
                   }
                   @Override public int size() {
                     return batchSize;
@@ -1983,6 +2020,8 @@ private boolean innerHasNext() {
             outerValue = null;
             outerValues.clear();
             innerValues.clear();
+            keyValues.clear();
+            keys.clear();
             atLeastOneResult = false;
             i = -1;
           }
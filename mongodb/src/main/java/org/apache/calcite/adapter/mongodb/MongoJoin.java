@@ -0,0 +1,138 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.calcite.adapter.mongodb;
+
+import org.apache.calcite.plan.RelOptCluster;
+import org.apache.calcite.plan.RelOptCost;
+import org.apache.calcite.plan.RelOptPlanner;
+import org.apache.calcite.plan.RelTraitSet;
+import org.apache.calcite.rel.RelNode;
+import org.apache.calcite.rel.core.Join;
+import org.apache.calcite.rel.core.JoinInfo;
+import org.apache.calcite.rel.core.JoinRelType;
+import org.apache.calcite.rel.metadata.RelMetadataQuery;
+import org.apache.calcite.rex.RexNode;
+import org.apache.calcite.util.Util;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Implementation of an inner equi-join in MongoDB, as a {@code $lookup}
+ * stage that, for each document produced by the left input, finds the
+ * documents of another collection of the same database whose key matches.
+ *
+ * <p>The right input is a projection of fields of that collection. It is
+ * not implemented as a pipeline of its own; {@link #from} and
+ * {@link #rightFields} describe it, and each matching document is unwound
+ * and its fields projected after the lookup.
+ *
+ * <p>Because the right input is an input, the planner adds the cost of
+ * scanning the collection to the cost of this join, although the scan never
+ * runs. Every other implementation of the join reads the same input, so the
+ * charge does not change which one is chosen; the cost of the join itself
+ * is one lookup in the collection per document of the left input.
+ */
+public class MongoJoin extends Join implements MongoRel {
+  /** Name of the collection read by the right input. */
+  final String from;
+  /** Name of the field of the collection that is each field of the right
+   * input. */
+  final ImmutableList<String> rightFields;
+
+  public MongoJoin(RelOptCluster cluster, RelTraitSet traitSet, RelNode left,
+      RelNode right, RexNode condition, JoinRelType joinType, String from,
+      List<String> rightFields) {
+    super(cluster, traitSet, ImmutableList.of(), left, right, condition,
+        ImmutableSet.of(), joinType);
+    this.from = requireNonNull(from, "from");
+    this.rightFields = ImmutableList.copyOf(rightFields);
+    checkArgument(joinType == JoinRelType.INNER,
+        "only INNER joins are supported");
+    checkArgument(this.rightFields.size() == right.getRowType().getFieldCount(),
+        "rightFields");
+    assert getConvention() == MongoRel.CONVENTION;
+    assert getConvention() == left.getConvention();
+  }
+
+  @Override public MongoJoin copy(RelTraitSet traitSet, RexNode conditionExpr,
+      RelNode left, RelNode right, JoinRelType joinType,
+      boolean semiJoinDone) {
+    return new MongoJoin(getCluster(), traitSet, left, right, conditionExpr,
+        joinType, from, rightFields);
+  }
+
+  @Override public @Nullable RelOptCost computeSelfCost(RelOptPlanner planner,
+      RelMetadataQuery mq) {
+    // One lookup per document of the left input, plus the documents that
+    // match; like the other MongoDB operators, work done by the server costs
+    // a tenth of the same work done by Calcite
+    final double leftRowCount = mq.getRowCount(left);
+    final double rowCount = mq.getRowCount(this);
+    return planner.getCostFactory()
+        .makeCost(leftRowCount + rowCount, 0, leftRowCount)
+        .multiplyBy(0.1);
+  }
+
+  @Override public void implement(Implementor implementor) {
+    implementor.visitChild(0, getLeft());
+
+    final List<String> leftFields =
+        MongoRules.mongoFieldNames(getLeft().getRowType());
+    final List<String> outFields = MongoRules.mongoFieldNames(getRowType());
+    final JoinInfo joinInfo = analyzeCondition();
+    final String localField = leftFields.get(joinInfo.leftKeys.get(0));
+    final String foreignField = rightFields.get(joinInfo.rightKeys.get(0));
+    String as = "_join";
+    while (leftFields.contains(as)) {
+      as = "_" + as;
+    }
+
+    // A null key matches a missing or null field in $lookup, but never
+    // matches in SQL.
+    implementor.add(null,
+        "{$match: {" + MongoRules.maybeQuote(localField) + ": {$ne: null}}}");
+    implementor.add(null,
+        "{$lookup: {from: " + MongoRules.quote(from)
+            + ", localField: " + MongoRules.quote(localField)
+            + ", foreignField: " + MongoRules.quote(foreignField)
+            + ", as: " + MongoRules.quote(as) + "}}");
+    implementor.add(null, "{$unwind: " + MongoRules.quote("$" + as) + "}");
+
+    final List<String> items = new ArrayList<>();
+    for (int i = 0; i < outFields.size(); i++) {
+      final String name = outFields.get(i);
+      final String expr = i < leftFields.size()
+          ? "$" + leftFields.get(i)
+          : "$" + as + "." + rightFields.get(i - leftFields.size());
+      items.add(expr.equals("$" + name)
+          ? MongoRules.maybeQuote(name) + ": 1"
+          : MongoRules.maybeQuote(name) + ": " + MongoRules.quote(expr));
+    }
+    implementor.add(null, "{$project: " + Util.toString(items, "{", ", ", "}")
+        + "}");
+  }
+}
@@ -0,0 +1,261 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.calcite.adapter.mongodb;
+
+import org.apache.calcite.linq4j.Enumerator;
+import org.apache.calcite.linq4j.function.Function1;
+import org.apache.calcite.runtime.ParallelEnumerator;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import com.mongodb.MongoCommandException;
+import com.mongodb.client.AggregateIterable;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.MongoCursor;
+
+import org.bson.BsonDocument;
+import org.bson.Document;
+import org.bson.conversions.Bson;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Scan of a MongoDB collection that runs an aggregation pipeline over ranges
+ * of {@code _id} on several cursors at a time.
+ *
+ * <p>{@link #split} reads the smallest and largest {@code _id} from the
+ * {@code _id} index, and a random sample of {@code _id} values, sorted, to
+ * place the boundaries in between, so that each range holds about the same
+ * number of documents. Each range is read by the pipeline preceded by a
+ * {@code $match} on its bounds, on its own thread, and its documents are
+ * converted to rows on the thread that reads them.
+ *
+ * <p>Only pipelines whose stages transform or discard each document
+ * independently of the others, such as {@code $match} and {@code $project},
+ * can be split. Rows are returned in {@code _id} order: ranges are read
+ * concurrently, but each range's rows are returned only after those of the
+ * previous range.
+ */
+class MongoParallelScan {
+  /** Number of ranges per thread, so that threads that read slow ranges do
+   * not hold up the others. */
+  static final int RANGES_PER_THREAD = 4;
+
+  /** Number of {@code _id} values sampled per range to place the
+   * boundaries. */
+  private static final int SAMPLES_PER_RANGE = 16;
+
+  /** Number of rows passed from a reading thread to the consumer at a
+   * time. */
+  private static final int BATCH_SIZE = 1024;
+
+  /** Number of batches that the reader of a range may produce before the
+   * consumer takes them. */
+  private static final int QUEUE_CAPACITY = 4;
+
+  /** Pipeline stages that give the same result over a collection as the
+   * union of their results over ranges of the collection. */
+  private static final Set<String> RANGE_STAGES =
+      ImmutableSet.of("$match", "$project", "$lookup", "$unwind");
+
+  private final MongoCollection<Document> collection;
+  private final ImmutableList<BsonDocument> pipeline;
+  private final List<Object> boundaries;
+  private final int parallelism;
+  private final int batchSize;
+  private final Function1<Document, Object> getter;
+
+  /** Creates a MongoParallelScan.
+   *
+   * @param collection  Collection
+   * @param pipeline    Aggregation pipeline to run over each range
+   * @param boundaries  Values of {@code _id} at the range boundaries, as
+   *                    returned by {@link #split}
+   * @param parallelism Maximum number of threads
+   * @param batchSize   Number of documents fetched per round trip, or 0 to
+   *                    use the server's default
+   * @param getter      Converts a document into a row
+   */
+  MongoParallelScan(MongoCollection<Document> collection,
+      List<BsonDocument> pipeline, List<Object> boundaries, int parallelism,
+      int batchSize, Function1<Document, Object> getter) {
+    this.collection = collection;
+    this.pipeline = ImmutableList.copyOf(pipeline);
+    this.boundaries = ImmutableList.copyOf(boundaries);
+    this.parallelism =
+        Math.max(1, Math.min(parallelism, boundaries.size() - 1));
+    this.batchSize = batchSize;
+    this.getter = getter;
+  }
+
+  /** Returns whether a pipeline can be run over ranges of a collection and
+   * its results concatenated. */
+  static boolean canSplit(List<BsonDocument> pipeline) {
+    for (BsonDocument stage : pipeline) {
+      if (stage.size() != 1 || !RANGE_STAGES.contains(stage.getFirstKey())) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /** Divides the documents of a collection into at most {@code rangeCount}
+   * ranges of {@code _id}, each of at least {@code minRows} documents.
+   * Returns the boundaries, starting with the smallest {@code _id} and
+   * ending with the largest; each range includes its lower boundary, and
+   * the last range also includes its upper boundary.
+   *
+   * <p>Costs two reads of the {@code _id} index and one {@code $sample}
+   * of {@link #SAMPLES_PER_RANGE} values per range, which the server answers
+   * without reading the whole collection if the sample is less than 5% of
+   * the collection. Call it once per query; {@link MongoTable} reuses the
+   * boundaries each time a query is enumerated.
+   *
+   * <p>Returns null if the collection is too small to be divided, or if its
+   * {@code _id} values are not all of the same type, because a range
+   * condition only matches values of the type of its bounds, or if the
+   * sample places no boundary between the smallest and largest. */
+  static @Nullable List<Object> split(MongoCollection<Document> collection,
+      int rangeCount, long minRows) {
+    final long count = collection.estimatedDocumentCount();
+    final int n = (int) Math.min(rangeCount, count / Math.max(1, minRows));
+    if (n < 2) {
+      return null;
+    }
+    final Object min = firstId(collection, 1);
+    final Object max = firstId(collection, -1);
+    if (min == null || max == null || !sameType(min, max)) {
+      return null;
+    }
+    final List<Object> sample =
+        sampleIds(collection, n * SAMPLES_PER_RANGE, count, min);
+    final List<Object> boundaries = new ArrayList<>();
+    boundaries.add(min);
+    if (!sample.isEmpty()) {
+      for (int i = 1; i < n; i++) {
+        final Object id = sample.get(sample.size() * i / n);
+        if (!id.equals(boundaries.get(boundaries.size() - 1))
+            && !id.equals(max)) {
+          boundaries.add(id);
+        }
+      }
+    }
+    boundaries.add(max);
+    return boundaries.size() > 2 ? boundaries : null;
+  }
+
+  /** Returns about {@code size} values of {@code _id} of the same type as
+   * {@code min}, chosen at random, in ascending order.
+   *
+   * <p>If the server does not support {@code $sample}, reads every
+   * {@code count / size}th value in one pass over the {@code _id} index. */
+  private static List<Object> sampleIds(MongoCollection<Document> collection,
+      int size, long count, Object min) {
+    final List<Object> sample = new ArrayList<>();
+    try {
+      final List<Bson> samplePipeline =
+          ImmutableList.of(new Document("$sample", new Document("size", size)),
+              new Document("$project", new Document("_id", 1)),
+              new Document("$sort", new Document("_id", 1)));
+      for (Document document : collection.aggregate(samplePipeline)) {
+        final Object id = document.get("_id");
+        if (id != null && sameType(id, min)) {
+          sample.add(id);
+        }
+      }
+      return sample;
+    } catch (MongoCommandException e) {
+      sample.clear();
+    }
+    final long step = Math.max(1, count / size);
+    long i = 0;
+    for (Document document
+        : collection.find()
+            .projection(new Document("_id", 1))
+            .sort(new Document("_id", 1))) {
+      final Object id = document.get("_id");
+      if (i++ % step == 0 && id != null && sameType(id, min)) {
+        sample.add(id);
+      }
+    }
+    return sample;
+  }
+
+  /** Returns the first {@code _id} of the {@code _id} index, in ascending
+   * ({@code direction} 1) or descending (-1) order. */
+  private static @Nullable Object firstId(MongoCollection<Document> collection,
+      int direction) {
+    final Document document =
+        collection.find()
+            .projection(new Document("_id", 1))
+            .sort(new Document("_id", direction))
+            .limit(1)
+            .first();
+    return document == null ? null : document.get("_id");
+  }
+
+  private static boolean sameType(Object o0, Object o1) {
+    return o0.getClass() == o1.getClass()
+        || o0 instanceof Number && o1 instanceof Number;
+  }
+
+  /** Returns an enumerator over the rows of the scan. */
+  Enumerator<Object> enumerator() {
+    final List<RangeReader> readers = new ArrayList<>();
+    for (int i = 0; i < boundaries.size() - 1; i++) {
+      readers.add(new RangeReader(i));
+    }
+    return ParallelEnumerator.create(readers, parallelism, true, BATCH_SIZE,
+        QUEUE_CAPACITY, null);
+  }
+
+  /** Runs the pipeline over a range of {@code _id}. */
+  private class RangeReader implements ParallelEnumerator.Producer<Object> {
+    private final int range;
+
+    RangeReader(int range) {
+      this.range = range;
+    }
+
+    @Override public void produce(ParallelEnumerator.Sink<Object> sink) {
+      final boolean lastRange = range == boundaries.size() - 2;
+      final Document bounds =
+          new Document("$gte", boundaries.get(range))
+              .append(lastRange ? "$lte" : "$lt", boundaries.get(range + 1));
+      final List<Bson> rangePipeline = new ArrayList<>();
+      rangePipeline.add(new Document("$match", new Document("_id", bounds)));
+      rangePipeline.addAll(pipeline);
+      AggregateIterable<Document> iterable =
+          collection.aggregate(rangePipeline);
+      if (batchSize > 0) {
+        iterable = iterable.batchSize(batchSize);
+      }
+      try (MongoCursor<Document> cursor = iterable.iterator()) {
+        while (!sink.isClosed() && cursor.hasNext()) {
+          sink.add(getter.apply(cursor.next()));
+        }
+      }
+    }
+
+    @Override public String toString() {
+      return "range " + range + " of " + collection.getNamespace();
+    }
+  }
+}
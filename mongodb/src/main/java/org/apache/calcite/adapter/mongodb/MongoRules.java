@@ -22,20 +22,27 @@
 import org.apache.calcite.plan.Convention;
 import org.apache.calcite.plan.RelOptRule;
 import org.apache.calcite.plan.RelOptRuleCall;
+import org.apache.calcite.plan.RelOptTable;
+import org.apache.calcite.plan.RelRule;
 import org.apache.calcite.plan.RelTraitSet;
 import org.apache.calcite.rel.InvalidRelException;
 import org.apache.calcite.rel.RelCollations;
 import org.apache.calcite.rel.RelNode;
 import org.apache.calcite.rel.convert.ConverterRule;
+import org.apache.calcite.rel.core.JoinInfo;
+import org.apache.calcite.rel.core.JoinRelType;
 import org.apache.calcite.rel.core.Sort;
 import org.apache.calcite.rel.logical.LogicalAggregate;
 import org.apache.calcite.rel.logical.LogicalFilter;
+import org.apache.calcite.rel.logical.LogicalJoin;
 import org.apache.calcite.rel.logical.LogicalProject;
+import org.apache.calcite.rel.metadata.RelMetadataQuery;
 import org.apache.calcite.rel.type.RelDataType;
 import org.apache.calcite.rex.RexCall;
 import org.apache.calcite.rex.RexInputRef;
 import org.apache.calcite.rex.RexLiteral;
 import org.apache.calcite.rex.RexNode;
+import org.apache.calcite.rex.RexTableInputRef;
 import org.apache.calcite.rex.RexVisitorImpl;
 import org.apache.calcite.sql.SqlKind;
 import org.apache.calcite.sql.SqlOperator;
@@ -46,12 +53,15 @@
 import org.apache.calcite.util.Util;
 import org.apache.calcite.util.trace.CalciteTrace;
 
+import org.immutables.value.Value;
 import org.slf4j.Logger;
 
 import java.util.AbstractList;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 /**
  * Rules and relational operators for
@@ -325,6 +335,113 @@ private static class MongoProjectRule extends MongoConverterRule {
     }
   }
 
+  /**
+   * Rule to convert a {@link org.apache.calcite.rel.logical.LogicalJoin}
+   * whose right input is a projection of fields of a {@link MongoTableScan}
+   * to a {@link MongoJoin}.
+   *
+   * <p>The join must be an inner join on a single equality between a column
+   * of the left input and a field of the collection, and the left input must
+   * read only collections of the same database, because {@code $lookup}
+   * cannot read another database.
+   *
+   * <p>Not in {@link MongoRules#RULES}; a scan registers it if its schema
+   * has the {@code lookupJoin} operand.
+   */
+  public static class MongoJoinRule
+      extends RelRule<MongoJoinRule.MongoJoinRuleConfig> {
+    static final MongoJoinRule INSTANCE =
+        MongoJoinRuleConfig.DEFAULT.toRule();
+
+    /** Creates a MongoJoinRule. */
+    protected MongoJoinRule(MongoJoinRuleConfig config) {
+      super(config);
+    }
+
+    @Override public void onMatch(RelOptRuleCall call) {
+      final LogicalJoin join = call.rel(0);
+      final LogicalProject project = call.rel(2);
+      final MongoTableScan scan = call.rel(3);
+      if (!scan.mongoTable.lookupJoin) {
+        return;
+      }
+      final JoinInfo joinInfo = join.analyzeCondition();
+      if (!joinInfo.isEqui() || joinInfo.pairs().size() != 1) {
+        return;
+      }
+      final RelDataType leftKeyType =
+          join.getLeft().getRowType().getFieldList()
+              .get(joinInfo.leftKeys.get(0)).getType();
+      if (leftKeyType.getSqlTypeName() == SqlTypeName.MAP) {
+        return;
+      }
+      final List<String> rightFields = new ArrayList<>();
+      for (RexNode e : project.getProjects()) {
+        final RexNode operand =
+            e.getKind() == SqlKind.CAST ? ((RexCall) e).operands.get(0) : e;
+        final String name =
+            operand instanceof RexCall ? isItem((RexCall) operand) : null;
+        if (name == null) {
+          return;
+        }
+        rightFields.add(name);
+      }
+      if (!sameDatabase(call.getMetadataQuery(), join.getLeft(), scan)) {
+        return;
+      }
+      final RelTraitSet traitSet =
+          join.getTraitSet().replace(MongoRel.CONVENTION);
+      call.transformTo(
+          new MongoJoin(join.getCluster(), traitSet,
+              convert(join.getLeft(), MongoRel.CONVENTION),
+              convert(join.getRight(), MongoRel.CONVENTION),
+              join.getCondition(), join.getJoinType(),
+              scan.mongoTable.collectionName, rightFields));
+    }
+
+    /** Returns whether every table read by {@code rel} is a MongoDB
+     * collection in the same schema as the collection read by
+     * {@code scan}. */
+    private static boolean sameDatabase(RelMetadataQuery mq, RelNode rel,
+        MongoTableScan scan) {
+      final Set<RexTableInputRef.RelTableRef> tableRefs =
+          mq.getTableReferences(rel);
+      if (tableRefs == null || tableRefs.isEmpty()) {
+        return false;
+      }
+      final List<String> schemaPath =
+          Util.skipLast(scan.getTable().getQualifiedName());
+      for (RexTableInputRef.RelTableRef tableRef : tableRefs) {
+        final RelOptTable table = tableRef.getTable();
+        if (table.unwrap(MongoTable.class) == null
+            || !Util.skipLast(table.getQualifiedName()).equals(schemaPath)) {
+          return false;
+        }
+      }
+      return true;
+    }
+
+    /** Rule configuration. */
+    @Value.Immutable(singleton = false)
+    public interface MongoJoinRuleConfig extends RelRule.Config {
+      MongoJoinRuleConfig DEFAULT = ImmutableMongoJoinRuleConfig.builder()
+          .withDescription("MongoJoinRule")
+          .withOperandSupplier(b0 ->
+              b0.operand(LogicalJoin.class)
+                  .predicate(join -> join.getJoinType() == JoinRelType.INNER
+                      && join.getVariablesSet().isEmpty())
+                  .inputs(b1 -> b1.operand(RelNode.class).anyInputs(),
+                      b2 -> b2.operand(LogicalProject.class)
+                          .oneInput(b3 -> b3.operand(MongoTableScan.class)
+                              .noInputs())))
+          .build();
+
+      @Override default MongoJoinRule toRule() {
+        return new MongoJoinRule(this);
+      }
+    }
+  }
+
 /*
 
   /**
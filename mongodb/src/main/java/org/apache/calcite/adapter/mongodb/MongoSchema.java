@@ -35,7 +35,21 @@
  * is a MONGO file in that directory.
  */
 public class MongoSchema extends AbstractSchema {
+  /** Default minimum number of documents in each range of a parallel scan.
+   * A collection with fewer than twice as many documents is read by a
+   * single cursor. */
+  static final long DEFAULT_PARALLEL_MIN_ROWS = 100_000;
+
   final MongoDatabase mongoDb;
+  /** Number of documents that a cursor fetches from the server per round
+   * trip, or 0 to use the server's default. */
+  final int batchSize;
+  /** Maximum number of cursors that read a collection in parallel. */
+  final int parallelism;
+  final long parallelMinRows;
+  /** Whether to implement joins between collections as {@code $lookup}
+   * stages. */
+  final boolean lookupJoin;
 
   /**
    * Creates a MongoDB schema.
@@ -44,6 +58,25 @@ public class MongoSchema extends AbstractSchema {
    * @param database Mongo database name, e.g. "foodmart"
    */
   MongoSchema(MongoClientSettings settings, String database) {
+    this(settings, database, 0, 1, false);
+  }
+
+  /**
+   * Creates a MongoDB schema with cursor settings.
+   *
+   * @param settings    Mongo connection settings, including host and
+   *                    credentials
+   * @param database    Mongo database name, e.g. "foodmart"
+   * @param batchSize   Number of documents fetched per round trip, or 0 to
+   *                    use the server's default
+   * @param parallelism Maximum number of cursors that read a large
+   *                    collection in parallel; 1 to read each collection
+   *                    with a single cursor
+   * @param lookupJoin  Whether to implement joins between collections as
+   *                    {@code $lookup} stages
+   */
+  MongoSchema(MongoClientSettings settings, String database, int batchSize,
+      int parallelism, boolean lookupJoin) {
     super();
 
     final MongoClient mongo = MongoClients.create(settings);
@@ -53,6 +86,10 @@ public class MongoSchema extends AbstractSchema {
       mongo.close();
       throw new RuntimeException(e);
     }
+    this.batchSize = batchSize;
+    this.parallelism = parallelism;
+    this.parallelMinRows = DEFAULT_PARALLEL_MIN_ROWS;
+    this.lookupJoin = lookupJoin;
   }
 
   /**
@@ -62,14 +99,35 @@ public class MongoSchema extends AbstractSchema {
    */
   @VisibleForTesting
   MongoSchema(MongoDatabase mongoDb) {
+    this(mongoDb, 0, 1, DEFAULT_PARALLEL_MIN_ROWS, false);
+  }
+
+  /**
+   * Allows tests to inject their instance of the database, and to scan small
+   * collections in parallel.
+   *
+   * @param mongoDb         existing mongo database instance
+   * @param batchSize       Number of documents fetched per round trip, or 0
+   * @param parallelism     Maximum number of cursors per collection scan
+   * @param parallelMinRows Minimum number of documents per range of a
+   *                        parallel scan
+   * @param lookupJoin      Whether to implement joins as {@code $lookup}
+   */
+  @VisibleForTesting
+  MongoSchema(MongoDatabase mongoDb, int batchSize, int parallelism,
+      long parallelMinRows, boolean lookupJoin) {
     super();
     this.mongoDb = requireNonNull(mongoDb, "mongoDb");
+    this.batchSize = batchSize;
+    this.parallelism = parallelism;
+    this.parallelMinRows = parallelMinRows;
+    this.lookupJoin = lookupJoin;
   }
 
   @Override protected Map<String, Table> getTableMap() {
     final ImmutableMap.Builder<String, Table> builder = ImmutableMap.builder();
     for (String collectionName : mongoDb.listCollectionNames()) {
-      builder.put(collectionName, new MongoTable(collectionName));
+      builder.put(collectionName, new MongoTable(collectionName, lookupJoin));
     }
     return builder.build();
   }
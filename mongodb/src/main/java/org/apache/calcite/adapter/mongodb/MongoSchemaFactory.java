@@ -31,6 +31,18 @@
  * Factory that creates a {@link MongoSchema}.
  *
  * <p>Allows a custom schema to be included in a model.json file.
+ *
+ * <p>Besides the connection operands, the following operands are optional:
+ *
+ * <ul>
+ * <li>{@code batchSize}: number of documents that a cursor fetches from the
+ * server per round trip; by default, the server decides;
+ * <li>{@code parallelism}: maximum number of cursors that read a large
+ * collection in parallel, each over a range of {@code _id} values; default
+ * 1, which reads each collection with a single cursor;
+ * <li>{@code lookupJoin}: whether to implement an inner equi-join between
+ * collections of the database as a {@code $lookup} stage; default false.
+ * </ul>
  */
 public class MongoSchemaFactory implements SchemaFactory {
   // public constructor, per factory contract
@@ -52,7 +64,15 @@ public MongoSchemaFactory() {
       settings.credential(createCredential(operand));
     }
 
-    return new MongoSchema(settings.build(), database);
+    // Values are numbers and booleans in a JSON model, but strings in a
+    // connect string
+    final Object batchSize = operand.get("batchSize");
+    final Object parallelism = operand.get("parallelism");
+    final Object lookupJoin = operand.get("lookupJoin");
+    return new MongoSchema(settings.build(), database,
+        batchSize == null ? 0 : Integer.parseInt(String.valueOf(batchSize)),
+        parallelism == null ? 1 : Integer.parseInt(String.valueOf(parallelism)),
+        lookupJoin != null && Boolean.parseBoolean(String.valueOf(lookupJoin)));
   }
 
   private static MongoCredential createCredential(Map<String, Object> map) {
@@ -34,30 +34,42 @@
 import org.apache.calcite.sql.type.SqlTypeName;
 import org.apache.calcite.util.Util;
 
+import com.google.common.base.Suppliers;
+import com.mongodb.client.AggregateIterable;
 import com.mongodb.client.FindIterable;
 import com.mongodb.client.MongoCollection;
-import com.mongodb.client.MongoDatabase;
 
 import org.bson.BsonDocument;
 import org.bson.Document;
 import org.bson.conversions.Bson;
+import org.checkerframework.checker.nullness.qual.Nullable;
 
 import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Supplier;
 
 /**
  * Table based on a MongoDB collection.
  */
 public class MongoTable extends AbstractQueryableTable
     implements TranslatableTable {
-  private final String collectionName;
+  final String collectionName;
+  /** Whether joins with this collection may be implemented as
+   * {@code $lookup} stages. */
+  final boolean lookupJoin;
 
   /** Creates a MongoTable. */
   MongoTable(String collectionName) {
+    this(collectionName, false);
+  }
+
+  /** Creates a MongoTable, optionally allowing joins as {@code $lookup}. */
+  MongoTable(String collectionName, boolean lookupJoin) {
     super(Object[].class);
     this.collectionName = collectionName;
+    this.lookupJoin = lookupJoin;
   }
 
   @Override public String toString() {
@@ -91,16 +103,16 @@ public class MongoTable extends AbstractQueryableTable
    * <p>For example,
    * <code>zipsTable.find("{state: 'OR'}", "{city: 1, zipcode: 1}")</code>
    *
-   * @param mongoDb MongoDB connection
+   * @param schema Schema, holding the MongoDB connection
    * @param filterJson Filter JSON string, or null
    * @param projectJson Project JSON string, or null
    * @param fields List of fields to project; or null to return map
    * @return Enumerator of results
    */
-  private Enumerable<Object> find(MongoDatabase mongoDb, String filterJson,
+  private Enumerable<Object> find(MongoSchema schema, String filterJson,
       String projectJson, List<Map.Entry<String, Class>> fields) {
     final MongoCollection collection =
-        mongoDb.getCollection(collectionName);
+        schema.mongoDb.getCollection(collectionName);
     final Bson filter =
         filterJson == null ? null : BsonDocument.parse(filterJson);
     final Bson project =
@@ -108,8 +120,11 @@ private Enumerable<Object> find(MongoDatabase mongoDb, String filterJson,
     final Function1<Document, Object> getter = MongoEnumerator.getter(fields);
     return new AbstractEnumerable<Object>() {
       @Override public Enumerator<Object> enumerator() {
-        @SuppressWarnings("unchecked") final FindIterable<Document> cursor =
+        @SuppressWarnings("unchecked") FindIterable<Document> cursor =
             collection.find(filter).projection(project);
+        if (schema.batchSize > 0) {
+          cursor = cursor.batchSize(schema.batchSize);
+        }
         return new MongoEnumerator(cursor.iterator(), getter);
       }
     };
@@ -123,26 +138,49 @@ private Enumerable<Object> find(MongoDatabase mongoDb, String filterJson,
    * "{$group: {_id: '$city', c: {$sum: 1}, p: {$sum: '$pop'}}}")
    * </code>
    *
-   * @param mongoDb MongoDB connection
+   * <p>If the schema allows parallel scans, the pipeline can be split by
+   * ranges of {@code _id}, and the collection is large, the pipeline runs on
+   * several cursors; see {@link MongoParallelScan}.
+   *
+   * @param schema Schema, holding the MongoDB connection
    * @param fields List of fields to project; or null to return map
    * @param operations One or more JSON strings
    * @return Enumerator of results
    */
-  private Enumerable<Object> aggregate(final MongoDatabase mongoDb,
+  private Enumerable<Object> aggregate(final MongoSchema schema,
       final List<Map.Entry<String, Class>> fields,
       final List<String> operations) {
-    final List<Bson> list = new ArrayList<>();
+    final List<BsonDocument> list = new ArrayList<>();
     for (String operation : operations) {
       list.add(BsonDocument.parse(operation));
     }
     final Function1<Document, Object> getter =
         MongoEnumerator.getter(fields);
+    final MongoCollection<Document> collection =
+        schema.mongoDb.getCollection(collectionName);
+    // Ranges are computed when the query is first enumerated, and reused if
+    // it is enumerated again, say as the inner input of a nested-loop join
+    final Supplier<@Nullable List<Object>> boundaries =
+        Suppliers.memoize(() ->
+            schema.parallelism > 1 && MongoParallelScan.canSplit(list)
+                ? MongoParallelScan.split(collection,
+                    schema.parallelism * MongoParallelScan.RANGES_PER_THREAD,
+                    schema.parallelMinRows)
+                : null);
     return new AbstractEnumerable<Object>() {
       @Override public Enumerator<Object> enumerator() {
         final Iterator<Document> resultIterator;
         try {
-          resultIterator = mongoDb.getCollection(collectionName)
-              .aggregate(list).iterator();
+          final List<Object> ranges = boundaries.get();
+          if (ranges != null) {
+            return new MongoParallelScan(collection, list, ranges,
+                schema.parallelism, schema.batchSize, getter).enumerator();
+          }
+          AggregateIterable<Document> iterable = collection.aggregate(list);
+          if (schema.batchSize > 0) {
+            iterable = iterable.batchSize(schema.batchSize);
+          }
+          resultIterator = iterable.iterator();
         } catch (Exception e) {
           throw new RuntimeException("While running MongoDB query "
               + Util.toString(operations, "[", ",\n", "]"), e);
@@ -165,12 +203,12 @@ private Enumerable<Object> aggregate(final MongoDatabase mongoDb,
     @Override public Enumerator<T> enumerator() {
       //noinspection unchecked
       final Enumerable<T> enumerable =
-          (Enumerable<T>) getTable().find(getMongoDb(), null, null, null);
+          (Enumerable<T>) getTable().find(getMongoSchema(), null, null, null);
       return enumerable.enumerator();
     }
 
-    private MongoDatabase getMongoDb() {
-      return schema.unwrap(MongoSchema.class).mongoDb;
+    private MongoSchema getMongoSchema() {
+      return schema.unwrap(MongoSchema.class);
     }
 
     private MongoTable getTable() {
@@ -184,7 +222,7 @@ private MongoTable getTable() {
     @SuppressWarnings("UnusedDeclaration")
     public Enumerable<Object> aggregate(List<Map.Entry<String, Class>> fields,
         List<String> operations) {
-      return getTable().aggregate(getMongoDb(), fields, operations);
+      return getTable().aggregate(getMongoSchema(), fields, operations);
     }
 
     /** Called via code-generation.
@@ -199,7 +237,8 @@ public Enumerable<Object> aggregate(List<Map.Entry<String, Class>> fields,
     @SuppressWarnings("UnusedDeclaration")
     public Enumerable<Object> find(String filterJson,
         String projectJson, List<Map.Entry<String, Class>> fields) {
-      return getTable().find(getMongoDb(), filterJson, projectJson, fields);
+      return getTable().find(getMongoSchema(), filterJson, projectJson,
+          fields);
     }
   }
 }
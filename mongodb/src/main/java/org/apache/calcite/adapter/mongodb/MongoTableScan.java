@@ -89,6 +89,9 @@ protected MongoTableScan(RelOptCluster cluster, RelTraitSet traitSet,
     for (RelOptRule rule : MongoRules.RULES) {
       planner.addRule(rule);
     }
+    if (mongoTable.lookupJoin) {
+      planner.addRule(MongoRules.MongoJoinRule.INSTANCE);
+    }
   }
 
   @Override public void implement(Implementor implementor) {
@@ -16,15 +16,18 @@
  */
 package org.apache.calcite.adapter.mongodb;
 
+import org.apache.calcite.linq4j.Enumerator;
 import org.apache.calcite.schema.Schema;
 import org.apache.calcite.schema.SchemaFactory;
 import org.apache.calcite.schema.SchemaPlus;
 import org.apache.calcite.test.CalciteAssert;
 import org.apache.calcite.test.MongoAssertions;
 import org.apache.calcite.util.Bug;
+import org.apache.calcite.util.Pair;
 import org.apache.calcite.util.TestUtil;
 import org.apache.calcite.util.Util;
 
+import com.google.common.collect.ImmutableList;
 import com.google.common.io.LineProcessor;
 import com.google.common.io.Resources;
 import com.mongodb.client.MongoCollection;
@@ -53,6 +56,7 @@
 import java.time.Instant;
 import java.time.LocalDate;
 import java.time.ZoneOffset;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Locale;
@@ -62,7 +66,9 @@
 import java.util.function.Function;
 import java.util.stream.Collectors;
 
+import static org.hamcrest.CoreMatchers.containsString;
 import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.notNullValue;
 import static org.hamcrest.CoreMatchers.nullValue;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.junit.jupiter.api.Assertions.fail;
@@ -146,10 +152,21 @@ private static void populate(MongoCollection<Document> collection, URL resource)
     });
   }
 
-  /** Returns always the same schema to avoid initialization costs. */
+  /** Returns always the same schema to avoid initialization costs, unless
+   * the model sets cursor or join operands. */
   @Override public Schema create(SchemaPlus parentSchema, String name,
       Map<String, Object> operand) {
-    return schema;
+    final Number batchSize = (Number) operand.get("batchSize");
+    final Number parallelism = (Number) operand.get("parallelism");
+    final Boolean lookupJoin = (Boolean) operand.get("lookupJoin");
+    if (batchSize == null && parallelism == null && lookupJoin == null) {
+      return schema;
+    }
+    // Split even the small test collections into ranges
+    return new MongoSchema(POLICY.database(),
+        batchSize == null ? 0 : batchSize.intValue(),
+        parallelism == null ? 1 : parallelism.intValue(), 10,
+        Boolean.TRUE.equals(lookupJoin));
   }
 
   private CalciteAssert.AssertThat assertModel(String model) {
@@ -161,9 +178,18 @@ private CalciteAssert.AssertThat assertModel(String model) {
   }
 
   private CalciteAssert.AssertThat assertModel(URL url) {
+    return assertModel(url, "");
+  }
+
+  /** Returns a model whose "mongo_raw" schema has extra operands, for
+   * example {@code "lookupJoin": true}. */
+  private CalciteAssert.AssertThat assertModel(URL url, String operands) {
     requireNonNull(url, "url");
     try {
-      return assertModel(Resources.toString(url, StandardCharsets.UTF_8));
+      final String model = Resources.toString(url, StandardCharsets.UTF_8);
+      return assertModel(operands.isEmpty() ? model
+          : model.replace("\"database\": \"test\"",
+              "\"database\": \"test\", " + operands));
     } catch (IOException e) {
       throw new UncheckedIOException(e);
     }
@@ -238,6 +264,93 @@ private CalciteAssert.AssertThat assertModel(URL url) {
                 "{$sort: {ID: 1}}"));
   }
 
+  /** Tests that an equi-join between collections of the same database is
+   * implemented as a {@code $lookup} stage if the schema allows it. */
+  @Test void testLookupJoin() {
+    final String sql = "select w.\"warehouse_id\", s.\"store_name\"\n"
+        + "from \"warehouse\" as w\n"
+        + "join \"store\" as s on w.\"warehouse_id\" = s.\"store_id\"\n"
+        + "where w.\"warehouse_state_province\" = 'CA'";
+    final String[] expected = {
+        "warehouse_id=6; store_name=Store 6",
+        "warehouse_id=7; store_name=Store 7",
+        "warehouse_id=14; store_name=Store 14",
+        "warehouse_id=24; store_name=Store 24"};
+    assertModel(MODEL, "\"lookupJoin\": true")
+        .query(sql)
+        .explainContains("MongoJoin")
+        .returns(MongoAssertions.checkResultUnordered(expected))
+        .queryContains(ops ->
+            assertThat(ops.get(0).toString(), containsString("$lookup")));
+
+    // Without the operand, the join runs in Calcite
+    assertModel(MODEL)
+        .query(sql)
+        .returns(MongoAssertions.checkResultUnordered(expected));
+  }
+
+  /** Tests {@link MongoParallelScan} over ranges of {@code _id}. */
+  @Test void testParallelScan() {
+    final MongoCollection<Document> zips =
+        POLICY.database().getCollection("zips");
+    final List<Object> boundaries = MongoParallelScan.split(zips, 8, 10);
+    assertThat(boundaries, notNullValue());
+    assertThat(boundaries.size() > 2, is(true));
+
+    final List<Object> expected = new ArrayList<>();
+    for (Document document
+        : zips.find().projection(new Document("_id", 1))
+            .sort(new Document("_id", 1))) {
+      expected.add(document.getString("_id"));
+    }
+    assertThat(expected.size(), is(ZIPS_SIZE));
+
+    // Ranges are returned in order, so the rows are sorted by _id
+    final MongoParallelScan scan =
+        new MongoParallelScan(zips,
+            ImmutableList.of(BsonDocument.parse("{$project: {ID: '$_id'}}")),
+            boundaries, 3, 7,
+            MongoEnumerator.getter(
+                ImmutableList.of(Pair.of("ID", String.class))));
+    final List<Object> actual = new ArrayList<>();
+    try (Enumerator<Object> enumerator = scan.enumerator()) {
+      while (enumerator.moveNext()) {
+        actual.add(enumerator.current());
+      }
+    }
+    assertThat(actual, is(expected));
+
+    // A pipeline with a $group stage cannot be split
+    assertThat(
+        MongoParallelScan.canSplit(
+            ImmutableList.of(BsonDocument.parse("{$match: {state: 'CA'}}"),
+                BsonDocument.parse("{$group: {_id: '$state'}}"))),
+        is(false));
+  }
+
+  /** Tests a schema that reads collections in parallel, with a small cursor
+   * batch size. */
+  @Test void testParallelScanModel() {
+    final String sql = "select state, id from zips where pop > 20000";
+    final List<String> expected = new ArrayList<>();
+    assertModel(MODEL)
+        .query(sql)
+        .returns(resultSet -> {
+          try {
+            expected.addAll(
+                Arrays.asList(CalciteAssert.toString(resultSet).split("\n")));
+          } catch (SQLException e) {
+            throw TestUtil.rethrow(e);
+          }
+        });
+    assertModel(MODEL, "\"parallelism\": 4, \"batchSize\": 10")
+        .query(sql)
+        .returnsUnordered(expected.toArray(new String[0]));
+    assertModel(MODEL, "\"parallelism\": 4, \"batchSize\": 10")
+        .query("select state, id from zips")
+        .returnsCount(ZIPS_SIZE);
+  }
+
   @Disabled
   @Test void testFilterSort() {
     // LONGITUDE and LATITUDE are null because of CALCITE-194.
@@ -21,12 +21,21 @@
 import com.fasterxml.jackson.core.JsonParser;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.collect.ImmutableList;
+
+import org.checkerframework.checker.nullness.qual.Nullable;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
 
 import redis.clients.jedis.Jedis;
+import redis.clients.jedis.ScanParams;
+import redis.clients.jedis.ScanResult;
 
 import static java.util.Objects.requireNonNull;
 
@@ -34,6 +43,9 @@
  * The class with RedisDataProcess.
  */
 public class RedisDataProcess {
+  /** Number of values read from Redis by each command. */
+  static final int BATCH_SIZE = 1000;
+
   final String tableName;
   final String dataFormat;
   final String keyDelimiter;
@@ -59,23 +71,105 @@ public RedisDataProcess(Jedis jedis, RedisTableFieldInfo tableFieldInfo) {
         .configure(JsonParser.Feature.ALLOW_COMMENTS, true);
   }
 
+  /**
+   * Reads all rows of the table into a list.
+   *
+   * @see #iterator()
+   */
   public List<Object[]> read() {
+    final List<Object[]> rows = new ArrayList<>();
+    iterator().forEachRemaining(rows::add);
+    return rows;
+  }
+
+  /**
+   * Returns an iterator over the rows of the table, which reads values from
+   * Redis in batches of {@link #BATCH_SIZE} as the rows are consumed, so that
+   * a large key space or collection is neither fetched by one blocking
+   * command nor held in memory.
+   *
+   * <p>Keys that match the table name, and the members of a set or hash, are
+   * read by {@code SCAN}, {@code SSCAN} and {@code HSCAN}; like those
+   * commands, the iterator may return a value more than once if the
+   * collection is resized while it is read. The values of the keys in each
+   * batch are read by one {@code MGET}. Lists and sorted sets are read by
+   * ranges of indexes, in order.
+   *
+   * <p>The iterator uses the connection of this RedisDataProcess, which must
+   * not be closed until the iterator is exhausted.
+   */
+  public Iterator<Object[]> iterator() {
     switch (dataType) {
     case STRING:
-      return parse(jedis.keys(tableName));
+      if (!isPattern(tableName)) {
+        return new RowIterator() {
+          @Override List<String> fetch() {
+            done = true;
+            final String value = jedis.get(tableName);
+            return value == null ? ImmutableList.of() : ImmutableList.of(value);
+          }
+        };
+      }
+      return new CursorIterator() {
+        @Override ScanResult<String> scan(ScanParams params) {
+          return jedis.scan(cursor, params.match(tableName));
+        }
+
+        @Override List<String> values(List<String> keys) {
+          if (keys.isEmpty()) {
+            return keys;
+          }
+          final List<String> values = new ArrayList<>(keys.size());
+          for (String value : jedis.mget(keys.toArray(new String[0]))) {
+            // Null if the key was deleted after it was scanned
+            if (value != null) {
+              values.add(value);
+            }
+          }
+          return values;
+        }
+      };
     case LIST:
-      return parse(jedis.lrange(tableName, 0, -1));
+      return new RangeIterator() {
+        @Override List<String> range(long start, long end) {
+          return jedis.lrange(tableName, start, end);
+        }
+      };
     case SET:
-      return parse(jedis.smembers(tableName));
+      return new CursorIterator() {
+        @Override ScanResult<String> scan(ScanParams params) {
+          return jedis.sscan(tableName, cursor, params);
+        }
+      };
     case SORTED_SET:
-      return parse(jedis.zrange(tableName, 0, -1));
+      return new RangeIterator() {
+        @Override List<String> range(long start, long end) {
+          return new ArrayList<>(jedis.zrange(tableName, start, end));
+        }
+      };
     case HASH:
-      return parse(jedis.hvals(tableName));
+      return new CursorIterator() {
+        @Override ScanResult<String> scan(ScanParams params) {
+          final ScanResult<Map.Entry<String, String>> result =
+              jedis.hscan(tableName, cursor, params);
+          final List<String> values = new ArrayList<>();
+          for (Map.Entry<String, String> entry : result.getResult()) {
+            values.add(entry.getValue());
+          }
+          return new ScanResult<>(result.getCursor(), values);
+        }
+      };
     default:
-      return new ArrayList<>();
+      return Collections.emptyIterator();
     }
   }
 
+  /** Returns whether a table name contains the wildcards of a Redis key
+   * pattern, and so may match several keys. */
+  private static boolean isPattern(String tableName) {
+    return StringUtils.containsAny(tableName, '*', '?', '[', '\\');
+  }
+
   private Object[] parseJson(String value) {
     assert StringUtils.isNotEmpty(value);
     Object[] arr = new Object[fields.size()];
@@ -113,43 +207,104 @@ List<Object[]> parse(Iterable<String> keys) {
       if (dataType == RedisDataType.STRING) {
         key = jedis.get(key);
       }
-      switch (redisDataFormat) {
-      case RAW:
-        objects.add(new Object[]{key});
-        break;
-      case JSON:
-        objects.add(parseJson(key));
-        break;
-      case CSV:
-        objects.add(parseCsv(key));
-        break;
-      default:
-        break;
+      final Object[] row = parseValue(key);
+      if (row != null) {
+        objects.add(row);
       }
     }
     return objects;
   }
 
   public List<Object[]> parse(List<String> keys) {
-    List<Object[]> objects = new ArrayList<>();
-    for (String key : keys) {
-      if (dataType == RedisDataType.STRING) {
-        key = jedis.get(key);
+    return parse((Iterable<String>) keys);
+  }
+
+  /** Converts a value to a row, according to the data format of the
+   * table. */
+  private Object @Nullable [] parseValue(String value) {
+    switch (redisDataFormat) {
+    case RAW:
+      return new Object[]{value};
+    case JSON:
+      return parseJson(value);
+    case CSV:
+      return parseCsv(value);
+    default:
+      return null;
+    }
+  }
+
+  /** Iterator over the rows of the values of a table, which are read in
+   * batches. */
+  private abstract class RowIterator implements Iterator<Object[]> {
+    /** Whether the last batch has been read. */
+    boolean done;
+    private List<String> values = ImmutableList.of();
+    private int index;
+    private Object @Nullable [] next;
+
+    /** Reads the next batch of values, and sets {@link #done} if it is the
+     * last. A batch may be empty even if it is not the last. */
+    abstract List<String> fetch();
+
+    @Override public boolean hasNext() {
+      while (next == null) {
+        if (index < values.size()) {
+          next = parseValue(values.get(index++));
+        } else if (done) {
+          return false;
+        } else {
+          values = fetch();
+          index = 0;
+        }
       }
-      switch (redisDataFormat) {
-      case RAW:
-        objects.add(new Object[]{key});
-        break;
-      case JSON:
-        objects.add(parseJson(key));
-        break;
-      case CSV:
-        objects.add(parseCsv(key));
-        break;
-      default:
-        break;
+      return true;
+    }
+
+    @Override public Object[] next() {
+      if (!hasNext()) {
+        throw new NoSuchElementException();
       }
+      final Object[] row = requireNonNull(next, "next");
+      next = null;
+      return row;
+    }
+  }
+
+  /** Iterator that reads values by a Redis cursor. */
+  private abstract class CursorIterator extends RowIterator {
+    String cursor = ScanParams.SCAN_POINTER_START;
+
+    /** Reads the batch at {@link #cursor}. */
+    abstract ScanResult<String> scan(ScanParams params);
+
+    /** Converts the elements returned by a scan to values. */
+    List<String> values(List<String> elements) {
+      return elements;
+    }
+
+    @Override List<String> fetch() {
+      final ScanResult<String> result =
+          scan(new ScanParams().count(BATCH_SIZE));
+      cursor = result.getCursor();
+      done = cursor.equals(ScanParams.SCAN_POINTER_START);
+      return values(result.getResult());
+    }
+  }
+
+  /** Iterator that reads values by ranges of indexes. */
+  private abstract class RangeIterator extends RowIterator {
+    private long start;
+
+    /** Reads the values whose indexes are between {@code start} and
+     * {@code end}, inclusive. */
+    abstract List<String> range(long start, long end);
+
+    @Override List<String> fetch() {
+      final List<String> values = range(start, start + BATCH_SIZE - 1);
+      start += BATCH_SIZE;
+      done = values.size() < BATCH_SIZE;
+      return values;
     }
-    return objects;
   }
 }
@@ -17,12 +17,13 @@
 package org.apache.calcite.adapter.redis;
 
 import org.apache.calcite.linq4j.Enumerator;
-import org.apache.calcite.linq4j.Linq4j;
 
 import org.apache.commons.lang3.StringUtils;
 
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+import java.util.Iterator;
 import java.util.LinkedHashMap;
-import java.util.List;
 import java.util.Map;
 
 import redis.clients.jedis.Jedis;
@@ -33,22 +34,30 @@
  * Implementation of {@link RedisEnumerator}.
  */
 class RedisEnumerator implements Enumerator<Object[]> {
-  private final Enumerator<Object[]> enumerator;
+  private final RedisJedisManager redisManager;
+  private final Jedis jedis;
+  private final Iterator<Object[]> iterator;
+  private Object @Nullable [] current;
 
   RedisEnumerator(RedisConfig redisConfig, RedisSchema schema, String tableName) {
     RedisTableFieldInfo tableFieldInfo = schema.getTableFieldInfo(tableName);
 
-    RedisJedisManager redisManager =
+    redisManager =
         new RedisJedisManager(redisConfig.getHost(), redisConfig.getPort(),
             redisConfig.getDatabase(), redisConfig.getPassword());
 
-    try (Jedis jedis = redisManager.getResource()) {
+    // The connection is held until the enumerator is closed, because rows
+    // are read from Redis as they are consumed.
+    jedis = redisManager.getResource();
+    try {
       if (StringUtils.isNotEmpty(redisConfig.getPassword())) {
         jedis.auth(redisConfig.getPassword());
       }
       RedisDataProcess dataProcess = new RedisDataProcess(jedis, tableFieldInfo);
-      List<Object[]> objs = dataProcess.read();
-      enumerator = Linq4j.enumerator(objs);
+      iterator = dataProcess.iterator();
+    } catch (RuntimeException e) {
+      close();
+      throw e;
     }
   }
 
@@ -68,18 +77,24 @@ static Map<String, Object> deduceRowType(RedisTableFieldInfo tableFieldInfo) {
   }
 
   @Override public Object[] current() {
-    return enumerator.current();
+    return requireNonNull(current, "current");
   }
 
   @Override public boolean moveNext() {
-    return enumerator.moveNext();
+    if (!iterator.hasNext()) {
+      current = null;
+      return false;
+    }
+    current = iterator.next();
+    return true;
   }
 
   @Override public void reset() {
-    enumerator.reset();
+    throw new UnsupportedOperationException();
   }
 
   @Override public void close() {
-    enumerator.close();
+    jedis.close();
+    redisManager.close();
   }
 }
@@ -31,6 +31,7 @@
 import java.util.HashMap;
 import java.util.Map;
 
+import redis.clients.jedis.Jedis;
 import redis.clients.jedis.Protocol;
 
 import static org.junit.jupiter.api.Assertions.assertNotNull;
@@ -118,6 +119,29 @@ private void readModelByJson() {
     });
   }
 
+  /** Tests collections larger than {@link RedisDataProcess#BATCH_SIZE},
+   * which are read in several batches. */
+  @Test void testLargeCollections() {
+    final int n = RedisDataProcess.BATCH_SIZE * 2 + 500;
+    try (Jedis jedis = new Jedis(getRedisServerHost(), getRedisServerPort())) {
+      final Map<String, String> hash = new HashMap<>();
+      for (int i = 0; i < n; i++) {
+        jedis.rpush("raw_02", "v" + i);
+        jedis.sadd("raw_03", "v" + i);
+        jedis.zadd("raw_04", 100 + i, "v" + i);
+        hash.put("k" + i, "v" + i);
+      }
+      jedis.hmset("raw_05", hash);
+    }
+    for (String table : new String[] {"raw_02", "raw_03", "raw_04", "raw_05"}) {
+      sql("Select count(*) as c from \"" + table + "\"")
+          .returnsUnordered("C=" + (n + 2));
+    }
+    // Sorted sets are read in order of score
+    sql("Select \"key\" from \"raw_04\" offset 2501 rows")
+        .returnsOrdered("key=v2499");
+  }
+
   @Test void testSqlWithJoin() {
     String sql = "Select a.DEPTNO, b.NAME "
         + "from \"csv_01\" a left join \"json_02\" b "